@@ -0,0 +1,13 @@
+plugins {
+    id("luau.java-benchmark")
+}
+
+dependencies {
+    implementation(project(":"))
+    implementation(project(":native"))
+}
+
+jmh {
+    // Narrow a run with -Pjmh.includes=<regex>, eg. -Pjmh.includes=StackBenchmark
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
@@ -0,0 +1,66 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaAlloc;
+import net.hollowcube.luau.LuaState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// An allocation heavy script on a state with [LuaAlloc#slab()] against the system
+/// allocator `luaL_newstate` uses.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocBenchmark {
+    public enum Allocator {
+        DEFAULT,
+        SLAB;
+
+        LuaState newState() {
+            return this == SLAB ? LuaState.newState(LuaAlloc.slab()) : LuaState.newState();
+        }
+    }
+
+    @Param
+    Allocator allocator;
+
+    LuaState state;
+
+    @Setup
+    public void setup() {
+        state = allocator.newState();
+        state.openLibs();
+        BenchmarkSupport.eval(state, """
+                function churn()
+                    for i = 1, 100 do
+                        local t = {}
+                        for j = 1, 32 do t[j] = { j } end
+                        local s = table.concat({ "a", tostring(i) }, ",")
+                    end
+                end
+                """);
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void churn() {
+        state.getGlobal("churn");
+        state.call(0, 0);
+    }
+
+    /// Creating and closing a whole state, whose heap is mostly fresh pages.
+    @Benchmark
+    public void newState() {
+        final LuaState fresh = allocator.newState();
+        fresh.openLibs();
+        fresh.close();
+    }
+}
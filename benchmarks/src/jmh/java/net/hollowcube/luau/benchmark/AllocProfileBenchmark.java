@@ -0,0 +1,53 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// The overhead of [LuaState#startAllocProfile(long)] on an allocation heavy script, by
+/// sampling interval, where 0 is not sampling.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocProfileBenchmark {
+    @Param({"0", "4096", "65536"})
+    long interval;
+
+    LuaState state;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+        BenchmarkSupport.eval(state, """
+                function churn()
+                    for i = 1, 100 do
+                        local t = {}
+                        for j = 1, 32 do t[j] = { j } end
+                    end
+                end
+                """);
+        if (interval > 0) state.startAllocProfile(interval);
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void churn() {
+        state.getGlobal("churn");
+        state.call(0, 0);
+    }
+
+    /// Exporting the report, as a periodic reporter would, without clearing it.
+    @Benchmark
+    public String dump() {
+        return state.dumpAllocProfile(false);
+    }
+}
@@ -0,0 +1,26 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaState;
+import net.hollowcube.luau.compiler.LuauCompileException;
+import net.hollowcube.luau.compiler.LuauCompiler;
+
+final class BenchmarkSupport {
+
+    /// Compiles and loads `source`, leaving the chunk on the stack.
+    static void load(LuaState state, String source) {
+        try {
+            state.load("bench.luau", LuauCompiler.DEFAULT.compile(source));
+        } catch (LuauCompileException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /// Runs `source` to completion, for setting up globals.
+    static void eval(LuaState state, String source) {
+        load(state, source);
+        state.call(0, 0);
+    }
+
+    private BenchmarkSupport() {
+    }
+}
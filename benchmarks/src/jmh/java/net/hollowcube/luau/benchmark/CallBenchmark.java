@@ -0,0 +1,187 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaAtomTable;
+import net.hollowcube.luau.LuaError;
+import net.hollowcube.luau.LuaFunc;
+import net.hollowcube.luau.LuaState;
+import net.hollowcube.luau.NameCallDispatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.foreign.Arena;
+import java.util.concurrent.TimeUnit;
+
+/// Calls across the bridge in both directions: Java into Lua through [LuaState#call], and
+/// Lua into Java through the `luaW_dispatch` trampoline and a [LuaFunc] upcall.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallBenchmark {
+    private static final int LOOP_CALLS = 100;
+
+    @Param
+    VmMode mode;
+
+    LuaState state;
+    LuaFunc add;
+    LuaFunc addPrimitive;
+    NameCallDispatcher methods;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+        mode.enable(state);
+        state.openLibs();
+
+        add = LuaFunc.wrap(s -> {
+            s.pushNumber(s.checkNumber(1) + s.checkNumber(2));
+            return 1;
+        }, "add");
+        state.pushFunction(add);
+        state.setGlobal("add");
+
+        addPrimitive = LuaFunc.wrapDoubleBinary(Double::sum, "addPrimitive");
+        state.pushFunction(addPrimitive);
+        state.setGlobal("addPrimitive");
+
+        // Installed before loading so that the method names in the chunk get atoms.
+        final LuaAtomTable atoms = LuaAtomTable.create();
+        methods = NameCallDispatcher.builder(atoms)
+                .method("add", s -> {
+                    s.pushNumber(s.checkNumber(2) + s.checkNumber(3));
+                    return 1;
+                })
+                .build("Calculator");
+        state.callbacks().userAtom(atoms.userAtom(Arena.global()));
+        state.newUserData(new Object());
+        state.newTable();
+        state.pushFunction(methods.nameCall());
+        state.setField(-2, "__namecall");
+        state.setMetaTable(-2);
+        state.setGlobal("calculator");
+
+        BenchmarkSupport.load(state, """
+            function noop() end
+            function fail() error("benchmark") end
+            function callJava(n)
+                local acc = 0
+                for i = 1, n do
+                    acc = add(acc, i)
+                end
+                return acc
+            end
+            function callPrimitive(n)
+                local acc = 0
+                for i = 1, n do
+                    acc = addPrimitive(acc, i)
+                end
+                return acc
+            end
+            function callMethod(n)
+                local acc = 0
+                for i = 1, n do
+                    acc = calculator:add(acc, i)
+                end
+                return acc
+            end
+            function sum(n)
+                local acc = 0
+                for i = 1, n do
+                    acc += i * 2
+                end
+                return acc
+            end
+            """);
+        mode.prepare(state);
+        state.call(0, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+        add.close();
+        addPrimitive.close();
+        methods.close();
+    }
+
+    @Benchmark
+    public void callLua() {
+        state.getGlobal("noop");
+        state.call(0, 0);
+    }
+
+    @Benchmark
+    public LuaError callLuaError() {
+        state.getGlobal("fail");
+        try {
+            state.call(0, 0);
+            throw new AssertionError("fail() did not raise");
+        } catch (LuaError e) {
+            return e;
+        }
+    }
+
+    /// A Java closure called directly from Java, so a pcall plus a single upcall.
+    @Benchmark
+    public double callJava() {
+        state.pushFunction(add);
+        state.pushNumber(1);
+        state.pushNumber(2);
+        state.call(2, 1);
+        final double result = state.toNumber(-1);
+        state.pop(1);
+        return result;
+    }
+
+    /// Lua calling a Java closure in a loop, which is dominated by upcall dispatch and
+    /// the argument reads inside it.
+    @Benchmark
+    @OperationsPerInvocation(LOOP_CALLS)
+    public double luaCallsJava() {
+        state.getGlobal("callJava");
+        state.pushInteger(LOOP_CALLS);
+        state.call(1, 1);
+        final double result = state.toNumber(-1);
+        state.pop(1);
+        return result;
+    }
+
+    /// [#luaCallsJava] through a signature-specialised trampoline, which reads the arguments
+    /// and pushes the result natively.
+    @Benchmark
+    @OperationsPerInvocation(LOOP_CALLS)
+    public double luaCallsPrimitive() {
+        state.getGlobal("callPrimitive");
+        state.pushInteger(LOOP_CALLS);
+        state.call(1, 1);
+        final double result = state.toNumber(-1);
+        state.pop(1);
+        return result;
+    }
+
+    /// [#luaCallsJava] as a method call on userdata, dispatched by [NameCallDispatcher].
+    @Benchmark
+    @OperationsPerInvocation(LOOP_CALLS)
+    public double luaCallsMethod() {
+        state.getGlobal("callMethod");
+        state.pushInteger(LOOP_CALLS);
+        state.call(1, 1);
+        final double result = state.toNumber(-1);
+        state.pop(1);
+        return result;
+    }
+
+    /// Pure Lua arithmetic, as a baseline for comparing the execution modes.
+    @Benchmark
+    @OperationsPerInvocation(LOOP_CALLS)
+    public double luaLoop() {
+        state.getGlobal("sum");
+        state.pushInteger(LOOP_CALLS);
+        state.call(1, 1);
+        final double result = state.toNumber(-1);
+        state.pop(1);
+        return result;
+    }
+}
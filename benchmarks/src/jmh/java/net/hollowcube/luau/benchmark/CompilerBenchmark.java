@@ -0,0 +1,44 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.compiler.LuauCompileException;
+import net.hollowcube.luau.compiler.LuauCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilerBenchmark {
+    private static final String FUNCTION = """
+        local function fib%1$d(n: number): number
+            if n < 2 then return n end
+            local a, b = 0, 1
+            for i = 2, n do
+                a, b = b, a + b
+            end
+            return b
+        end
+        exports[%1$d] = fib%1$d
+        """;
+
+    @Param({"1", "100"})
+    int functions;
+
+    String source;
+
+    @Setup
+    public void setup() {
+        final StringBuilder sb = new StringBuilder("local exports = {}\n");
+        for (int i = 0; i < functions; i++) sb.append(FUNCTION.formatted(i));
+        source = sb.append("return exports\n").toString();
+    }
+
+    @Benchmark
+    public byte[] compile() throws LuauCompileException {
+        return LuauCompiler.DEFAULT.compile(source);
+    }
+}
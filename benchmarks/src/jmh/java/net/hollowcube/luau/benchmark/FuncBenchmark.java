@@ -0,0 +1,65 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaFunc;
+import net.hollowcube.luau.LuaState;
+import net.hollowcube.luau.internal.vm.lua_CFunction;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/// The cost of creating and releasing a [LuaFunc], which registers a handle with the shared
+/// dispatcher, against allocating an upcall stub (and the arena to free it) per function.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuncBenchmark {
+    private static final int FUNCTIONS = 1000;
+    private static final ToIntFunction<LuaState> IMPL = _ -> 0;
+
+    LuaState state;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    public void wrapAndClose() {
+        LuaFunc.wrap(IMPL, "f").close();
+    }
+
+    /// What [LuaFunc#wrap] did before functions shared a dispatcher.
+    @Benchmark
+    public MemorySegment upcallStubPerFunction() {
+        try (Arena arena = Arena.ofShared()) {
+            arena.allocateFrom("f");
+            return lua_CFunction.allocate(_ -> 0, arena);
+        }
+    }
+
+    /// Registers a batch of functions with a state, as a library binding would.
+    @Benchmark
+    @OperationsPerInvocation(FUNCTIONS)
+    public void registerFunctions() {
+        final LuaFunc[] funcs = new LuaFunc[FUNCTIONS];
+        state.newTable();
+        for (int i = 0; i < FUNCTIONS; i++) {
+            funcs[i] = LuaFunc.wrap(IMPL, "f");
+            state.pushFunction(funcs[i]);
+            state.rawSetI(-2, i + 1);
+        }
+        state.pop(1);
+        for (LuaFunc func : funcs) func.close();
+    }
+}
@@ -0,0 +1,60 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaState;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.concurrent.TimeUnit;
+
+import static net.hollowcube.luau.internal.vm.lua_h.lua_tonumberx;
+
+/// Compares the two ways of providing an out-parameter to a downcall: a confined arena per
+/// call, which is what the `OrNull` and `check` methods used to do, against the thread
+/// local scratch segment they use now. Run with `-prof gc` to see the allocation difference.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutParamBenchmark {
+    private static final ThreadLocal<MemorySegment> SCRATCH = ThreadLocal.withInitial(
+            () -> Arena.ofAuto().allocate(ValueLayout.JAVA_LONG));
+
+    LuaState state;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+        state.pushNumber(42.5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    public double confinedArena() {
+        try (Arena arena = Arena.ofConfined()) {
+            final MemorySegment isNum = arena.allocate(ValueLayout.JAVA_INT);
+            final double value = lua_tonumberx(state.L(), -1, isNum);
+            return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? value : -1;
+        }
+    }
+
+    @Benchmark
+    public double threadLocalScratch() {
+        final MemorySegment isNum = SCRATCH.get();
+        final double value = lua_tonumberx(state.L(), -1, isNum);
+        return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? value : -1;
+    }
+
+    /// The public API end to end, for comparison with the two above.
+    @Benchmark
+    public double checkNumber() {
+        return state.checkNumber(-1);
+    }
+}
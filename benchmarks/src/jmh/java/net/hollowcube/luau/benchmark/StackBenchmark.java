@@ -0,0 +1,163 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaState;
+import net.hollowcube.luau.LuaStringCache;
+import net.hollowcube.luau.LuaType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/// Push and read back a single value, the unit of work behind every argument check and
+/// return value in a Java closure. Each benchmark leaves the stack as it found it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackBenchmark {
+
+    @Param({"8", "1024"})
+    int stringLength;
+
+    LuaState state;
+    String string;
+    byte[] bytes;
+    ByteBuffer direct;
+    LuaStringCache cache;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+        string = "x".repeat(stringLength);
+        bytes = string.getBytes(StandardCharsets.UTF_8);
+        direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        cache = LuaStringCache.create(64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    public int top() {
+        return state.top();
+    }
+
+    @Benchmark
+    public LuaType type() {
+        state.pushNumber(1);
+        final LuaType type = state.type(-1);
+        state.pop(1);
+        return type;
+    }
+
+    @Benchmark
+    public boolean pushToBoolean() {
+        state.pushBoolean(true);
+        final boolean value = state.toBoolean(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public double pushToNumber() {
+        state.pushNumber(42.5);
+        final double value = state.toNumber(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public Double pushToNumberOrNull() {
+        state.pushNumber(42.5);
+        final Double value = state.toNumberOrNull(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public int pushToInteger() {
+        state.pushInteger(42);
+        final int value = state.toInteger(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public long pushToInteger64() {
+        state.pushInteger64(42L);
+        final long value = state.toInteger64(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public double checkNumber() {
+        state.pushNumber(42.5);
+        final double value = state.checkNumber(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public void pushString() {
+        state.pushString(string);
+        state.pop(1);
+    }
+
+    @Benchmark
+    public String pushToString() {
+        state.pushString(string);
+        final String value = state.toString(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public void pushToStringAtom(Blackhole bh) {
+        state.pushString(string);
+        bh.consume(state.toStringAtomRaw(-1));
+        state.pop(1);
+    }
+
+    @Benchmark
+    public void pushStringBytes() {
+        state.pushString(bytes);
+        state.pop(1);
+    }
+
+    @Benchmark
+    public void pushStringDirect() {
+        state.pushString(direct);
+        state.pop(1);
+    }
+
+    @Benchmark
+    public byte[] pushToStringBytes() {
+        state.pushString(direct);
+        final byte[] value = state.toStringBytes(-1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public char pushToCharSequence() {
+        state.pushString(direct);
+        final char value = state.toCharSequence(-1).charAt(stringLength - 1);
+        state.pop(1);
+        return value;
+    }
+
+    @Benchmark
+    public String pushToStringCached() {
+        state.pushString(bytes);
+        final String value = cache.toString(state, -1);
+        state.pop(1);
+        return value;
+    }
+}
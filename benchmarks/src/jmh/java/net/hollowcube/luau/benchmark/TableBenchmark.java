@@ -0,0 +1,117 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaKey;
+import net.hollowcube.luau.LuaState;
+import net.hollowcube.luau.LuaType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Table reads and writes against a table held at stack index 1.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+    private static final int TABLE = 1;
+    private static final LuaKey FIELD = LuaKey.of("field");
+    private static final LuaKey GLOBAL = LuaKey.of("global");
+
+    LuaState state;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+        state.createTable(16, 4);
+        state.pushNumber(1);
+        state.setField(TABLE, "field");
+        state.pushNumber(1);
+        state.rawSetI(TABLE, 1);
+        state.pushNumber(1);
+        state.setGlobal("global");
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    public LuaType getField() {
+        final LuaType type = state.getField(TABLE, "field");
+        state.pop(1);
+        return type;
+    }
+
+    @Benchmark
+    public void setField() {
+        state.pushNumber(2);
+        state.setField(TABLE, "field");
+    }
+
+    @Benchmark
+    public LuaType getFieldKey() {
+        final LuaType type = state.getField(TABLE, FIELD);
+        state.pop(1);
+        return type;
+    }
+
+    @Benchmark
+    public void setFieldKey() {
+        state.pushNumber(2);
+        state.setField(TABLE, FIELD);
+    }
+
+    @Benchmark
+    public LuaType rawGetField() {
+        final LuaType type = state.rawGetField(TABLE, "field");
+        state.pop(1);
+        return type;
+    }
+
+    @Benchmark
+    public void rawSetField() {
+        state.pushNumber(2);
+        state.rawSetField(TABLE, "field");
+    }
+
+    @Benchmark
+    public LuaType rawGetFieldKey() {
+        final LuaType type = state.rawGetField(TABLE, FIELD);
+        state.pop(1);
+        return type;
+    }
+
+    @Benchmark
+    public void rawSetFieldKey() {
+        state.pushNumber(2);
+        state.rawSetField(TABLE, FIELD);
+    }
+
+    @Benchmark
+    public LuaType rawGetI() {
+        final LuaType type = state.rawGetI(TABLE, 1);
+        state.pop(1);
+        return type;
+    }
+
+    @Benchmark
+    public void rawSetI() {
+        state.pushNumber(2);
+        state.rawSetI(TABLE, 1);
+    }
+
+    @Benchmark
+    public void getGlobal() {
+        state.getGlobal("global");
+        state.pop(1);
+    }
+
+    @Benchmark
+    public void getGlobalKey() {
+        state.getGlobal(GLOBAL);
+        state.pop(1);
+    }
+}
@@ -0,0 +1,55 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaGcOp;
+import net.hollowcube.luau.LuaState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/// Thread data reads, as a scheduler makes on every resume, and the cost of a coroutine's
+/// creation and collection when no userthread handler is set.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreadDataBenchmark {
+    private static final int THREADS = 1000;
+
+    LuaState state;
+    LuaState thread;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+        thread = state.newThread();
+        thread.setThreadData(new Object());
+        thread.setThreadLong(0, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    public Object getThreadData() {
+        return thread.getThreadData();
+    }
+
+    @Benchmark
+    public long getThreadLong() {
+        return thread.getThreadLong(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(THREADS)
+    public void createAndCollectThreads() {
+        for (int i = 0; i < THREADS; i++) {
+            state.newThread().setThreadLong(0, i);
+            state.pop(1);
+        }
+        state.gc(LuaGcOp.COLLECT, 0);
+    }
+}
@@ -0,0 +1,90 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaGcOp;
+import net.hollowcube.luau.LuaState;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+
+/// Userdata creation, access, and collection. Collection is where the destructor upcall
+/// runs, so [#createAndCollect] covers the full lifetime of a boxed Java object.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDataBenchmark {
+    private static final int BATCH = 1000;
+    private static final int TAG = 1;
+    private static final int STRUCT_TAG = 2;
+    private static final StructLayout POSITION = MemoryLayout.structLayout(
+            ValueLayout.JAVA_DOUBLE.withName("x"),
+            ValueLayout.JAVA_DOUBLE.withName("y"),
+            ValueLayout.JAVA_DOUBLE.withName("z"));
+    private static final VarHandle X = POSITION.varHandle(MemoryLayout.PathElement.groupElement("x"));
+
+    LuaState state;
+    Object value;
+
+    @Setup
+    public void setup() {
+        state = LuaState.newState();
+        state.registerStructTag(STRUCT_TAG);
+        value = new Object();
+        state.newUserDataTagged(value, TAG);
+    }
+
+    @TearDown
+    public void tearDown() {
+        state.close();
+    }
+
+    @Benchmark
+    public Object toUserData() {
+        return state.toUserData(-1);
+    }
+
+    @Benchmark
+    public Object checkUserDataTagged() {
+        return state.checkUserDataTagged(-1, TAG);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createAndCollect() {
+        for (int i = 0; i < BATCH; i++) {
+            state.newUserData(value);
+            state.pop(1);
+        }
+        state.gc(LuaGcOp.COLLECT, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createTaggedAndCollect() {
+        for (int i = 0; i < BATCH; i++) {
+            state.newUserDataTagged(value, TAG);
+            state.pop(1);
+        }
+        state.gc(LuaGcOp.COLLECT, 0);
+    }
+
+    /// The [#createTaggedAndCollect] equivalent for a value type kept inline on the Lua heap:
+    /// no Java object, no handle, and no destructor upcall on collection.
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createStructAndCollect() {
+        for (int i = 0; i < BATCH; i++) {
+            final MemorySegment position = state.newUserDataStruct(POSITION, STRUCT_TAG);
+            X.set(position, 0L, (double) i);
+            state.pop(1);
+        }
+        state.gc(LuaGcOp.COLLECT, 0);
+    }
+}
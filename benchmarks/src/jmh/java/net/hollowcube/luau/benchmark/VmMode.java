@@ -0,0 +1,29 @@
+package net.hollowcube.luau.benchmark;
+
+import net.hollowcube.luau.LuaState;
+
+/// The three ways a state can execute bytecode, so script benchmarks can be compared
+/// across them with a single `@Param`.
+public enum VmMode {
+    INTERPRETER,
+    INLINER,
+    CODEGEN;
+
+    /// Must be called on a fresh main thread, before anything is loaded.
+    public void enable(LuaState state) {
+        switch (this) {
+            case INTERPRETER -> {}
+            case INLINER -> state.jitInlinerCreate();
+            case CODEGEN -> {
+                if (!LuaState.codegenSupported())
+                    throw new IllegalStateException("codegen is not supported on this platform");
+                state.codegenCreate();
+            }
+        }
+    }
+
+    /// Called with a freshly loaded chunk at -1.
+    public void prepare(LuaState state) {
+        if (this == CODEGEN) state.codegenCompile(-1);
+    }
+}
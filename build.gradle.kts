@@ -9,6 +9,7 @@ description = "Java bindings for Luau"
 
 dependencies {
     testImplementation(project(":native"))
+    testAnnotationProcessor(project(":processor"))
 }
 
 sourceSets {
@@ -48,8 +49,10 @@ nmcpAggregation {
 }
 
 dependencies {
-    if (System.getenv("LUAU_PUBLISH_ROOT") != null)
+    if (System.getenv("LUAU_PUBLISH_ROOT") != null) {
         nmcpAggregation(rootProject)
+        nmcpAggregation(project(":processor"))
+    }
     if (System.getenv("LUAU_PUBLISH_NATIVES") != null)
         nmcpAggregation(project(":native"))
 }
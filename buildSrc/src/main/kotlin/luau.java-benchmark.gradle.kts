@@ -0,0 +1,30 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    mavenCentral()
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(25)
+        vendor = JvmVendorSpec.GRAAL_VM
+    }
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+
+    // Allocation rate matters as much as throughput for the bridge, since an arena or a
+    // boxed value left on a hot path shows up in -prof gc long before it shows in ops/s.
+    profilers.add("gc")
+    resultFormat = "JSON"
+
+    jvmArgsAppend.add("--enable-native-access=ALL-UNNAMED")
+}
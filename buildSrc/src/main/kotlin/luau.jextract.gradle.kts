@@ -37,6 +37,8 @@ tasks.named<JextractTask>("jextract") {
         structs.addAll("lua_CompileOptions")
     }
 
+    // jextract cannot emit Linker.Option.critical, so the non-raising subset of these is
+    // relinked by hand in net.hollowcube.luau.CriticalDowncalls (checked by its test).
     header("$nativeBuild/VM/include/lua.h") {
         targetPackage = "net.hollowcube.luau.internal.vm"
 
@@ -112,22 +114,34 @@ tasks.named<JextractTask>("jextract") {
         targetPackage = "net.hollowcube.luau.internal.vm"
         includes.add("$nativeBuild/VM/include")
 
+        constants.addAll("LUAW_THREAD_SLOTS", "LUAW_ALLOCPROFILE_DEPTH")
         structs.addAll("luaW_userdata")
+        typedefs.addAll(
+            "luaW_JavaFunction", "luaW_JavaContinuation",
+            "luaW_DoubleUnary", "luaW_DoubleBinary", "luaW_IntConsumer", "luaW_LongBinary",
+            "luaW_FreeHandles",
+        )
         functions.addAll(
-            "luaW_getstatus", "luaW_setflagsdefault", "luaW_isjavaframe",
-            "luaW_codegen_compile", "luaW_isinlined",
+            "luaW_getstatus", "luaW_setflagsdefault", "luaW_isjavaframe", "luaW_backtrace",
+            "luaW_startallocprofile", "luaW_stopallocprofile", "luaW_dumpallocprofile",
+            "luaW_codegen_compile", "luaW_isinlined", "luaW_layout",
 
-            "luaW_newstate", "luaW_newthread", "luaW_resetthread",
+            "luaW_newstate", "luaW_newslabstate", "luaW_slabstats", "luaW_close", "luaW_newthread", "luaW_resetthread",
             "lua_xmove", "lua_xpush", "luaW_equal",
             "luaW_tolstring", "luaW_tolstringatom", "luaW_namecallatom",
-            "luaW_objlen", "luaW_pushlstring", "luaW_pushcclosurek",
+            "luaW_objlen", "luaW_pushlstring", "luaW_pushcclosurek", "luaW_pushprimitiveclosure",
+            "luaW_setdispatcher",
             "luaW_newuserdatatagged", "luaW_newuserdatataggedwithmetatable",
-            "luaW_newuserdatadtor", "luaW_newbuffer", "luaW_gettable",
+            "luaW_newuserdatadtor", "luaW_setfreehandler", "luaW_freehandle", "luaW_freehandletagged",
+            "luaW_newuserdatahandle", "luaW_gc", "luaW_newuserdataexternal", "luaW_newuserdatastruct", "luaW_registerstructtag", "luaW_newbuffer", "luaW_gettable",
             "luaW_getfield", "luaW_createtable", "luaW_settable",
             "luaW_setfield", "luaW_rawsetfield", "luaW_rawset",
             "luaW_rawseti", "luaW_rawsetptagged", "luaW_setmetatable",
             "luaW_pcallyieldable",
-            "luaW_yield", "luaW_break", "luaW_next",
+            "luaW_pcall", "luaW_yield", "luaW_break", "luaW_resume",
+            "luaW_newthreaddata", "luaW_freethreaddata", "luaW_userthread",
+            "luaW_setmemcat", "luaW_setmemlimit", "luaW_memcatbytes", "luaW_mempeaks",
+            "luaW_adjustexternalmemory", "luaW_clearexternalmemory", "luaW_next",
             "luaW_concat", "luaW_setlightuserdataname",
             "luaW_clonefunction", "luaW_cleartable", "luaW_clonetable",
             "luaLW_newmetatable", "luaLW_tolstring", "luaLW_findtable",
@@ -136,7 +150,8 @@ tasks.named<JextractTask>("jextract") {
             "luaLW_checkudatatagged",
 
             "luaW_assertconf_log", "luaW_assertconf_dump",
-            "luaW_interrupt_preempt_handler"
+            "luaW_interrupt_preempt_handler", "luaW_monotonicnanos",
+            "luaW_newatomtable", "luaW_freeatomtable", "luaW_useratom"
         )
     }
 }
@@ -4,8 +4,13 @@
 //  * `luaW_*` barrier wrappers around every lua_* / luaL_* API which may raise. Luau
 //    is built with LUA_USE_LONGJMP (implied by LUAU_EXTERN_C), so a raise inside an
 //    API called directly from Java would longjmp over the FFM downcall stub. Each
-//    wrapper installs its own jump target; Java reads `luaW_getstatus` afterwards and
-//    rethrows on the Java side.
+//    wrapper installs its own jump target and reports how it went, so Java can rethrow
+//    on the Java side without a second downcall:
+//      - wrappers of void APIs return the status (LUA_OK if nothing was raised),
+//      - wrappers of int APIs whose result is never negative return -status instead of
+//        the result if something was raised,
+//      - everything else (pointer results, yield/break) leaves it in `luaW_getstatus`.
+//        Pointer wrappers return NULL when they raise, so Java only needs to ask then.
 //  * `luaW_dispatch`, a native trampoline registered as the lua_CFunction for every
 //    Java closure. Java callbacks may not raise directly (that would longjmp over the
 //    FFM upcall stub), so they return a sentinel (-100 - status) and the trampoline
@@ -30,6 +35,22 @@ struct luaW_userdata
 {
     void* javadata;
     int (*preempt)(lua_State* L, int gc); // nullable
+    int errfunc; // registry ref of the luaW_pcall error handler, or 0 (LUA_REFNIL) for none
+    void (*userthread)(lua_State* LP, lua_State* L); // nullable, forwarded to by luaW_userthread
+    // Native preemption policy of luaW_interrupt_preempt_handler, written by Java. Each
+    // trigger fires once and is disarmed when it does. Apart from preemptstop the fields
+    // are plain, and only written from the thread running the state.
+    int preemptpolicy; // nonzero to preempt only when a trigger fires, rather than asking preempt at every safepoint
+    int preemptstop; // set from any thread, read and cleared atomically
+    int preemptaction; // LUAW_PREEMPT_YIELD or LUAW_PREEMPT_ERROR, taken when preempt is NULL
+    long long preemptdeadline; // luaW_monotonicnanos deadline, or 0 for none
+    long long preemptbudget; // safepoints left before preempting, or 0 for none
+    void* atoms; // luaW_newatomtable table read by luaW_useratom, nullable
+    void* allocprofile; // luaW_startallocprofile sampler, nullable
+    long long* freed; // handles queued by luaW_freehandle, for luaW_FreeHandles; nullable
+    int freedcount;
+    unsigned char tagkinds[LUA_UTAG_LIMIT]; // LUAW_TAG_* each userdata tag has been used as, or 0
+    long long externalbytes[LUA_MEMORY_CATEGORIES]; // luaW_adjustexternalmemory totals
 };
 
 // Attempts to compile the function at idx, returning the CodeGenCompilationResult
@@ -39,15 +60,57 @@ LUA_API int luaW_codegen_compile(lua_State* L, int idx);
 // only - inlining is otherwise transparent, and this reaches into VM internals.
 LUA_API int luaW_isinlined(lua_State* L, int idx);
 
+// VM struct layout, exported so Java can answer trivial stack queries (gettop, type,
+// toboolean, tonumber of a number, ...) by reading lua_State::top/base and TValue
+// directly instead of making a downcall. Java refuses the layout, and falls back to
+// the lua_* API, unless LUAW_LAYOUT_VERSION matches the version it was written for.
+#define LUAW_LAYOUT_VERSION 2
+
+enum luaW_LayoutField
+{
+    LUAW_LAYOUT_FIELD_VERSION = 0,
+    LUAW_LAYOUT_FIELD_STATE_TOP = 1, // offsetof(lua_State, top)
+    LUAW_LAYOUT_FIELD_STATE_BASE = 2, // offsetof(lua_State, base)
+    LUAW_LAYOUT_FIELD_TVALUE_SIZE = 3, // sizeof(TValue)
+    LUAW_LAYOUT_FIELD_TVALUE_VALUE = 4, // offsetof(TValue, value), an 8 byte union
+    LUAW_LAYOUT_FIELD_TVALUE_TT = 5, // offsetof(TValue, tt), an int
+    LUAW_LAYOUT_FIELD_TSTRING_DATA = 6, // offsetof(TString, data)
+    LUAW_LAYOUT_FIELD_TSTRING_HASH = 7, // offsetof(TString, hash), an unsigned int
+};
+
+// Value of the given luaW_LayoutField, or -1 if it is unknown.
+LUA_API long long luaW_layout(int field);
+
+// luaW_newstate with a size class allocator of its own. Blocks up to `maxblock` bytes are
+// rounded up to size classes, four per power of two, and recycled through a free list per
+// class rather than returned to the system. Classes up to LUAW_SLAB_CARVE bytes are carved
+// from LUAW_SLAB_CHUNK byte chunks; larger free blocks are kept up to `maxcached` bytes in
+// total, and blocks over `maxblock` are left to malloc. Everything goes back to the system
+// in luaW_close.
+//
+// Luau carves its own small objects from pages, so most of what a state asks for is those
+// pages, which all fall into a few classes and are recycled here.
+#define LUAW_SLAB_CLASSES 76 // enough for a `maxblock` of 16MB
+#define LUAW_SLAB_CHUNK (64 * 1024)
+#define LUAW_SLAB_CARVE (LUAW_SLAB_CHUNK / 16)
+LUA_API lua_State* luaW_newslabstate(long long maxblock, long long maxcached);
+// Statistics of the allocator of a luaW_newslabstate state, or NULL for any other state:
+// six long longs, being the blocks handed out, how many of those came from a free list,
+// reallocations which stayed in their block, blocks over `maxblock`, bytes in free lists
+// and bytes handed out.
+LUA_API const long long* luaW_slabstats(lua_State* L);
+
 //
 // BEGIN LUA WRAPPERS
 //
 
 LUA_API lua_State* luaW_newstate(lua_Alloc f /* nullable */);
-// lua_close is not wrapped
+// lua_close, then releases the handles queued while closing, and frees what
+// luaW_setmemlimit installed and a luaW_newslabstate allocator.
+LUA_API void luaW_close(lua_State* L);
 LUA_API lua_State* luaW_newthread(lua_State* L);
 // lua_mainthread is not wrapped
-LUA_API void luaW_resetthread(lua_State* L);
+LUA_API int luaW_resetthread(lua_State* L);
 // lua_isthreadreset is not wrapped
 
 // lua_absindex is not wrapped
@@ -96,21 +159,86 @@ LUA_API int luaW_objlen(lua_State* L, int idx);
 // lua_pushinteger
 // lua_pushunsigned
 // lua_pushvector
-LUA_API void luaW_pushlstring(lua_State* L, const char* s, size_t l);
+LUA_API int luaW_pushlstring(lua_State* L, const char* s, size_t l);
 // lua_pushstring is unused (only lstrings)
 // lua_pushvfstring is unused (only lstrings)
 // lua_pushfstringL is unused (use java formatting)
 
-// Pushes a Java closure. `fn` and `cont` are FFM upcall stubs; they are stored as
-// hidden upvalues 1 and 2 and the real lua_CFunction is luaW_dispatch. User upvalues
+// Java closures are identified by a handle to their implementation (see HandleTable on the
+// Java side) rather than by an upcall stub each: every closure of a kind calls the same
+// process-wide entry point, which resolves the handle. The entry points are set once,
+// before any closure is pushed, with luaW_setdispatcher.
+typedef int (*luaW_JavaFunction)(lua_State* L, long long id);
+typedef int (*luaW_JavaContinuation)(lua_State* L, long long id, int status);
+
+// Pushes a Java closure. `fn` and `cont` are handles (`cont` 0 for none); they are stored
+// as hidden upvalues 1 and 2 and the real lua_CFunction is luaW_dispatch. User upvalues
 // therefore start at index 3 - see LuaState.upvalueIndex on the Java side.
-LUA_API void luaW_pushcclosurek(lua_State* L, lua_CFunction fn, const char* debugname, int nup, lua_Continuation cont);
+LUA_API int luaW_pushcclosurek(lua_State* L, long long fn, const char* debugname, int nup, long long cont);
+
+// Java closures of a fixed primitive signature (LuaFunc.wrapDoubleUnary and friends). The
+// trampoline checks and extracts the arguments and pushes the result itself, so a call is
+// one upcall with raw values instead of an upcall plus a downcall per argument and result.
+// `fn` is the handle, stored as hidden upvalue 1. If the Java side failed it pushes
+// the error and stores the luaW_dispatch sentinel (-100 - status) in `*err`; the return
+// value is then ignored.
+typedef double (*luaW_DoubleUnary)(lua_State* L, long long id, double a, int* err);
+typedef double (*luaW_DoubleBinary)(lua_State* L, long long id, double a, double b, int* err);
+typedef void (*luaW_IntConsumer)(lua_State* L, long long id, int a, int* err);
+typedef long long (*luaW_LongBinary)(lua_State* L, long long id, long long a, long long b, int* err);
+enum luaW_Signature
+{
+    LUAW_SIG_DOUBLE_UNARY = 1,
+    LUAW_SIG_DOUBLE_BINARY = 2,
+    LUAW_SIG_INT_CONSUMER = 3,
+    LUAW_SIG_LONG_BINARY = 4,
+};
+LUA_API int luaW_pushprimitiveclosure(lua_State* L, long long fn, int signature, const char* debugname);
+
+// The entry point kinds: a luaW_Signature for the primitive closures (whose entry point
+// has that signature's typedef), or one of the below.
+enum luaW_DispatchKind
+{
+    LUAW_DISPATCH_FUNCTION = 0,     // luaW_JavaFunction
+    LUAW_DISPATCH_CONTINUATION = 5, // luaW_JavaContinuation
+    LUAW_DISPATCH_COUNT = 6,
+};
+LUA_API void luaW_setdispatcher(int kind, void* fn);
 // lua_pushboolean
 // lua_pushthread
 // lua_pushlightuserdatatagged
 LUA_API void* luaW_newuserdatatagged(lua_State* L, size_t sz, int tag);
 LUA_API void* luaW_newuserdatataggedwithmetatable(lua_State* L, size_t sz, int tag); // metatable fetched with lua_getuserdatametatable
 LUA_API void* luaW_newuserdatadtor(lua_State* L, size_t sz, void (*dtor)(void*));
+// Destructors for userdata whose body starts with a Java handle (see HandleTable). Instead
+// of an upcall per collected userdata they queue the handle in luaW_userdata::freed - the
+// collector runs on the thread driving the state, so no lock is taken - which is handed to
+// the luaW_FreeHandles callback in bulk: from inside the collection once `batch` handles are
+// queued, otherwise when luaW_pcall, luaW_resume or luaW_gc returns, and in luaW_close.
+// `javadata` is that of the state the handles were queued by.
+typedef void (*luaW_FreeHandles)(void* javadata, long long* handles, int count);
+LUA_API void luaW_setfreehandler(luaW_FreeHandles fn, int batch); // once, before any state exists
+// An untagged userdata of a handle (written by the caller) and the state's luaW_userdata,
+// which luaW_freehandle queues it to, counting `externalbytes` as luaW_newuserdataexternal.
+LUA_API void* luaW_newuserdatahandle(lua_State* L, long long externalbytes);
+LUA_API void luaW_freehandle(void* ud); // the destructor of luaW_newuserdatahandle
+LUA_API void luaW_freehandletagged(lua_State* L, void* ud); // a lua_Destructor
+// lua_gc, then releases the handles its destructors queued.
+LUA_API int luaW_gc(lua_State* L, int what, int data);
+// luaW_newuserdatadtor for a userdata which owns `externalbytes` of memory outside the Lua
+// heap. The bytes are counted in the heap size and the active memory category while the
+// userdata lives, so the collector paces for them, and released before `dtor` runs.
+LUA_API void* luaW_newuserdataexternal(lua_State* L, size_t sz, long long externalbytes, void (*dtor)(void*));
+// lua_newuserdatataggedwithmetatable for a plain data body, which holds no Java handle.
+// Raises an error unless `tag` was registered with luaW_registerstructtag.
+LUA_API void* luaW_newuserdatastruct(lua_State* L, size_t sz, int tag);
+// Marks `tag` as a struct userdata tag and clears the destructor the binding installs for
+// it. A tag is used either for struct userdata or for object (Java handle) userdata, never
+// both: returns 0, or -1 if `tag` has already been used for object userdata, in which case
+// nothing changes. luaW_newuserdatatagged(withmetatable) raise an error for struct tags.
+LUA_API int luaW_registerstructtag(lua_State* L, int tag);
+#define LUAW_TAG_OBJECT 1
+#define LUAW_TAG_STRUCT 2
 LUA_API void* luaW_newbuffer(lua_State* L, size_t sz);
 
 LUA_API int luaW_gettable(lua_State* L, int idx);
@@ -119,46 +247,91 @@ LUA_API int luaW_getfield(lua_State* L, int idx, const char* k);
 // lua_rawget
 // lua_rawgeti
 // lua_rawgetptagged
-LUA_API void luaW_createtable(lua_State* L, int narr, int nrec);
+LUA_API int luaW_createtable(lua_State* L, int narr, int nrec);
 // lua_setreadonly
 // lua_getreadonly
 // lua_setsafeenv
 // lua_getmetatable
 // lua_getfenv
 
-LUA_API void luaW_settable(lua_State* L, int idx);
-LUA_API void luaW_setfield(lua_State* L, int idx, const char* k);
-LUA_API void luaW_rawsetfield(lua_State* L, int idx, const char* k);
-LUA_API void luaW_rawset(lua_State* L, int idx);
-LUA_API void luaW_rawseti(lua_State* L, int idx, int n);
-LUA_API void luaW_rawsetptagged(lua_State* L, int idx, void* p, int tag);
+LUA_API int luaW_settable(lua_State* L, int idx);
+LUA_API int luaW_setfield(lua_State* L, int idx, const char* k);
+LUA_API int luaW_rawsetfield(lua_State* L, int idx, const char* k);
+LUA_API int luaW_rawset(lua_State* L, int idx);
+LUA_API int luaW_rawseti(lua_State* L, int idx, int n);
+LUA_API int luaW_rawsetptagged(lua_State* L, int idx, void* p, int tag);
 LUA_API int luaW_setmetatable(lua_State* L, int objindex);
 // lua_setfenv
 
 // luau_load
 // lua_call is unused
-// lua_pcall
+// lua_pcall with the state's error handler (luaW_userdata::errfunc) inserted below the
+// function and removed again afterwards. The handler is created once per state, so unlike
+// pushing a closure per call this allocates nothing.
+LUA_API int luaW_pcall(lua_State* L, int nargs, int nresults);
 // lua_cpcall is unused
 
 LUA_API int luaW_yield(lua_State* L, int nresults); // TODO: this only throws if there is a c boundary on the stack. We can check this with isyieldable from java and handle this error there.
 LUA_API int luaW_break(lua_State* L); // TODO: this only throws if there is a c boundary on the stack. We can check this with isyieldable from java and handle this error there.
-// lua_resume
+// lua_resume, attributing allocations to L's memory category first; see luaW_setmemlimit.
+LUA_API int luaW_resume(lua_State* L, lua_State* from, int narg);
 // TODO: resumeerror might cause a longjmp unexpectedly on another thread? no idea need to investigate.
 // lua_resumeerror
 // lua_status
 // lua_isyieldable
 // lua_getthreaddata
 // lua_setthreaddata
+// Thread data as the binding uses it: lua_getthreaddata is NULL or one of these, which Java
+// reads in place (`object` at 0, `slots` from 8). `object` is a Java handle, 0 for none,
+// and the slots hold plain values, so reading either needs no call beyond lua_getthreaddata.
+#define LUAW_THREAD_SLOTS 4
+struct luaW_threaddata
+{
+    long long object;
+    long long slots[LUAW_THREAD_SLOTS];
+};
+// The data of L, allocated zeroed and set on first use; NULL if out of memory.
+LUA_API luaW_threaddata* luaW_newthreaddata(lua_State* L);
+// Frees the data of L, queueing its handle as luaW_freehandle does.
+LUA_API void luaW_freethreaddata(lua_State* L);
+// lua_Callbacks::userthread. Forwards to luaW_userdata::userthread if set, then frees the
+// data of a destroyed thread, so only a state with a Java handler calls into Java.
+LUA_API void luaW_userthread(lua_State* LP, lua_State* L);
 // lua_costatus
 
 // lua_gc
-// lua_setmemcat
+// lua_setmemcat, attributing allocations to `category` from now on; see luaW_setmemlimit.
+LUA_API void luaW_setmemcat(lua_State* L, int category);
 // lua_totalbytes
+// Limits memory category `category`, 0 for no limit. Going over `soft` steps the collector
+// early; an allocation which would go over `hard` fails, raising LUA_ERRMEM. The first call
+// wraps the state's allocator, which is where the limits are checked, so a state without
+// limits pays nothing. Returns 0, or -1 if the wrapper could not be allocated.
+//
+// The allocator has no lua_State to tell it the category, so each luaW_ wrapper (including
+// luaW_pcall and luaW_resume) attributes allocations to the category of its thread for the
+// duration of the call, restoring the previous one on return; outside any call they go to
+// the category last given to luaW_setmemcat. A coroutine resumed from Lua shares its
+// resumer's. Small objects are carved from pages, and
+// the allocator only sees the pages, so a category may overshoot its hard limit by a page.
+LUA_API int luaW_setmemlimit(lua_State* L, int category, long long soft, long long hard);
+// Live per category byte counts (lua_totalbytes), LUA_MEMORY_CATEGORIES of them.
+LUA_API const size_t* luaW_memcatbytes(lua_State* L);
+// Per category high watermarks, LUA_MEMORY_CATEGORIES of them, as seen by the allocator
+// (so to a page); NULL until luaW_setmemlimit has been called.
+LUA_API const long long* luaW_mempeaks(lua_State* L);
+// Counts `delta` bytes of memory outside the Lua heap towards the heap size (and so the GC
+// debt) and the active memory category, then steps the collector if that is now due.
+// Releasing more than was counted for the category is an error.
+LUA_API int luaW_adjustexternalmemory(lua_State* L, long long delta);
+// Releases everything luaW_adjustexternalmemory counted, before lua_close (which expects
+// the heap to be empty once every object is freed).
+LUA_API void luaW_clearexternalmemory(lua_State* L);
 
 // lua_error is unused (handled on java side)
 LUA_API int luaW_next(lua_State* L, int idx);
 // lua_rawiter;
-LUA_API void luaW_concat(lua_State* L, int n);
+LUA_API int luaW_concat(lua_State* L, int n);
 // lua_encodepointer is unused
 // lua_clock is unused
 
@@ -167,12 +340,12 @@ LUA_API void luaW_concat(lua_State* L, int n);
 // lua_getuserdatadtor
 // lua_setuserdatametatable
 // lua_getuserdatametatable
-LUA_API void luaW_setlightuserdataname(lua_State* L, int tag, const char* name);
+LUA_API int luaW_setlightuserdataname(lua_State* L, int tag, const char* name);
 // lua_getlightuserdataname
 
-LUA_API void luaW_clonefunction(lua_State* L, int idx);
-LUA_API void luaW_cleartable(lua_State* L, int idx);
-LUA_API void luaW_clonetable(lua_State* L, int idx);
+LUA_API int luaW_clonefunction(lua_State* L, int idx);
+LUA_API int luaW_cleartable(lua_State* L, int idx);
+LUA_API int luaW_clonetable(lua_State* L, int idx);
 // lua_getallocf is unused
 
 // lua_ref
@@ -190,8 +363,8 @@ LUA_API const char* luaLW_findtable(lua_State* L, int idx, const char* fname, in
 
 LUA_API const char* luaLW_typename(lua_State* L, int idx);
 
-LUA_API void luaLW_typeerror(lua_State* L, int narg, const char* tname);
-LUA_API void luaLW_argerror(lua_State* L, int narg, const char* extramsg);
+LUA_API int luaLW_typeerror(lua_State* L, int narg, const char* tname);
+LUA_API int luaLW_argerror(lua_State* L, int narg, const char* extramsg);
 
 LUA_API int luaLW_checkboolean(lua_State* L, int narg);
 
@@ -219,6 +392,52 @@ LUA_API int luaW_pcallyieldable(lua_State* L, int nargs, int nresults, int errfu
 // marker and the "J" value it reported through lua_Debug::what.
 LUA_API int luaW_isjavaframe(lua_State* L, int level);
 
+// Frame flags in a luaW_backtrace snapshot.
+#define LUAW_BACKTRACE_JAVA 1 // a Java closure, which ends a segment of Lua frames
+#define LUAW_BACKTRACE_LUA 2  // a Lua function, with a source and current line
+
+// Writes a snapshot of the call stack from level 1 outwards into `buf`, for building a
+// LuaError's stack trace later on, after the stack has moved on. Each frame is an int of
+// LUAW_BACKTRACE_* flags, an int current line (-1 if not a Lua function), then the source
+// and the name as NUL terminated strings, empty when unknown. Returns the number of bytes
+// written, or if a frame did not fit, stops there and returns their bitwise complement
+// (so a negative number) instead.
+LUA_API int luaW_backtrace(lua_State* L, char* buf, int size);
+
+// Allocation sampling: roughly every `interval` bytes allocated, the onallocate callback
+// walks the call stack with lua_getinfo and counts the stack, weighted by the interval,
+// in a table kept outside the Lua heap. Only fresh blocks take a sample, since a
+// reallocation may be the stack being moved under the walk; samples a reallocation is
+// due go to the next fresh block. The innermost LUAW_ALLOCPROFILE_DEPTH frames are kept.
+//
+// The onallocate callback installed before is called from the sampler, and restored on
+// stop. Starting again changes the interval, and puts the sampler back in front of any
+// onallocate callback set since. Returns -1 if out of memory.
+#define LUAW_ALLOCPROFILE_DEPTH 64
+LUA_API int luaW_startallocprofile(lua_State* L, long long interval);
+// Stops sampling, keeping the samples for luaW_dumpallocprofile. Freed by luaW_close.
+LUA_API void luaW_stopallocprofile(lua_State* L);
+// Writes the samples in collapsed stack form, one line of `;` separated frames, root first,
+// then a space and the sampled bytes. Returns the length of the report, which is written
+// only if it fits in `size`, clearing the samples if `reset` is set.
+LUA_API long long luaW_dumpallocprofile(lua_State* L, char* buf, long long size, int reset);
+
 // Interrupt handler which forwards to luaW_userdata::preempt and performs the
 // resulting yield/error natively, once the Java frame is off the stack.
+//
+// With luaW_userdata::preemptpolicy set, the stop flag, deadline and budget are checked
+// here at each VM safepoint (not GC steps), and preempt is only called once one of them
+// fires. Without a preempt handler the configured action is taken without calling Java.
+#define LUAW_PREEMPT_YIELD 0
+#define LUAW_PREEMPT_ERROR 1
 LUA_API void luaW_interrupt_preempt_handler(lua_State* L, int gc);
+// The clock of luaW_userdata::preemptdeadline, a monotonic count of nanoseconds.
+LUA_API long long luaW_monotonicnanos(void);
+
+// A fixed set of atom names, as an open addressing table which luaW_useratom (a
+// lua_Callbacks::useratom) reads from luaW_userdata::atoms, so that assigning atoms never
+// calls Java. `names` holds the `count` names back to back, `lengths` their byte lengths,
+// and each name's atom is its index. Both are copied; NULL if out of memory.
+LUA_API void* luaW_newatomtable(const char* names, const int* lengths, int count);
+LUA_API void luaW_freeatomtable(void* table);
+LUA_API int16_t luaW_useratom(lua_State* L, const char* s, size_t l);
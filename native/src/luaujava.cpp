@@ -1,7 +1,11 @@
 // See luaujava.h. Compiled into the Luau.VM target by native/CMakeLists.txt so it can
 // reach VM internals (lua_jmpbuf, luaD_throw) without patching the luau submodule.
+#include <chrono>
 #include <csetjmp>
+#include <cstddef>
+#include <cstdint>
 #include <cstdio>
+#include <cstdlib>
 #include <cstring>
 
 #include "luaujava.h"
@@ -12,9 +16,14 @@
 
 #include "lapi.h"
 #include "ldo.h"
+#include "lgc.h"
 #include "lobject.h"
 #include "lstate.h"
 
+#ifdef _MSC_VER
+#include <intrin.h>
+#endif
+
 // use POSIX versions of setjmp/longjmp if possible: they don't save/restore signal mask and are therefore faster
 #if defined(__linux__) || defined(__APPLE__)
 #define LUAU_SETJMP(buf) _setjmp(buf)
@@ -29,6 +38,7 @@ struct lua_jmpbuf
 {
     lua_jmpbuf* volatile prev;
     volatile int status;
+    int prevcat; // luaW_attribute result, restored by luaW_exit
     jmp_buf buf;
 };
 
@@ -36,17 +46,84 @@ struct lua_jmpbuf
 // Java always reads it immediately and on the same thread.
 static thread_local int luaW_lastStatus = 0;
 
+// Allocator wrapper installed by luaW_setmemlimit; see luaujava.h.
+struct luaW_memlimits
+{
+    lua_Alloc frealloc; // the wrapped allocator
+    void* ud;
+    global_State* global;
+    uint8_t current; // category allocations are attributed to
+    long long peak[LUA_MEMORY_CATEGORIES];
+    long long soft[LUA_MEMORY_CATEGORIES];
+    long long hard[LUA_MEMORY_CATEGORIES];
+};
+
+static void* luaW_limitalloc(void* ud, void* ptr, size_t osize, size_t nsize)
+{
+    luaW_memlimits* limits = (luaW_memlimits*)ud;
+    if (nsize > osize)
+    {
+        global_State* g = limits->global;
+        uint8_t cat = limits->current;
+        long long after = (long long)g->memcatbytes[cat] + (long long)(nsize - osize);
+
+        long long hard = limits->hard[cat];
+        if (hard > 0 && after > hard)
+            return nullptr; // raises LUA_ERRMEM
+
+        if (after > limits->peak[cat])
+            limits->peak[cat] = after;
+
+        // Over the soft limit, every check steps the collector until it is back under.
+        long long soft = limits->soft[cat];
+        if (soft > 0 && after > soft)
+            g->GCthreshold = 0;
+    }
+    return limits->frealloc(limits->ud, ptr, osize, nsize);
+}
+
+// Attributes allocations to the category of `L` until luaW_unattribute, returning the
+// category they were attributed to before, or -1 if the state has no limits.
+inline int luaW_attribute(lua_State* L)
+{
+    global_State* g = L->global;
+    if (g->frealloc != luaW_limitalloc)
+        return -1;
+    luaW_memlimits* limits = (luaW_memlimits*)g->ud;
+    int prev = limits->current;
+    limits->current = L->activememcat;
+    return prev;
+}
+
+// Undoes luaW_attribute, so that a call which touched another thread (a Java callback
+// reading the main thread, say) leaves the running script limited by its own category.
+inline void luaW_unattribute(lua_State* L, int prev)
+{
+    global_State* g = L->global;
+    if (prev >= 0 && g->frealloc == luaW_limitalloc)
+        ((luaW_memlimits*)g->ud)->current = uint8_t(prev);
+}
+
 inline void luaW_enter(lua_State* L, lua_jmpbuf* jb)
 {
+    jb->prevcat = luaW_attribute(L);
     jb->prev = L->global->errorjmp;
     jb->status = 0;
     L->global->errorjmp = jb;
 }
 
-inline void luaW_exit(lua_State* L, lua_jmpbuf* jb)
+inline int luaW_exit(lua_State* L, lua_jmpbuf* jb)
 {
     L->global->errorjmp = jb->prev;
+    luaW_unattribute(L, jb->prevcat);
     luaW_lastStatus = jb->status;
+    return jb->status;
+}
+
+// Result of a wrapper whose lua_* result is never negative; see luaujava.h.
+inline int luaW_result(int status, int ret)
+{
+    return status == LUA_OK ? ret : -status;
 }
 
 LUA_API int luaW_getstatus(lua_State* L)
@@ -108,6 +185,39 @@ LUA_API int luaW_isinlined(lua_State* L, int idx)
     return clvalue(luaA_toobject(L, idx))->l.p->deoptimized != nullptr;
 }
 
+// Java reads these with fixed width accesses, so only the offsets are allowed to move.
+static_assert(sizeof(((TValue*)0)->tt) == sizeof(int), "TValue::tt must be an int");
+static_assert(sizeof(Value) == 8, "TValue::value must be 8 bytes");
+static_assert(sizeof(((Value*)0)->b) == sizeof(int), "boolean payload must be an int");
+static_assert(sizeof(((Value*)0)->n) == sizeof(double), "number payload must be a double");
+static_assert(sizeof(StkId) == sizeof(void*), "stack pointers must be plain pointers");
+static_assert(sizeof(((TString*)0)->hash) == sizeof(int), "TString::hash must be 32 bits");
+
+LUA_API long long luaW_layout(int field)
+{
+    switch (field)
+    {
+    case LUAW_LAYOUT_FIELD_VERSION:
+        return LUAW_LAYOUT_VERSION;
+    case LUAW_LAYOUT_FIELD_STATE_TOP:
+        return offsetof(lua_State, top);
+    case LUAW_LAYOUT_FIELD_STATE_BASE:
+        return offsetof(lua_State, base);
+    case LUAW_LAYOUT_FIELD_TVALUE_SIZE:
+        return sizeof(TValue);
+    case LUAW_LAYOUT_FIELD_TVALUE_VALUE:
+        return offsetof(TValue, value);
+    case LUAW_LAYOUT_FIELD_TVALUE_TT:
+        return offsetof(TValue, tt);
+    case LUAW_LAYOUT_FIELD_TSTRING_DATA:
+        return offsetof(TString, data);
+    case LUAW_LAYOUT_FIELD_TSTRING_HASH:
+        return offsetof(TString, hash);
+    default:
+        return -1;
+    }
+}
+
 //
 // JAVA CLOSURE DISPATCH
 //
@@ -121,26 +231,104 @@ LUA_API int luaW_isinlined(lua_State* L, int idx)
 #define LUAW_UPVAL_CONT 2
 #define LUAW_UPVAL_BASE 2
 
-static int luaW_dispatch(lua_State* L)
+static void* luaW_dispatchers[LUAW_DISPATCH_COUNT];
+
+static_assert(sizeof(void*) == sizeof(long long), "closure handles are stored as light userdata");
+
+LUA_API void luaW_setdispatcher(int kind, void* fn)
 {
-    lua_CFunction fn = (lua_CFunction)lua_tolightuserdatatagged(L, lua_upvalueindex(LUAW_UPVAL_FUNC), 0);
-    int n = fn(L);
+    if (kind >= 0 && kind < LUAW_DISPATCH_COUNT)
+        luaW_dispatchers[kind] = fn;
+}
+
+static long long luaW_upvalueid(lua_State* L, int slot)
+{
+    return (long long)intptr_t(lua_tolightuserdatatagged(L, lua_upvalueindex(slot), 0));
+}
 
-    if (n < -100)
-        luaD_throw(L, -(n + 100));
+static void luaW_raiseif(lua_State* L, int err)
+{
+    if (err < -100)
+        luaD_throw(L, -(err + 100));
+}
 
+static int luaW_dispatch(lua_State* L)
+{
+    luaW_JavaFunction fn = (luaW_JavaFunction)luaW_dispatchers[LUAW_DISPATCH_FUNCTION];
+    int n = fn(L, luaW_upvalueid(L, LUAW_UPVAL_FUNC));
+    luaW_raiseif(L, n);
     return n;
 }
 
 static int luaW_dispatchcont(lua_State* L, int status)
 {
-    lua_Continuation cont = (lua_Continuation)lua_tolightuserdatatagged(L, lua_upvalueindex(LUAW_UPVAL_CONT), 0);
-    int n = cont(L, status);
+    luaW_JavaContinuation cont = (luaW_JavaContinuation)luaW_dispatchers[LUAW_DISPATCH_CONTINUATION];
+    int n = cont(L, luaW_upvalueid(L, LUAW_UPVAL_CONT), status);
+    luaW_raiseif(L, n);
+    return n;
+}
+
+// The signature-specialised trampolines. Argument checks raise here, before the upcall,
+// which is safe: no Java frame is on the stack yet.
+static long long luaW_checkinteger64(lua_State* L, int narg)
+{
+    int isinteger = 0;
+    long long value = lua_tointeger64(L, narg, &isinteger);
+    if (!isinteger)
+        luaL_typeerror(L, narg, "integer");
+    return value;
+}
 
-    if (n < -100)
-        luaD_throw(L, -(n + 100));
+static int luaW_dispatch_doubleunary(lua_State* L)
+{
+    luaW_DoubleUnary fn = (luaW_DoubleUnary)luaW_dispatchers[LUAW_SIG_DOUBLE_UNARY];
+    double a = luaL_checknumber(L, 1);
+    int err = 0;
+    double result = fn(L, luaW_upvalueid(L, LUAW_UPVAL_FUNC), a, &err);
+    luaW_raiseif(L, err);
+    lua_pushnumber(L, result);
+    return 1;
+}
 
-    return n;
+static int luaW_dispatch_doublebinary(lua_State* L)
+{
+    luaW_DoubleBinary fn = (luaW_DoubleBinary)luaW_dispatchers[LUAW_SIG_DOUBLE_BINARY];
+    double a = luaL_checknumber(L, 1);
+    double b = luaL_checknumber(L, 2);
+    int err = 0;
+    double result = fn(L, luaW_upvalueid(L, LUAW_UPVAL_FUNC), a, b, &err);
+    luaW_raiseif(L, err);
+    lua_pushnumber(L, result);
+    return 1;
+}
+
+static int luaW_dispatch_intconsumer(lua_State* L)
+{
+    luaW_IntConsumer fn = (luaW_IntConsumer)luaW_dispatchers[LUAW_SIG_INT_CONSUMER];
+    int a = luaL_checkinteger(L, 1);
+    int err = 0;
+    fn(L, luaW_upvalueid(L, LUAW_UPVAL_FUNC), a, &err);
+    luaW_raiseif(L, err);
+    return 0;
+}
+
+static int luaW_dispatch_longbinary(lua_State* L)
+{
+    luaW_LongBinary fn = (luaW_LongBinary)luaW_dispatchers[LUAW_SIG_LONG_BINARY];
+    long long a = luaW_checkinteger64(L, 1);
+    long long b = luaW_checkinteger64(L, 2);
+    int err = 0;
+    long long result = fn(L, luaW_upvalueid(L, LUAW_UPVAL_FUNC), a, b, &err);
+    luaW_raiseif(L, err);
+    lua_pushinteger64(L, result);
+    return 1;
+}
+
+// True for every trampoline a Java closure may be registered as.
+static bool luaW_isjavafunction(lua_CFunction f)
+{
+    return f == luaW_dispatch || f == luaW_dispatch_doubleunary || f == luaW_dispatch_doublebinary ||
+           f == luaW_dispatch_intconsumer || f == luaW_dispatch_longbinary;
 }
 
 LUA_API int luaW_isjavaframe(lua_State* L, int level)
@@ -153,7 +341,7 @@ LUA_API int luaW_isjavaframe(lua_State* L, int level)
         lua_Debug ar = {};
         if (lua_getinfo(L, level, "f", &ar))
         {
-            ret = lua_tocfunction(L, -1) == luaW_dispatch;
+            ret = luaW_isjavafunction(lua_tocfunction(L, -1));
             lua_pop(L, 1);
         }
     }
@@ -161,6 +349,94 @@ LUA_API int luaW_isjavaframe(lua_State* L, int level)
     return ret;
 }
 
+static bool luaW_writeframe(char* buf, int size, int& written, int flags, int line, const char* source, const char* name)
+{
+    size_t sourcelen = strlen(source) + 1, namelen = strlen(name) + 1;
+    size_t needed = 2 * sizeof(int) + sourcelen + namelen;
+    if (needed > size_t(size - written))
+        return false;
+
+    char* out = buf + written;
+    memcpy(out, &flags, sizeof(int));
+    memcpy(out + sizeof(int), &line, sizeof(int));
+    memcpy(out + 2 * sizeof(int), source, sourcelen);
+    memcpy(out + 2 * sizeof(int) + sourcelen, name, namelen);
+    written += int(needed);
+    return true;
+}
+
+LUA_API int luaW_backtrace(lua_State* L, char* buf, int size)
+{
+    // One barrier for the whole walk. Unlike luaW_isjavaframe this never pushes the
+    // function, it checks the CallInfo directly (level n is L->ci - n, as in lua_getinfo).
+    lua_jmpbuf jb;
+    int written = 0;
+    bool truncated = false;
+    luaW_enter(L, &jb);
+    if (LUAU_SETJMP(jb.buf) == 0)
+    {
+        lua_Debug ar = {};
+        for (int level = 1; lua_getinfo(L, level, "sln", &ar); level++)
+        {
+            const TValue* func = (L->ci - level)->func;
+            int flags = 0, line = -1;
+            const char* source = "";
+            if (ttisfunction(func) && clvalue(func)->isC && luaW_isjavafunction(clvalue(func)->c.f))
+            {
+                flags |= LUAW_BACKTRACE_JAVA;
+            }
+            else if (ar.what && ar.what[0] == 'L')
+            {
+                flags |= LUAW_BACKTRACE_LUA;
+                line = ar.currentline;
+                source = ar.source ? ar.source : "";
+            }
+
+            if (!luaW_writeframe(buf, size, written, flags, line, source, ar.name ? ar.name : ""))
+            {
+                truncated = true;
+                break;
+            }
+        }
+    }
+    luaW_exit(L, &jb);
+    return truncated ? ~written : written;
+}
+
+LUA_API long long luaW_monotonicnanos(void)
+{
+    return std::chrono::duration_cast<std::chrono::nanoseconds>(std::chrono::steady_clock::now().time_since_epoch()).count();
+}
+
+// Clears the stop flag, returning whether it was set. Java sets it with a volatile store.
+static bool luaW_takestop(luaW_userdata* data)
+{
+#ifdef _MSC_VER
+    if (*(volatile long*)&data->preemptstop == 0)
+        return false;
+    return _InterlockedExchange((volatile long*)&data->preemptstop, 0) != 0;
+#else
+    if (__atomic_load_n(&data->preemptstop, __ATOMIC_RELAXED) == 0)
+        return false;
+    return __atomic_exchange_n(&data->preemptstop, 0, __ATOMIC_ACQ_REL) != 0;
+#endif
+}
+
+// The trigger of the policy which fired at this safepoint, disarming it, or NULL.
+static const char* luaW_preemptdue(luaW_userdata* data)
+{
+    if (luaW_takestop(data))
+        return "stopped";
+    if (data->preemptbudget > 0 && --data->preemptbudget == 0)
+        return "budget exhausted";
+    if (data->preemptdeadline != 0 && luaW_monotonicnanos() >= data->preemptdeadline)
+    {
+        data->preemptdeadline = 0;
+        return "deadline exceeded";
+    }
+    return nullptr;
+}
+
 LUA_API void luaW_interrupt_preempt_handler(lua_State* L, int gc)
 {
     lua_Callbacks* callbacks = lua_callbacks(L);
@@ -168,7 +444,27 @@ LUA_API void luaW_interrupt_preempt_handler(lua_State* L, int gc)
         return;
 
     luaW_userdata* data = (luaW_userdata*)callbacks->userdata;
-    if (!data || !data->preempt)
+    if (!data)
+        return;
+
+    if (data->preemptpolicy)
+    {
+        // GC steps are not safepoints a script can be stopped at.
+        if (gc >= 0)
+            return;
+        const char* reason = luaW_preemptdue(data);
+        if (!reason)
+            return;
+
+        if (!data->preempt)
+        {
+            if (data->preemptaction == LUAW_PREEMPT_ERROR)
+                luaL_error(L, "script preempted: %s", reason);
+            lua_yield(L, 0);
+            return;
+        }
+    }
+    else if (!data->preempt)
         return;
 
     int result = data->preempt(L, gc);
@@ -178,6 +474,591 @@ LUA_API void luaW_interrupt_preempt_handler(lua_State* L, int gc)
         luaD_throw(L, -(result + 100));
 }
 
+struct luaW_atomslot
+{
+    uint32_t hash;
+    uint32_t length;
+    const char* name;
+    int16_t atom; // -1 for an empty slot
+};
+
+struct luaW_atomtable
+{
+    uint32_t mask;
+    uint32_t maxlength; // longer strings are rejected without hashing
+    luaW_atomslot* slots;
+};
+
+// FNV-1a; the strings are short, and this is only paid once per string.
+static uint32_t luaW_atomhash(const char* s, size_t l)
+{
+    uint32_t h = 2166136261u;
+    for (size_t i = 0; i < l; i++)
+        h = (h ^ uint8_t(s[i])) * 16777619u;
+    return h;
+}
+
+LUA_API void* luaW_newatomtable(const char* names, const int* lengths, int count)
+{
+    // At most half full, so probe sequences stay short.
+    uint32_t capacity = 8;
+    while (capacity < uint32_t(count) * 2)
+        capacity <<= 1;
+
+    size_t total = 0;
+    for (int i = 0; i < count; i++)
+        total += size_t(lengths[i]);
+
+    // One block: the table, then the slots, then the names they point into.
+    luaW_atomtable* table = (luaW_atomtable*)malloc(sizeof(luaW_atomtable) + sizeof(luaW_atomslot) * capacity + total);
+    if (!table)
+        return nullptr;
+    table->mask = capacity - 1;
+    table->maxlength = 0;
+    table->slots = (luaW_atomslot*)(table + 1);
+    char* copy = (char*)(table->slots + capacity);
+    if (total > 0)
+        memcpy(copy, names, total);
+
+    for (uint32_t i = 0; i < capacity; i++)
+        table->slots[i].atom = -1;
+
+    size_t offset = 0;
+    for (int i = 0; i < count; i++)
+    {
+        const char* name = copy + offset;
+        uint32_t length = uint32_t(lengths[i]);
+        offset += length;
+
+        uint32_t hash = luaW_atomhash(name, length);
+        uint32_t idx = hash & table->mask;
+        while (table->slots[idx].atom >= 0)
+            idx = (idx + 1) & table->mask;
+        table->slots[idx] = {hash, length, name, int16_t(i)};
+        if (length > table->maxlength)
+            table->maxlength = length;
+    }
+    return table;
+}
+
+LUA_API void luaW_freeatomtable(void* table)
+{
+    free(table);
+}
+
+LUA_API int16_t luaW_useratom(lua_State* L, const char* s, size_t l)
+{
+    luaW_userdata* data = (luaW_userdata*)L->global->cb.userdata;
+    const luaW_atomtable* table = data ? (const luaW_atomtable*)data->atoms : nullptr;
+    if (!table || l > table->maxlength)
+        return -1;
+
+    uint32_t hash = luaW_atomhash(s, l);
+    for (uint32_t idx = hash & table->mask;; idx = (idx + 1) & table->mask)
+    {
+        const luaW_atomslot& slot = table->slots[idx];
+        if (slot.atom < 0)
+            return -1;
+        if (slot.hash == hash && slot.length == l && memcmp(slot.name, s, l) == 0)
+            return slot.atom;
+    }
+}
+
+struct luaW_allocstack
+{
+    uint32_t hash;
+    int depth;
+    int* frames; // label ids, innermost first
+    long long bytes;
+};
+
+struct luaW_allocprofile
+{
+    long long interval;
+    long long countdown; // bytes until the next sample
+    long long pending; // samples owed by reallocations
+    void (*prev)(lua_State* L, size_t osize, size_t nsize); // nullable
+    bool running;
+
+    // Interned frame labels, and the distinct stacks made of them. Both open addressed
+    // tables of indices + 1, sized to a power of two.
+    char** labels;
+    uint32_t* labelhashes;
+    int labelcount, labelcapacity;
+    int* labelslots;
+    int labelslotcount;
+    luaW_allocstack* stacks;
+    int stackcount, stackcapacity;
+    int* stackslots;
+    int stackslotcount;
+};
+
+static bool luaW_growarray(void** array, int* capacity, size_t elemsize)
+{
+    int grown = *capacity == 0 ? 64 : *capacity * 2;
+    void* resized = realloc(*array, size_t(grown) * elemsize);
+    if (!resized)
+        return false;
+    *array = resized;
+    *capacity = grown;
+    return true;
+}
+
+// Rehashes `slots` to twice the size once it is half full; `hashof(i)` is the hash of entry i.
+template<typename F>
+static bool luaW_growslots(int** slots, int* slotcount, int count, F hashof)
+{
+    if (count * 2 < *slotcount)
+        return true;
+    int grown = *slotcount == 0 ? 128 : *slotcount * 2;
+    int* resized = (int*)calloc(size_t(grown), sizeof(int));
+    if (!resized)
+        return false;
+    for (int i = 0; i < count; i++)
+    {
+        uint32_t slot = hashof(i) & uint32_t(grown - 1);
+        while (resized[slot])
+            slot = (slot + 1) & uint32_t(grown - 1);
+        resized[slot] = i + 1;
+    }
+    free(*slots);
+    *slots = resized;
+    *slotcount = grown;
+    return true;
+}
+
+// The id of `label`, interning it, or -1 if out of memory.
+static int luaW_internlabel(luaW_allocprofile* p, const char* label)
+{
+    size_t len = strlen(label);
+    uint32_t hash = luaW_atomhash(label, len);
+    if (!luaW_growslots(&p->labelslots, &p->labelslotcount, p->labelcount, [p](int i) { return p->labelhashes[i]; }))
+        return -1;
+
+    uint32_t mask = uint32_t(p->labelslotcount - 1);
+    uint32_t slot = hash & mask;
+    for (; p->labelslots[slot]; slot = (slot + 1) & mask)
+    {
+        int id = p->labelslots[slot] - 1;
+        if (p->labelhashes[id] == hash && strcmp(p->labels[id], label) == 0)
+            return id;
+    }
+
+    if (p->labelcount == p->labelcapacity)
+    {
+        int capacity = p->labelcapacity;
+        if (!luaW_growarray((void**)&p->labels, &capacity, sizeof(char*)) ||
+            !luaW_growarray((void**)&p->labelhashes, &p->labelcapacity, sizeof(uint32_t)))
+            return -1;
+    }
+    char* copy = (char*)malloc(len + 1);
+    if (!copy)
+        return -1;
+    memcpy(copy, label, len + 1);
+    p->labels[p->labelcount] = copy;
+    p->labelhashes[p->labelcount] = hash;
+    p->labelslots[slot] = ++p->labelcount;
+    return p->labelcount - 1;
+}
+
+// Formats the frame at `level` into `label`, as in a LuaError stack trace. Collapsed
+// stacks separate frames with `;` and lines with `\n`, so those are replaced.
+static void luaW_framelabel(lua_State* L, int level, lua_Debug* ar, char* label, size_t size)
+{
+    const TValue* func = (L->ci - level)->func;
+    const char* name = ar->name ? ar->name : "<anonymous>";
+    if (ttisfunction(func) && clvalue(func)->isC && luaW_isjavafunction(clvalue(func)->c.f))
+        snprintf(label, size, "%s [java]", name);
+    else if (ar->what && ar->what[0] == 'L')
+        snprintf(label, size, "%s (%s:%d)", name, ar->source ? ar->source : "", ar->currentline);
+    else
+        snprintf(label, size, "%s [native]", name);
+
+    for (char* c = label; *c; c++)
+    {
+        if (*c == ';' || *c == '\n' || *c == '\r')
+            *c = '_';
+    }
+}
+
+static void luaW_takeallocsample(lua_State* L, luaW_allocprofile* p, long long samples)
+{
+    int frames[LUAW_ALLOCPROFILE_DEPTH];
+    int depth = 0;
+    uint32_t hash = 2166136261u;
+    lua_Debug ar = {};
+    char label[256];
+    // Level 0 is the running function, which made the allocation.
+    for (int level = 0; depth < LUAW_ALLOCPROFILE_DEPTH && lua_getinfo(L, level, "sln", &ar); level++)
+    {
+        luaW_framelabel(L, level, &ar, label, sizeof(label));
+        int id = luaW_internlabel(p, label);
+        if (id < 0)
+            return;
+        frames[depth++] = id;
+        hash = (hash ^ uint32_t(id)) * 16777619u;
+    }
+
+    if (!luaW_growslots(&p->stackslots, &p->stackslotcount, p->stackcount, [p](int i) { return p->stacks[i].hash; }))
+        return;
+    uint32_t mask = uint32_t(p->stackslotcount - 1);
+    uint32_t slot = hash & mask;
+    for (; p->stackslots[slot]; slot = (slot + 1) & mask)
+    {
+        luaW_allocstack* stack = &p->stacks[p->stackslots[slot] - 1];
+        if (stack->hash == hash && stack->depth == depth && memcmp(stack->frames, frames, size_t(depth) * sizeof(int)) == 0)
+        {
+            stack->bytes += samples * p->interval;
+            return;
+        }
+    }
+
+    if (p->stackcount == p->stackcapacity && !luaW_growarray((void**)&p->stacks, &p->stackcapacity, sizeof(luaW_allocstack)))
+        return;
+    int* copy = (int*)malloc(size_t(depth > 0 ? depth : 1) * sizeof(int));
+    if (!copy)
+        return;
+    memcpy(copy, frames, size_t(depth) * sizeof(int));
+    p->stacks[p->stackcount] = {hash, depth, copy, samples * p->interval};
+    p->stackslots[slot] = ++p->stackcount;
+}
+
+// The onallocate callback of luaW_startallocprofile. Its memory comes from malloc rather
+// than the state, which is in the middle of an allocation.
+static void luaW_allocsampler(lua_State* L, size_t osize, size_t nsize)
+{
+    luaW_allocprofile* p = (luaW_allocprofile*)((luaW_userdata*)L->global->cb.userdata)->allocprofile;
+    if (nsize > osize)
+    {
+        p->countdown -= (long long)(nsize - osize);
+        if (p->countdown <= 0)
+        {
+            long long samples = 1 + (-p->countdown) / p->interval;
+            p->countdown += samples * p->interval;
+            p->pending += samples;
+        }
+    }
+    if (p->pending > 0 && osize == 0)
+    {
+        luaW_takeallocsample(L, p, p->pending);
+        p->pending = 0;
+    }
+
+    if (p->prev)
+        p->prev(L, osize, nsize);
+}
+
+static void luaW_clearallocprofile(luaW_allocprofile* p)
+{
+    for (int i = 0; i < p->labelcount; i++)
+        free(p->labels[i]);
+    for (int i = 0; i < p->stackcount; i++)
+        free(p->stacks[i].frames);
+    if (p->labelslots)
+        memset(p->labelslots, 0, size_t(p->labelslotcount) * sizeof(int));
+    if (p->stackslots)
+        memset(p->stackslots, 0, size_t(p->stackslotcount) * sizeof(int));
+    p->labelcount = 0;
+    p->stackcount = 0;
+}
+
+static void luaW_freeallocprofile(luaW_allocprofile* p)
+{
+    luaW_clearallocprofile(p);
+    free(p->labels);
+    free(p->labelhashes);
+    free(p->labelslots);
+    free(p->stacks);
+    free(p->stackslots);
+    free(p);
+}
+
+LUA_API int luaW_startallocprofile(lua_State* L, long long interval)
+{
+    lua_Callbacks* cb = lua_callbacks(L);
+    luaW_userdata* data = (luaW_userdata*)cb->userdata;
+    luaW_allocprofile* p = (luaW_allocprofile*)data->allocprofile;
+    if (!p)
+    {
+        p = (luaW_allocprofile*)calloc(1, sizeof(luaW_allocprofile));
+        if (!p)
+            return -1;
+        data->allocprofile = p;
+    }
+
+    p->interval = interval > 0 ? interval : 1;
+    p->countdown = p->interval;
+    p->running = true;
+    // Also when already running, if onallocate was replaced since: the sampler goes back in
+    // front of the replacement.
+    if (cb->onallocate != luaW_allocsampler)
+    {
+        p->prev = cb->onallocate;
+        cb->onallocate = luaW_allocsampler;
+    }
+    return 0;
+}
+
+LUA_API void luaW_stopallocprofile(lua_State* L)
+{
+    lua_Callbacks* cb = lua_callbacks(L);
+    luaW_allocprofile* p = (luaW_allocprofile*)((luaW_userdata*)cb->userdata)->allocprofile;
+    if (!p || !p->running)
+        return;
+    p->running = false;
+    p->pending = 0;
+    if (cb->onallocate == luaW_allocsampler)
+        cb->onallocate = p->prev;
+    p->prev = nullptr;
+}
+
+LUA_API long long luaW_dumpallocprofile(lua_State* L, char* buf, long long size, int reset)
+{
+    luaW_allocprofile* p = (luaW_allocprofile*)((luaW_userdata*)lua_callbacks(L)->userdata)->allocprofile;
+    if (!p)
+        return 0;
+
+    long long length = 0;
+    char count[32];
+    for (int i = 0; i < p->stackcount; i++)
+    {
+        const luaW_allocstack* stack = &p->stacks[i];
+        for (int f = stack->depth - 1; f >= 0; f--)
+        {
+            const char* label = p->labels[stack->frames[f]];
+            size_t len = strlen(label);
+            if (length + (long long)len + 1 <= size)
+            {
+                memcpy(buf + length, label, len);
+                buf[length + len] = f > 0 ? ';' : ' ';
+            }
+            length += (long long)len + 1;
+        }
+        int len = snprintf(count, sizeof(count), "%lld\n", stack->bytes);
+        if (length + len <= size)
+            memcpy(buf + length, count, size_t(len));
+        length += len;
+    }
+
+    if (reset && length <= size)
+        luaW_clearallocprofile(p);
+    return length;
+}
+
+struct luaW_slab
+{
+    size_t maxblock;
+    long long maxcached;
+    long long stats[6]; // see luaW_slabstats
+    void* free[LUAW_SLAB_CLASSES]; // linked through the first word of each block
+    char* cursor; // carving position in the newest chunk
+    char* limit;
+    void* chunks; // linked through the first word of each chunk
+};
+
+enum luaW_SlabStat
+{
+    LUAW_SLAB_ALLOCATIONS,
+    LUAW_SLAB_RECYCLED,
+    LUAW_SLAB_INPLACE,
+    LUAW_SLAB_OVERSIZED,
+    LUAW_SLAB_CACHED,
+    LUAW_SLAB_LIVE,
+};
+
+// The first chunk word links the chunks; blocks start after it, keeping 16 byte alignment.
+static const size_t luaW_slabchunkheader = 16;
+
+static int luaW_log2(size_t n)
+{
+#ifdef _MSC_VER
+    unsigned long index;
+    _BitScanReverse64(&index, n);
+    return int(index);
+#else
+    return 63 - __builtin_clzll((unsigned long long)n);
+#endif
+}
+
+// Classes are 16, 32, 48 and 64 bytes, then four per power of two (80, 96, 112, 128, 160,
+// ...), so every class is a multiple of 16 and wastes at most a quarter of its block.
+static int luaW_slabclass(size_t size)
+{
+    if (size <= 64)
+        return size == 0 ? 0 : int((size + 15) / 16) - 1;
+    size_t n = size - 1;
+    int b = luaW_log2(n);
+    return 4 + (b - 6) * 4 + int(n >> (b - 2)) - 4;
+}
+
+static size_t luaW_slabclasssize(int c)
+{
+    if (c < 4)
+        return size_t(c + 1) * 16;
+    int b = (c - 4) / 4 + 6;
+    return size_t(5 + (c - 4) % 4) << (b - 2);
+}
+
+static void* luaW_slabcarve(luaW_slab* slab, size_t size)
+{
+    if (size_t(slab->limit - slab->cursor) < size)
+    {
+        // The tail of the old chunk, less than one block, is left unused.
+        char* chunk = (char*)malloc(LUAW_SLAB_CHUNK);
+        if (!chunk)
+            return nullptr;
+        *(void**)chunk = slab->chunks;
+        slab->chunks = chunk;
+        slab->cursor = chunk + luaW_slabchunkheader;
+        slab->limit = chunk + LUAW_SLAB_CHUNK;
+    }
+    void* block = slab->cursor;
+    slab->cursor += size;
+    return block;
+}
+
+static void* luaW_slabnew(luaW_slab* slab, size_t size)
+{
+    void* block;
+    if (size > slab->maxblock)
+    {
+        block = malloc(size);
+        if (!block)
+            return nullptr;
+        slab->stats[LUAW_SLAB_OVERSIZED]++;
+    }
+    else
+    {
+        int c = luaW_slabclass(size);
+        size = luaW_slabclasssize(c);
+        block = slab->free[c];
+        if (block)
+        {
+            slab->free[c] = *(void**)block;
+            slab->stats[LUAW_SLAB_CACHED] -= size;
+            slab->stats[LUAW_SLAB_RECYCLED]++;
+        }
+        else
+        {
+            block = size <= LUAW_SLAB_CARVE ? luaW_slabcarve(slab, size) : malloc(size);
+            if (!block)
+                return nullptr;
+        }
+    }
+    slab->stats[LUAW_SLAB_ALLOCATIONS]++;
+    slab->stats[LUAW_SLAB_LIVE] += size;
+    return block;
+}
+
+static void luaW_slabfree(luaW_slab* slab, void* block, size_t size)
+{
+    if (size > slab->maxblock)
+    {
+        slab->stats[LUAW_SLAB_LIVE] -= size;
+        free(block);
+        return;
+    }
+
+    int c = luaW_slabclass(size);
+    size = luaW_slabclasssize(c);
+    slab->stats[LUAW_SLAB_LIVE] -= size;
+    // Carved blocks cannot be returned on their own, so they are always kept.
+    if (size > LUAW_SLAB_CARVE && slab->stats[LUAW_SLAB_CACHED] + (long long)size > slab->maxcached)
+    {
+        free(block);
+        return;
+    }
+    *(void**)block = slab->free[c];
+    slab->free[c] = block;
+    slab->stats[LUAW_SLAB_CACHED] += size;
+}
+
+static luaW_slab* luaW_newslab(long long maxblock, long long maxcached)
+{
+    luaW_slab* slab = (luaW_slab*)calloc(1, sizeof(luaW_slab));
+    if (!slab)
+        return nullptr;
+    const long long largest = (long long)luaW_slabclasssize(LUAW_SLAB_CLASSES - 1);
+    slab->maxblock = size_t(maxblock < 16 ? 16 : maxblock > largest ? largest : maxblock);
+    slab->maxcached = maxcached < 0 ? 0 : maxcached;
+    return slab;
+}
+
+static void* luaW_slaballoc(void* ud, void* ptr, size_t osize, size_t nsize)
+{
+    luaW_slab* slab = (luaW_slab*)ud;
+    if (nsize == 0)
+    {
+        if (ptr)
+            luaW_slabfree(slab, ptr, osize);
+        return nullptr;
+    }
+    if (!ptr)
+        return luaW_slabnew(slab, nsize);
+
+    if (osize <= slab->maxblock && nsize <= slab->maxblock && luaW_slabclass(osize) == luaW_slabclass(nsize))
+    {
+        slab->stats[LUAW_SLAB_INPLACE]++;
+        return ptr;
+    }
+    if (osize > slab->maxblock && nsize > slab->maxblock)
+    {
+        void* block = realloc(ptr, nsize);
+        if (block)
+            slab->stats[LUAW_SLAB_LIVE] += (long long)nsize - (long long)osize;
+        return block;
+    }
+
+    // Luau keeps the old block when this fails, so it is only freed on success.
+    void* block = luaW_slabnew(slab, nsize);
+    if (!block)
+        return nullptr;
+    memcpy(block, ptr, osize < nsize ? osize : nsize);
+    luaW_slabfree(slab, ptr, osize);
+    return block;
+}
+
+static void luaW_freeslab(luaW_slab* slab)
+{
+    for (int c = 0; c < LUAW_SLAB_CLASSES; c++)
+    {
+        if (luaW_slabclasssize(c) <= LUAW_SLAB_CARVE)
+            continue;
+        for (void* block = slab->free[c]; block;)
+        {
+            void* next = *(void**)block;
+            free(block);
+            block = next;
+        }
+    }
+    for (void* chunk = slab->chunks; chunk;)
+    {
+        void* next = *(void**)chunk;
+        free(chunk);
+        chunk = next;
+    }
+    free(slab);
+}
+
+// The state's slab, under the luaW_setmemlimit wrapper if it has one.
+static luaW_slab* luaW_getslab(global_State* g)
+{
+    lua_Alloc f = g->frealloc;
+    void* ud = g->ud;
+    if (f == luaW_limitalloc)
+    {
+        f = ((luaW_memlimits*)ud)->frealloc;
+        ud = ((luaW_memlimits*)ud)->ud;
+    }
+    return f == luaW_slaballoc ? (luaW_slab*)ud : nullptr;
+}
+
+LUA_API const long long* luaW_slabstats(lua_State* L)
+{
+    luaW_slab* slab = luaW_getslab(L->global);
+    return slab ? slab->stats : nullptr;
+}
+
 //
 // BEGIN LUA WRAPPERS
 //
@@ -187,6 +1068,40 @@ LUA_API lua_State* luaW_newstate(lua_Alloc f)
     return f != nullptr ? lua_newstate(f, nullptr) : luaL_newstate();
 }
 
+LUA_API lua_State* luaW_newslabstate(long long maxblock, long long maxcached)
+{
+    luaW_slab* slab = luaW_newslab(maxblock, maxcached);
+    if (!slab)
+        return nullptr;
+    lua_State* L = lua_newstate(luaW_slaballoc, slab);
+    if (!L)
+        luaW_freeslab(slab);
+    return L;
+}
+
+static void luaW_flushfreed(luaW_userdata* data);
+
+LUA_API void luaW_close(lua_State* L)
+{
+    global_State* g = L->global;
+    // The state frees its last blocks through the allocator, so they go after.
+    luaW_memlimits* limits = g->frealloc == luaW_limitalloc ? (luaW_memlimits*)g->ud : nullptr;
+    luaW_slab* slab = luaW_getslab(g);
+    luaW_userdata* data = (luaW_userdata*)g->cb.userdata;
+    luaW_allocprofile* profile = (luaW_allocprofile*)data->allocprofile;
+    lua_close(L);
+    // The destructors of everything still alive queued their handles, and nothing else
+    // will release them.
+    luaW_flushfreed(data);
+    free(data->freed);
+    data->freed = nullptr;
+    free(limits);
+    if (profile)
+        luaW_freeallocprofile(profile);
+    if (slab)
+        luaW_freeslab(slab);
+}
+
 LUA_API lua_State* luaW_newthread(lua_State* L)
 {
     lua_jmpbuf jb;
@@ -198,13 +1113,13 @@ LUA_API lua_State* luaW_newthread(lua_State* L)
     return ret;
 }
 
-LUA_API void luaW_resetthread(lua_State* L)
+LUA_API int luaW_resetthread(lua_State* L)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_resetthread(L);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
 LUA_API int luaW_equal(lua_State* L, int idx1, int idx2)
@@ -214,8 +1129,7 @@ LUA_API int luaW_equal(lua_State* L, int idx1, int idx2)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = lua_equal(L, idx1, idx2);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
 LUA_API int luaW_lessthan(lua_State* L, int idx1, int idx2)
@@ -225,8 +1139,7 @@ LUA_API int luaW_lessthan(lua_State* L, int idx1, int idx2)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = lua_lessthan(L, idx1, idx2);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
 LUA_API const char* luaW_tolstring(lua_State* L, int idx, size_t* len)
@@ -247,20 +1160,19 @@ LUA_API int luaW_objlen(lua_State* L, int idx)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = lua_objlen(L, idx);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
-LUA_API void luaW_pushlstring(lua_State* L, const char* s, size_t l)
+LUA_API int luaW_pushlstring(lua_State* L, const char* s, size_t l)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_pushlstring(L, s, l);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_pushcclosurek(lua_State* L, lua_CFunction fn, const char* debugname, int nup, lua_Continuation cont)
+LUA_API int luaW_pushcclosurek(lua_State* L, long long fn, const char* debugname, int nup, long long cont)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
@@ -268,14 +1180,56 @@ LUA_API void luaW_pushcclosurek(lua_State* L, lua_CFunction fn, const char* debu
     {
         // Slide the hidden upvalues underneath the user upvalues so they occupy slots 1 and 2.
         // Stack goes [u1..un, cont, fn] -> [fn, u1..un, cont] -> [fn, cont, u1..un].
-        lua_pushlightuserdatatagged(L, (void*)cont, 0);
-        lua_pushlightuserdatatagged(L, (void*)fn, 0);
+        lua_pushlightuserdatatagged(L, (void*)intptr_t(cont), 0);
+        lua_pushlightuserdatatagged(L, (void*)intptr_t(fn), 0);
         lua_insert(L, -(nup + 2));
         lua_insert(L, -(nup + 1));
 
-        lua_pushcclosurek(L, luaW_dispatch, debugname, nup + LUAW_UPVAL_BASE, cont != nullptr ? luaW_dispatchcont : nullptr);
+        lua_pushcclosurek(L, luaW_dispatch, debugname, nup + LUAW_UPVAL_BASE, cont != 0 ? luaW_dispatchcont : nullptr);
     }
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
+}
+
+LUA_API int luaW_pushprimitiveclosure(lua_State* L, long long fn, int signature, const char* debugname)
+{
+    lua_CFunction trampoline = nullptr;
+    switch (signature)
+    {
+    case LUAW_SIG_DOUBLE_UNARY:
+        trampoline = luaW_dispatch_doubleunary;
+        break;
+    case LUAW_SIG_DOUBLE_BINARY:
+        trampoline = luaW_dispatch_doublebinary;
+        break;
+    case LUAW_SIG_INT_CONSUMER:
+        trampoline = luaW_dispatch_intconsumer;
+        break;
+    case LUAW_SIG_LONG_BINARY:
+        trampoline = luaW_dispatch_longbinary;
+        break;
+    }
+
+    lua_jmpbuf jb;
+    luaW_enter(L, &jb);
+    if (LUAU_SETJMP(jb.buf) == 0)
+    {
+        if (!trampoline)
+            luaL_error(L, "unknown closure signature %d", signature);
+        lua_pushlightuserdatatagged(L, (void*)intptr_t(fn), 0);
+        lua_pushcclosurek(L, trampoline, debugname, LUAW_UPVAL_FUNC, nullptr);
+    }
+    return luaW_exit(L, &jb);
+}
+
+// Marks `tag` as used for object userdata, raising an error if it is a struct tag.
+static void luaW_objecttag(lua_State* L, int tag)
+{
+    if (unsigned(tag) >= LUA_UTAG_LIMIT)
+        return; // lua_newuserdatatagged asserts on this itself
+    luaW_userdata* data = (luaW_userdata*)L->global->cb.userdata;
+    if (data->tagkinds[tag] == LUAW_TAG_STRUCT)
+        luaL_error(L, "userdata tag %d is registered for struct userdata", tag);
+    data->tagkinds[tag] = LUAW_TAG_OBJECT;
 }
 
 LUA_API void* luaW_newuserdatatagged(lua_State* L, size_t sz, int tag)
@@ -284,18 +1238,53 @@ LUA_API void* luaW_newuserdatatagged(lua_State* L, size_t sz, int tag)
     void* ret = nullptr;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
+    {
+        luaW_objecttag(L, tag);
         ret = lua_newuserdatatagged(L, sz, tag);
+    }
+    luaW_exit(L, &jb);
+    return ret;
+}
+
+LUA_API void* luaW_newuserdatastruct(lua_State* L, size_t sz, int tag)
+{
+    lua_jmpbuf jb;
+    void* ret = nullptr;
+    luaW_enter(L, &jb);
+    if (LUAU_SETJMP(jb.buf) == 0)
+    {
+        luaW_userdata* data = (luaW_userdata*)L->global->cb.userdata;
+        if (unsigned(tag) >= LUA_UTAG_LIMIT || data->tagkinds[tag] != LUAW_TAG_STRUCT)
+            luaL_error(L, "userdata tag %d is not registered for struct userdata", tag);
+        ret = lua_newuserdatataggedwithmetatable(L, sz, tag);
+    }
     luaW_exit(L, &jb);
     return ret;
 }
 
+LUA_API int luaW_registerstructtag(lua_State* L, int tag)
+{
+    luaW_userdata* data = (luaW_userdata*)L->global->cb.userdata;
+    if (data->tagkinds[tag] == LUAW_TAG_OBJECT)
+        return -1;
+    if (data->tagkinds[tag] != LUAW_TAG_STRUCT)
+    {
+        lua_setuserdatadtor(L, tag, nullptr);
+        data->tagkinds[tag] = LUAW_TAG_STRUCT;
+    }
+    return 0;
+}
+
 LUA_API void* luaW_newuserdatataggedwithmetatable(lua_State* L, size_t sz, int tag)
 {
     lua_jmpbuf jb;
     void* ret = nullptr;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
+    {
+        luaW_objecttag(L, tag);
         ret = lua_newuserdatataggedwithmetatable(L, sz, tag);
+    }
     luaW_exit(L, &jb);
     return ret;
 }
@@ -311,6 +1300,244 @@ LUA_API void* luaW_newuserdatadtor(lua_State* L, size_t sz, void (*dtor)(void*))
     return ret;
 }
 
+static luaW_FreeHandles luaW_freehandler = nullptr;
+static int luaW_freebatch = 1;
+
+LUA_API void luaW_setfreehandler(luaW_FreeHandles fn, int batch)
+{
+    luaW_freehandler = fn;
+    luaW_freebatch = batch > 0 ? batch : 1;
+}
+
+static void luaW_flushfreed(luaW_userdata* data)
+{
+    int count = data->freedcount;
+    if (count == 0)
+        return;
+    data->freedcount = 0;
+    luaW_freehandler(data->javadata, data->freed, count);
+}
+
+static void luaW_queuefree(luaW_userdata* data, long long handle)
+{
+    if (!data->freed)
+    {
+        data->freed = (long long*)malloc(sizeof(long long) * luaW_freebatch);
+        if (!data->freed)
+        {
+            luaW_freehandler(data->javadata, &handle, 1);
+            return;
+        }
+    }
+
+    data->freed[data->freedcount++] = handle;
+    if (data->freedcount == luaW_freebatch)
+        luaW_flushfreed(data);
+}
+
+// Body of a luaW_newuserdatahandle userdata.
+struct luaW_handlebody
+{
+    long long handle;
+    luaW_userdata* data;
+};
+
+LUA_API void* luaW_newuserdatahandle(lua_State* L, long long externalbytes)
+{
+    luaW_handlebody* body = (luaW_handlebody*)(externalbytes > 0
+        ? luaW_newuserdataexternal(L, sizeof(luaW_handlebody), externalbytes, luaW_freehandle)
+        : luaW_newuserdatadtor(L, sizeof(luaW_handlebody), luaW_freehandle));
+    if (body)
+        body->data = (luaW_userdata*)L->global->cb.userdata;
+    return body;
+}
+
+LUA_API void luaW_freehandle(void* ud)
+{
+    luaW_handlebody* body = (luaW_handlebody*)ud;
+    luaW_queuefree(body->data, body->handle);
+}
+
+LUA_API void luaW_freehandletagged(lua_State* L, void* ud)
+{
+    long long handle;
+    memcpy(&handle, ud, sizeof(handle));
+    luaW_queuefree((luaW_userdata*)L->global->cb.userdata, handle);
+}
+
+LUA_API int luaW_gc(lua_State* L, int what, int data)
+{
+    int ret = lua_gc(L, what, data);
+    luaW_flushfreed((luaW_userdata*)L->global->cb.userdata);
+    return ret;
+}
+
+LUA_API luaW_threaddata* luaW_newthreaddata(lua_State* L)
+{
+    luaW_threaddata* data = (luaW_threaddata*)lua_getthreaddata(L);
+    if (!data)
+    {
+        data = (luaW_threaddata*)calloc(1, sizeof(luaW_threaddata));
+        lua_setthreaddata(L, data);
+    }
+    return data;
+}
+
+LUA_API void luaW_freethreaddata(lua_State* L)
+{
+    luaW_threaddata* data = (luaW_threaddata*)lua_getthreaddata(L);
+    if (!data)
+        return;
+    lua_setthreaddata(L, nullptr);
+    if (data->object != 0)
+        luaW_queuefree((luaW_userdata*)L->global->cb.userdata, data->object);
+    free(data);
+}
+
+LUA_API void luaW_userthread(lua_State* LP, lua_State* L)
+{
+    luaW_userdata* bridge = (luaW_userdata*)L->global->cb.userdata;
+    if (bridge && bridge->userthread)
+        bridge->userthread(LP, L);
+
+    // After the handler, so that it can still read the data of a thread being destroyed.
+    // The main thread is never passed here; the binding frees its data before lua_close.
+    if (!LP)
+        luaW_freethreaddata(L);
+}
+
+// Trailer of a luaW_newuserdataexternal body, after the caller's `sz` bytes (and before
+// the destructor pointer lua_newuserdatadtor appends).
+struct luaW_external
+{
+    void (*dtor)(void*);
+    global_State* global;
+    long long bytes;
+    uint8_t memcat;
+};
+
+static void luaW_countexternal(global_State* g, uint8_t memcat, long long delta)
+{
+    // size_t arithmetic wraps, so a negative delta subtracts.
+    g->totalbytes += size_t(delta);
+    g->memcatbytes[memcat] += size_t(delta);
+}
+
+static void luaW_externaldtor(void* ud)
+{
+    Udata* u = (Udata*)((char*)ud - offsetof(Udata, data));
+    luaW_external* ext = (luaW_external*)((char*)ud + u->len - sizeof(void (*)(void*)) - sizeof(luaW_external));
+    luaW_countexternal(ext->global, ext->memcat, -ext->bytes);
+    if (ext->dtor)
+        ext->dtor(ud);
+}
+
+LUA_API void* luaW_newuserdataexternal(lua_State* L, size_t sz, long long externalbytes, void (*dtor)(void*))
+{
+    lua_jmpbuf jb;
+    void* ret = nullptr;
+    luaW_enter(L, &jb);
+    if (LUAU_SETJMP(jb.buf) == 0)
+    {
+        size_t offset = (sz + alignof(luaW_external) - 1) & ~(alignof(luaW_external) - 1);
+        ret = lua_newuserdatadtor(L, offset + sizeof(luaW_external), luaW_externaldtor);
+
+        luaW_external* ext = (luaW_external*)((char*)ret + offset);
+        ext->dtor = dtor;
+        ext->global = L->global;
+        ext->bytes = externalbytes;
+        ext->memcat = L->activememcat;
+        // No GC step here: the body is not initialised yet. The next allocation will
+        // step, paced for the new debt.
+        luaW_countexternal(L->global, L->activememcat, externalbytes);
+    }
+    luaW_exit(L, &jb);
+    return ret;
+}
+
+LUA_API int luaW_adjustexternalmemory(lua_State* L, long long delta)
+{
+    lua_jmpbuf jb;
+    luaW_enter(L, &jb);
+    if (LUAU_SETJMP(jb.buf) == 0)
+    {
+        luaW_userdata* data = (luaW_userdata*)L->global->cb.userdata;
+        long long& counted = data->externalbytes[L->activememcat];
+        if (delta < 0 && -delta > counted)
+            luaL_error(L, "releasing %lld external bytes, only %lld counted in category %d", -delta, counted, L->activememcat);
+        counted += delta;
+        luaW_countexternal(L->global, L->activememcat, delta);
+        if (delta > 0)
+            luaC_checkGC(L);
+    }
+    return luaW_exit(L, &jb);
+}
+
+LUA_API int luaW_resume(lua_State* L, lua_State* from, int narg)
+{
+    int prevcat = luaW_attribute(L);
+    int status = lua_resume(L, from, narg);
+    luaW_unattribute(L, prevcat);
+    luaW_userdata* data = (luaW_userdata*)L->global->cb.userdata;
+    if (data->freedcount != 0)
+        luaW_flushfreed(data);
+    return status;
+}
+
+LUA_API void luaW_setmemcat(lua_State* L, int category)
+{
+    lua_setmemcat(L, category);
+    luaW_attribute(L);
+}
+
+LUA_API int luaW_setmemlimit(lua_State* L, int category, long long soft, long long hard)
+{
+    global_State* g = L->global;
+    if (g->frealloc != luaW_limitalloc)
+    {
+        luaW_memlimits* limits = (luaW_memlimits*)calloc(1, sizeof(luaW_memlimits));
+        if (!limits)
+            return -1;
+        limits->frealloc = g->frealloc;
+        limits->ud = g->ud;
+        limits->global = g;
+        limits->current = L->activememcat;
+        for (int i = 0; i < LUA_MEMORY_CATEGORIES; i++)
+            limits->peak[i] = (long long)g->memcatbytes[i];
+
+        // Blocks allocated before are freed through the wrapper too, which hands them to
+        // the same allocator, so swapping mid life is safe.
+        g->frealloc = luaW_limitalloc;
+        g->ud = limits;
+    }
+
+    luaW_memlimits* limits = (luaW_memlimits*)g->ud;
+    limits->soft[category] = soft;
+    limits->hard[category] = hard;
+    return 0;
+}
+
+LUA_API const size_t* luaW_memcatbytes(lua_State* L)
+{
+    return L->global->memcatbytes;
+}
+
+LUA_API const long long* luaW_mempeaks(lua_State* L)
+{
+    global_State* g = L->global;
+    return g->frealloc == luaW_limitalloc ? ((luaW_memlimits*)g->ud)->peak : nullptr;
+}
+
+LUA_API void luaW_clearexternalmemory(lua_State* L)
+{
+    luaW_userdata* data = (luaW_userdata*)L->global->cb.userdata;
+    for (int i = 0; i < LUA_MEMORY_CATEGORIES; i++)
+    {
+        luaW_countexternal(L->global, uint8_t(i), -data->externalbytes[i]);
+        data->externalbytes[i] = 0;
+    }
+}
+
 LUA_API void* luaW_newbuffer(lua_State* L, size_t sz)
 {
     lua_jmpbuf jb;
@@ -329,8 +1556,7 @@ LUA_API int luaW_gettable(lua_State* L, int idx)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = lua_gettable(L, idx);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
 LUA_API int luaW_getfield(lua_State* L, int idx, const char* k)
@@ -340,71 +1566,70 @@ LUA_API int luaW_getfield(lua_State* L, int idx, const char* k)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = lua_getfield(L, idx, k);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
-LUA_API void luaW_createtable(lua_State* L, int narr, int nrec)
+LUA_API int luaW_createtable(lua_State* L, int narr, int nrec)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_createtable(L, narr, nrec);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_settable(lua_State* L, int idx)
+LUA_API int luaW_settable(lua_State* L, int idx)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_settable(L, idx);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_setfield(lua_State* L, int idx, const char* k)
+LUA_API int luaW_setfield(lua_State* L, int idx, const char* k)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_setfield(L, idx, k);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_rawsetfield(lua_State* L, int idx, const char* k)
+LUA_API int luaW_rawsetfield(lua_State* L, int idx, const char* k)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_rawsetfield(L, idx, k);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_rawset(lua_State* L, int idx)
+LUA_API int luaW_rawset(lua_State* L, int idx)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_rawset(L, idx);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_rawseti(lua_State* L, int idx, int n)
+LUA_API int luaW_rawseti(lua_State* L, int idx, int n)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_rawseti(L, idx, n);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_rawsetptagged(lua_State* L, int idx, void* p, int tag)
+LUA_API int luaW_rawsetptagged(lua_State* L, int idx, void* p, int tag)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_rawsetptagged(L, idx, p, tag);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
 LUA_API int luaW_setmetatable(lua_State* L, int objindex)
@@ -414,8 +1639,7 @@ LUA_API int luaW_setmetatable(lua_State* L, int objindex)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = lua_setmetatable(L, objindex);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
 LUA_API int luaW_yield(lua_State* L, int nresults)
@@ -447,53 +1671,52 @@ LUA_API int luaW_next(lua_State* L, int idx)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = lua_next(L, idx);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
-LUA_API void luaW_concat(lua_State* L, int n)
+LUA_API int luaW_concat(lua_State* L, int n)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_concat(L, n);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_setlightuserdataname(lua_State* L, int tag, const char* name)
+LUA_API int luaW_setlightuserdataname(lua_State* L, int tag, const char* name)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_setlightuserdataname(L, tag, name);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_clonefunction(lua_State* L, int idx)
+LUA_API int luaW_clonefunction(lua_State* L, int idx)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_clonefunction(L, idx);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_cleartable(lua_State* L, int idx)
+LUA_API int luaW_cleartable(lua_State* L, int idx)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_cleartable(L, idx);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaW_clonetable(lua_State* L, int idx)
+LUA_API int luaW_clonetable(lua_State* L, int idx)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         lua_clonetable(L, idx);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
 //
@@ -507,8 +1730,7 @@ LUA_API int luaLW_newmetatable(lua_State* L, const char* tname)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = luaL_newmetatable(L, tname);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
 LUA_API const char* luaLW_tolstring(lua_State* L, int idx, size_t* len)
@@ -544,22 +1766,22 @@ LUA_API const char* luaLW_typename(lua_State* L, int idx)
     return ret;
 }
 
-LUA_API void luaLW_typeerror(lua_State* L, int narg, const char* tname)
+LUA_API int luaLW_typeerror(lua_State* L, int narg, const char* tname)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         luaL_typeerror(L, narg, tname);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
-LUA_API void luaLW_argerror(lua_State* L, int narg, const char* extramsg)
+LUA_API int luaLW_argerror(lua_State* L, int narg, const char* extramsg)
 {
     lua_jmpbuf jb;
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         luaL_argerror(L, narg, extramsg);
-    luaW_exit(L, &jb);
+    return luaW_exit(L, &jb);
 }
 
 LUA_API int luaLW_checkboolean(lua_State* L, int narg)
@@ -569,8 +1791,7 @@ LUA_API int luaLW_checkboolean(lua_State* L, int narg)
     luaW_enter(L, &jb);
     if (LUAU_SETJMP(jb.buf) == 0)
         ret = luaL_checkboolean(L, narg);
-    luaW_exit(L, &jb);
-    return ret;
+    return luaW_result(luaW_exit(L, &jb), ret);
 }
 
 LUA_API void* luaLW_checkudata(lua_State* L, int ud, const char* tname)
@@ -595,6 +1816,30 @@ LUA_API void* luaLW_checkudatatagged(lua_State* L, int ud, int tag)
     return ret;
 }
 
+LUA_API int luaW_pcall(lua_State* L, int nargs, int nresults)
+{
+    // None of this can raise: lua_pcall catches everything itself, and the rest only moves
+    // existing values around the stack.
+    luaW_userdata* data = (luaW_userdata*)lua_callbacks(L)->userdata;
+    int prevcat = luaW_attribute(L);
+    if (!data || data->errfunc <= 0)
+    {
+        int status = lua_pcall(L, nargs, nresults, 0);
+        luaW_unattribute(L, prevcat);
+        return status;
+    }
+
+    int funcidx = lua_gettop(L) - nargs;
+    lua_rawgeti(L, LUA_REGISTRYINDEX, data->errfunc);
+    lua_insert(L, funcidx);
+    int status = lua_pcall(L, nargs, nresults, funcidx);
+    lua_remove(L, funcidx);
+    luaW_unattribute(L, prevcat);
+    if (data->freedcount != 0)
+        luaW_flushfreed(data);
+    return status;
+}
+
 LUA_API int luaW_pcallyieldable(lua_State* L, int nargs, int nresults, int errfunc)
 {
     // luaL_pcallyieldable only asserts that the running closure has a continuation, and
@@ -0,0 +1,25 @@
+plugins {
+    id("luau.java-library")
+}
+
+group = rootProject.group
+version = rootProject.version
+description = "Annotation processor generating Luau bindings for Java classes"
+
+tasks.withType<Jar> {
+    archiveBaseName = "luau-processor"
+}
+
+publishing.publications.create<MavenPublication>("processor") {
+    groupId = project.group.toString()
+    artifactId = "luau-processor"
+    version = project.version.toString()
+
+    from(project.components["java"])
+
+    pom {
+        name.set(artifactId)
+
+        configureMavenPom(this)
+    }
+}
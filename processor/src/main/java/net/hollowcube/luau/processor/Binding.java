@@ -0,0 +1,41 @@
+package net.hollowcube.luau.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/// A validated `@LuaUserData` class, ready to be written out by [BindingWriter].
+///
+/// @param packageName  the package of the class and its binding, empty for the default package
+/// @param simpleName   the simple name of the binding class
+/// @param userType     the canonical name of the annotated class
+/// @param typeName     the name of the type in Lua
+record Binding(
+        String packageName,
+        String simpleName,
+        String userType,
+        String typeName,
+        int tag,
+        List<Method> methods
+) {
+
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /// @param result the return value, or null for `void` (and for raw methods)
+    record Method(String luaName, String javaName, boolean raw, List<Value> params, @Nullable Value result) {
+    }
+
+    /// A parameter or return value.
+    ///
+    /// @param javaType the canonical name of the Java type
+    /// @param binding  for [Kind#USER_DATA], the canonical name of that type's binding
+    record Value(Kind kind, String javaType, @Nullable String binding) {
+        enum Kind {
+            NUMBER, FLOAT, INTEGER, INTEGER64, BOOLEAN, STRING, VECTOR, USER_DATA,
+            /// The calling `LuaState`, which is not a Lua value at all.
+            STATE
+        }
+    }
+}
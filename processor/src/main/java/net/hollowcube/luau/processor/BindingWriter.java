@@ -0,0 +1,167 @@
+package net.hollowcube.luau.processor;
+
+import net.hollowcube.luau.processor.Binding.Method;
+import net.hollowcube.luau.processor.Binding.Value;
+
+/// Writes the source of a [Binding].
+///
+/// The binding is a final class of static methods: `TAG` and `TYPE_NAME`, the
+/// `NameCallDispatcher` with one adapter per exported method, `install` to set the tag's
+/// metatable, and typed `push`/`check`/`to`. Everything outside `java.lang` and the library
+/// is written fully qualified, so no name in the user's package can clash with an import.
+final class BindingWriter {
+    private static final String GENERATOR = LuaBindingProcessor.class.getName();
+
+    static String write(Binding binding) {
+        final StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(GENERATOR).append(", do not edit.\n");
+        if (!binding.packageName().isEmpty())
+            out.append("package ").append(binding.packageName()).append(";\n");
+        out.append("""
+
+                import net.hollowcube.luau.LuaAtomTable;
+                import net.hollowcube.luau.LuaState;
+                import net.hollowcube.luau.NameCallDispatcher;
+
+                import java.lang.foreign.Arena;
+
+                """);
+
+        final String type = binding.userType();
+        final String self = binding.simpleName();
+        out.append("/// Lua bindings for [").append(type).append("].\n");
+        out.append("public final class ").append(self).append(" {\n");
+        out.append("    public static final int TAG = ").append(binding.tag()).append(";\n");
+        out.append("    public static final String TYPE_NAME = ").append(literal(binding.typeName())).append(";\n\n");
+
+        out.append("    /// The exported methods, to which more (or a fallback) may be added before building.\n")
+                .append("    public static NameCallDispatcher.Builder builder(LuaAtomTable atoms) {\n")
+                .append("        return NameCallDispatcher.builder(atoms)");
+        for (Method method : binding.methods()) {
+            out.append("\n                .method(").append(literal(method.luaName())).append(", ")
+                    .append(self).append("::").append(adapter(method)).append(")");
+        }
+        out.append(";\n    }\n\n");
+
+        out.append("""
+                    public static NameCallDispatcher dispatcher(LuaAtomTable atoms) {
+                        return builder(atoms).build(TYPE_NAME);
+                    }
+
+                    public static NameCallDispatcher dispatcher(LuaAtomTable atoms, Arena arena) {
+                        return builder(atoms).build(TYPE_NAME, arena);
+                    }
+
+                    /// Sets the metatable of [#TAG] to one with `__type` and `__namecall`.
+                    public static void install(LuaState state, NameCallDispatcher dispatcher) {
+                        state.newTable();
+                        state.pushString(TYPE_NAME);
+                        state.setField(-2, "__type");
+                        state.pushFunction(dispatcher.nameCall());
+                        state.setField(-2, "__namecall");
+                        state.setUserDataMetaTable(TAG);
+                    }
+
+                """);
+        out.append("    public static void push(LuaState state, ").append(type).append(" value) {\n")
+                .append("        state.newUserDataTaggedWithMetatable(value, TAG);\n")
+                .append("    }\n\n");
+        out.append("    public static ").append(type).append(" check(LuaState state, int argNum) {\n")
+                .append("        return (").append(type).append(") state.checkUserDataTagged(argNum, TAG);\n")
+                .append("    }\n\n");
+        out.append("    /// The value at `index`, or null if it is not userdata of [#TAG].\n");
+        out.append("    public static ").append(type).append(" to(LuaState state, int index) {\n")
+                .append("        return (").append(type).append(") state.toUserDataTagged(index, TAG);\n")
+                .append("    }\n");
+
+        for (Method method : binding.methods())
+            writeAdapter(out, type, method);
+
+        out.append("\n    private ").append(self).append("() {\n    }\n}\n");
+        return out.toString();
+    }
+
+    private static void writeAdapter(StringBuilder out, String type, Method method) {
+        out.append("\n    private static int ").append(adapter(method)).append("(LuaState state) {\n");
+        out.append("        final ").append(type).append(" self = check(state, 1);\n");
+        if (method.raw()) {
+            out.append("        return self.").append(method.javaName()).append("(state);\n    }\n");
+            return;
+        }
+
+        // Arguments are decoded left to right, so the first bad one is the one reported.
+        final StringBuilder call = new StringBuilder("self.").append(method.javaName()).append("(");
+        int arg = 2;
+        for (int i = 0; i < method.params().size(); i++) {
+            final Value param = method.params().get(i);
+            if (i > 0) call.append(", ");
+            if (param.kind() == Value.Kind.STATE) {
+                call.append("state");
+            } else {
+                call.append(check(param, arg++));
+            }
+        }
+        call.append(")");
+
+        final Value result = method.result();
+        if (result == null) {
+            out.append("        ").append(call).append(";\n        return 0;\n    }\n");
+            return;
+        }
+        out.append("        final ").append(result.javaType()).append(" result = ").append(call).append(";\n");
+        switch (result.kind()) {
+            case NUMBER, FLOAT -> out.append("        state.pushNumber(result);\n");
+            case INTEGER -> out.append("        state.pushInteger(result);\n");
+            case INTEGER64 -> out.append("        state.pushInteger64(result);\n");
+            case BOOLEAN -> out.append("        state.pushBoolean(result);\n");
+            case STRING -> out.append("        if (result == null) state.pushNil();\n")
+                    .append("        else state.pushString(result);\n");
+            case VECTOR -> out.append("        if (result == null) state.pushNil();\n")
+                    .append("        else state.pushVector(result);\n");
+            case USER_DATA -> out.append("        if (result == null) state.pushNil();\n")
+                    .append("        else ").append(result.binding()).append(".push(state, result);\n");
+            case STATE -> throw new IllegalStateException("LuaState is not a result");
+        }
+        out.append("        return 1;\n    }\n");
+    }
+
+    private static String check(Value param, int arg) {
+        return switch (param.kind()) {
+            case NUMBER -> "state.checkNumber(" + arg + ")";
+            case FLOAT -> "(float) state.checkNumber(" + arg + ")";
+            case INTEGER -> "state.checkInteger(" + arg + ")";
+            case INTEGER64 -> "state.checkInteger64(" + arg + ")";
+            case BOOLEAN -> "state.checkBoolean(" + arg + ")";
+            case STRING -> "state.checkString(" + arg + ")";
+            case VECTOR -> "state.checkVector(" + arg + ")";
+            case USER_DATA -> param.binding() + ".check(state, " + arg + ")";
+            case STATE -> throw new IllegalStateException("LuaState is not an argument");
+        };
+    }
+
+    /// Lua names are identifiers, so they are valid in a Java name as is. The prefix keeps
+    /// them clear of `push`, `check` and the rest.
+    private static String adapter(Method method) {
+        return "export_" + method.luaName();
+    }
+
+    private static String literal(String value) {
+        final StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                default -> {
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private BindingWriter() {
+    }
+}
@@ -0,0 +1,258 @@
+package net.hollowcube.luau.processor;
+
+import net.hollowcube.luau.processor.Binding.Method;
+import net.hollowcube.luau.processor.Binding.Value;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/// Generates a `<Class>LuaBinding` for every class annotated `@LuaUserData`, see there.
+///
+/// The annotations are matched by name so that the processor does not depend on the
+/// library (or its natives) itself.
+public final class LuaBindingProcessor extends AbstractProcessor {
+    static final String USER_DATA = "net.hollowcube.luau.annotation.LuaUserData";
+    static final String EXPORT = "net.hollowcube.luau.annotation.LuaExport";
+    static final String LUA_STATE = "net.hollowcube.luau.LuaState";
+
+    /// Names usable after `obj:` without quoting.
+    private static final Pattern LUA_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    /// LUA_UTAG_LIMIT in lua.h, mirrored since the processor does not load the library.
+    private static final int USERDATA_TAG_LIMIT = 128;
+
+    /// The class claiming each tag, across rounds, so that two bindings compiled together
+    /// cannot share one.
+    private final Map<Integer, String> tags = new HashMap<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(USER_DATA, EXPORT);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        final TypeElement export = processingEnv.getElementUtils().getTypeElement(EXPORT);
+        if (export != null) {
+            for (Element method : round.getElementsAnnotatedWith(export)) {
+                if (annotation(method.getEnclosingElement(), USER_DATA) == null)
+                    error(method, "@LuaExport method must be declared in a @LuaUserData class");
+            }
+        }
+
+        final TypeElement userData = processingEnv.getElementUtils().getTypeElement(USER_DATA);
+        if (userData == null) return false;
+        for (Element element : round.getElementsAnnotatedWith(userData)) {
+            final Binding binding = binding((TypeElement) element);
+            if (binding == null) continue;
+            try (Writer out = processingEnv.getFiler().createSourceFile(binding.qualifiedName(), element).openWriter()) {
+                out.write(BindingWriter.write(binding));
+            } catch (IOException e) {
+                error(element, "failed to write " + binding.qualifiedName() + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /// Reads and validates a `@LuaUserData` class, or returns null after reporting errors.
+    private @Nullable Binding binding(TypeElement type) {
+        boolean valid = true;
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            error(type, "@LuaUserData class may not be private");
+            valid = false;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@LuaUserData class may not be generic");
+            valid = false;
+        }
+
+        final AnnotationMirror annotation = annotation(type, USER_DATA);
+        final int tag = (Integer) value(annotation, "tag");
+        if (tag <= 0 || tag >= USERDATA_TAG_LIMIT) {
+            error(type, "@LuaUserData tag must be between 1 and " + (USERDATA_TAG_LIMIT - 1) + ", was " + tag);
+            valid = false;
+        } else {
+            final String owner = tags.putIfAbsent(tag, type.getQualifiedName().toString());
+            if (owner != null && !owner.contentEquals(type.getQualifiedName())) {
+                error(type, "@LuaUserData tag " + tag + " is already used by " + owner);
+                valid = false;
+            }
+        }
+        String typeName = (String) value(annotation, "name");
+        if (typeName.isEmpty()) typeName = type.getSimpleName().toString();
+
+        final List<Method> methods = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+        for (ExecutableElement element : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (annotation(element, EXPORT) == null) continue;
+            final Method method = method(element);
+            if (method == null) {
+                valid = false;
+            } else if (!names.add(method.luaName())) {
+                error(element, "duplicate Lua method name '" + method.luaName() + "'");
+                valid = false;
+            } else {
+                methods.add(method);
+            }
+        }
+
+        if (!valid) return null;
+        final String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        return new Binding(pkg, bindingName(type), type.getQualifiedName().toString(), typeName, tag, methods);
+    }
+
+    private @Nullable Method method(ExecutableElement element) {
+        final AnnotationMirror annotation = annotation(element, EXPORT);
+        String luaName = (String) value(annotation, "name");
+        if (luaName.isEmpty()) luaName = element.getSimpleName().toString();
+        final boolean raw = (Boolean) value(annotation, "raw");
+
+        boolean valid = true;
+        if (!LUA_NAME.matcher(luaName).matches()) {
+            error(element, "'" + luaName + "' is not a valid Lua method name");
+            valid = false;
+        }
+        if (element.getModifiers().contains(Modifier.STATIC)) {
+            error(element, "@LuaExport method may not be static");
+            valid = false;
+        }
+        if (element.getModifiers().contains(Modifier.PRIVATE)) {
+            error(element, "@LuaExport method may not be private");
+            valid = false;
+        }
+        if (!element.getTypeParameters().isEmpty()) {
+            error(element, "@LuaExport method may not be generic");
+            valid = false;
+        }
+        for (TypeMirror thrown : element.getThrownTypes()) {
+            if (isChecked(thrown)) {
+                error(element, "@LuaExport method may not throw checked exception " + thrown);
+                valid = false;
+            }
+        }
+
+        final List<Value> params = new ArrayList<>();
+        if (raw) {
+            final List<? extends VariableElement> parameters = element.getParameters();
+            if (element.getReturnType().getKind() != TypeKind.INT || parameters.size() != 1
+                || !isType(parameters.getFirst().asType(), LUA_STATE)) {
+                error(element, "raw @LuaExport method must be 'int " + element.getSimpleName() + "(LuaState)'");
+                valid = false;
+            }
+            if (!valid) return null;
+            return new Method(luaName, element.getSimpleName().toString(), true, params, null);
+        }
+
+        for (VariableElement parameter : element.getParameters()) {
+            final Value value = value(parameter.asType());
+            if (value == null) {
+                error(parameter, "unsupported @LuaExport parameter type " + parameter.asType());
+                valid = false;
+            }
+            params.add(value);
+        }
+        Value result = null;
+        if (element.getReturnType().getKind() != TypeKind.VOID) {
+            result = value(element.getReturnType());
+            if (result == null || result.kind() == Value.Kind.STATE) {
+                error(element, "unsupported @LuaExport return type " + element.getReturnType());
+                valid = false;
+            }
+        }
+
+        if (!valid) return null;
+        return new Method(luaName, element.getSimpleName().toString(), false, params, result);
+    }
+
+    /// How a Java type crosses into Lua, or null if it cannot.
+    private @Nullable Value value(TypeMirror type) {
+        return switch (type.getKind()) {
+            case DOUBLE -> new Value(Value.Kind.NUMBER, "double", null);
+            case FLOAT -> new Value(Value.Kind.FLOAT, "float", null);
+            case INT -> new Value(Value.Kind.INTEGER, "int", null);
+            case LONG -> new Value(Value.Kind.INTEGER64, "long", null);
+            case BOOLEAN -> new Value(Value.Kind.BOOLEAN, "boolean", null);
+            case ARRAY -> type.toString().equals("float[]") ? new Value(Value.Kind.VECTOR, "float[]", null) : null;
+            case DECLARED -> {
+                if (isType(type, "java.lang.String")) yield new Value(Value.Kind.STRING, "String", null);
+                if (isType(type, LUA_STATE)) yield new Value(Value.Kind.STATE, LUA_STATE, null);
+                final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+                if (annotation(element, USER_DATA) == null || !element.getTypeParameters().isEmpty()) yield null;
+                final String pkg = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+                final String binding = pkg.isEmpty() ? bindingName(element) : pkg + "." + bindingName(element);
+                yield new Value(Value.Kind.USER_DATA, element.getQualifiedName().toString(), binding);
+            }
+            default -> null;
+        };
+    }
+
+    private boolean isChecked(TypeMirror thrown) {
+        final var types = processingEnv.getTypeUtils();
+        final var elements = processingEnv.getElementUtils();
+        return !types.isAssignable(thrown, elements.getTypeElement("java.lang.RuntimeException").asType())
+               && !types.isAssignable(thrown, elements.getTypeElement("java.lang.Error").asType());
+    }
+
+    private static boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED
+               && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    /// `Outer.Inner` becomes `Outer_InnerLuaBinding`.
+    private static String bindingName(TypeElement type) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element outer = type.getEnclosingElement(); outer.getKind() != ElementKind.PACKAGE; outer = outer.getEnclosingElement())
+            name.insert(0, outer.getSimpleName() + "_");
+        return name.append("LuaBinding").toString();
+    }
+
+    private static @Nullable AnnotationMirror annotation(Element element, String qualifiedName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(qualifiedName))
+                return mirror;
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror annotation, String name) {
+        final Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        for (var entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name))
+                return entry.getValue().getValue();
+        }
+        throw new IllegalStateException("no value for " + name + " in " + annotation);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
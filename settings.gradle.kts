@@ -11,4 +11,6 @@ plugins {
 rootProject.name = "luau-java"
 
 include("native")
+include("processor")
 include("example")
+include("benchmarks")
@@ -0,0 +1,74 @@
+// Generated by jextract
+
+package net.hollowcube.luau.internal.vm;
+
+import java.lang.invoke.*;
+import java.lang.foreign.*;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static java.lang.foreign.ValueLayout.*;
+import static java.lang.foreign.MemoryLayout.PathElement.*;
+
+/**
+ * {@snippet lang=c :
+ * typedef double (*luaW_DoubleBinary)(lua_State *, long long, double, double, int *)
+ * }
+ */
+public final class luaW_DoubleBinary {
+
+    private luaW_DoubleBinary() {
+        // Should not be called directly
+    }
+
+    /**
+     * The function pointer signature, expressed as a functional interface
+     */
+    public interface Function {
+        double apply(MemorySegment L, long id, double a, double b, MemorySegment err);
+    }
+
+    private static final FunctionDescriptor $DESC = FunctionDescriptor.of(
+        luaujava_h.C_DOUBLE,
+        luaujava_h.C_POINTER,
+        luaujava_h.C_LONG_LONG,
+        luaujava_h.C_DOUBLE,
+        luaujava_h.C_DOUBLE,
+        luaujava_h.C_POINTER
+    );
+
+    /**
+     * The descriptor of this function pointer
+     */
+    public static FunctionDescriptor descriptor() {
+        return $DESC;
+    }
+
+    private static final MethodHandle UP$MH = luaujava_h.upcallHandle(luaW_DoubleBinary.Function.class, "apply", $DESC);
+
+    /**
+     * Allocates a new upcall stub, whose implementation is defined by {@code fi}.
+     * The lifetime of the returned segment is managed by {@code arena}
+     */
+    public static MemorySegment allocate(luaW_DoubleBinary.Function fi, Arena arena) {
+        return Linker.nativeLinker().upcallStub(UP$MH.bindTo(fi), $DESC, arena);
+    }
+
+    private static final MethodHandle DOWN$MH = Linker.nativeLinker().downcallHandle($DESC);
+
+    /**
+     * Invoke the upcall stub {@code funcPtr}, with given parameters
+     */
+    public static double invoke(MemorySegment funcPtr, MemorySegment L, long id, double a, double b, MemorySegment err) {
+        try {
+            return (double) DOWN$MH.invokeExact(funcPtr, L, id, a, b, err);
+        } catch (Error | RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex$) {
+            throw new AssertionError("should not reach here", ex$);
+        }
+    }
+}
+
@@ -0,0 +1,72 @@
+// Generated by jextract
+
+package net.hollowcube.luau.internal.vm;
+
+import java.lang.invoke.*;
+import java.lang.foreign.*;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static java.lang.foreign.ValueLayout.*;
+import static java.lang.foreign.MemoryLayout.PathElement.*;
+
+/**
+ * {@snippet lang=c :
+ * typedef int (*luaW_JavaContinuation)(lua_State *, long long, int)
+ * }
+ */
+public final class luaW_JavaContinuation {
+
+    private luaW_JavaContinuation() {
+        // Should not be called directly
+    }
+
+    /**
+     * The function pointer signature, expressed as a functional interface
+     */
+    public interface Function {
+        int apply(MemorySegment L, long id, int status);
+    }
+
+    private static final FunctionDescriptor $DESC = FunctionDescriptor.of(
+        luaujava_h.C_INT,
+        luaujava_h.C_POINTER,
+        luaujava_h.C_LONG_LONG,
+        luaujava_h.C_INT
+    );
+
+    /**
+     * The descriptor of this function pointer
+     */
+    public static FunctionDescriptor descriptor() {
+        return $DESC;
+    }
+
+    private static final MethodHandle UP$MH = luaujava_h.upcallHandle(luaW_JavaContinuation.Function.class, "apply", $DESC);
+
+    /**
+     * Allocates a new upcall stub, whose implementation is defined by {@code fi}.
+     * The lifetime of the returned segment is managed by {@code arena}
+     */
+    public static MemorySegment allocate(luaW_JavaContinuation.Function fi, Arena arena) {
+        return Linker.nativeLinker().upcallStub(UP$MH.bindTo(fi), $DESC, arena);
+    }
+
+    private static final MethodHandle DOWN$MH = Linker.nativeLinker().downcallHandle($DESC);
+
+    /**
+     * Invoke the upcall stub {@code funcPtr}, with given parameters
+     */
+    public static int invoke(MemorySegment funcPtr, MemorySegment L, long id, int status) {
+        try {
+            return (int) DOWN$MH.invokeExact(funcPtr, L, id, status);
+        } catch (Error | RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex$) {
+            throw new AssertionError("should not reach here", ex$);
+        }
+    }
+}
+
@@ -0,0 +1,74 @@
+// Generated by jextract
+
+package net.hollowcube.luau.internal.vm;
+
+import java.lang.invoke.*;
+import java.lang.foreign.*;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static java.lang.foreign.ValueLayout.*;
+import static java.lang.foreign.MemoryLayout.PathElement.*;
+
+/**
+ * {@snippet lang=c :
+ * typedef long long (*luaW_LongBinary)(lua_State *, long long, long long, long long, int *)
+ * }
+ */
+public final class luaW_LongBinary {
+
+    private luaW_LongBinary() {
+        // Should not be called directly
+    }
+
+    /**
+     * The function pointer signature, expressed as a functional interface
+     */
+    public interface Function {
+        long apply(MemorySegment L, long id, long a, long b, MemorySegment err);
+    }
+
+    private static final FunctionDescriptor $DESC = FunctionDescriptor.of(
+        luaujava_h.C_LONG_LONG,
+        luaujava_h.C_POINTER,
+        luaujava_h.C_LONG_LONG,
+        luaujava_h.C_LONG_LONG,
+        luaujava_h.C_LONG_LONG,
+        luaujava_h.C_POINTER
+    );
+
+    /**
+     * The descriptor of this function pointer
+     */
+    public static FunctionDescriptor descriptor() {
+        return $DESC;
+    }
+
+    private static final MethodHandle UP$MH = luaujava_h.upcallHandle(luaW_LongBinary.Function.class, "apply", $DESC);
+
+    /**
+     * Allocates a new upcall stub, whose implementation is defined by {@code fi}.
+     * The lifetime of the returned segment is managed by {@code arena}
+     */
+    public static MemorySegment allocate(luaW_LongBinary.Function fi, Arena arena) {
+        return Linker.nativeLinker().upcallStub(UP$MH.bindTo(fi), $DESC, arena);
+    }
+
+    private static final MethodHandle DOWN$MH = Linker.nativeLinker().downcallHandle($DESC);
+
+    /**
+     * Invoke the upcall stub {@code funcPtr}, with given parameters
+     */
+    public static long invoke(MemorySegment funcPtr, MemorySegment L, long id, long a, long b, MemorySegment err) {
+        try {
+            return (long) DOWN$MH.invokeExact(funcPtr, L, id, a, b, err);
+        } catch (Error | RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex$) {
+            throw new AssertionError("should not reach here", ex$);
+        }
+    }
+}
+
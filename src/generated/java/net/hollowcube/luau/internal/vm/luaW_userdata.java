@@ -17,6 +17,19 @@ import static java.lang.foreign.MemoryLayout.PathElement.*;
  * struct luaW_userdata {
  *     void *javadata;
  *     int (*preempt)(lua_State *, int);
+ *     int errfunc;
+ *     void (*userthread)(lua_State *, lua_State *);
+ *     int preemptpolicy;
+ *     int preemptstop;
+ *     int preemptaction;
+ *     long long preemptdeadline;
+ *     long long preemptbudget;
+ *     void *atoms;
+ *     void *allocprofile;
+ *     long long *freed;
+ *     int freedcount;
+ *     unsigned char tagkinds[128];
+ *     long long externalbytes[256];
  * }
  * }
  */
@@ -28,7 +41,23 @@ public class luaW_userdata {
 
     private static final GroupLayout $LAYOUT = MemoryLayout.structLayout(
         luaujava_h.C_POINTER.withName("javadata"),
-        luaujava_h.C_POINTER.withName("preempt")
+        luaujava_h.C_POINTER.withName("preempt"),
+        luaujava_h.C_INT.withName("errfunc"),
+        MemoryLayout.paddingLayout(4),
+        luaujava_h.C_POINTER.withName("userthread"),
+        luaujava_h.C_INT.withName("preemptpolicy"),
+        luaujava_h.C_INT.withName("preemptstop"),
+        luaujava_h.C_INT.withName("preemptaction"),
+        MemoryLayout.paddingLayout(4),
+        luaujava_h.C_LONG_LONG.withName("preemptdeadline"),
+        luaujava_h.C_LONG_LONG.withName("preemptbudget"),
+        luaujava_h.C_POINTER.withName("atoms"),
+        luaujava_h.C_POINTER.withName("allocprofile"),
+        luaujava_h.C_POINTER.withName("freed"),
+        luaujava_h.C_INT.withName("freedcount"),
+        MemoryLayout.sequenceLayout(128, luaujava_h.C_CHAR).withName("tagkinds"),
+        MemoryLayout.paddingLayout(4),
+        MemoryLayout.sequenceLayout(256, luaujava_h.C_LONG_LONG).withName("externalbytes")
     ).withName("luaW_userdata");
 
     /**
@@ -183,6 +212,700 @@ public class luaW_userdata {
         struct.set(preempt$LAYOUT, preempt$OFFSET, fieldValue);
     }
 
+    private static final OfInt errfunc$LAYOUT = (OfInt)$LAYOUT.select(groupElement("errfunc"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * int errfunc
+     * }
+     */
+    public static final OfInt errfunc$layout() {
+        return errfunc$LAYOUT;
+    }
+
+    private static final long errfunc$OFFSET = $LAYOUT.byteOffset(groupElement("errfunc"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * int errfunc
+     * }
+     */
+    public static final long errfunc$offset() {
+        return errfunc$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * int errfunc
+     * }
+     */
+    public static int errfunc(MemorySegment struct) {
+        return struct.get(errfunc$LAYOUT, errfunc$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * int errfunc
+     * }
+     */
+    public static void errfunc(MemorySegment struct, int fieldValue) {
+        struct.set(errfunc$LAYOUT, errfunc$OFFSET, fieldValue);
+    }
+
+    /**
+     * {@snippet lang=c :
+     * void (*userthread)(lua_State *, lua_State *)
+     * }
+     */
+    public final static class userthread {
+
+        private userthread() {
+            // Should not be called directly
+        }
+
+        /**
+         * The function pointer signature, expressed as a functional interface
+         */
+        public interface Function {
+            void apply(MemorySegment _x0, MemorySegment _x1);
+        }
+
+        private static final FunctionDescriptor $DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER
+        );
+
+        /**
+         * The descriptor of this function pointer
+         */
+        public static FunctionDescriptor descriptor() {
+            return $DESC;
+        }
+
+        private static final MethodHandle UP$MH = luaujava_h.upcallHandle(userthread.Function.class, "apply", $DESC);
+
+        /**
+         * Allocates a new upcall stub, whose implementation is defined by {@code fi}.
+         * The lifetime of the returned segment is managed by {@code arena}
+         */
+        public static MemorySegment allocate(userthread.Function fi, Arena arena) {
+            return Linker.nativeLinker().upcallStub(UP$MH.bindTo(fi), $DESC, arena);
+        }
+
+        private static final MethodHandle DOWN$MH = Linker.nativeLinker().downcallHandle($DESC);
+
+        /**
+         * Invoke the upcall stub {@code funcPtr}, with given parameters
+         */
+        public static void invoke(MemorySegment funcPtr, MemorySegment _x0, MemorySegment _x1) {
+            try {
+                 DOWN$MH.invokeExact(funcPtr, _x0, _x1);
+            } catch (Error | RuntimeException ex) {
+                throw ex;
+            } catch (Throwable ex$) {
+                throw new AssertionError("should not reach here", ex$);
+            }
+        }
+    }
+
+    private static final AddressLayout userthread$LAYOUT = (AddressLayout)$LAYOUT.select(groupElement("userthread"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * void (*userthread)(lua_State *, lua_State *)
+     * }
+     */
+    public static final AddressLayout userthread$layout() {
+        return userthread$LAYOUT;
+    }
+
+    private static final long userthread$OFFSET = $LAYOUT.byteOffset(groupElement("userthread"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * void (*userthread)(lua_State *, lua_State *)
+     * }
+     */
+    public static final long userthread$offset() {
+        return userthread$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * void (*userthread)(lua_State *, lua_State *)
+     * }
+     */
+    public static MemorySegment userthread(MemorySegment struct) {
+        return struct.get(userthread$LAYOUT, userthread$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * void (*userthread)(lua_State *, lua_State *)
+     * }
+     */
+    public static void userthread(MemorySegment struct, MemorySegment fieldValue) {
+        struct.set(userthread$LAYOUT, userthread$OFFSET, fieldValue);
+    }
+
+    private static final OfInt preemptpolicy$LAYOUT = (OfInt)$LAYOUT.select(groupElement("preemptpolicy"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * int preemptpolicy
+     * }
+     */
+    public static final OfInt preemptpolicy$layout() {
+        return preemptpolicy$LAYOUT;
+    }
+
+    private static final long preemptpolicy$OFFSET = $LAYOUT.byteOffset(groupElement("preemptpolicy"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * int preemptpolicy
+     * }
+     */
+    public static final long preemptpolicy$offset() {
+        return preemptpolicy$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * int preemptpolicy
+     * }
+     */
+    public static int preemptpolicy(MemorySegment struct) {
+        return struct.get(preemptpolicy$LAYOUT, preemptpolicy$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * int preemptpolicy
+     * }
+     */
+    public static void preemptpolicy(MemorySegment struct, int fieldValue) {
+        struct.set(preemptpolicy$LAYOUT, preemptpolicy$OFFSET, fieldValue);
+    }
+
+    private static final OfInt preemptstop$LAYOUT = (OfInt)$LAYOUT.select(groupElement("preemptstop"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * int preemptstop
+     * }
+     */
+    public static final OfInt preemptstop$layout() {
+        return preemptstop$LAYOUT;
+    }
+
+    private static final long preemptstop$OFFSET = $LAYOUT.byteOffset(groupElement("preemptstop"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * int preemptstop
+     * }
+     */
+    public static final long preemptstop$offset() {
+        return preemptstop$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * int preemptstop
+     * }
+     */
+    public static int preemptstop(MemorySegment struct) {
+        return struct.get(preemptstop$LAYOUT, preemptstop$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * int preemptstop
+     * }
+     */
+    public static void preemptstop(MemorySegment struct, int fieldValue) {
+        struct.set(preemptstop$LAYOUT, preemptstop$OFFSET, fieldValue);
+    }
+
+    private static final OfInt preemptaction$LAYOUT = (OfInt)$LAYOUT.select(groupElement("preemptaction"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * int preemptaction
+     * }
+     */
+    public static final OfInt preemptaction$layout() {
+        return preemptaction$LAYOUT;
+    }
+
+    private static final long preemptaction$OFFSET = $LAYOUT.byteOffset(groupElement("preemptaction"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * int preemptaction
+     * }
+     */
+    public static final long preemptaction$offset() {
+        return preemptaction$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * int preemptaction
+     * }
+     */
+    public static int preemptaction(MemorySegment struct) {
+        return struct.get(preemptaction$LAYOUT, preemptaction$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * int preemptaction
+     * }
+     */
+    public static void preemptaction(MemorySegment struct, int fieldValue) {
+        struct.set(preemptaction$LAYOUT, preemptaction$OFFSET, fieldValue);
+    }
+
+    private static final OfLong preemptdeadline$LAYOUT = (OfLong)$LAYOUT.select(groupElement("preemptdeadline"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * long long preemptdeadline
+     * }
+     */
+    public static final OfLong preemptdeadline$layout() {
+        return preemptdeadline$LAYOUT;
+    }
+
+    private static final long preemptdeadline$OFFSET = $LAYOUT.byteOffset(groupElement("preemptdeadline"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * long long preemptdeadline
+     * }
+     */
+    public static final long preemptdeadline$offset() {
+        return preemptdeadline$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * long long preemptdeadline
+     * }
+     */
+    public static long preemptdeadline(MemorySegment struct) {
+        return struct.get(preemptdeadline$LAYOUT, preemptdeadline$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * long long preemptdeadline
+     * }
+     */
+    public static void preemptdeadline(MemorySegment struct, long fieldValue) {
+        struct.set(preemptdeadline$LAYOUT, preemptdeadline$OFFSET, fieldValue);
+    }
+
+    private static final OfLong preemptbudget$LAYOUT = (OfLong)$LAYOUT.select(groupElement("preemptbudget"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * long long preemptbudget
+     * }
+     */
+    public static final OfLong preemptbudget$layout() {
+        return preemptbudget$LAYOUT;
+    }
+
+    private static final long preemptbudget$OFFSET = $LAYOUT.byteOffset(groupElement("preemptbudget"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * long long preemptbudget
+     * }
+     */
+    public static final long preemptbudget$offset() {
+        return preemptbudget$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * long long preemptbudget
+     * }
+     */
+    public static long preemptbudget(MemorySegment struct) {
+        return struct.get(preemptbudget$LAYOUT, preemptbudget$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * long long preemptbudget
+     * }
+     */
+    public static void preemptbudget(MemorySegment struct, long fieldValue) {
+        struct.set(preemptbudget$LAYOUT, preemptbudget$OFFSET, fieldValue);
+    }
+
+    private static final AddressLayout atoms$LAYOUT = (AddressLayout)$LAYOUT.select(groupElement("atoms"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * void *atoms
+     * }
+     */
+    public static final AddressLayout atoms$layout() {
+        return atoms$LAYOUT;
+    }
+
+    private static final long atoms$OFFSET = $LAYOUT.byteOffset(groupElement("atoms"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * void *atoms
+     * }
+     */
+    public static final long atoms$offset() {
+        return atoms$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * void *atoms
+     * }
+     */
+    public static MemorySegment atoms(MemorySegment struct) {
+        return struct.get(atoms$LAYOUT, atoms$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * void *atoms
+     * }
+     */
+    public static void atoms(MemorySegment struct, MemorySegment fieldValue) {
+        struct.set(atoms$LAYOUT, atoms$OFFSET, fieldValue);
+    }
+
+    private static final AddressLayout allocprofile$LAYOUT = (AddressLayout)$LAYOUT.select(groupElement("allocprofile"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * void *allocprofile
+     * }
+     */
+    public static final AddressLayout allocprofile$layout() {
+        return allocprofile$LAYOUT;
+    }
+
+    private static final long allocprofile$OFFSET = $LAYOUT.byteOffset(groupElement("allocprofile"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * void *allocprofile
+     * }
+     */
+    public static final long allocprofile$offset() {
+        return allocprofile$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * void *allocprofile
+     * }
+     */
+    public static MemorySegment allocprofile(MemorySegment struct) {
+        return struct.get(allocprofile$LAYOUT, allocprofile$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * void *allocprofile
+     * }
+     */
+    public static void allocprofile(MemorySegment struct, MemorySegment fieldValue) {
+        struct.set(allocprofile$LAYOUT, allocprofile$OFFSET, fieldValue);
+    }
+
+    private static final AddressLayout freed$LAYOUT = (AddressLayout)$LAYOUT.select(groupElement("freed"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * long long *freed
+     * }
+     */
+    public static final AddressLayout freed$layout() {
+        return freed$LAYOUT;
+    }
+
+    private static final long freed$OFFSET = $LAYOUT.byteOffset(groupElement("freed"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * long long *freed
+     * }
+     */
+    public static final long freed$offset() {
+        return freed$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * long long *freed
+     * }
+     */
+    public static MemorySegment freed(MemorySegment struct) {
+        return struct.get(freed$LAYOUT, freed$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * long long *freed
+     * }
+     */
+    public static void freed(MemorySegment struct, MemorySegment fieldValue) {
+        struct.set(freed$LAYOUT, freed$OFFSET, fieldValue);
+    }
+
+    private static final OfInt freedcount$LAYOUT = (OfInt)$LAYOUT.select(groupElement("freedcount"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * int freedcount
+     * }
+     */
+    public static final OfInt freedcount$layout() {
+        return freedcount$LAYOUT;
+    }
+
+    private static final long freedcount$OFFSET = $LAYOUT.byteOffset(groupElement("freedcount"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * int freedcount
+     * }
+     */
+    public static final long freedcount$offset() {
+        return freedcount$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * int freedcount
+     * }
+     */
+    public static int freedcount(MemorySegment struct) {
+        return struct.get(freedcount$LAYOUT, freedcount$OFFSET);
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * int freedcount
+     * }
+     */
+    public static void freedcount(MemorySegment struct, int fieldValue) {
+        struct.set(freedcount$LAYOUT, freedcount$OFFSET, fieldValue);
+    }
+
+    private static final SequenceLayout tagkinds$LAYOUT = (SequenceLayout)$LAYOUT.select(groupElement("tagkinds"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * unsigned char tagkinds[128]
+     * }
+     */
+    public static final SequenceLayout tagkinds$layout() {
+        return tagkinds$LAYOUT;
+    }
+
+    private static final long tagkinds$OFFSET = $LAYOUT.byteOffset(groupElement("tagkinds"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * unsigned char tagkinds[128]
+     * }
+     */
+    public static final long tagkinds$offset() {
+        return tagkinds$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * unsigned char tagkinds[128]
+     * }
+     */
+    public static MemorySegment tagkinds(MemorySegment struct) {
+        return struct.asSlice(tagkinds$OFFSET, tagkinds$LAYOUT.byteSize());
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * unsigned char tagkinds[128]
+     * }
+     */
+    public static void tagkinds(MemorySegment struct, MemorySegment fieldValue) {
+        MemorySegment.copy(fieldValue, 0L, struct, tagkinds$OFFSET, tagkinds$LAYOUT.byteSize());
+    }
+
+    private static long[] tagkinds$DIMS = { 128 };
+
+    /**
+     * Dimensions for array field:
+     * {@snippet lang=c :
+     * unsigned char tagkinds[128]
+     * }
+     */
+    public static long[] tagkinds$dimensions() {
+        return tagkinds$DIMS;
+    }
+    private static final VarHandle tagkinds$ELEM_HANDLE = tagkinds$LAYOUT.varHandle(sequenceElement());
+
+    /**
+     * Indexed getter for field:
+     * {@snippet lang=c :
+     * unsigned char tagkinds[128]
+     * }
+     */
+    public static byte tagkinds(MemorySegment struct, long index0) {
+        return (byte)tagkinds$ELEM_HANDLE.get(struct, tagkinds$OFFSET, index0);
+    }
+
+    /**
+     * Indexed setter for field:
+     * {@snippet lang=c :
+     * unsigned char tagkinds[128]
+     * }
+     */
+    public static void tagkinds(MemorySegment struct, long index0, byte fieldValue) {
+        tagkinds$ELEM_HANDLE.set(struct, tagkinds$OFFSET, index0, fieldValue);
+    }
+
+    private static final SequenceLayout externalbytes$LAYOUT = (SequenceLayout)$LAYOUT.select(groupElement("externalbytes"));
+
+    /**
+     * Layout for field:
+     * {@snippet lang=c :
+     * long long externalbytes[256]
+     * }
+     */
+    public static final SequenceLayout externalbytes$layout() {
+        return externalbytes$LAYOUT;
+    }
+
+    private static final long externalbytes$OFFSET = $LAYOUT.byteOffset(groupElement("externalbytes"));
+
+    /**
+     * Offset for field:
+     * {@snippet lang=c :
+     * long long externalbytes[256]
+     * }
+     */
+    public static final long externalbytes$offset() {
+        return externalbytes$OFFSET;
+    }
+
+    /**
+     * Getter for field:
+     * {@snippet lang=c :
+     * long long externalbytes[256]
+     * }
+     */
+    public static MemorySegment externalbytes(MemorySegment struct) {
+        return struct.asSlice(externalbytes$OFFSET, externalbytes$LAYOUT.byteSize());
+    }
+
+    /**
+     * Setter for field:
+     * {@snippet lang=c :
+     * long long externalbytes[256]
+     * }
+     */
+    public static void externalbytes(MemorySegment struct, MemorySegment fieldValue) {
+        MemorySegment.copy(fieldValue, 0L, struct, externalbytes$OFFSET, externalbytes$LAYOUT.byteSize());
+    }
+
+    private static long[] externalbytes$DIMS = { 256 };
+
+    /**
+     * Dimensions for array field:
+     * {@snippet lang=c :
+     * long long externalbytes[256]
+     * }
+     */
+    public static long[] externalbytes$dimensions() {
+        return externalbytes$DIMS;
+    }
+    private static final VarHandle externalbytes$ELEM_HANDLE = externalbytes$LAYOUT.varHandle(sequenceElement());
+
+    /**
+     * Indexed getter for field:
+     * {@snippet lang=c :
+     * long long externalbytes[256]
+     * }
+     */
+    public static long externalbytes(MemorySegment struct, long index0) {
+        return (long)externalbytes$ELEM_HANDLE.get(struct, externalbytes$OFFSET, index0);
+    }
+
+    /**
+     * Indexed setter for field:
+     * {@snippet lang=c :
+     * long long externalbytes[256]
+     * }
+     */
+    public static void externalbytes(MemorySegment struct, long index0, long fieldValue) {
+        externalbytes$ELEM_HANDLE.set(struct, externalbytes$OFFSET, index0, fieldValue);
+    }
+
     /**
      * Obtains a slice of {@code arrayParam} which selects the array element at {@code index}.
      * The returned segment has address {@code arrayParam.address() + index * layout().byteSize()}
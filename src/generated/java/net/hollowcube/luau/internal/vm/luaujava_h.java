@@ -23,6 +23,24 @@ public class luaujava_h extends luaujava_h$shared {
     static final SymbolLookup SYMBOL_LOOKUP = SymbolLookup.loaderLookup()
             .or(Linker.nativeLinker().defaultLookup());
 
+    private static final int LUAW_THREAD_SLOTS = (int)4L;
+    /**
+     * {@snippet lang=c :
+     * #define LUAW_THREAD_SLOTS 4
+     * }
+     */
+    public static int LUAW_THREAD_SLOTS() {
+        return LUAW_THREAD_SLOTS;
+    }
+    private static final int LUAW_ALLOCPROFILE_DEPTH = (int)64L;
+    /**
+     * {@snippet lang=c :
+     * #define LUAW_ALLOCPROFILE_DEPTH 64
+     * }
+     */
+    public static int LUAW_ALLOCPROFILE_DEPTH() {
+        return LUAW_ALLOCPROFILE_DEPTH;
+    }
 
     private static class lua_xmove {
         public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
@@ -499,6 +517,187 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
+    private static class luaW_layout {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_LONG_LONG,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_layout");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern long long luaW_layout(int field)
+     * }
+     */
+    public static FunctionDescriptor luaW_layout$descriptor() {
+        return luaW_layout.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern long long luaW_layout(int field)
+     * }
+     */
+    public static MethodHandle luaW_layout$handle() {
+        return luaW_layout.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern long long luaW_layout(int field)
+     * }
+     */
+    public static MemorySegment luaW_layout$address() {
+        return luaW_layout.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern long long luaW_layout(int field)
+     * }
+     */
+    public static long luaW_layout(int field) {
+        var mh$ = luaW_layout.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_layout", field);
+            }
+            return (long)mh$.invokeExact(field);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_newslabstate {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG_LONG,
+            luaujava_h.C_LONG_LONG
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newslabstate");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern lua_State *luaW_newslabstate(long long maxblock, long long maxcached)
+     * }
+     */
+    public static FunctionDescriptor luaW_newslabstate$descriptor() {
+        return luaW_newslabstate.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern lua_State *luaW_newslabstate(long long maxblock, long long maxcached)
+     * }
+     */
+    public static MethodHandle luaW_newslabstate$handle() {
+        return luaW_newslabstate.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern lua_State *luaW_newslabstate(long long maxblock, long long maxcached)
+     * }
+     */
+    public static MemorySegment luaW_newslabstate$address() {
+        return luaW_newslabstate.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern lua_State *luaW_newslabstate(long long maxblock, long long maxcached)
+     * }
+     */
+    public static MemorySegment luaW_newslabstate(long maxblock, long maxcached) {
+        var mh$ = luaW_newslabstate.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_newslabstate", maxblock, maxcached);
+            }
+            return (MemorySegment)mh$.invokeExact(maxblock, maxcached);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_slabstats {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_slabstats");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern const long long *luaW_slabstats(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_slabstats$descriptor() {
+        return luaW_slabstats.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern const long long *luaW_slabstats(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_slabstats$handle() {
+        return luaW_slabstats.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern const long long *luaW_slabstats(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_slabstats$address() {
+        return luaW_slabstats.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern const long long *luaW_slabstats(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_slabstats(MemorySegment L) {
+        var mh$ = luaW_slabstats.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_slabstats", L);
+            }
+            return (MemorySegment)mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
     private static class luaW_newstate {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_POINTER,
@@ -559,6 +758,65 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
+    private static class luaW_close {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_close");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern void luaW_close(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_close$descriptor() {
+        return luaW_close.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern void luaW_close(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_close$handle() {
+        return luaW_close.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern void luaW_close(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_close$address() {
+        return luaW_close.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern void luaW_close(lua_State *L)
+     * }
+     */
+    public static void luaW_close(MemorySegment L) {
+        var mh$ = luaW_close.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_close", L);
+            }
+            mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
     private static class luaW_newthread {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_POINTER,
@@ -620,7 +878,8 @@ public class luaujava_h extends luaujava_h$shared {
     }
 
     private static class luaW_resetthread {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER
         );
 
@@ -632,7 +891,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_resetthread(lua_State *L)
+     * extern int luaW_resetthread(lua_State *L)
      * }
      */
     public static FunctionDescriptor luaW_resetthread$descriptor() {
@@ -642,7 +901,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_resetthread(lua_State *L)
+     * extern int luaW_resetthread(lua_State *L)
      * }
      */
     public static MethodHandle luaW_resetthread$handle() {
@@ -652,7 +911,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_resetthread(lua_State *L)
+     * extern int luaW_resetthread(lua_State *L)
      * }
      */
     public static MemorySegment luaW_resetthread$address() {
@@ -661,16 +920,16 @@ public class luaujava_h extends luaujava_h$shared {
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_resetthread(lua_State *L)
+     * extern int luaW_resetthread(lua_State *L)
      * }
      */
-    public static void luaW_resetthread(MemorySegment L) {
+    public static int luaW_resetthread(MemorySegment L) {
         var mh$ = luaW_resetthread.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
                 traceDowncall("luaW_resetthread", L);
             }
-            mh$.invokeExact(L);
+            return (int)mh$.invokeExact(L);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -926,7 +1185,8 @@ public class luaujava_h extends luaujava_h$shared {
     }
 
     private static class luaW_pushlstring {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_POINTER,
             luaujava_h.C_LONG
@@ -940,7 +1200,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_pushlstring(lua_State *L, const char *s, size_t l)
+     * extern int luaW_pushlstring(lua_State *L, const char *s, size_t l)
      * }
      */
     public static FunctionDescriptor luaW_pushlstring$descriptor() {
@@ -950,7 +1210,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_pushlstring(lua_State *L, const char *s, size_t l)
+     * extern int luaW_pushlstring(lua_State *L, const char *s, size_t l)
      * }
      */
     public static MethodHandle luaW_pushlstring$handle() {
@@ -960,7 +1220,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_pushlstring(lua_State *L, const char *s, size_t l)
+     * extern int luaW_pushlstring(lua_State *L, const char *s, size_t l)
      * }
      */
     public static MemorySegment luaW_pushlstring$address() {
@@ -969,16 +1229,16 @@ public class luaujava_h extends luaujava_h$shared {
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_pushlstring(lua_State *L, const char *s, size_t l)
+     * extern int luaW_pushlstring(lua_State *L, const char *s, size_t l)
      * }
      */
-    public static void luaW_pushlstring(MemorySegment L, MemorySegment s, long l) {
+    public static int luaW_pushlstring(MemorySegment L, MemorySegment s, long l) {
         var mh$ = luaW_pushlstring.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
                 traceDowncall("luaW_pushlstring", L, s, l);
             }
-            mh$.invokeExact(L, s, l);
+            return (int)mh$.invokeExact(L, s, l);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -987,12 +1247,13 @@ public class luaujava_h extends luaujava_h$shared {
     }
 
     private static class luaW_pushcclosurek {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
-            luaujava_h.C_POINTER,
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
+            luaujava_h.C_LONG_LONG,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT,
-            luaujava_h.C_POINTER
+            luaujava_h.C_LONG_LONG
         );
 
         public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_pushcclosurek");
@@ -1003,7 +1264,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_pushcclosurek(lua_State *L, lua_CFunction fn, const char *debugname, int nup, lua_Continuation cont)
+     * extern int luaW_pushcclosurek(lua_State *L, long long fn, const char *debugname, int nup, long long cont)
      * }
      */
     public static FunctionDescriptor luaW_pushcclosurek$descriptor() {
@@ -1013,7 +1274,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_pushcclosurek(lua_State *L, lua_CFunction fn, const char *debugname, int nup, lua_Continuation cont)
+     * extern int luaW_pushcclosurek(lua_State *L, long long fn, const char *debugname, int nup, long long cont)
      * }
      */
     public static MethodHandle luaW_pushcclosurek$handle() {
@@ -1023,7 +1284,7 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_pushcclosurek(lua_State *L, lua_CFunction fn, const char *debugname, int nup, lua_Continuation cont)
+     * extern int luaW_pushcclosurek(lua_State *L, long long fn, const char *debugname, int nup, long long cont)
      * }
      */
     public static MemorySegment luaW_pushcclosurek$address() {
@@ -1032,16 +1293,16 @@ public class luaujava_h extends luaujava_h$shared {
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_pushcclosurek(lua_State *L, lua_CFunction fn, const char *debugname, int nup, lua_Continuation cont)
+     * extern int luaW_pushcclosurek(lua_State *L, long long fn, const char *debugname, int nup, long long cont)
      * }
      */
-    public static void luaW_pushcclosurek(MemorySegment L, MemorySegment fn, MemorySegment debugname, int nup, MemorySegment cont) {
+    public static int luaW_pushcclosurek(MemorySegment L, long fn, MemorySegment debugname, int nup, long cont) {
         var mh$ = luaW_pushcclosurek.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
                 traceDowncall("luaW_pushcclosurek", L, fn, debugname, nup, cont);
             }
-            mh$.invokeExact(L, fn, debugname, nup, cont);
+            return (int)mh$.invokeExact(L, fn, debugname, nup, cont);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1049,15 +1310,16 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_newuserdatatagged {
+    private static class luaW_pushprimitiveclosure {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
-            luaujava_h.C_POINTER,
-            luaujava_h.C_LONG,
-            luaujava_h.C_INT
+            luaujava_h.C_LONG_LONG,
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatatagged");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_pushprimitiveclosure");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1065,45 +1327,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
+     * extern int luaW_pushprimitiveclosure(lua_State *L, long long fn, int signature, const char *debugname)
      * }
      */
-    public static FunctionDescriptor luaW_newuserdatatagged$descriptor() {
-        return luaW_newuserdatatagged.DESC;
+    public static FunctionDescriptor luaW_pushprimitiveclosure$descriptor() {
+        return luaW_pushprimitiveclosure.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
+     * extern int luaW_pushprimitiveclosure(lua_State *L, long long fn, int signature, const char *debugname)
      * }
      */
-    public static MethodHandle luaW_newuserdatatagged$handle() {
-        return luaW_newuserdatatagged.HANDLE;
+    public static MethodHandle luaW_pushprimitiveclosure$handle() {
+        return luaW_pushprimitiveclosure.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
+     * extern int luaW_pushprimitiveclosure(lua_State *L, long long fn, int signature, const char *debugname)
      * }
      */
-    public static MemorySegment luaW_newuserdatatagged$address() {
-        return luaW_newuserdatatagged.ADDR;
+    public static MemorySegment luaW_pushprimitiveclosure$address() {
+        return luaW_pushprimitiveclosure.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
+     * extern int luaW_pushprimitiveclosure(lua_State *L, long long fn, int signature, const char *debugname)
      * }
      */
-    public static MemorySegment luaW_newuserdatatagged(MemorySegment L, long sz, int tag) {
-        var mh$ = luaW_newuserdatatagged.HANDLE;
+    public static int luaW_pushprimitiveclosure(MemorySegment L, long fn, int signature, MemorySegment debugname) {
+        var mh$ = luaW_pushprimitiveclosure.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_newuserdatatagged", L, sz, tag);
+                traceDowncall("luaW_pushprimitiveclosure", L, fn, signature, debugname);
             }
-            return (MemorySegment)mh$.invokeExact(L, sz, tag);
+            return (int)mh$.invokeExact(L, fn, signature, debugname);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1111,15 +1373,13 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_newuserdatataggedwithmetatable {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_POINTER,
-            luaujava_h.C_POINTER,
-            luaujava_h.C_LONG,
-            luaujava_h.C_INT
+    private static class luaW_setdispatcher {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatataggedwithmetatable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setdispatcher");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1127,45 +1387,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
+     * extern void luaW_setdispatcher(int kind, void *fn)
      * }
      */
-    public static FunctionDescriptor luaW_newuserdatataggedwithmetatable$descriptor() {
-        return luaW_newuserdatataggedwithmetatable.DESC;
+    public static FunctionDescriptor luaW_setdispatcher$descriptor() {
+        return luaW_setdispatcher.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
+     * extern void luaW_setdispatcher(int kind, void *fn)
      * }
      */
-    public static MethodHandle luaW_newuserdatataggedwithmetatable$handle() {
-        return luaW_newuserdatataggedwithmetatable.HANDLE;
+    public static MethodHandle luaW_setdispatcher$handle() {
+        return luaW_setdispatcher.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
+     * extern void luaW_setdispatcher(int kind, void *fn)
      * }
      */
-    public static MemorySegment luaW_newuserdatataggedwithmetatable$address() {
-        return luaW_newuserdatataggedwithmetatable.ADDR;
+    public static MemorySegment luaW_setdispatcher$address() {
+        return luaW_setdispatcher.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
+     * extern void luaW_setdispatcher(int kind, void *fn)
      * }
      */
-    public static MemorySegment luaW_newuserdatataggedwithmetatable(MemorySegment L, long sz, int tag) {
-        var mh$ = luaW_newuserdatataggedwithmetatable.HANDLE;
+    public static void luaW_setdispatcher(int kind, MemorySegment fn) {
+        var mh$ = luaW_setdispatcher.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_newuserdatataggedwithmetatable", L, sz, tag);
+                traceDowncall("luaW_setdispatcher", kind, fn);
             }
-            return (MemorySegment)mh$.invokeExact(L, sz, tag);
+            mh$.invokeExact(kind, fn);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1173,15 +1433,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_newuserdatadtor {
+    private static class luaW_newuserdatatagged {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_POINTER,
             luaujava_h.C_POINTER,
             luaujava_h.C_LONG,
-            luaujava_h.C_POINTER
+            luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatadtor");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatatagged");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1189,45 +1449,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
+     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static FunctionDescriptor luaW_newuserdatadtor$descriptor() {
-        return luaW_newuserdatadtor.DESC;
+    public static FunctionDescriptor luaW_newuserdatatagged$descriptor() {
+        return luaW_newuserdatatagged.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
+     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MethodHandle luaW_newuserdatadtor$handle() {
-        return luaW_newuserdatadtor.HANDLE;
+    public static MethodHandle luaW_newuserdatatagged$handle() {
+        return luaW_newuserdatatagged.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
+     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MemorySegment luaW_newuserdatadtor$address() {
-        return luaW_newuserdatadtor.ADDR;
+    public static MemorySegment luaW_newuserdatatagged$address() {
+        return luaW_newuserdatatagged.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
+     * extern void *luaW_newuserdatatagged(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MemorySegment luaW_newuserdatadtor(MemorySegment L, long sz, MemorySegment dtor) {
-        var mh$ = luaW_newuserdatadtor.HANDLE;
+    public static MemorySegment luaW_newuserdatatagged(MemorySegment L, long sz, int tag) {
+        var mh$ = luaW_newuserdatatagged.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_newuserdatadtor", L, sz, dtor);
+                traceDowncall("luaW_newuserdatatagged", L, sz, tag);
             }
-            return (MemorySegment)mh$.invokeExact(L, sz, dtor);
+            return (MemorySegment)mh$.invokeExact(L, sz, tag);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1235,14 +1495,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_newbuffer {
+    private static class luaW_newuserdatataggedwithmetatable {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_POINTER,
             luaujava_h.C_POINTER,
-            luaujava_h.C_LONG
+            luaujava_h.C_LONG,
+            luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newbuffer");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatataggedwithmetatable");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1250,45 +1511,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
+     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static FunctionDescriptor luaW_newbuffer$descriptor() {
-        return luaW_newbuffer.DESC;
+    public static FunctionDescriptor luaW_newuserdatataggedwithmetatable$descriptor() {
+        return luaW_newuserdatataggedwithmetatable.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
+     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MethodHandle luaW_newbuffer$handle() {
-        return luaW_newbuffer.HANDLE;
+    public static MethodHandle luaW_newuserdatataggedwithmetatable$handle() {
+        return luaW_newuserdatataggedwithmetatable.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
+     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MemorySegment luaW_newbuffer$address() {
-        return luaW_newbuffer.ADDR;
+    public static MemorySegment luaW_newuserdatataggedwithmetatable$address() {
+        return luaW_newuserdatataggedwithmetatable.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
+     * extern void *luaW_newuserdatataggedwithmetatable(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MemorySegment luaW_newbuffer(MemorySegment L, long sz) {
-        var mh$ = luaW_newbuffer.HANDLE;
+    public static MemorySegment luaW_newuserdatataggedwithmetatable(MemorySegment L, long sz, int tag) {
+        var mh$ = luaW_newuserdatataggedwithmetatable.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_newbuffer", L, sz);
+                traceDowncall("luaW_newuserdatataggedwithmetatable", L, sz, tag);
             }
-            return (MemorySegment)mh$.invokeExact(L, sz);
+            return (MemorySegment)mh$.invokeExact(L, sz, tag);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1296,14 +1557,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_gettable {
+    private static class luaW_newuserdatadtor {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG,
+            luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_gettable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatadtor");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1311,45 +1573,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_gettable(lua_State *L, int idx)
+     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
      * }
      */
-    public static FunctionDescriptor luaW_gettable$descriptor() {
-        return luaW_gettable.DESC;
+    public static FunctionDescriptor luaW_newuserdatadtor$descriptor() {
+        return luaW_newuserdatadtor.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_gettable(lua_State *L, int idx)
+     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
      * }
      */
-    public static MethodHandle luaW_gettable$handle() {
-        return luaW_gettable.HANDLE;
+    public static MethodHandle luaW_newuserdatadtor$handle() {
+        return luaW_newuserdatadtor.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_gettable(lua_State *L, int idx)
+     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
      * }
      */
-    public static MemorySegment luaW_gettable$address() {
-        return luaW_gettable.ADDR;
+    public static MemorySegment luaW_newuserdatadtor$address() {
+        return luaW_newuserdatadtor.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_gettable(lua_State *L, int idx)
+     * extern void *luaW_newuserdatadtor(lua_State *L, size_t sz, void (*dtor)(void *))
      * }
      */
-    public static int luaW_gettable(MemorySegment L, int idx) {
-        var mh$ = luaW_gettable.HANDLE;
+    public static MemorySegment luaW_newuserdatadtor(MemorySegment L, long sz, MemorySegment dtor) {
+        var mh$ = luaW_newuserdatadtor.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_gettable", L, idx);
+                traceDowncall("luaW_newuserdatadtor", L, sz, dtor);
             }
-            return (int)mh$.invokeExact(L, idx);
+            return (MemorySegment)mh$.invokeExact(L, sz, dtor);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1357,15 +1619,13 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_getfield {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_INT,
+    private static class luaW_setfreehandler {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
-            luaujava_h.C_POINTER
+            luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_getfield");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setfreehandler");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1373,45 +1633,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_setfreehandler(luaW_FreeHandles fn, int batch)
      * }
      */
-    public static FunctionDescriptor luaW_getfield$descriptor() {
-        return luaW_getfield.DESC;
+    public static FunctionDescriptor luaW_setfreehandler$descriptor() {
+        return luaW_setfreehandler.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_setfreehandler(luaW_FreeHandles fn, int batch)
      * }
      */
-    public static MethodHandle luaW_getfield$handle() {
-        return luaW_getfield.HANDLE;
+    public static MethodHandle luaW_setfreehandler$handle() {
+        return luaW_setfreehandler.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_setfreehandler(luaW_FreeHandles fn, int batch)
      * }
      */
-    public static MemorySegment luaW_getfield$address() {
-        return luaW_getfield.ADDR;
+    public static MemorySegment luaW_setfreehandler$address() {
+        return luaW_setfreehandler.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_setfreehandler(luaW_FreeHandles fn, int batch)
      * }
      */
-    public static int luaW_getfield(MemorySegment L, int idx, MemorySegment k) {
-        var mh$ = luaW_getfield.HANDLE;
+    public static void luaW_setfreehandler(MemorySegment fn, int batch) {
+        var mh$ = luaW_setfreehandler.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_getfield", L, idx, k);
+                traceDowncall("luaW_setfreehandler", fn, batch);
             }
-            return (int)mh$.invokeExact(L, idx, k);
+            mh$.invokeExact(fn, batch);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1419,14 +1679,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_createtable {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_newuserdatahandle {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
-            luaujava_h.C_INT
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG_LONG
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_createtable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatahandle");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1434,45 +1694,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_createtable(lua_State *L, int narr, int nrec)
+     * extern void *luaW_newuserdatahandle(lua_State *L, long long externalbytes)
      * }
      */
-    public static FunctionDescriptor luaW_createtable$descriptor() {
-        return luaW_createtable.DESC;
+    public static FunctionDescriptor luaW_newuserdatahandle$descriptor() {
+        return luaW_newuserdatahandle.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_createtable(lua_State *L, int narr, int nrec)
+     * extern void *luaW_newuserdatahandle(lua_State *L, long long externalbytes)
      * }
      */
-    public static MethodHandle luaW_createtable$handle() {
-        return luaW_createtable.HANDLE;
+    public static MethodHandle luaW_newuserdatahandle$handle() {
+        return luaW_newuserdatahandle.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_createtable(lua_State *L, int narr, int nrec)
+     * extern void *luaW_newuserdatahandle(lua_State *L, long long externalbytes)
      * }
      */
-    public static MemorySegment luaW_createtable$address() {
-        return luaW_createtable.ADDR;
+    public static MemorySegment luaW_newuserdatahandle$address() {
+        return luaW_newuserdatahandle.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_createtable(lua_State *L, int narr, int nrec)
+     * extern void *luaW_newuserdatahandle(lua_State *L, long long externalbytes)
      * }
      */
-    public static void luaW_createtable(MemorySegment L, int narr, int nrec) {
-        var mh$ = luaW_createtable.HANDLE;
+    public static MemorySegment luaW_newuserdatahandle(MemorySegment L, long externalbytes) {
+        var mh$ = luaW_newuserdatahandle.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_createtable", L, narr, nrec);
+                traceDowncall("luaW_newuserdatahandle", L, externalbytes);
             }
-            mh$.invokeExact(L, narr, nrec);
+            return (MemorySegment)mh$.invokeExact(L, externalbytes);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1480,13 +1740,12 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_settable {
+    private static class luaW_freehandle {
         public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
-            luaujava_h.C_POINTER,
-            luaujava_h.C_INT
+            luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_settable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_freehandle");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1494,45 +1753,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_settable(lua_State *L, int idx)
+     * extern void luaW_freehandle(void *ud)
      * }
      */
-    public static FunctionDescriptor luaW_settable$descriptor() {
-        return luaW_settable.DESC;
+    public static FunctionDescriptor luaW_freehandle$descriptor() {
+        return luaW_freehandle.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_settable(lua_State *L, int idx)
+     * extern void luaW_freehandle(void *ud)
      * }
      */
-    public static MethodHandle luaW_settable$handle() {
-        return luaW_settable.HANDLE;
+    public static MethodHandle luaW_freehandle$handle() {
+        return luaW_freehandle.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_settable(lua_State *L, int idx)
+     * extern void luaW_freehandle(void *ud)
      * }
      */
-    public static MemorySegment luaW_settable$address() {
-        return luaW_settable.ADDR;
+    public static MemorySegment luaW_freehandle$address() {
+        return luaW_freehandle.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_settable(lua_State *L, int idx)
+     * extern void luaW_freehandle(void *ud)
      * }
      */
-    public static void luaW_settable(MemorySegment L, int idx) {
-        var mh$ = luaW_settable.HANDLE;
+    public static void luaW_freehandle(MemorySegment ud) {
+        var mh$ = luaW_freehandle.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_settable", L, idx);
+                traceDowncall("luaW_freehandle", ud);
             }
-            mh$.invokeExact(L, idx);
+            mh$.invokeExact(ud);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1540,14 +1799,13 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_setfield {
+    private static class luaW_freehandletagged {
         public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
             luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setfield");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_freehandletagged");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1555,45 +1813,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_setfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_freehandletagged(lua_State *L, void *ud)
      * }
      */
-    public static FunctionDescriptor luaW_setfield$descriptor() {
-        return luaW_setfield.DESC;
+    public static FunctionDescriptor luaW_freehandletagged$descriptor() {
+        return luaW_freehandletagged.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_setfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_freehandletagged(lua_State *L, void *ud)
      * }
      */
-    public static MethodHandle luaW_setfield$handle() {
-        return luaW_setfield.HANDLE;
+    public static MethodHandle luaW_freehandletagged$handle() {
+        return luaW_freehandletagged.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_setfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_freehandletagged(lua_State *L, void *ud)
      * }
      */
-    public static MemorySegment luaW_setfield$address() {
-        return luaW_setfield.ADDR;
+    public static MemorySegment luaW_freehandletagged$address() {
+        return luaW_freehandletagged.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_setfield(lua_State *L, int idx, const char *k)
+     * extern void luaW_freehandletagged(lua_State *L, void *ud)
      * }
      */
-    public static void luaW_setfield(MemorySegment L, int idx, MemorySegment k) {
-        var mh$ = luaW_setfield.HANDLE;
+    public static void luaW_freehandletagged(MemorySegment L, MemorySegment ud) {
+        var mh$ = luaW_freehandletagged.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_setfield", L, idx, k);
+                traceDowncall("luaW_freehandletagged", L, ud);
             }
-            mh$.invokeExact(L, idx, k);
+            mh$.invokeExact(L, ud);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1601,14 +1859,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_rawsetfield {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_gc {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT,
-            luaujava_h.C_POINTER
+            luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawsetfield");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_gc");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1616,45 +1875,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_rawsetfield(lua_State *L, int idx, const char *k)
+     * extern int luaW_gc(lua_State *L, int what, int data)
      * }
      */
-    public static FunctionDescriptor luaW_rawsetfield$descriptor() {
-        return luaW_rawsetfield.DESC;
+    public static FunctionDescriptor luaW_gc$descriptor() {
+        return luaW_gc.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_rawsetfield(lua_State *L, int idx, const char *k)
+     * extern int luaW_gc(lua_State *L, int what, int data)
      * }
      */
-    public static MethodHandle luaW_rawsetfield$handle() {
-        return luaW_rawsetfield.HANDLE;
+    public static MethodHandle luaW_gc$handle() {
+        return luaW_gc.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_rawsetfield(lua_State *L, int idx, const char *k)
+     * extern int luaW_gc(lua_State *L, int what, int data)
      * }
      */
-    public static MemorySegment luaW_rawsetfield$address() {
-        return luaW_rawsetfield.ADDR;
+    public static MemorySegment luaW_gc$address() {
+        return luaW_gc.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_rawsetfield(lua_State *L, int idx, const char *k)
+     * extern int luaW_gc(lua_State *L, int what, int data)
      * }
      */
-    public static void luaW_rawsetfield(MemorySegment L, int idx, MemorySegment k) {
-        var mh$ = luaW_rawsetfield.HANDLE;
+    public static int luaW_gc(MemorySegment L, int what, int data) {
+        var mh$ = luaW_gc.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_rawsetfield", L, idx, k);
+                traceDowncall("luaW_gc", L, what, data);
             }
-            mh$.invokeExact(L, idx, k);
+            return (int)mh$.invokeExact(L, what, data);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1662,13 +1921,16 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_rawset {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_newuserdataexternal {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG,
+            luaujava_h.C_LONG_LONG,
+            luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawset");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdataexternal");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1676,45 +1938,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_rawset(lua_State *L, int idx)
+     * extern void *luaW_newuserdataexternal(lua_State *L, size_t sz, long long externalbytes, void (*dtor)(void *))
      * }
      */
-    public static FunctionDescriptor luaW_rawset$descriptor() {
-        return luaW_rawset.DESC;
+    public static FunctionDescriptor luaW_newuserdataexternal$descriptor() {
+        return luaW_newuserdataexternal.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_rawset(lua_State *L, int idx)
+     * extern void *luaW_newuserdataexternal(lua_State *L, size_t sz, long long externalbytes, void (*dtor)(void *))
      * }
      */
-    public static MethodHandle luaW_rawset$handle() {
-        return luaW_rawset.HANDLE;
+    public static MethodHandle luaW_newuserdataexternal$handle() {
+        return luaW_newuserdataexternal.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_rawset(lua_State *L, int idx)
+     * extern void *luaW_newuserdataexternal(lua_State *L, size_t sz, long long externalbytes, void (*dtor)(void *))
      * }
      */
-    public static MemorySegment luaW_rawset$address() {
-        return luaW_rawset.ADDR;
+    public static MemorySegment luaW_newuserdataexternal$address() {
+        return luaW_newuserdataexternal.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_rawset(lua_State *L, int idx)
+     * extern void *luaW_newuserdataexternal(lua_State *L, size_t sz, long long externalbytes, void (*dtor)(void *))
      * }
      */
-    public static void luaW_rawset(MemorySegment L, int idx) {
-        var mh$ = luaW_rawset.HANDLE;
+    public static MemorySegment luaW_newuserdataexternal(MemorySegment L, long sz, long externalbytes, MemorySegment dtor) {
+        var mh$ = luaW_newuserdataexternal.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_rawset", L, idx);
+                traceDowncall("luaW_newuserdataexternal", L, sz, externalbytes, dtor);
             }
-            mh$.invokeExact(L, idx);
+            return (MemorySegment)mh$.invokeExact(L, sz, externalbytes, dtor);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1722,14 +1984,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_rawseti {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_newuserdatastruct {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawseti");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newuserdatastruct");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1737,45 +2000,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_rawseti(lua_State *L, int idx, int n)
+     * extern void *luaW_newuserdatastruct(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static FunctionDescriptor luaW_rawseti$descriptor() {
-        return luaW_rawseti.DESC;
+    public static FunctionDescriptor luaW_newuserdatastruct$descriptor() {
+        return luaW_newuserdatastruct.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_rawseti(lua_State *L, int idx, int n)
+     * extern void *luaW_newuserdatastruct(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MethodHandle luaW_rawseti$handle() {
-        return luaW_rawseti.HANDLE;
+    public static MethodHandle luaW_newuserdatastruct$handle() {
+        return luaW_newuserdatastruct.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_rawseti(lua_State *L, int idx, int n)
+     * extern void *luaW_newuserdatastruct(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static MemorySegment luaW_rawseti$address() {
-        return luaW_rawseti.ADDR;
+    public static MemorySegment luaW_newuserdatastruct$address() {
+        return luaW_newuserdatastruct.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_rawseti(lua_State *L, int idx, int n)
+     * extern void *luaW_newuserdatastruct(lua_State *L, size_t sz, int tag)
      * }
      */
-    public static void luaW_rawseti(MemorySegment L, int idx, int n) {
-        var mh$ = luaW_rawseti.HANDLE;
+    public static MemorySegment luaW_newuserdatastruct(MemorySegment L, long sz, int tag) {
+        var mh$ = luaW_newuserdatastruct.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_rawseti", L, idx, n);
+                traceDowncall("luaW_newuserdatastruct", L, sz, tag);
             }
-            mh$.invokeExact(L, idx, n);
+            return (MemorySegment)mh$.invokeExact(L, sz, tag);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1783,15 +2046,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_rawsetptagged {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
-            luaujava_h.C_POINTER,
+    private static class luaW_registerstructtag {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawsetptagged");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_registerstructtag");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1799,45 +2061,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
+     * extern int luaW_registerstructtag(lua_State *L, int tag)
      * }
      */
-    public static FunctionDescriptor luaW_rawsetptagged$descriptor() {
-        return luaW_rawsetptagged.DESC;
+    public static FunctionDescriptor luaW_registerstructtag$descriptor() {
+        return luaW_registerstructtag.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
+     * extern int luaW_registerstructtag(lua_State *L, int tag)
      * }
      */
-    public static MethodHandle luaW_rawsetptagged$handle() {
-        return luaW_rawsetptagged.HANDLE;
+    public static MethodHandle luaW_registerstructtag$handle() {
+        return luaW_registerstructtag.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
+     * extern int luaW_registerstructtag(lua_State *L, int tag)
      * }
      */
-    public static MemorySegment luaW_rawsetptagged$address() {
-        return luaW_rawsetptagged.ADDR;
+    public static MemorySegment luaW_registerstructtag$address() {
+        return luaW_registerstructtag.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
+     * extern int luaW_registerstructtag(lua_State *L, int tag)
      * }
      */
-    public static void luaW_rawsetptagged(MemorySegment L, int idx, MemorySegment p, int tag) {
-        var mh$ = luaW_rawsetptagged.HANDLE;
+    public static int luaW_registerstructtag(MemorySegment L, int tag) {
+        var mh$ = luaW_registerstructtag.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_rawsetptagged", L, idx, p, tag);
+                traceDowncall("luaW_registerstructtag", L, tag);
             }
-            mh$.invokeExact(L, idx, p, tag);
+            return (int)mh$.invokeExact(L, tag);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1845,14 +2107,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_setmetatable {
+    private static class luaW_newbuffer {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setmetatable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newbuffer");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1860,45 +2122,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
      * }
      */
-    public static FunctionDescriptor luaW_setmetatable$descriptor() {
-        return luaW_setmetatable.DESC;
+    public static FunctionDescriptor luaW_newbuffer$descriptor() {
+        return luaW_newbuffer.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
      * }
      */
-    public static MethodHandle luaW_setmetatable$handle() {
-        return luaW_setmetatable.HANDLE;
+    public static MethodHandle luaW_newbuffer$handle() {
+        return luaW_newbuffer.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
      * }
      */
-    public static MemorySegment luaW_setmetatable$address() {
-        return luaW_setmetatable.ADDR;
+    public static MemorySegment luaW_newbuffer$address() {
+        return luaW_newbuffer.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * extern void *luaW_newbuffer(lua_State *L, size_t sz)
      * }
      */
-    public static int luaW_setmetatable(MemorySegment L, int objindex) {
-        var mh$ = luaW_setmetatable.HANDLE;
+    public static MemorySegment luaW_newbuffer(MemorySegment L, long sz) {
+        var mh$ = luaW_newbuffer.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_setmetatable", L, objindex);
+                traceDowncall("luaW_newbuffer", L, sz);
             }
-            return (int)mh$.invokeExact(L, objindex);
+            return (MemorySegment)mh$.invokeExact(L, sz);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1906,14 +2168,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_yield {
+    private static class luaW_gettable {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_yield");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_gettable");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1921,45 +2183,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_yield(lua_State *L, int nresults)
+     * extern int luaW_gettable(lua_State *L, int idx)
      * }
      */
-    public static FunctionDescriptor luaW_yield$descriptor() {
-        return luaW_yield.DESC;
+    public static FunctionDescriptor luaW_gettable$descriptor() {
+        return luaW_gettable.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_yield(lua_State *L, int nresults)
+     * extern int luaW_gettable(lua_State *L, int idx)
      * }
      */
-    public static MethodHandle luaW_yield$handle() {
-        return luaW_yield.HANDLE;
+    public static MethodHandle luaW_gettable$handle() {
+        return luaW_gettable.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_yield(lua_State *L, int nresults)
+     * extern int luaW_gettable(lua_State *L, int idx)
      * }
      */
-    public static MemorySegment luaW_yield$address() {
-        return luaW_yield.ADDR;
+    public static MemorySegment luaW_gettable$address() {
+        return luaW_gettable.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_yield(lua_State *L, int nresults)
+     * extern int luaW_gettable(lua_State *L, int idx)
      * }
      */
-    public static int luaW_yield(MemorySegment L, int nresults) {
-        var mh$ = luaW_yield.HANDLE;
+    public static int luaW_gettable(MemorySegment L, int idx) {
+        var mh$ = luaW_gettable.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_yield", L, nresults);
+                traceDowncall("luaW_gettable", L, idx);
             }
-            return (int)mh$.invokeExact(L, nresults);
+            return (int)mh$.invokeExact(L, idx);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -1967,13 +2229,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_break {
+    private static class luaW_getfield {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
             luaujava_h.C_INT,
             luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_break");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_getfield");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -1981,45 +2245,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_break(lua_State *L)
+     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static FunctionDescriptor luaW_break$descriptor() {
-        return luaW_break.DESC;
+    public static FunctionDescriptor luaW_getfield$descriptor() {
+        return luaW_getfield.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_break(lua_State *L)
+     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static MethodHandle luaW_break$handle() {
-        return luaW_break.HANDLE;
+    public static MethodHandle luaW_getfield$handle() {
+        return luaW_getfield.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_break(lua_State *L)
+     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static MemorySegment luaW_break$address() {
-        return luaW_break.ADDR;
+    public static MemorySegment luaW_getfield$address() {
+        return luaW_getfield.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_break(lua_State *L)
+     * extern int luaW_getfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static int luaW_break(MemorySegment L) {
-        var mh$ = luaW_break.HANDLE;
+    public static int luaW_getfield(MemorySegment L, int idx, MemorySegment k) {
+        var mh$ = luaW_getfield.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_break", L);
+                traceDowncall("luaW_getfield", L, idx, k);
             }
-            return (int)mh$.invokeExact(L);
+            return (int)mh$.invokeExact(L, idx, k);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2027,14 +2291,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_next {
+    private static class luaW_createtable {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_INT,
             luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_next");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_createtable");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2042,45 +2307,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_next(lua_State *L, int idx)
+     * extern int luaW_createtable(lua_State *L, int narr, int nrec)
      * }
      */
-    public static FunctionDescriptor luaW_next$descriptor() {
-        return luaW_next.DESC;
+    public static FunctionDescriptor luaW_createtable$descriptor() {
+        return luaW_createtable.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_next(lua_State *L, int idx)
+     * extern int luaW_createtable(lua_State *L, int narr, int nrec)
      * }
      */
-    public static MethodHandle luaW_next$handle() {
-        return luaW_next.HANDLE;
+    public static MethodHandle luaW_createtable$handle() {
+        return luaW_createtable.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_next(lua_State *L, int idx)
+     * extern int luaW_createtable(lua_State *L, int narr, int nrec)
      * }
      */
-    public static MemorySegment luaW_next$address() {
-        return luaW_next.ADDR;
+    public static MemorySegment luaW_createtable$address() {
+        return luaW_createtable.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_next(lua_State *L, int idx)
+     * extern int luaW_createtable(lua_State *L, int narr, int nrec)
      * }
      */
-    public static int luaW_next(MemorySegment L, int idx) {
-        var mh$ = luaW_next.HANDLE;
+    public static int luaW_createtable(MemorySegment L, int narr, int nrec) {
+        var mh$ = luaW_createtable.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_next", L, idx);
+                traceDowncall("luaW_createtable", L, narr, nrec);
             }
-            return (int)mh$.invokeExact(L, idx);
+            return (int)mh$.invokeExact(L, narr, nrec);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2088,13 +2353,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_concat {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_settable {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_concat");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_settable");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2102,45 +2368,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_concat(lua_State *L, int n)
+     * extern int luaW_settable(lua_State *L, int idx)
      * }
      */
-    public static FunctionDescriptor luaW_concat$descriptor() {
-        return luaW_concat.DESC;
+    public static FunctionDescriptor luaW_settable$descriptor() {
+        return luaW_settable.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_concat(lua_State *L, int n)
+     * extern int luaW_settable(lua_State *L, int idx)
      * }
      */
-    public static MethodHandle luaW_concat$handle() {
-        return luaW_concat.HANDLE;
+    public static MethodHandle luaW_settable$handle() {
+        return luaW_settable.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_concat(lua_State *L, int n)
+     * extern int luaW_settable(lua_State *L, int idx)
      * }
      */
-    public static MemorySegment luaW_concat$address() {
-        return luaW_concat.ADDR;
+    public static MemorySegment luaW_settable$address() {
+        return luaW_settable.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_concat(lua_State *L, int n)
+     * extern int luaW_settable(lua_State *L, int idx)
      * }
      */
-    public static void luaW_concat(MemorySegment L, int n) {
-        var mh$ = luaW_concat.HANDLE;
+    public static int luaW_settable(MemorySegment L, int idx) {
+        var mh$ = luaW_settable.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_concat", L, n);
+                traceDowncall("luaW_settable", L, idx);
             }
-            mh$.invokeExact(L, n);
+            return (int)mh$.invokeExact(L, idx);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2148,14 +2414,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_setlightuserdataname {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_setfield {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT,
             luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setlightuserdataname");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setfield");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2163,45 +2430,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * extern int luaW_setfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static FunctionDescriptor luaW_setlightuserdataname$descriptor() {
-        return luaW_setlightuserdataname.DESC;
+    public static FunctionDescriptor luaW_setfield$descriptor() {
+        return luaW_setfield.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * extern int luaW_setfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static MethodHandle luaW_setlightuserdataname$handle() {
-        return luaW_setlightuserdataname.HANDLE;
+    public static MethodHandle luaW_setfield$handle() {
+        return luaW_setfield.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * extern int luaW_setfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static MemorySegment luaW_setlightuserdataname$address() {
-        return luaW_setlightuserdataname.ADDR;
+    public static MemorySegment luaW_setfield$address() {
+        return luaW_setfield.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * extern int luaW_setfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static void luaW_setlightuserdataname(MemorySegment L, int tag, MemorySegment name) {
-        var mh$ = luaW_setlightuserdataname.HANDLE;
+    public static int luaW_setfield(MemorySegment L, int idx, MemorySegment k) {
+        var mh$ = luaW_setfield.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_setlightuserdataname", L, tag, name);
+                traceDowncall("luaW_setfield", L, idx, k);
             }
-            mh$.invokeExact(L, tag, name);
+            return (int)mh$.invokeExact(L, idx, k);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2209,13 +2476,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_clonefunction {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_rawsetfield {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_clonefunction");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawsetfield");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2223,45 +2492,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_clonefunction(lua_State *L, int idx)
+     * extern int luaW_rawsetfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static FunctionDescriptor luaW_clonefunction$descriptor() {
-        return luaW_clonefunction.DESC;
+    public static FunctionDescriptor luaW_rawsetfield$descriptor() {
+        return luaW_rawsetfield.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_clonefunction(lua_State *L, int idx)
+     * extern int luaW_rawsetfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static MethodHandle luaW_clonefunction$handle() {
-        return luaW_clonefunction.HANDLE;
+    public static MethodHandle luaW_rawsetfield$handle() {
+        return luaW_rawsetfield.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_clonefunction(lua_State *L, int idx)
+     * extern int luaW_rawsetfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static MemorySegment luaW_clonefunction$address() {
-        return luaW_clonefunction.ADDR;
+    public static MemorySegment luaW_rawsetfield$address() {
+        return luaW_rawsetfield.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_clonefunction(lua_State *L, int idx)
+     * extern int luaW_rawsetfield(lua_State *L, int idx, const char *k)
      * }
      */
-    public static void luaW_clonefunction(MemorySegment L, int idx) {
-        var mh$ = luaW_clonefunction.HANDLE;
+    public static int luaW_rawsetfield(MemorySegment L, int idx, MemorySegment k) {
+        var mh$ = luaW_rawsetfield.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_clonefunction", L, idx);
+                traceDowncall("luaW_rawsetfield", L, idx, k);
             }
-            mh$.invokeExact(L, idx);
+            return (int)mh$.invokeExact(L, idx, k);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2269,13 +2538,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_cleartable {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_rawset {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_cleartable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawset");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2283,45 +2553,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_cleartable(lua_State *L, int idx)
+     * extern int luaW_rawset(lua_State *L, int idx)
      * }
      */
-    public static FunctionDescriptor luaW_cleartable$descriptor() {
-        return luaW_cleartable.DESC;
+    public static FunctionDescriptor luaW_rawset$descriptor() {
+        return luaW_rawset.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_cleartable(lua_State *L, int idx)
+     * extern int luaW_rawset(lua_State *L, int idx)
      * }
      */
-    public static MethodHandle luaW_cleartable$handle() {
-        return luaW_cleartable.HANDLE;
+    public static MethodHandle luaW_rawset$handle() {
+        return luaW_rawset.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_cleartable(lua_State *L, int idx)
+     * extern int luaW_rawset(lua_State *L, int idx)
      * }
      */
-    public static MemorySegment luaW_cleartable$address() {
-        return luaW_cleartable.ADDR;
+    public static MemorySegment luaW_rawset$address() {
+        return luaW_rawset.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_cleartable(lua_State *L, int idx)
+     * extern int luaW_rawset(lua_State *L, int idx)
      * }
      */
-    public static void luaW_cleartable(MemorySegment L, int idx) {
-        var mh$ = luaW_cleartable.HANDLE;
+    public static int luaW_rawset(MemorySegment L, int idx) {
+        var mh$ = luaW_rawset.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_cleartable", L, idx);
+                traceDowncall("luaW_rawset", L, idx);
             }
-            mh$.invokeExact(L, idx);
+            return (int)mh$.invokeExact(L, idx);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2329,13 +2599,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_clonetable {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_rawseti {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_clonetable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawseti");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2343,45 +2615,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_clonetable(lua_State *L, int idx)
+     * extern int luaW_rawseti(lua_State *L, int idx, int n)
      * }
      */
-    public static FunctionDescriptor luaW_clonetable$descriptor() {
-        return luaW_clonetable.DESC;
+    public static FunctionDescriptor luaW_rawseti$descriptor() {
+        return luaW_rawseti.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_clonetable(lua_State *L, int idx)
+     * extern int luaW_rawseti(lua_State *L, int idx, int n)
      * }
      */
-    public static MethodHandle luaW_clonetable$handle() {
-        return luaW_clonetable.HANDLE;
+    public static MethodHandle luaW_rawseti$handle() {
+        return luaW_rawseti.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_clonetable(lua_State *L, int idx)
+     * extern int luaW_rawseti(lua_State *L, int idx, int n)
      * }
      */
-    public static MemorySegment luaW_clonetable$address() {
-        return luaW_clonetable.ADDR;
+    public static MemorySegment luaW_rawseti$address() {
+        return luaW_rawseti.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_clonetable(lua_State *L, int idx)
+     * extern int luaW_rawseti(lua_State *L, int idx, int n)
      * }
      */
-    public static void luaW_clonetable(MemorySegment L, int idx) {
-        var mh$ = luaW_clonetable.HANDLE;
+    public static int luaW_rawseti(MemorySegment L, int idx, int n) {
+        var mh$ = luaW_rawseti.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_clonetable", L, idx);
+                traceDowncall("luaW_rawseti", L, idx, n);
             }
-            mh$.invokeExact(L, idx);
+            return (int)mh$.invokeExact(L, idx, n);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2389,14 +2661,16 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_newmetatable {
+    private static class luaW_rawsetptagged {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_INT,
             luaujava_h.C_POINTER,
-            luaujava_h.C_POINTER
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_newmetatable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_rawsetptagged");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2404,45 +2678,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * extern int luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
      * }
      */
-    public static FunctionDescriptor luaLW_newmetatable$descriptor() {
-        return luaLW_newmetatable.DESC;
+    public static FunctionDescriptor luaW_rawsetptagged$descriptor() {
+        return luaW_rawsetptagged.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * extern int luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
      * }
      */
-    public static MethodHandle luaLW_newmetatable$handle() {
-        return luaLW_newmetatable.HANDLE;
+    public static MethodHandle luaW_rawsetptagged$handle() {
+        return luaW_rawsetptagged.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * extern int luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
      * }
      */
-    public static MemorySegment luaLW_newmetatable$address() {
-        return luaLW_newmetatable.ADDR;
+    public static MemorySegment luaW_rawsetptagged$address() {
+        return luaW_rawsetptagged.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * extern int luaW_rawsetptagged(lua_State *L, int idx, void *p, int tag)
      * }
      */
-    public static int luaLW_newmetatable(MemorySegment L, MemorySegment tname) {
-        var mh$ = luaLW_newmetatable.HANDLE;
+    public static int luaW_rawsetptagged(MemorySegment L, int idx, MemorySegment p, int tag) {
+        var mh$ = luaW_rawsetptagged.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_newmetatable", L, tname);
+                traceDowncall("luaW_rawsetptagged", L, idx, p, tag);
             }
-            return (int)mh$.invokeExact(L, tname);
+            return (int)mh$.invokeExact(L, idx, p, tag);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2450,15 +2724,1787 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_tolstring {
+    private static class luaW_setmetatable {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setmetatable");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * }
+     */
+    public static FunctionDescriptor luaW_setmetatable$descriptor() {
+        return luaW_setmetatable.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * }
+     */
+    public static MethodHandle luaW_setmetatable$handle() {
+        return luaW_setmetatable.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * }
+     */
+    public static MemorySegment luaW_setmetatable$address() {
+        return luaW_setmetatable.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_setmetatable(lua_State *L, int objindex)
+     * }
+     */
+    public static int luaW_setmetatable(MemorySegment L, int objindex) {
+        var mh$ = luaW_setmetatable.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_setmetatable", L, objindex);
+            }
+            return (int)mh$.invokeExact(L, objindex);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_pcall {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_pcall");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_pcall(lua_State *L, int nargs, int nresults)
+     * }
+     */
+    public static FunctionDescriptor luaW_pcall$descriptor() {
+        return luaW_pcall.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_pcall(lua_State *L, int nargs, int nresults)
+     * }
+     */
+    public static MethodHandle luaW_pcall$handle() {
+        return luaW_pcall.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_pcall(lua_State *L, int nargs, int nresults)
+     * }
+     */
+    public static MemorySegment luaW_pcall$address() {
+        return luaW_pcall.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_pcall(lua_State *L, int nargs, int nresults)
+     * }
+     */
+    public static int luaW_pcall(MemorySegment L, int nargs, int nresults) {
+        var mh$ = luaW_pcall.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_pcall", L, nargs, nresults);
+            }
+            return (int)mh$.invokeExact(L, nargs, nresults);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_yield {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_yield");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_yield(lua_State *L, int nresults)
+     * }
+     */
+    public static FunctionDescriptor luaW_yield$descriptor() {
+        return luaW_yield.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_yield(lua_State *L, int nresults)
+     * }
+     */
+    public static MethodHandle luaW_yield$handle() {
+        return luaW_yield.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_yield(lua_State *L, int nresults)
+     * }
+     */
+    public static MemorySegment luaW_yield$address() {
+        return luaW_yield.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_yield(lua_State *L, int nresults)
+     * }
+     */
+    public static int luaW_yield(MemorySegment L, int nresults) {
+        var mh$ = luaW_yield.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_yield", L, nresults);
+            }
+            return (int)mh$.invokeExact(L, nresults);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_break {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_break");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_break(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_break$descriptor() {
+        return luaW_break.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_break(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_break$handle() {
+        return luaW_break.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_break(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_break$address() {
+        return luaW_break.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_break(lua_State *L)
+     * }
+     */
+    public static int luaW_break(MemorySegment L) {
+        var mh$ = luaW_break.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_break", L);
+            }
+            return (int)mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_resume {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_resume");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_resume(lua_State *L, lua_State *from, int narg)
+     * }
+     */
+    public static FunctionDescriptor luaW_resume$descriptor() {
+        return luaW_resume.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_resume(lua_State *L, lua_State *from, int narg)
+     * }
+     */
+    public static MethodHandle luaW_resume$handle() {
+        return luaW_resume.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_resume(lua_State *L, lua_State *from, int narg)
+     * }
+     */
+    public static MemorySegment luaW_resume$address() {
+        return luaW_resume.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_resume(lua_State *L, lua_State *from, int narg)
+     * }
+     */
+    public static int luaW_resume(MemorySegment L, MemorySegment from, int narg) {
+        var mh$ = luaW_resume.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_resume", L, from, narg);
+            }
+            return (int)mh$.invokeExact(L, from, narg);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_newthreaddata {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newthreaddata");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern luaW_threaddata *luaW_newthreaddata(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_newthreaddata$descriptor() {
+        return luaW_newthreaddata.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern luaW_threaddata *luaW_newthreaddata(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_newthreaddata$handle() {
+        return luaW_newthreaddata.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern luaW_threaddata *luaW_newthreaddata(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_newthreaddata$address() {
+        return luaW_newthreaddata.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern luaW_threaddata *luaW_newthreaddata(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_newthreaddata(MemorySegment L) {
+        var mh$ = luaW_newthreaddata.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_newthreaddata", L);
+            }
+            return (MemorySegment)mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_freethreaddata {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_freethreaddata");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern void luaW_freethreaddata(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_freethreaddata$descriptor() {
+        return luaW_freethreaddata.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern void luaW_freethreaddata(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_freethreaddata$handle() {
+        return luaW_freethreaddata.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern void luaW_freethreaddata(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_freethreaddata$address() {
+        return luaW_freethreaddata.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern void luaW_freethreaddata(lua_State *L)
+     * }
+     */
+    public static void luaW_freethreaddata(MemorySegment L) {
+        var mh$ = luaW_freethreaddata.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_freethreaddata", L);
+            }
+            mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_userthread {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_userthread");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern void luaW_userthread(lua_State *LP, lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_userthread$descriptor() {
+        return luaW_userthread.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern void luaW_userthread(lua_State *LP, lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_userthread$handle() {
+        return luaW_userthread.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern void luaW_userthread(lua_State *LP, lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_userthread$address() {
+        return luaW_userthread.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern void luaW_userthread(lua_State *LP, lua_State *L)
+     * }
+     */
+    public static void luaW_userthread(MemorySegment LP, MemorySegment L) {
+        var mh$ = luaW_userthread.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_userthread", LP, L);
+            }
+            mh$.invokeExact(LP, L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_setmemcat {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setmemcat");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern void luaW_setmemcat(lua_State *L, int category)
+     * }
+     */
+    public static FunctionDescriptor luaW_setmemcat$descriptor() {
+        return luaW_setmemcat.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern void luaW_setmemcat(lua_State *L, int category)
+     * }
+     */
+    public static MethodHandle luaW_setmemcat$handle() {
+        return luaW_setmemcat.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern void luaW_setmemcat(lua_State *L, int category)
+     * }
+     */
+    public static MemorySegment luaW_setmemcat$address() {
+        return luaW_setmemcat.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern void luaW_setmemcat(lua_State *L, int category)
+     * }
+     */
+    public static void luaW_setmemcat(MemorySegment L, int category) {
+        var mh$ = luaW_setmemcat.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_setmemcat", L, category);
+            }
+            mh$.invokeExact(L, category);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_setmemlimit {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_LONG_LONG,
+            luaujava_h.C_LONG_LONG
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setmemlimit");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_setmemlimit(lua_State *L, int category, long long soft, long long hard)
+     * }
+     */
+    public static FunctionDescriptor luaW_setmemlimit$descriptor() {
+        return luaW_setmemlimit.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_setmemlimit(lua_State *L, int category, long long soft, long long hard)
+     * }
+     */
+    public static MethodHandle luaW_setmemlimit$handle() {
+        return luaW_setmemlimit.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_setmemlimit(lua_State *L, int category, long long soft, long long hard)
+     * }
+     */
+    public static MemorySegment luaW_setmemlimit$address() {
+        return luaW_setmemlimit.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_setmemlimit(lua_State *L, int category, long long soft, long long hard)
+     * }
+     */
+    public static int luaW_setmemlimit(MemorySegment L, int category, long soft, long hard) {
+        var mh$ = luaW_setmemlimit.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_setmemlimit", L, category, soft, hard);
+            }
+            return (int)mh$.invokeExact(L, category, soft, hard);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_memcatbytes {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_memcatbytes");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern const size_t *luaW_memcatbytes(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_memcatbytes$descriptor() {
+        return luaW_memcatbytes.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern const size_t *luaW_memcatbytes(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_memcatbytes$handle() {
+        return luaW_memcatbytes.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern const size_t *luaW_memcatbytes(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_memcatbytes$address() {
+        return luaW_memcatbytes.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern const size_t *luaW_memcatbytes(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_memcatbytes(MemorySegment L) {
+        var mh$ = luaW_memcatbytes.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_memcatbytes", L);
+            }
+            return (MemorySegment)mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_mempeaks {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_mempeaks");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern const long long *luaW_mempeaks(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_mempeaks$descriptor() {
+        return luaW_mempeaks.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern const long long *luaW_mempeaks(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_mempeaks$handle() {
+        return luaW_mempeaks.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern const long long *luaW_mempeaks(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_mempeaks$address() {
+        return luaW_mempeaks.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern const long long *luaW_mempeaks(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_mempeaks(MemorySegment L) {
+        var mh$ = luaW_mempeaks.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_mempeaks", L);
+            }
+            return (MemorySegment)mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_adjustexternalmemory {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG_LONG
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_adjustexternalmemory");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_adjustexternalmemory(lua_State *L, long long delta)
+     * }
+     */
+    public static FunctionDescriptor luaW_adjustexternalmemory$descriptor() {
+        return luaW_adjustexternalmemory.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_adjustexternalmemory(lua_State *L, long long delta)
+     * }
+     */
+    public static MethodHandle luaW_adjustexternalmemory$handle() {
+        return luaW_adjustexternalmemory.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_adjustexternalmemory(lua_State *L, long long delta)
+     * }
+     */
+    public static MemorySegment luaW_adjustexternalmemory$address() {
+        return luaW_adjustexternalmemory.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_adjustexternalmemory(lua_State *L, long long delta)
+     * }
+     */
+    public static int luaW_adjustexternalmemory(MemorySegment L, long delta) {
+        var mh$ = luaW_adjustexternalmemory.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_adjustexternalmemory", L, delta);
+            }
+            return (int)mh$.invokeExact(L, delta);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_clearexternalmemory {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_clearexternalmemory");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern void luaW_clearexternalmemory(lua_State *L)
+     * }
+     */
+    public static FunctionDescriptor luaW_clearexternalmemory$descriptor() {
+        return luaW_clearexternalmemory.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern void luaW_clearexternalmemory(lua_State *L)
+     * }
+     */
+    public static MethodHandle luaW_clearexternalmemory$handle() {
+        return luaW_clearexternalmemory.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern void luaW_clearexternalmemory(lua_State *L)
+     * }
+     */
+    public static MemorySegment luaW_clearexternalmemory$address() {
+        return luaW_clearexternalmemory.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern void luaW_clearexternalmemory(lua_State *L)
+     * }
+     */
+    public static void luaW_clearexternalmemory(MemorySegment L) {
+        var mh$ = luaW_clearexternalmemory.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_clearexternalmemory", L);
+            }
+            mh$.invokeExact(L);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_next {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_next");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_next(lua_State *L, int idx)
+     * }
+     */
+    public static FunctionDescriptor luaW_next$descriptor() {
+        return luaW_next.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_next(lua_State *L, int idx)
+     * }
+     */
+    public static MethodHandle luaW_next$handle() {
+        return luaW_next.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_next(lua_State *L, int idx)
+     * }
+     */
+    public static MemorySegment luaW_next$address() {
+        return luaW_next.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_next(lua_State *L, int idx)
+     * }
+     */
+    public static int luaW_next(MemorySegment L, int idx) {
+        var mh$ = luaW_next.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_next", L, idx);
+            }
+            return (int)mh$.invokeExact(L, idx);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_concat {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_concat");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_concat(lua_State *L, int n)
+     * }
+     */
+    public static FunctionDescriptor luaW_concat$descriptor() {
+        return luaW_concat.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_concat(lua_State *L, int n)
+     * }
+     */
+    public static MethodHandle luaW_concat$handle() {
+        return luaW_concat.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_concat(lua_State *L, int n)
+     * }
+     */
+    public static MemorySegment luaW_concat$address() {
+        return luaW_concat.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_concat(lua_State *L, int n)
+     * }
+     */
+    public static int luaW_concat(MemorySegment L, int n) {
+        var mh$ = luaW_concat.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_concat", L, n);
+            }
+            return (int)mh$.invokeExact(L, n);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_setlightuserdataname {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_setlightuserdataname");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * }
+     */
+    public static FunctionDescriptor luaW_setlightuserdataname$descriptor() {
+        return luaW_setlightuserdataname.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * }
+     */
+    public static MethodHandle luaW_setlightuserdataname$handle() {
+        return luaW_setlightuserdataname.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * }
+     */
+    public static MemorySegment luaW_setlightuserdataname$address() {
+        return luaW_setlightuserdataname.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_setlightuserdataname(lua_State *L, int tag, const char *name)
+     * }
+     */
+    public static int luaW_setlightuserdataname(MemorySegment L, int tag, MemorySegment name) {
+        var mh$ = luaW_setlightuserdataname.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_setlightuserdataname", L, tag, name);
+            }
+            return (int)mh$.invokeExact(L, tag, name);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_clonefunction {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_clonefunction");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_clonefunction(lua_State *L, int idx)
+     * }
+     */
+    public static FunctionDescriptor luaW_clonefunction$descriptor() {
+        return luaW_clonefunction.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_clonefunction(lua_State *L, int idx)
+     * }
+     */
+    public static MethodHandle luaW_clonefunction$handle() {
+        return luaW_clonefunction.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_clonefunction(lua_State *L, int idx)
+     * }
+     */
+    public static MemorySegment luaW_clonefunction$address() {
+        return luaW_clonefunction.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_clonefunction(lua_State *L, int idx)
+     * }
+     */
+    public static int luaW_clonefunction(MemorySegment L, int idx) {
+        var mh$ = luaW_clonefunction.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_clonefunction", L, idx);
+            }
+            return (int)mh$.invokeExact(L, idx);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_cleartable {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_cleartable");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_cleartable(lua_State *L, int idx)
+     * }
+     */
+    public static FunctionDescriptor luaW_cleartable$descriptor() {
+        return luaW_cleartable.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_cleartable(lua_State *L, int idx)
+     * }
+     */
+    public static MethodHandle luaW_cleartable$handle() {
+        return luaW_cleartable.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_cleartable(lua_State *L, int idx)
+     * }
+     */
+    public static MemorySegment luaW_cleartable$address() {
+        return luaW_cleartable.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_cleartable(lua_State *L, int idx)
+     * }
+     */
+    public static int luaW_cleartable(MemorySegment L, int idx) {
+        var mh$ = luaW_cleartable.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_cleartable", L, idx);
+            }
+            return (int)mh$.invokeExact(L, idx);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_clonetable {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_clonetable");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaW_clonetable(lua_State *L, int idx)
+     * }
+     */
+    public static FunctionDescriptor luaW_clonetable$descriptor() {
+        return luaW_clonetable.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaW_clonetable(lua_State *L, int idx)
+     * }
+     */
+    public static MethodHandle luaW_clonetable$handle() {
+        return luaW_clonetable.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaW_clonetable(lua_State *L, int idx)
+     * }
+     */
+    public static MemorySegment luaW_clonetable$address() {
+        return luaW_clonetable.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaW_clonetable(lua_State *L, int idx)
+     * }
+     */
+    public static int luaW_clonetable(MemorySegment L, int idx) {
+        var mh$ = luaW_clonetable.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaW_clonetable", L, idx);
+            }
+            return (int)mh$.invokeExact(L, idx);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_newmetatable {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_newmetatable");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * }
+     */
+    public static FunctionDescriptor luaLW_newmetatable$descriptor() {
+        return luaLW_newmetatable.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * }
+     */
+    public static MethodHandle luaLW_newmetatable$handle() {
+        return luaLW_newmetatable.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * }
+     */
+    public static MemorySegment luaLW_newmetatable$address() {
+        return luaLW_newmetatable.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaLW_newmetatable(lua_State *L, const char *tname)
+     * }
+     */
+    public static int luaLW_newmetatable(MemorySegment L, MemorySegment tname) {
+        var mh$ = luaLW_newmetatable.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_newmetatable", L, tname);
+            }
+            return (int)mh$.invokeExact(L, tname);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_tolstring {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_tolstring");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * }
+     */
+    public static FunctionDescriptor luaLW_tolstring$descriptor() {
+        return luaLW_tolstring.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * }
+     */
+    public static MethodHandle luaLW_tolstring$handle() {
+        return luaLW_tolstring.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * }
+     */
+    public static MemorySegment luaLW_tolstring$address() {
+        return luaLW_tolstring.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * }
+     */
+    public static MemorySegment luaLW_tolstring(MemorySegment L, int idx, MemorySegment len) {
+        var mh$ = luaLW_tolstring.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_tolstring", L, idx, len);
+            }
+            return (MemorySegment)mh$.invokeExact(L, idx, len);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_findtable {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_findtable");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * }
+     */
+    public static FunctionDescriptor luaLW_findtable$descriptor() {
+        return luaLW_findtable.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * }
+     */
+    public static MethodHandle luaLW_findtable$handle() {
+        return luaLW_findtable.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * }
+     */
+    public static MemorySegment luaLW_findtable$address() {
+        return luaLW_findtable.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * }
+     */
+    public static MemorySegment luaLW_findtable(MemorySegment L, int idx, MemorySegment fname, int szhint) {
+        var mh$ = luaLW_findtable.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_findtable", L, idx, fname, szhint);
+            }
+            return (MemorySegment)mh$.invokeExact(L, idx, fname, szhint);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_typename {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_typename");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * }
+     */
+    public static FunctionDescriptor luaLW_typename$descriptor() {
+        return luaLW_typename.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * }
+     */
+    public static MethodHandle luaLW_typename$handle() {
+        return luaLW_typename.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * }
+     */
+    public static MemorySegment luaLW_typename$address() {
+        return luaLW_typename.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * }
+     */
+    public static MemorySegment luaLW_typename(MemorySegment L, int idx) {
+        var mh$ = luaLW_typename.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_typename", L, idx);
+            }
+            return (MemorySegment)mh$.invokeExact(L, idx);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_typeerror {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_typeerror");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * }
+     */
+    public static FunctionDescriptor luaLW_typeerror$descriptor() {
+        return luaLW_typeerror.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * }
+     */
+    public static MethodHandle luaLW_typeerror$handle() {
+        return luaLW_typeerror.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * }
+     */
+    public static MemorySegment luaLW_typeerror$address() {
+        return luaLW_typeerror.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * }
+     */
+    public static int luaLW_typeerror(MemorySegment L, int narg, MemorySegment tname) {
+        var mh$ = luaLW_typeerror.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_typeerror", L, narg, tname);
+            }
+            return (int)mh$.invokeExact(L, narg, tname);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_argerror {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_argerror");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * }
+     */
+    public static FunctionDescriptor luaLW_argerror$descriptor() {
+        return luaLW_argerror.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * }
+     */
+    public static MethodHandle luaLW_argerror$handle() {
+        return luaLW_argerror.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * }
+     */
+    public static MemorySegment luaLW_argerror$address() {
+        return luaLW_argerror.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * }
+     */
+    public static int luaLW_argerror(MemorySegment L, int narg, MemorySegment extramsg) {
+        var mh$ = luaLW_argerror.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_argerror", L, narg, extramsg);
+            }
+            return (int)mh$.invokeExact(L, narg, extramsg);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_checkboolean {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_checkboolean");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * }
+     */
+    public static FunctionDescriptor luaLW_checkboolean$descriptor() {
+        return luaLW_checkboolean.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * }
+     */
+    public static MethodHandle luaLW_checkboolean$handle() {
+        return luaLW_checkboolean.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * }
+     */
+    public static MemorySegment luaLW_checkboolean$address() {
+        return luaLW_checkboolean.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * }
+     */
+    public static int luaLW_checkboolean(MemorySegment L, int narg) {
+        var mh$ = luaLW_checkboolean.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_checkboolean", L, narg);
+            }
+            return (int)mh$.invokeExact(L, narg);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_checkudata {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_checkudata");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * }
+     */
+    public static FunctionDescriptor luaLW_checkudata$descriptor() {
+        return luaLW_checkudata.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * }
+     */
+    public static MethodHandle luaLW_checkudata$handle() {
+        return luaLW_checkudata.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * }
+     */
+    public static MemorySegment luaLW_checkudata$address() {
+        return luaLW_checkudata.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * }
+     */
+    public static MemorySegment luaLW_checkudata(MemorySegment L, int ud, MemorySegment tname) {
+        var mh$ = luaLW_checkudata.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_checkudata", L, ud, tname);
+            }
+            return (MemorySegment)mh$.invokeExact(L, ud, tname);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaLW_checkudatatagged {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
+            luaujava_h.C_INT
+        );
+
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_checkudatatagged");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * }
+     */
+    public static FunctionDescriptor luaLW_checkudatatagged$descriptor() {
+        return luaLW_checkudatatagged.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * }
+     */
+    public static MethodHandle luaLW_checkudatatagged$handle() {
+        return luaLW_checkudatatagged.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * }
+     */
+    public static MemorySegment luaLW_checkudatatagged$address() {
+        return luaLW_checkudatatagged.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * }
+     */
+    public static MemorySegment luaLW_checkudatatagged(MemorySegment L, int ud, int tag) {
+        var mh$ = luaLW_checkudatatagged.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("luaLW_checkudatatagged", L, ud, tag);
+            }
+            return (MemorySegment)mh$.invokeExact(L, ud, tag);
+        } catch (Error | RuntimeException ex) {
+           throw ex;
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
+    private static class luaW_pcallyieldable {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_POINTER,
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT,
-            luaujava_h.C_POINTER
+            luaujava_h.C_INT,
+            luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_tolstring");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_pcallyieldable");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2466,45 +4512,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
      * }
      */
-    public static FunctionDescriptor luaLW_tolstring$descriptor() {
-        return luaLW_tolstring.DESC;
+    public static FunctionDescriptor luaW_pcallyieldable$descriptor() {
+        return luaW_pcallyieldable.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
      * }
      */
-    public static MethodHandle luaLW_tolstring$handle() {
-        return luaLW_tolstring.HANDLE;
+    public static MethodHandle luaW_pcallyieldable$handle() {
+        return luaW_pcallyieldable.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
      * }
      */
-    public static MemorySegment luaLW_tolstring$address() {
-        return luaLW_tolstring.ADDR;
+    public static MemorySegment luaW_pcallyieldable$address() {
+        return luaW_pcallyieldable.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern const char *luaLW_tolstring(lua_State *L, int idx, size_t *len)
+     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
      * }
      */
-    public static MemorySegment luaLW_tolstring(MemorySegment L, int idx, MemorySegment len) {
-        var mh$ = luaLW_tolstring.HANDLE;
+    public static int luaW_pcallyieldable(MemorySegment L, int nargs, int nresults, int errfunc) {
+        var mh$ = luaW_pcallyieldable.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_tolstring", L, idx, len);
+                traceDowncall("luaW_pcallyieldable", L, nargs, nresults, errfunc);
             }
-            return (MemorySegment)mh$.invokeExact(L, idx, len);
+            return (int)mh$.invokeExact(L, nargs, nresults, errfunc);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2512,16 +4558,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_findtable {
+    private static class luaW_isjavaframe {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_POINTER,
-            luaujava_h.C_POINTER,
             luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_findtable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_isjavaframe");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2529,45 +4573,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * extern int luaW_isjavaframe(lua_State *L, int level)
      * }
      */
-    public static FunctionDescriptor luaLW_findtable$descriptor() {
-        return luaLW_findtable.DESC;
+    public static FunctionDescriptor luaW_isjavaframe$descriptor() {
+        return luaW_isjavaframe.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * extern int luaW_isjavaframe(lua_State *L, int level)
      * }
      */
-    public static MethodHandle luaLW_findtable$handle() {
-        return luaLW_findtable.HANDLE;
+    public static MethodHandle luaW_isjavaframe$handle() {
+        return luaW_isjavaframe.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * extern int luaW_isjavaframe(lua_State *L, int level)
      * }
      */
-    public static MemorySegment luaLW_findtable$address() {
-        return luaLW_findtable.ADDR;
+    public static MemorySegment luaW_isjavaframe$address() {
+        return luaW_isjavaframe.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern const char *luaLW_findtable(lua_State *L, int idx, const char *fname, int szhint)
+     * extern int luaW_isjavaframe(lua_State *L, int level)
      * }
      */
-    public static MemorySegment luaLW_findtable(MemorySegment L, int idx, MemorySegment fname, int szhint) {
-        var mh$ = luaLW_findtable.HANDLE;
+    public static int luaW_isjavaframe(MemorySegment L, int level) {
+        var mh$ = luaW_isjavaframe.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_findtable", L, idx, fname, szhint);
+                traceDowncall("luaW_isjavaframe", L, level);
             }
-            return (MemorySegment)mh$.invokeExact(L, idx, fname, szhint);
+            return (int)mh$.invokeExact(L, level);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2575,14 +4619,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_typename {
+    private static class luaW_backtrace {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
             luaujava_h.C_POINTER,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_typename");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_backtrace");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2590,45 +4635,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * extern int luaW_backtrace(lua_State *L, char *buf, int size)
      * }
      */
-    public static FunctionDescriptor luaLW_typename$descriptor() {
-        return luaLW_typename.DESC;
+    public static FunctionDescriptor luaW_backtrace$descriptor() {
+        return luaW_backtrace.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * extern int luaW_backtrace(lua_State *L, char *buf, int size)
      * }
      */
-    public static MethodHandle luaLW_typename$handle() {
-        return luaLW_typename.HANDLE;
+    public static MethodHandle luaW_backtrace$handle() {
+        return luaW_backtrace.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * extern int luaW_backtrace(lua_State *L, char *buf, int size)
      * }
      */
-    public static MemorySegment luaLW_typename$address() {
-        return luaLW_typename.ADDR;
+    public static MemorySegment luaW_backtrace$address() {
+        return luaW_backtrace.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern const char *luaLW_typename(lua_State *L, int idx)
+     * extern int luaW_backtrace(lua_State *L, char *buf, int size)
      * }
      */
-    public static MemorySegment luaLW_typename(MemorySegment L, int idx) {
-        var mh$ = luaLW_typename.HANDLE;
+    public static int luaW_backtrace(MemorySegment L, MemorySegment buf, int size) {
+        var mh$ = luaW_backtrace.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_typename", L, idx);
+                traceDowncall("luaW_backtrace", L, buf, size);
             }
-            return (MemorySegment)mh$.invokeExact(L, idx);
+            return (int)mh$.invokeExact(L, buf, size);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2636,14 +4681,14 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_typeerror {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
-            luaujava_h.C_POINTER,
+    private static class luaW_startallocprofile {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             luaujava_h.C_INT,
-            luaujava_h.C_POINTER
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG_LONG
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_typeerror");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_startallocprofile");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2651,45 +4696,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * extern int luaW_startallocprofile(lua_State *L, long long interval)
      * }
      */
-    public static FunctionDescriptor luaLW_typeerror$descriptor() {
-        return luaLW_typeerror.DESC;
+    public static FunctionDescriptor luaW_startallocprofile$descriptor() {
+        return luaW_startallocprofile.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * extern int luaW_startallocprofile(lua_State *L, long long interval)
      * }
      */
-    public static MethodHandle luaLW_typeerror$handle() {
-        return luaLW_typeerror.HANDLE;
+    public static MethodHandle luaW_startallocprofile$handle() {
+        return luaW_startallocprofile.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * extern int luaW_startallocprofile(lua_State *L, long long interval)
      * }
      */
-    public static MemorySegment luaLW_typeerror$address() {
-        return luaLW_typeerror.ADDR;
+    public static MemorySegment luaW_startallocprofile$address() {
+        return luaW_startallocprofile.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaLW_typeerror(lua_State *L, int narg, const char *tname)
+     * extern int luaW_startallocprofile(lua_State *L, long long interval)
      * }
      */
-    public static void luaLW_typeerror(MemorySegment L, int narg, MemorySegment tname) {
-        var mh$ = luaLW_typeerror.HANDLE;
+    public static int luaW_startallocprofile(MemorySegment L, long interval) {
+        var mh$ = luaW_startallocprofile.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_typeerror", L, narg, tname);
+                traceDowncall("luaW_startallocprofile", L, interval);
             }
-            mh$.invokeExact(L, narg, tname);
+            return (int)mh$.invokeExact(L, interval);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2697,14 +4742,12 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_argerror {
+    private static class luaW_stopallocprofile {
         public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
-            luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
             luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_argerror");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_stopallocprofile");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2712,45 +4755,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * extern void luaW_stopallocprofile(lua_State *L)
      * }
      */
-    public static FunctionDescriptor luaLW_argerror$descriptor() {
-        return luaLW_argerror.DESC;
+    public static FunctionDescriptor luaW_stopallocprofile$descriptor() {
+        return luaW_stopallocprofile.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * extern void luaW_stopallocprofile(lua_State *L)
      * }
      */
-    public static MethodHandle luaLW_argerror$handle() {
-        return luaLW_argerror.HANDLE;
+    public static MethodHandle luaW_stopallocprofile$handle() {
+        return luaW_stopallocprofile.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * extern void luaW_stopallocprofile(lua_State *L)
      * }
      */
-    public static MemorySegment luaLW_argerror$address() {
-        return luaLW_argerror.ADDR;
+    public static MemorySegment luaW_stopallocprofile$address() {
+        return luaW_stopallocprofile.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaLW_argerror(lua_State *L, int narg, const char *extramsg)
+     * extern void luaW_stopallocprofile(lua_State *L)
      * }
      */
-    public static void luaLW_argerror(MemorySegment L, int narg, MemorySegment extramsg) {
-        var mh$ = luaLW_argerror.HANDLE;
+    public static void luaW_stopallocprofile(MemorySegment L) {
+        var mh$ = luaW_stopallocprofile.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_argerror", L, narg, extramsg);
+                traceDowncall("luaW_stopallocprofile", L);
             }
-            mh$.invokeExact(L, narg, extramsg);
+            mh$.invokeExact(L);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2758,14 +4801,16 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_checkboolean {
+    private static class luaW_dumpallocprofile {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_INT,
+            luaujava_h.C_LONG_LONG,
+            luaujava_h.C_POINTER,
             luaujava_h.C_POINTER,
+            luaujava_h.C_LONG_LONG,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_checkboolean");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_dumpallocprofile");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2773,45 +4818,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * extern long long luaW_dumpallocprofile(lua_State *L, char *buf, long long size, int reset)
      * }
      */
-    public static FunctionDescriptor luaLW_checkboolean$descriptor() {
-        return luaLW_checkboolean.DESC;
+    public static FunctionDescriptor luaW_dumpallocprofile$descriptor() {
+        return luaW_dumpallocprofile.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * extern long long luaW_dumpallocprofile(lua_State *L, char *buf, long long size, int reset)
      * }
      */
-    public static MethodHandle luaLW_checkboolean$handle() {
-        return luaLW_checkboolean.HANDLE;
+    public static MethodHandle luaW_dumpallocprofile$handle() {
+        return luaW_dumpallocprofile.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * extern long long luaW_dumpallocprofile(lua_State *L, char *buf, long long size, int reset)
      * }
      */
-    public static MemorySegment luaLW_checkboolean$address() {
-        return luaLW_checkboolean.ADDR;
+    public static MemorySegment luaW_dumpallocprofile$address() {
+        return luaW_dumpallocprofile.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaLW_checkboolean(lua_State *L, int narg)
+     * extern long long luaW_dumpallocprofile(lua_State *L, char *buf, long long size, int reset)
      * }
      */
-    public static int luaLW_checkboolean(MemorySegment L, int narg) {
-        var mh$ = luaLW_checkboolean.HANDLE;
+    public static long luaW_dumpallocprofile(MemorySegment L, MemorySegment buf, long size, int reset) {
+        var mh$ = luaW_dumpallocprofile.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_checkboolean", L, narg);
+                traceDowncall("luaW_dumpallocprofile", L, buf, size, reset);
             }
-            return (int)mh$.invokeExact(L, narg);
+            return (long)mh$.invokeExact(L, buf, size, reset);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2819,15 +4864,13 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_checkudata {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_POINTER,
+    private static class luaW_interrupt_preempt_handler {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
-            luaujava_h.C_POINTER
+            luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_checkudata");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_interrupt_preempt_handler");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2835,45 +4878,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
      * }
      */
-    public static FunctionDescriptor luaLW_checkudata$descriptor() {
-        return luaLW_checkudata.DESC;
+    public static FunctionDescriptor luaW_interrupt_preempt_handler$descriptor() {
+        return luaW_interrupt_preempt_handler.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
      * }
      */
-    public static MethodHandle luaLW_checkudata$handle() {
-        return luaLW_checkudata.HANDLE;
+    public static MethodHandle luaW_interrupt_preempt_handler$handle() {
+        return luaW_interrupt_preempt_handler.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
      * }
      */
-    public static MemorySegment luaLW_checkudata$address() {
-        return luaLW_checkudata.ADDR;
+    public static MemorySegment luaW_interrupt_preempt_handler$address() {
+        return luaW_interrupt_preempt_handler.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void *luaLW_checkudata(lua_State *L, int ud, const char *tname)
+     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
      * }
      */
-    public static MemorySegment luaLW_checkudata(MemorySegment L, int ud, MemorySegment tname) {
-        var mh$ = luaLW_checkudata.HANDLE;
+    public static void luaW_interrupt_preempt_handler(MemorySegment L, int gc) {
+        var mh$ = luaW_interrupt_preempt_handler.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_checkudata", L, ud, tname);
+                traceDowncall("luaW_interrupt_preempt_handler", L, gc);
             }
-            return (MemorySegment)mh$.invokeExact(L, ud, tname);
+            mh$.invokeExact(L, gc);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2881,15 +4924,12 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaLW_checkudatatagged {
+    private static class luaW_monotonicnanos {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_POINTER,
-            luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
-            luaujava_h.C_INT
+            luaujava_h.C_LONG_LONG
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaLW_checkudatatagged");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_monotonicnanos");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2897,45 +4937,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * extern long long luaW_monotonicnanos()
      * }
      */
-    public static FunctionDescriptor luaLW_checkudatatagged$descriptor() {
-        return luaLW_checkudatatagged.DESC;
+    public static FunctionDescriptor luaW_monotonicnanos$descriptor() {
+        return luaW_monotonicnanos.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * extern long long luaW_monotonicnanos()
      * }
      */
-    public static MethodHandle luaLW_checkudatatagged$handle() {
-        return luaLW_checkudatatagged.HANDLE;
+    public static MethodHandle luaW_monotonicnanos$handle() {
+        return luaW_monotonicnanos.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * extern long long luaW_monotonicnanos()
      * }
      */
-    public static MemorySegment luaLW_checkudatatagged$address() {
-        return luaLW_checkudatatagged.ADDR;
+    public static MemorySegment luaW_monotonicnanos$address() {
+        return luaW_monotonicnanos.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void *luaLW_checkudatatagged(lua_State *L, int ud, int tag)
+     * extern long long luaW_monotonicnanos()
      * }
      */
-    public static MemorySegment luaLW_checkudatatagged(MemorySegment L, int ud, int tag) {
-        var mh$ = luaLW_checkudatatagged.HANDLE;
+    public static long luaW_monotonicnanos() {
+        var mh$ = luaW_monotonicnanos.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaLW_checkudatatagged", L, ud, tag);
+                traceDowncall("luaW_monotonicnanos");
             }
-            return (MemorySegment)mh$.invokeExact(L, ud, tag);
+            return (long)mh$.invokeExact();
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -2943,16 +4983,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_pcallyieldable {
+    private static class luaW_newatomtable {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_INT,
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT,
-            luaujava_h.C_INT,
+            luaujava_h.C_POINTER,
+            luaujava_h.C_POINTER,
             luaujava_h.C_INT
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_pcallyieldable");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_newatomtable");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -2960,45 +4999,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
+     * extern void *luaW_newatomtable(const char *names, const int *lengths, int count)
      * }
      */
-    public static FunctionDescriptor luaW_pcallyieldable$descriptor() {
-        return luaW_pcallyieldable.DESC;
+    public static FunctionDescriptor luaW_newatomtable$descriptor() {
+        return luaW_newatomtable.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
+     * extern void *luaW_newatomtable(const char *names, const int *lengths, int count)
      * }
      */
-    public static MethodHandle luaW_pcallyieldable$handle() {
-        return luaW_pcallyieldable.HANDLE;
+    public static MethodHandle luaW_newatomtable$handle() {
+        return luaW_newatomtable.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
+     * extern void *luaW_newatomtable(const char *names, const int *lengths, int count)
      * }
      */
-    public static MemorySegment luaW_pcallyieldable$address() {
-        return luaW_pcallyieldable.ADDR;
+    public static MemorySegment luaW_newatomtable$address() {
+        return luaW_newatomtable.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_pcallyieldable(lua_State *L, int nargs, int nresults, int errfunc)
+     * extern void *luaW_newatomtable(const char *names, const int *lengths, int count)
      * }
      */
-    public static int luaW_pcallyieldable(MemorySegment L, int nargs, int nresults, int errfunc) {
-        var mh$ = luaW_pcallyieldable.HANDLE;
+    public static MemorySegment luaW_newatomtable(MemorySegment names, MemorySegment lengths, int count) {
+        var mh$ = luaW_newatomtable.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_pcallyieldable", L, nargs, nresults, errfunc);
+                traceDowncall("luaW_newatomtable", names, lengths, count);
             }
-            return (int)mh$.invokeExact(L, nargs, nresults, errfunc);
+            return (MemorySegment)mh$.invokeExact(names, lengths, count);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -3006,14 +5045,12 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_isjavaframe {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
-            luaujava_h.C_INT,
-            luaujava_h.C_POINTER,
-            luaujava_h.C_INT
+    private static class luaW_freeatomtable {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            luaujava_h.C_POINTER
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_isjavaframe");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_freeatomtable");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -3021,45 +5058,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern int luaW_isjavaframe(lua_State *L, int level)
+     * extern void luaW_freeatomtable(void *table)
      * }
      */
-    public static FunctionDescriptor luaW_isjavaframe$descriptor() {
-        return luaW_isjavaframe.DESC;
+    public static FunctionDescriptor luaW_freeatomtable$descriptor() {
+        return luaW_freeatomtable.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern int luaW_isjavaframe(lua_State *L, int level)
+     * extern void luaW_freeatomtable(void *table)
      * }
      */
-    public static MethodHandle luaW_isjavaframe$handle() {
-        return luaW_isjavaframe.HANDLE;
+    public static MethodHandle luaW_freeatomtable$handle() {
+        return luaW_freeatomtable.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern int luaW_isjavaframe(lua_State *L, int level)
+     * extern void luaW_freeatomtable(void *table)
      * }
      */
-    public static MemorySegment luaW_isjavaframe$address() {
-        return luaW_isjavaframe.ADDR;
+    public static MemorySegment luaW_freeatomtable$address() {
+        return luaW_freeatomtable.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern int luaW_isjavaframe(lua_State *L, int level)
+     * extern void luaW_freeatomtable(void *table)
      * }
      */
-    public static int luaW_isjavaframe(MemorySegment L, int level) {
-        var mh$ = luaW_isjavaframe.HANDLE;
+    public static void luaW_freeatomtable(MemorySegment table) {
+        var mh$ = luaW_freeatomtable.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_isjavaframe", L, level);
+                traceDowncall("luaW_freeatomtable", table);
             }
-            return (int)mh$.invokeExact(L, level);
+            mh$.invokeExact(table);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -3067,13 +5104,15 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 
-    private static class luaW_interrupt_preempt_handler {
-        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+    private static class luaW_useratom {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            luaujava_h.C_SHORT,
             luaujava_h.C_POINTER,
-            luaujava_h.C_INT
+            luaujava_h.C_POINTER,
+            luaujava_h.C_LONG
         );
 
-        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_interrupt_preempt_handler");
+        public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("luaW_useratom");
 
         public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
     }
@@ -3081,45 +5120,45 @@ public class luaujava_h extends luaujava_h$shared {
     /**
      * Function descriptor for:
      * {@snippet lang=c :
-     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
+     * extern int16_t luaW_useratom(lua_State *L, const char *s, size_t l)
      * }
      */
-    public static FunctionDescriptor luaW_interrupt_preempt_handler$descriptor() {
-        return luaW_interrupt_preempt_handler.DESC;
+    public static FunctionDescriptor luaW_useratom$descriptor() {
+        return luaW_useratom.DESC;
     }
 
     /**
      * Downcall method handle for:
      * {@snippet lang=c :
-     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
+     * extern int16_t luaW_useratom(lua_State *L, const char *s, size_t l)
      * }
      */
-    public static MethodHandle luaW_interrupt_preempt_handler$handle() {
-        return luaW_interrupt_preempt_handler.HANDLE;
+    public static MethodHandle luaW_useratom$handle() {
+        return luaW_useratom.HANDLE;
     }
 
     /**
      * Address for:
      * {@snippet lang=c :
-     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
+     * extern int16_t luaW_useratom(lua_State *L, const char *s, size_t l)
      * }
      */
-    public static MemorySegment luaW_interrupt_preempt_handler$address() {
-        return luaW_interrupt_preempt_handler.ADDR;
+    public static MemorySegment luaW_useratom$address() {
+        return luaW_useratom.ADDR;
     }
 
     /**
      * {@snippet lang=c :
-     * extern void luaW_interrupt_preempt_handler(lua_State *L, int gc)
+     * extern int16_t luaW_useratom(lua_State *L, const char *s, size_t l)
      * }
      */
-    public static void luaW_interrupt_preempt_handler(MemorySegment L, int gc) {
-        var mh$ = luaW_interrupt_preempt_handler.HANDLE;
+    public static short luaW_useratom(MemorySegment L, MemorySegment s, long l) {
+        var mh$ = luaW_useratom.HANDLE;
         try {
             if (TRACE_DOWNCALLS) {
-                traceDowncall("luaW_interrupt_preempt_handler", L, gc);
+                traceDowncall("luaW_useratom", L, s, l);
             }
-            mh$.invokeExact(L, gc);
+            return (short)mh$.invokeExact(L, s, l);
         } catch (Error | RuntimeException ex) {
            throw ex;
         } catch (Throwable ex$) {
@@ -3127,4 +5166,3 @@ public class luaujava_h extends luaujava_h$shared {
         }
     }
 }
-
@@ -2,6 +2,7 @@ module net.hollowcube.luau {
     requires org.jetbrains.annotations;
 
     exports net.hollowcube.luau;
+    exports net.hollowcube.luau.annotation;
     exports net.hollowcube.luau.compiler;
     exports net.hollowcube.luau.require;
 }
@@ -0,0 +1,269 @@
+package net.hollowcube.luau;
+
+import net.hollowcube.luau.util.NativeLibraryLoader;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+
+import static net.hollowcube.luau.internal.vm.lua_h.*;
+
+/// Lua API functions relinked as critical downcalls (`Linker.Option.critical`), which skip the
+/// thread state transition a normal downcall makes in each direction. They are the bulk of
+/// the calls a typical Java callback makes, so the saving adds up.
+///
+/// A critical function must not raise (which would longjmp over the downcall stub, exactly
+/// as for any other downcall), must not call back into Java, and must be short, since the
+/// calling thread cannot reach a safepoint while it runs. That rules out anything that can
+/// allocate: an allocation may step the GC, and the GC runs userdata destructors, which are
+/// Java upcalls. Everything here only reads or writes stack slots that already exist.
+///
+/// This class is the curated list; `TestCriticalDowncalls` checks every entry against the
+/// Luau sources, so adding a function which can raise or call back fails the build. The
+/// descriptors and addresses are jextract's, so a signature change in `lua.h` still shows
+/// up in the generated bindings.
+final class CriticalDowncalls {
+    static {
+        NativeLibraryLoader.loadLibrary("luaujava");
+    }
+
+    private static final MethodHandle LUA_ABSINDEX = link(lua_absindex$address(), lua_absindex$descriptor());
+    private static final MethodHandle LUA_GETTOP = link(lua_gettop$address(), lua_gettop$descriptor());
+    private static final MethodHandle LUA_SETTOP = link(lua_settop$address(), lua_settop$descriptor());
+    private static final MethodHandle LUA_PUSHVALUE = link(lua_pushvalue$address(), lua_pushvalue$descriptor());
+    private static final MethodHandle LUA_TYPE = link(lua_type$address(), lua_type$descriptor());
+    private static final MethodHandle LUA_RAWEQUAL = link(lua_rawequal$address(), lua_rawequal$descriptor());
+    private static final MethodHandle LUA_TONUMBERX = link(lua_tonumberx$address(), lua_tonumberx$descriptor());
+    private static final MethodHandle LUA_TOINTEGERX = link(lua_tointegerx$address(), lua_tointegerx$descriptor());
+    private static final MethodHandle LUA_TOINTEGER64 = link(lua_tointeger64$address(), lua_tointeger64$descriptor());
+    private static final MethodHandle LUA_TOBOOLEAN = link(lua_toboolean$address(), lua_toboolean$descriptor());
+    private static final MethodHandle LUA_TOUSERDATA = link(lua_touserdata$address(), lua_touserdata$descriptor());
+    private static final MethodHandle LUA_TOUSERDATATAGGED = link(lua_touserdatatagged$address(), lua_touserdatatagged$descriptor());
+    private static final MethodHandle LUA_USERDATATAG = link(lua_userdatatag$address(), lua_userdatatag$descriptor());
+    private static final MethodHandle LUA_LIGHTUSERDATATAG = link(lua_lightuserdatatag$address(), lua_lightuserdatatag$descriptor());
+    private static final MethodHandle LUA_PUSHNIL = link(lua_pushnil$address(), lua_pushnil$descriptor());
+    private static final MethodHandle LUA_PUSHNUMBER = link(lua_pushnumber$address(), lua_pushnumber$descriptor());
+    private static final MethodHandle LUA_PUSHINTEGER = link(lua_pushinteger$address(), lua_pushinteger$descriptor());
+    private static final MethodHandle LUA_PUSHBOOLEAN = link(lua_pushboolean$address(), lua_pushboolean$descriptor());
+    private static final MethodHandle LUA_PUSHLIGHTUSERDATATAGGED = link(lua_pushlightuserdatatagged$address(), lua_pushlightuserdatatagged$descriptor());
+    private static final MethodHandle LUA_RAWGETI = link(lua_rawgeti$address(), lua_rawgeti$descriptor());
+    private static final MethodHandle LUA_GETTHREADDATA = link(lua_getthreaddata$address(), lua_getthreaddata$descriptor());
+
+    private static MethodHandle link(MemorySegment address, FunctionDescriptor descriptor) {
+        return Linker.nativeLinker().downcallHandle(address, descriptor, Linker.Option.critical(false));
+    }
+
+    static int lua_absindex(MemorySegment L, int idx) {
+        try {
+            return (int) LUA_ABSINDEX.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_gettop(MemorySegment L) {
+        try {
+            return (int) LUA_GETTOP.invokeExact(L);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static void lua_settop(MemorySegment L, int idx) {
+        try {
+            LUA_SETTOP.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static void lua_pushvalue(MemorySegment L, int idx) {
+        try {
+            LUA_PUSHVALUE.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_type(MemorySegment L, int idx) {
+        try {
+            return (int) LUA_TYPE.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_rawequal(MemorySegment L, int idx1, int idx2) {
+        try {
+            return (int) LUA_RAWEQUAL.invokeExact(L, idx1, idx2);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static double lua_tonumberx(MemorySegment L, int idx, MemorySegment isnum) {
+        try {
+            return (double) LUA_TONUMBERX.invokeExact(L, idx, isnum);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_tointegerx(MemorySegment L, int idx, MemorySegment isnum) {
+        try {
+            return (int) LUA_TOINTEGERX.invokeExact(L, idx, isnum);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static long lua_tointeger64(MemorySegment L, int idx, MemorySegment isinteger) {
+        try {
+            return (long) LUA_TOINTEGER64.invokeExact(L, idx, isinteger);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_toboolean(MemorySegment L, int idx) {
+        try {
+            return (int) LUA_TOBOOLEAN.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static MemorySegment lua_touserdata(MemorySegment L, int idx) {
+        try {
+            return (MemorySegment) LUA_TOUSERDATA.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static MemorySegment lua_touserdatatagged(MemorySegment L, int idx, int tag) {
+        try {
+            return (MemorySegment) LUA_TOUSERDATATAGGED.invokeExact(L, idx, tag);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_userdatatag(MemorySegment L, int idx) {
+        try {
+            return (int) LUA_USERDATATAG.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_lightuserdatatag(MemorySegment L, int idx) {
+        try {
+            return (int) LUA_LIGHTUSERDATATAG.invokeExact(L, idx);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static void lua_pushnil(MemorySegment L) {
+        try {
+            LUA_PUSHNIL.invokeExact(L);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static void lua_pushnumber(MemorySegment L, double n) {
+        try {
+            LUA_PUSHNUMBER.invokeExact(L, n);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static void lua_pushinteger(MemorySegment L, int n) {
+        try {
+            LUA_PUSHINTEGER.invokeExact(L, n);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static void lua_pushboolean(MemorySegment L, int b) {
+        try {
+            LUA_PUSHBOOLEAN.invokeExact(L, b);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static void lua_pushlightuserdatatagged(MemorySegment L, MemorySegment p, int tag) {
+        try {
+            LUA_PUSHLIGHTUSERDATATAGGED.invokeExact(L, p, tag);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static int lua_rawgeti(MemorySegment L, int idx, int n) {
+        try {
+            return (int) LUA_RAWGETI.invokeExact(L, idx, n);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    static MemorySegment lua_getthreaddata(MemorySegment L) {
+        try {
+            return (MemorySegment) LUA_GETTHREADDATA.invokeExact(L);
+        } catch (Error | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError("should not reach here", e);
+        }
+    }
+
+    private CriticalDowncalls() {
+    }
+}
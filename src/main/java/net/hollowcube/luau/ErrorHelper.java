@@ -1,7 +1,5 @@
 package net.hollowcube.luau;
 
-import static net.hollowcube.luau.LuaStateImpl.mergeBacktrace;
-
 class ErrorHelper {
 
     static int handleError(LuaState state, Throwable t){
@@ -29,7 +27,7 @@ class ErrorHelper {
                 if (t.getMessage() != null) message += ": " + t.getMessage();
 
                 final LuaError err = new LuaError(message);
-                err.setStackTrace(mergeBacktrace(state, t.getStackTrace(), false));
+                LuaBacktrace.capture(err, state, false, t);
                 yield err.pushAndMark(state);
             }
         };
@@ -10,4 +10,53 @@ public sealed interface LuaAlloc permits LuaStateImpl.AllocImpl {
     static LuaAlloc allocate(Function function, Arena arena) {
         return new LuaStateImpl.AllocImpl(function, arena);
     }
+
+    /// A native size class allocator, given to each state created with it. Blocks up to
+    /// [SlabConfig#maxBlockSize()] are rounded up to one of four size classes per power of
+    /// two and recycled through per class free lists instead of going back to the system,
+    /// and those up to 4KB are carved from 64KB chunks. Everything is released when the
+    /// state is closed.
+    ///
+    /// Luau already pools its small objects into pages, so this mostly recycles those pages
+    /// and the arrays behind growing tables and strings. See [LuaState#slabStats()].
+    static LuaAlloc slab(SlabConfig config) {
+        return new LuaStateImpl.AllocImpl(config);
+    }
+
+    /// [#slab(SlabConfig)] with [SlabConfig#DEFAULT].
+    static LuaAlloc slab() {
+        return slab(SlabConfig.DEFAULT);
+    }
+
+    /// @param maxBlockSize   the largest block kept in a size class, at most 16MB; larger
+    ///                       blocks are passed to the system allocator
+    /// @param maxCachedBytes how much of the free blocks over 4KB to keep for reuse, the
+    ///                       rest being freed. Freed carved blocks are always kept.
+    record SlabConfig(int maxBlockSize, long maxCachedBytes) {
+        public static final SlabConfig DEFAULT = new SlabConfig(64 * 1024, 4 * 1024 * 1024);
+
+        public SlabConfig {
+            if (maxBlockSize <= 0 || maxBlockSize > 16 * 1024 * 1024)
+                throw new IllegalArgumentException("maxBlockSize out of range: " + maxBlockSize);
+            if (maxCachedBytes < 0)
+                throw new IllegalArgumentException("negative maxCachedBytes: " + maxCachedBytes);
+        }
+    }
+
+    /// Counters of a [#slab(SlabConfig)] allocator, from [LuaState#slabStats()].
+    ///
+    /// @param allocations blocks handed out, including those moved by a reallocation
+    /// @param recycled    how many of [#allocations()] came from a free list
+    /// @param inPlace     reallocations which fit in the size class of the old block
+    /// @param oversized   how many of [#allocations()] were over [SlabConfig#maxBlockSize()]
+    /// @param cachedBytes bytes in free lists
+    /// @param liveBytes   bytes handed out and not yet freed, rounded up to size classes
+    record SlabStats(
+        long allocations,
+        long recycled,
+        long inPlace,
+        long oversized,
+        long cachedBytes,
+        long liveBytes
+    ) {}
 }
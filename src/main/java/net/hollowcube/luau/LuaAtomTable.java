@@ -0,0 +1,44 @@
+package net.hollowcube.luau;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.foreign.Arena;
+
+/// Assigns string atoms to a fixed set of names, and is the [LuaCallbacks.UserAtom] which
+/// hands them to the VM.
+///
+/// Luau asks for an atom once, when a string is first interned, so every name must be in
+/// the table (and the callback installed) before any script mentioning it is loaded.
+/// Strings interned earlier simply have no atom; consumers such as [NameCallDispatcher]
+/// fall back to comparing names for those.
+///
+/// Atoms are dense, starting at 0, in the order names were added. A table may be shared by
+/// any number of states and dispatchers.
+public sealed interface LuaAtomTable permits LuaAtomTableImpl {
+
+    static LuaAtomTable create() {
+        return new LuaAtomTableImpl();
+    }
+
+    /// The atom of `name`, assigning the next one if it has none yet.
+    ///
+    /// @throws IllegalStateException if the table already holds [Short#MAX_VALUE] names
+    short atom(String name);
+
+    /// The atom of `name`, or [LuaState#NO_ATOM] if it has none.
+    short find(String name);
+
+    /// The name with the given atom, or null if none.
+    @Nullable String name(short atom);
+
+    /// The number of names, which is one past the highest atom.
+    int size();
+
+    /// A user atom callback answering from this table, for [LuaCallbacks#userAtom(LuaCallbacks.UserAtom)].
+    /// It is a native copy of the names (see [LuaCallbacks.UserAtom#table(java.util.List, Arena)]),
+    /// so assigning an atom never calls into Java, and is freed with `arena`.
+    ///
+    /// The copy is taken now: names added later get no atom from it, so build every
+    /// dispatcher sharing the table first.
+    LuaCallbacks.UserAtom userAtom(Arena arena);
+}
@@ -0,0 +1,63 @@
+package net.hollowcube.luau;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.foreign.Arena;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class LuaAtomTableImpl implements LuaAtomTable {
+    private final Map<String, Short> atoms = new ConcurrentHashMap<>();
+    /// Indexed by atom; replaced, never written in place, so readers need no lock.
+    private volatile String[] names = new String[0];
+
+    @Override
+    public short atom(String name) {
+        final Short existing = atoms.get(name);
+        if (existing != null) return existing;
+
+        synchronized (this) {
+            final Short raced = atoms.get(name);
+            if (raced != null) return raced;
+
+            final String[] current = names;
+            if (current.length >= Short.MAX_VALUE)
+                throw new IllegalStateException("atom table is full");
+            final short atom = (short) current.length;
+            final String[] next = Arrays.copyOf(current, current.length + 1);
+            next[atom] = name;
+            names = next;
+            atoms.put(name, atom);
+            return atom;
+        }
+    }
+
+    @Override
+    public short find(String name) {
+        final Short atom = atoms.get(name);
+        return atom != null ? atom : LuaState.NO_ATOM;
+    }
+
+    @Override
+    public @Nullable String name(short atom) {
+        final String[] current = names;
+        return atom >= 0 && atom < current.length ? current[atom] : null;
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public LuaCallbacks.UserAtom userAtom(Arena arena) {
+        // The array is never written in place, so it is already a snapshot.
+        return LuaCallbacks.UserAtom.table(Arrays.asList(names), arena);
+    }
+
+    @Override
+    public String toString() {
+        return "LuaAtomTable" + Arrays.toString(names);
+    }
+}
@@ -0,0 +1,204 @@
+package net.hollowcube.luau;
+
+import net.hollowcube.luau.internal.vm.luaujava_h;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static net.hollowcube.luau.internal.vm.luaujava_h.luaW_backtrace;
+
+/// The Lua half of a [LuaError] stack trace, captured when the error is raised and merged
+/// with the Java half only if someone looks at it.
+///
+/// Errors are often caught and dropped (scripts using `error` for control flow), so the
+/// capture is kept to one downcall and a copy: `luaW_backtrace` writes the frames into a
+/// per-thread buffer and they are kept as bytes. Building the `StackTraceElement`s and
+/// interleaving them with the Java frames waits for [LuaError#getStackTrace()].
+final class LuaBacktrace {
+    private static final boolean SHOW_COMPLETE_BACKTRACE =
+            Boolean.getBoolean("luau.show-complete-backtrace");
+    private static final boolean NO_BACKTRACE_MERGE =
+            Boolean.getBoolean("luau.no-backtrace-merge");
+
+    /// The per-thread buffer. A deeper stack is captured again into larger buffers, up to
+    /// [#MAX_SNAPSHOT_SIZE], and beyond that cut off; see `luaW_backtrace`.
+    static final int SNAPSHOT_SIZE = 16 * 1024;
+    static final int MAX_SNAPSHOT_SIZE = 1024 * 1024;
+    /// Stands in for the frames outside a cut off snapshot.
+    private static final StackTraceElement TRUNCATED =
+            new StackTraceElement("lua", "<truncated>", "<native>", -1);
+
+    /// LUAW_BACKTRACE_*; see luaujava.h.
+    private static final int FRAME_JAVA = 1, FRAME_LUA = 2;
+
+    private static final ThreadLocal<MemorySegment> BUFFER =
+            ThreadLocal.withInitial(() -> Arena.ofAuto().allocate(SNAPSHOT_SIZE));
+
+    private final byte[] snapshot;
+    /// Whether the outermost frames did not fit in the snapshot.
+    private final boolean truncated;
+    private final boolean startInLua;
+    /// Where the Java frames come from, if not the error itself (a Java exception which
+    /// was converted to a [LuaError]).
+    private final @Nullable Throwable javaSource;
+
+    private LuaBacktrace(byte[] snapshot, boolean truncated, boolean startInLua, @Nullable Throwable javaSource) {
+        this.snapshot = snapshot;
+        this.truncated = truncated;
+        this.startInLua = startInLua;
+        this.javaSource = javaSource;
+    }
+
+    /// Snapshots the Lua stack of `state` into `err`. `startInLua` is set when the error
+    /// was raised by Lua code, so the innermost frames are Lua rather than Java.
+    static void capture(LuaError err, LuaState state, boolean startInLua, @Nullable Throwable javaSource) {
+        if (NO_BACKTRACE_MERGE) {
+            if (javaSource != null) err.setStackTrace(javaSource.getStackTrace());
+            return;
+        }
+
+        final MemorySegment L = ((LuaStateImpl) state).L();
+        final MemorySegment shared = BUFFER.get();
+        final int size = luaW_backtrace(L, shared, SNAPSHOT_SIZE);
+        if (size >= 0) {
+            err.deferBacktrace(new LuaBacktrace(shared.asSlice(0, size).toArray(ValueLayout.JAVA_BYTE),
+                    false, startInLua, javaSource));
+            return;
+        }
+
+        // Rare enough that the larger buffers are not kept.
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment buffer;
+            int written;
+            int capacity = SNAPSHOT_SIZE;
+            do {
+                capacity *= 4;
+                buffer = arena.allocate(capacity);
+                written = luaW_backtrace(L, buffer, capacity);
+            } while (written < 0 && capacity < MAX_SNAPSHOT_SIZE);
+
+            final boolean truncated = written < 0;
+            if (truncated) written = ~written;
+            err.deferBacktrace(new LuaBacktrace(buffer.asSlice(0, written).toArray(ValueLayout.JAVA_BYTE),
+                    truncated, startInLua, javaSource));
+        }
+    }
+
+    /// The merged trace, given the error's own Java frames.
+    StackTraceElement[] merge(StackTraceElement[] ownTrace) {
+        final StackTraceElement[] javaTrace = javaSource != null ? javaSource.getStackTrace() : ownTrace;
+        // Level n is frames[n - 1], with null marking a Java closure.
+        final List<@Nullable StackTraceElement> frames = frames();
+
+        final List<StackTraceElement> mergedTrace = new ArrayList<>(javaTrace.length + frames.size());
+        int luaTraceIndex = 1;
+
+        // If we are starting in lua, read the first part of the trace before any java parts.
+        if (startInLua)
+            luaTraceIndex = readLuaTracePart(frames, mergedTrace, luaTraceIndex) - 1;
+
+        for (final StackTraceElement javaElem : javaTrace) {
+            if (isDowncall(javaElem)) {
+                luaTraceIndex = readLuaTracePart(frames, mergedTrace, luaTraceIndex);
+            }
+
+            if (!shouldExcludeElement(javaElem)) mergedTrace.add(javaElem);
+        }
+        return mergedTrace.toArray(new StackTraceElement[0]);
+    }
+
+    private List<@Nullable StackTraceElement> frames() {
+        final MemorySegment data = MemorySegment.ofArray(snapshot);
+        final List<@Nullable StackTraceElement> frames = new ArrayList<>();
+        int offset = 0;
+        while (offset < snapshot.length) {
+            final int flags = data.get(ValueLayout.JAVA_INT_UNALIGNED, offset);
+            final int line = data.get(ValueLayout.JAVA_INT_UNALIGNED, offset + Integer.BYTES);
+            offset += 2 * Integer.BYTES;
+            final int sourceEnd = terminator(offset);
+            final String source = new String(snapshot, offset, sourceEnd - offset, StandardCharsets.UTF_8);
+            offset = sourceEnd + 1;
+            final int nameEnd = terminator(offset);
+            final String name = new String(snapshot, offset, nameEnd - offset, StandardCharsets.UTF_8);
+            offset = nameEnd + 1;
+
+            if ((flags & FRAME_JAVA) != 0) {
+                frames.add(null);
+                continue;
+            }
+
+            frames.add(new StackTraceElement(
+                    // declaring class
+                    "lua",
+                    // method name
+                    name.isEmpty() ? "<anonymous>" : name,
+                    // file name
+                    (flags & FRAME_LUA) != 0 && !source.isEmpty() ? source : "<native>",
+                    // line number
+                    line));
+        }
+        // The cut is where the Lua frames end: the segment it falls in ends with the marker,
+        // and the downcalls outside it find no Lua frames left to claim.
+        if (truncated) frames.add(TRUNCATED);
+        return frames;
+    }
+
+    private int terminator(int offset) {
+        while (snapshot[offset] != 0) offset++;
+        return offset;
+    }
+
+    private static boolean isDowncall(StackTraceElement elem) {
+        // luaujava_h.luaW_pcall is our downcall marker, we expect no other downcalls to occur.
+        // At every downcall point, we need to get the 'next' lua trace segment.
+        if (luaujava_h.class.getName().equals(elem.getClassName())
+                && "luaW_pcall".equals(elem.getMethodName())) return true;
+        if (LuaStateImpl.class.getName().equals(elem.getClassName())
+                && "resume".equals(elem.getMethodName())) return true;
+        return false;
+    }
+
+    /// Copies frames from `index` up to the next Java closure, returning the level after it.
+    private static int readLuaTracePart(
+            List<@Nullable StackTraceElement> frames,
+            List<StackTraceElement> mergedTrace,
+            int index
+    ) {
+        while (index <= frames.size()) {
+            final StackTraceElement frame = frames.get(index++ - 1);
+            // A Java closure ends this segment of the trace; the Java frames which
+            // implement it come next.
+            if (frame == null) return index;
+            mergedTrace.add(frame);
+        }
+        // Past the outermost frame, as lua_getinfo failing would leave it.
+        return index + 1;
+    }
+
+    private static boolean shouldExcludeElement(StackTraceElement elem) {
+        if (SHOW_COMPLETE_BACKTRACE) return false;
+
+        class Exclusions {
+            static final Set<String> SET = Set.of(luaujava_h.class.getName() + "-luaW_pcall",
+                                                  LuaFuncImpl.class.getName() + "-dispatch",
+                                                  LuaFuncImpl.class.getName() + "-dispatchContinuation",
+                                                  LuaFuncImpl.class.getName() + "-dispatchDoubleUnary",
+                                                  LuaFuncImpl.class.getName() + "-dispatchDoubleBinary",
+                                                  LuaFuncImpl.class.getName() + "-dispatchIntConsumer",
+                                                  LuaFuncImpl.class.getName() + "-dispatchLongBinary",
+                                                  LuaFuncImpl.class.getName() + "-fail",
+                                                  LuaStateImpl.class.getName() +
+                                                          "-propagateException", LuaStateImpl.class.getName() +
+                                                          "-propagateExceptionInner",
+                                                  LuaStateImpl.class.getName() + "-pcallErrFunc");
+        }
+        return Exclusions.SET.contains("%s-%s".formatted(elem.getClassName(),
+                                                         elem.getMethodName()));
+    }
+}
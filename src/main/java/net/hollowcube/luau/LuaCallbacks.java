@@ -4,6 +4,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.time.Duration;
+import java.util.List;
 
 /// Wraps the lua_Callbacks api for configuring the VM behavior at runtime.
 ///
@@ -80,6 +82,52 @@ public sealed interface LuaCallbacks permits LuaCallbacksImpl {
      */
     void preempt(MemorySegment functionAddress);
 
+    /// A preemption policy evaluated natively at every safepoint, so that time-slicing a
+    /// script costs no call into Java until it is actually due to be preempted.
+    ///
+    /// Each trigger (the stop flag, the deadline and the budget) fires once and is disarmed
+    /// when it does, so a scheduler re-arms it before resuming the preempted thread. When one
+    /// fires, the [Preempt] handler is called if one is set, and decides as it always does;
+    /// otherwise the [Action] is taken. The policy belongs to the state, shared by all of its
+    /// threads.
+    ///
+    /// Only [#stop()] may be called from another thread. The rest must be called from the
+    /// thread which owns the state (the one running it, between safepoints): the budget is
+    /// counted down and the deadline read with plain accesses at every safepoint, so a
+    /// write from another thread may be lost or never seen. A watchdog uses [#stop()].
+    sealed interface PreemptPolicy permits LuaCallbacksImpl.PreemptPolicyImpl {
+        enum Action {
+            /// Yields the running thread, which must be yieldable (ie resumed rather than called).
+            YIELD,
+            /// Raises an error describing which trigger fired.
+            ERROR
+        }
+
+        /// Preempts at the first safepoint after `timeout` has elapsed on a monotonic clock.
+        /// Owning thread only.
+        void deadline(Duration timeout);
+
+        /// Preempts after approximately `safepoints` more safepoints (loop back edges, calls
+        /// and returns), a cheap proxy for an instruction count. Zero disarms the budget.
+        /// Owning thread only.
+        void budget(long safepoints);
+
+        /// The action taken when there is no [Preempt] handler, initially [Action#YIELD].
+        void action(Action action);
+
+        /// Preempts at the next safepoint. Safe to call from any thread, such as a watchdog,
+        /// for as long as the state is open.
+        void stop();
+
+        /// Disarms every trigger and returns to calling the [Preempt] handler (if any) at
+        /// every safepoint.
+        void disable();
+    }
+
+    /// Enables the native preemption policy of this state, setting the interrupt() callback
+    /// as [#preempt(MemorySegment)] does.
+    PreemptPolicy preemptPolicy();
+
     sealed interface UserAtom permits LuaCallbacksImpl.UserAtomImpl {
         @FunctionalInterface
         interface Handler {
@@ -90,9 +138,18 @@ public sealed interface LuaCallbacks permits LuaCallbacksImpl {
             return new LuaCallbacksImpl.UserAtomImpl(handler, arena);
         }
 
-        //todo could add native utility function which just reads from a map or something
-        // to return the atom if you know the entire list in advance. Would have to be set
-        // globally however since we have no context.
+        /// Gives each of `names` its index in the list as its atom, and every other string
+        /// [LuaState#NO_ATOM]. The names are hashed into a table in native memory which a
+        /// native callback reads, so unlike [#allocate(Handler, Arena)] assigning an atom
+        /// never calls into Java.
+        ///
+        /// The table is freed with `arena`, which must outlive every state it is set on.
+        ///
+        /// @throws IllegalArgumentException if a name is repeated, or there are more names
+        ///                                  than atoms (`Short.MAX_VALUE`)
+        static UserAtom table(List<String> names, Arena arena) {
+            return LuaCallbacksImpl.UserAtomImpl.table(names, arena);
+        }
     }
 
     /// gets called when a string is created; returned atom can be retrieved via tostringatom
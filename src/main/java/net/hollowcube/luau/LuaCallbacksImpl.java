@@ -9,7 +9,12 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 record LuaCallbacksImpl(MemorySegment callbacks) implements LuaCallbacks {
     record InterruptImpl(MemorySegment handle) implements Interrupt {
@@ -64,7 +69,59 @@ record LuaCallbacksImpl(MemorySegment callbacks) implements LuaCallbacks {
         preempt(handle);
     }
 
-    record UserAtomImpl(MemorySegment handle) implements UserAtom {
+    record PreemptPolicyImpl(MemorySegment bridgeData) implements PreemptPolicy {
+        /// LUAW_PREEMPT_*; see luaujava.h.
+        private static final int ACTION_YIELD = 0, ACTION_ERROR = 1;
+        private static final VarHandle STOP = luaW_userdata.preemptstop$layout().varHandle();
+        private static final Duration MAX_TIMEOUT = Duration.ofNanos(Long.MAX_VALUE);
+
+        @Override
+        public void deadline(Duration timeout) {
+            if (timeout.isNegative()) throw new IllegalArgumentException("negative timeout: " + timeout);
+            final long nanos = timeout.compareTo(MAX_TIMEOUT) < 0 ? timeout.toNanos() : Long.MAX_VALUE;
+            final long deadline = luaujava_h.luaW_monotonicnanos() + nanos;
+            // Saturate rather than wrap, and never to 0, which means no deadline.
+            luaW_userdata.preemptdeadline(bridgeData, deadline < 0 ? Long.MAX_VALUE : Math.max(deadline, 1));
+        }
+
+        @Override
+        public void budget(long safepoints) {
+            if (safepoints < 0) throw new IllegalArgumentException("negative budget: " + safepoints);
+            luaW_userdata.preemptbudget(bridgeData, safepoints);
+        }
+
+        @Override
+        public void action(Action action) {
+            luaW_userdata.preemptaction(bridgeData, switch (action) {
+                case YIELD -> ACTION_YIELD;
+                case ERROR -> ACTION_ERROR;
+            });
+        }
+
+        @Override
+        public void stop() {
+            STOP.setVolatile(bridgeData, luaW_userdata.preemptstop$offset(), 1);
+        }
+
+        @Override
+        public void disable() {
+            luaW_userdata.preemptpolicy(bridgeData, 0);
+            luaW_userdata.preemptdeadline(bridgeData, 0);
+            luaW_userdata.preemptbudget(bridgeData, 0);
+            STOP.setVolatile(bridgeData, luaW_userdata.preemptstop$offset(), 0);
+        }
+    }
+
+    @Override
+    public PreemptPolicy preemptPolicy() {
+        final MemorySegment bridgeData = lua_Callbacks.userdata(callbacks);
+        lua_Callbacks.interrupt(callbacks, luaujava_h.luaW_interrupt_preempt_handler$address());
+        luaW_userdata.preemptpolicy(bridgeData, 1);
+        return new PreemptPolicyImpl(bridgeData);
+    }
+
+    /// @param table the luaW_newatomtable read by `handle`, or NULL for a Java handler
+    record UserAtomImpl(MemorySegment handle, MemorySegment table) implements UserAtom {
         public UserAtomImpl(Handler handler, Arena arena) {
             final lua_Callbacks.useratom.Function f = (L, str, len) -> {
                 byte[] raw = str
@@ -75,20 +132,51 @@ record LuaCallbacksImpl(MemorySegment callbacks) implements LuaCallbacks {
                         new String(raw, StandardCharsets.UTF_8)
                 );
             };
-            this(lua_Callbacks.useratom.allocate(f, arena));
+            this(lua_Callbacks.useratom.allocate(f, arena), MemorySegment.NULL);
+        }
+
+        static UserAtomImpl table(List<String> names, Arena arena) {
+            if (names.size() > Short.MAX_VALUE)
+                throw new IllegalArgumentException("too many atoms: " + names.size());
+            final Set<String> seen = new HashSet<>();
+            final byte[][] encoded = new byte[names.size()][];
+            long total = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                final String name = names.get(i);
+                if (!seen.add(name)) throw new IllegalArgumentException("duplicate atom: " + name);
+                encoded[i] = name.getBytes(StandardCharsets.UTF_8);
+                total += encoded[i].length;
+            }
+
+            try (Arena temp = Arena.ofConfined()) {
+                final MemorySegment data = temp.allocate(total);
+                final MemorySegment lengths = temp.allocate(ValueLayout.JAVA_INT, encoded.length);
+                long offset = 0;
+                for (int i = 0; i < encoded.length; i++) {
+                    MemorySegment.copy(encoded[i], 0, data, ValueLayout.JAVA_BYTE, offset, encoded[i].length);
+                    lengths.setAtIndex(ValueLayout.JAVA_INT, i, encoded[i].length);
+                    offset += encoded[i].length;
+                }
+
+                final MemorySegment table = luaujava_h.luaW_newatomtable(data, lengths, encoded.length);
+                if (table.equals(MemorySegment.NULL))
+                    throw new IllegalStateException("Failed to allocate atom table");
+                return new UserAtomImpl(luaujava_h.luaW_useratom$address(),
+                        table.reinterpret(arena, luaujava_h::luaW_freeatomtable));
+            }
         }
     }
 
     @Override
     public void userAtom(@Nullable UserAtom handler) {
-        final MemorySegment handle = handler != null
-                ? ((UserAtomImpl) handler).handle
-                : MemorySegment.NULL;
-        lua_Callbacks.useratom(callbacks, handle);
+        final UserAtomImpl impl = (UserAtomImpl) handler;
+        luaW_userdata.atoms(lua_Callbacks.userdata(callbacks), impl != null ? impl.table : MemorySegment.NULL);
+        lua_Callbacks.useratom(callbacks, impl != null ? impl.handle : MemorySegment.NULL);
     }
 
     @Override
     public void userAtom(MemorySegment functionAddress) {
+        luaW_userdata.atoms(lua_Callbacks.userdata(callbacks), MemorySegment.NULL);
         lua_Callbacks.useratom(callbacks, functionAddress);
     }
 
@@ -116,12 +204,17 @@ record LuaCallbacksImpl(MemorySegment callbacks) implements LuaCallbacks {
     @Override
     public void userThread(@Nullable UserThread handler) {
         JavaCallbacks.fromCallbacks(callbacks).userThread = handler;
+        luaW_userdata.userthread(lua_Callbacks.userdata(callbacks), handler != null
+                ? LuaStateImpl.USERTHREAD_CALLBACK
+                : MemorySegment.NULL);
     }
 
     static final class JavaCallbacks {
         /// Owns the native luaW_userdata pointed at by lua_Callbacks::userdata.
         final Arena arena;
         @Nullable UserThread userThread = null;
+        /// Created by the first [LuaState#pushUserDataCached(Object, int)].
+        @Nullable UserDataCache userDataCache = null;
 
         JavaCallbacks(Arena arena) {
             this.arena = arena;
@@ -3,9 +3,21 @@ package net.hollowcube.luau;
 import org.jetbrains.annotations.CheckReturnValue;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.ObjectStreamException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Serial;
+
+/// An error raised in Lua, or a Java exception on its way through Lua.
+///
+/// The stack trace interleaves the Lua frames with the Java ones. The Lua frames are
+/// captured when the error is raised but only merged in once it leaves Lua for the Java
+/// code which made the call (or on the first [#getStackTrace()]), so errors which a script
+/// catches with `pcall` never pay for it.
 public class LuaError extends RuntimeException {
 
     private final LuaStatus status;
+    private transient @Nullable LuaBacktrace backtrace;
 
     public LuaError(@Nullable String message) {
         this(LuaStatus.ERRRUN, message);
@@ -20,6 +32,52 @@ public class LuaError extends RuntimeException {
         return status;
     }
 
+    @Override
+    public StackTraceElement[] getStackTrace() {
+        mergeBacktrace();
+        return super.getStackTrace();
+    }
+
+    @Override
+    public synchronized void setStackTrace(StackTraceElement[] stackTrace) {
+        backtrace = null;
+        super.setStackTrace(stackTrace);
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+        mergeBacktrace();
+        super.printStackTrace(s);
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+        mergeBacktrace();
+        super.printStackTrace(s);
+    }
+
+    /// The pending Lua frames are transient, and [Throwable] writes its stack trace before
+    /// any subclass hook runs, so they are merged in before serialization starts.
+    @Serial
+    protected Object writeReplace() throws ObjectStreamException {
+        mergeBacktrace();
+        return this;
+    }
+
+    synchronized void deferBacktrace(LuaBacktrace backtrace) {
+        this.backtrace = backtrace;
+    }
+
+    /// Merges the pending Lua frames into the stack trace, if there are any. Done before
+    /// the error is thrown to Java, where it may become the cause of another exception,
+    /// which prints it without going through [#getStackTrace()].
+    synchronized void mergeBacktrace() {
+        final LuaBacktrace pending = backtrace;
+        if (pending == null) return;
+        backtrace = null;
+        super.setStackTrace(pending.merge(super.getStackTrace()));
+    }
+
     /// Push the error onto the stack so its discoverable by intermediate handlers, and
     /// create the error marker return value for luau to continue unwinding the callstack.
     @CheckReturnValue
@@ -5,12 +5,22 @@ import org.jetbrains.annotations.ApiStatus;
 import java.io.Closeable;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.LongBinaryOperator;
 import java.util.function.ToIntFunction;
 
 public sealed interface LuaFunc extends Closeable permits LuaFuncImpl {
     /// Wraps a java function as a native Lua function.
     ///
-    /// TODO memory allocation semantics.
+    /// The function is registered in a handle table rather than given its own native entry
+    /// point, so wrapping is cheap; it stays registered until [#close()]d.
+    ///
+    /// Debug names are kept for the life of the process, as closures may outlive the
+    /// function, and shared between functions. Only a few thousand distinct names are kept
+    /// this way, later ones being dropped, so functions with generated names should be
+    /// wrapped with an arena, which owns the name, instead.
     ///
     /// @param impl      the java function to wrap
     /// @param debugName the debug name of the function, shows in stacktraces.
@@ -18,7 +28,8 @@ public sealed interface LuaFunc extends Closeable permits LuaFuncImpl {
         return new LuaFuncImpl(impl, null, debugName, null);
     }
 
-    /// todo document that it cant be closed if you BYO arena
+    /// As [#wrap(ToIntFunction, String)], but released when `arena` is closed. The result
+    /// may not be [#close()]d itself.
     static LuaFunc wrap(
         ToIntFunction<LuaState> impl,
         String debugName,
@@ -73,16 +84,63 @@ public sealed interface LuaFunc extends Closeable permits LuaFuncImpl {
         return new LuaFuncImpl(impl, continuation, debugName, arena);
     }
 
+    /// Wraps a `(number) -> number` function.
+    ///
+    /// Functions of the fixed signatures below are called through a specialised native
+    /// trampoline, which checks the arguments and pushes the result itself: the call is a
+    /// single upcall with raw values, where a [#wrap]ped function needs a further downcall
+    /// for every argument read and result pushed. Argument errors are reported as
+    /// [LuaState#checkNumber(int)] and friends would; extra arguments are ignored.
+    static LuaFunc wrapDoubleUnary(DoubleUnaryOperator impl, String debugName) {
+        return LuaFuncImpl.doubleUnary(impl, debugName, null);
+    }
+
+    static LuaFunc wrapDoubleUnary(DoubleUnaryOperator impl, String debugName, Arena arena) {
+        return LuaFuncImpl.doubleUnary(impl, debugName, arena);
+    }
+
+    /// Wraps a `(number, number) -> number` function, see [#wrapDoubleUnary(DoubleUnaryOperator, String)].
+    static LuaFunc wrapDoubleBinary(DoubleBinaryOperator impl, String debugName) {
+        return LuaFuncImpl.doubleBinary(impl, debugName, null);
+    }
+
+    static LuaFunc wrapDoubleBinary(DoubleBinaryOperator impl, String debugName, Arena arena) {
+        return LuaFuncImpl.doubleBinary(impl, debugName, arena);
+    }
+
+    /// Wraps a `(number) -> ()` function taking an int as [LuaState#checkInteger(int)] does,
+    /// see [#wrapDoubleUnary(DoubleUnaryOperator, String)].
+    static LuaFunc wrapIntConsumer(IntConsumer impl, String debugName) {
+        return LuaFuncImpl.intConsumer(impl, debugName, null);
+    }
+
+    static LuaFunc wrapIntConsumer(IntConsumer impl, String debugName, Arena arena) {
+        return LuaFuncImpl.intConsumer(impl, debugName, arena);
+    }
+
+    /// Wraps an `(integer, integer) -> integer` function over 64-bit integers, as
+    /// [LuaState#checkInteger64(int)], see [#wrapDoubleUnary(DoubleUnaryOperator, String)].
+    static LuaFunc wrapLongBinary(LongBinaryOperator impl, String debugName) {
+        return LuaFuncImpl.longBinary(impl, debugName, null);
+    }
+
+    static LuaFunc wrapLongBinary(LongBinaryOperator impl, String debugName, Arena arena) {
+        return LuaFuncImpl.longBinary(impl, debugName, arena);
+    }
+
+    /// Releases the function, after which calling a closure made from it raises an error.
+    ///
+    /// @throws IllegalStateException if the function was created with an arena, which
+    ///                               releases it when closed instead, or is already closed
     void close();
 
-    @Deprecated //todo remove me
+    /// The [net.hollowcube.luau.util.HandleTable] handle the closure's upvalue holds.
     @ApiStatus.Internal
-    MemorySegment funcRef();
+    long funcId();
 
-    /// The continuation upcall, or [MemorySegment#NULL] for a [#wrap]ped function.
-    @Deprecated //todo remove me
+    /// The continuation handle, or 0 for a [#wrap]ped function.
     @ApiStatus.Internal
-    MemorySegment contRef();
+    long contId();
 
     @Deprecated //todo remove me
     @ApiStatus.Internal
@@ -1,80 +1,190 @@
 package net.hollowcube.luau;
 
-import net.hollowcube.luau.internal.vm.lua_CFunction;
-import net.hollowcube.luau.internal.vm.lua_Continuation;
+import net.hollowcube.luau.internal.vm.luaW_DoubleBinary;
+import net.hollowcube.luau.internal.vm.luaW_DoubleUnary;
+import net.hollowcube.luau.internal.vm.luaW_IntConsumer;
+import net.hollowcube.luau.internal.vm.luaW_JavaContinuation;
+import net.hollowcube.luau.internal.vm.luaW_JavaFunction;
+import net.hollowcube.luau.internal.vm.luaW_LongBinary;
+import net.hollowcube.luau.util.HandleTable;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
-import java.util.Objects;
+import java.lang.foreign.ValueLayout;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.LongBinaryOperator;
 import java.util.function.ToIntFunction;
 
+import static net.hollowcube.luau.internal.vm.luaujava_h.luaW_setdispatcher;
+
+/// A Java function is a [HandleTable] handle to its implementation, stored in the closure's
+/// upvalues. Every closure calls into Java through one of the shared upcalls below, which
+/// resolve the handle, so wrapping a function allocates no upcall stub. A handle is
+/// generational, so calling a closure whose function has been closed raises an error
+/// rather than calling whatever took its slot.
+///
+/// @param contId    the continuation handle, or 0 for a function which is not [LuaFunc#yieldable]
+/// @param signature [#SIG_GENERIC] for a function pushed through `luaW_dispatch`, otherwise
+///                  the `luaW_Signature` of its specialised trampoline
+/// @param owned     whether the handles are released by [#close()] rather than by an arena
 record LuaFuncImpl(
-    MemorySegment funcRef,
-    MemorySegment contRef,
+    long funcId,
+    long contId,
     MemorySegment debugNameRef,
-    @Nullable Arena closeableArena
+    int signature,
+    boolean owned
 ) implements LuaFunc {
+    static final int SIG_GENERIC = 0;
+    /// luaW_Signature; see luaujava.h.
+    static final int SIG_DOUBLE_UNARY = 1, SIG_DOUBLE_BINARY = 2, SIG_INT_CONSUMER = 3, SIG_LONG_BINARY = 4;
+    /// luaW_DispatchKind; see luaujava.h. The primitive kinds are their signatures.
+    private static final int DISPATCH_FUNCTION = 0, DISPATCH_CONTINUATION = 5;
+
+    /// Debug names of functions without an arena, which live as long as the process: a
+    /// closure keeps pointing at its name after the function is closed, and its error still
+    /// reports it. They are shared rather than leaked per function, and once there are
+    /// [#MAX_DEBUG_NAMES] of them further names are dropped, leaving [#NO_DEBUG_NAME].
+    private static final Map<String, MemorySegment> DEBUG_NAMES = new ConcurrentHashMap<>();
+    private static final int MAX_DEBUG_NAMES = 4096;
+    private static final MemorySegment NO_DEBUG_NAME = Arena.global().allocateFrom("");
+
+    static {
+        final Arena global = Arena.global();
+        luaW_setdispatcher(DISPATCH_FUNCTION, luaW_JavaFunction.allocate(LuaFuncImpl::dispatch, global));
+        luaW_setdispatcher(DISPATCH_CONTINUATION, luaW_JavaContinuation.allocate(LuaFuncImpl::dispatchContinuation, global));
+        luaW_setdispatcher(SIG_DOUBLE_UNARY, luaW_DoubleUnary.allocate(LuaFuncImpl::dispatchDoubleUnary, global));
+        luaW_setdispatcher(SIG_DOUBLE_BINARY, luaW_DoubleBinary.allocate(LuaFuncImpl::dispatchDoubleBinary, global));
+        luaW_setdispatcher(SIG_INT_CONSUMER, luaW_IntConsumer.allocate(LuaFuncImpl::dispatchIntConsumer, global));
+        luaW_setdispatcher(SIG_LONG_BINARY, luaW_LongBinary.allocate(LuaFuncImpl::dispatchLongBinary, global));
+    }
+
     LuaFuncImpl(
         ToIntFunction<LuaState> impl,
         LuaFunc.@Nullable Continuation continuation,
         String debugName,
         @Nullable Arena arena
     ) {
-        Arena actualArena = Objects.requireNonNullElseGet(
-            arena,
-            Arena::ofShared
-        );
-        final MemorySegment funcRef = lua_CFunction.allocate(
-            new CFunctionWrapper(impl),
-            actualArena
-        );
-        final MemorySegment contRef = continuation == null
-            ? MemorySegment.NULL
-            : lua_Continuation.allocate(
-                new ContinuationWrapper(continuation),
-                actualArena
-            );
-        final MemorySegment debugNameRef = actualArena.allocateFrom(debugName);
-        this(funcRef, contRef, debugNameRef, arena == null ? actualArena : null);
+        this(SIG_GENERIC, impl, continuation, debugName, arena);
+    }
+
+    static LuaFuncImpl doubleUnary(DoubleUnaryOperator impl, String debugName, @Nullable Arena arena) {
+        return new LuaFuncImpl(SIG_DOUBLE_UNARY, impl, null, debugName, arena);
+    }
+
+    static LuaFuncImpl doubleBinary(DoubleBinaryOperator impl, String debugName, @Nullable Arena arena) {
+        return new LuaFuncImpl(SIG_DOUBLE_BINARY, impl, null, debugName, arena);
+    }
+
+    static LuaFuncImpl intConsumer(IntConsumer impl, String debugName, @Nullable Arena arena) {
+        return new LuaFuncImpl(SIG_INT_CONSUMER, impl, null, debugName, arena);
+    }
+
+    static LuaFuncImpl longBinary(LongBinaryOperator impl, String debugName, @Nullable Arena arena) {
+        return new LuaFuncImpl(SIG_LONG_BINARY, impl, null, debugName, arena);
+    }
+
+    private LuaFuncImpl(
+        int signature,
+        Object impl,
+        LuaFunc.@Nullable Continuation continuation,
+        String debugName,
+        @Nullable Arena arena
+    ) {
+        final long funcId = HandleTable.newref(impl);
+        final long contId = continuation == null ? 0 : HandleTable.newref(continuation);
+        final MemorySegment debugNameRef;
+        if (arena == null) {
+            debugNameRef = sharedDebugName(debugName);
+        } else {
+            // The handles go with the arena, as the upcall stubs they replace did.
+            debugNameRef = arena.allocateFrom(debugName).reinterpret(arena, _ -> release(funcId, contId));
+        }
+        this(funcId, contId, debugNameRef, signature, arena == null);
+    }
+
+    private static MemorySegment sharedDebugName(String debugName) {
+        final MemorySegment shared = DEBUG_NAMES.get(debugName);
+        if (shared != null) return shared;
+        // Racing threads may overshoot the limit slightly, which is fine for a bound.
+        if (DEBUG_NAMES.size() >= MAX_DEBUG_NAMES) return NO_DEBUG_NAME;
+        return DEBUG_NAMES.computeIfAbsent(debugName, name -> Arena.global().allocateFrom(name));
     }
 
     @Override
     public void close() {
-        Objects.requireNonNull(
-            this.closeableArena,
-            "LuaFuncs allocated in provided arena may not be closed."
-        ).close();
+        if (!owned) throw new IllegalStateException("LuaFuncs allocated in provided arena may not be closed.");
+        release(funcId, contId);
     }
 
-    @Override
-    public MemorySegment debugNameRef() {
-        return debugNameRef;
-    }
-
-    record CFunctionWrapper(ToIntFunction<LuaState> impl) implements
-        lua_CFunction.Function {
-        @Override
-        public int apply(MemorySegment L) {
-            final LuaState state = new LuaStateImpl(L);
-            try {
-                return impl.applyAsInt(state);
-            }catch (Throwable t){
-                return ErrorHelper.handleError(state, t);
-            }
+    private static void release(long funcId, long contId) {
+        HandleTable.unref(funcId);
+        if (contId != 0) HandleTable.unref(contId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int dispatch(MemorySegment L, long id) {
+        final LuaState state = new LuaStateImpl(L);
+        try {
+            return ((ToIntFunction<LuaState>) HandleTable.get(id)).applyAsInt(state);
+        } catch (Throwable t) {
+            return ErrorHelper.handleError(state, t);
+        }
+    }
+
+    private static int dispatchContinuation(MemorySegment L, long id, int status) {
+        final LuaState state = new LuaStateImpl(L);
+        try {
+            return ((LuaFunc.Continuation) HandleTable.get(id)).resume(state, LuaStatus.byId(status));
+        } catch (Throwable t) {
+            return ErrorHelper.handleError(state, t);
+        }
+    }
+
+    /// Reports an exception from a primitive function to its trampoline: the error is
+    /// pushed as for [#dispatch], and the sentinel goes in the `err` out parameter
+    /// since the return value is the result.
+    private static void fail(MemorySegment L, MemorySegment err, Throwable t) {
+        final int status = ErrorHelper.handleError(new LuaStateImpl(L), t);
+        err.reinterpret(Integer.BYTES).set(ValueLayout.JAVA_INT, 0, status);
+    }
+
+    private static double dispatchDoubleUnary(MemorySegment L, long id, double a, MemorySegment err) {
+        try {
+            return ((DoubleUnaryOperator) HandleTable.get(id)).applyAsDouble(a);
+        } catch (Throwable t) {
+            fail(L, err, t);
+            return 0;
+        }
+    }
+
+    private static double dispatchDoubleBinary(MemorySegment L, long id, double a, double b, MemorySegment err) {
+        try {
+            return ((DoubleBinaryOperator) HandleTable.get(id)).applyAsDouble(a, b);
+        } catch (Throwable t) {
+            fail(L, err, t);
+            return 0;
+        }
+    }
+
+    private static void dispatchIntConsumer(MemorySegment L, long id, int a, MemorySegment err) {
+        try {
+            ((IntConsumer) HandleTable.get(id)).accept(a);
+        } catch (Throwable t) {
+            fail(L, err, t);
         }
     }
 
-    record ContinuationWrapper(LuaFunc.Continuation impl) implements
-        lua_Continuation.Function {
-        @Override
-        public int apply(MemorySegment L, int status) {
-            final LuaState state = new LuaStateImpl(L);
-            try {
-                return impl.resume(state, LuaStatus.byId(status));
-            } catch (Throwable t) {
-                return ErrorHelper.handleError(state, t);
-            }
+    private static long dispatchLongBinary(MemorySegment L, long id, long a, long b, MemorySegment err) {
+        try {
+            return ((LongBinaryOperator) HandleTable.get(id)).applyAsLong(a, b);
+        } catch (Throwable t) {
+            fail(L, err, t);
+            return 0;
         }
     }
 }
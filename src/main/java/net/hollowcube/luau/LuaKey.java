@@ -0,0 +1,34 @@
+package net.hollowcube.luau;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.foreign.MemorySegment;
+
+/// A table key encoded to a native string once, for the field accessors which would
+/// otherwise encode the same `String` on every call ([LuaState#getField(int, LuaKey)],
+/// [LuaState#setField(int, LuaKey)], their raw variants and the globals shortcuts).
+///
+/// Keys are immutable, not tied to any state, and safe to share between threads, so the
+/// intended use is a `static final` per field name:
+///
+/// ```java
+/// private static final LuaKey POSITION = LuaKey.of("position");
+///
+/// state.getField(1, POSITION);
+///```
+///
+/// The encoded bytes are freed once the key is unreachable.
+public sealed interface LuaKey permits LuaKeyImpl {
+
+    /// @throws IllegalArgumentException if `key` contains a NUL character, which the
+    ///                                  native field accessors would silently truncate at
+    static LuaKey of(String key) {
+        return new LuaKeyImpl(key);
+    }
+
+    /// The key as it was given to [#of(String)].
+    String key();
+
+    @ApiStatus.Internal
+    MemorySegment keyRef();
+}
@@ -0,0 +1,17 @@
+package net.hollowcube.luau;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+record LuaKeyImpl(String key, MemorySegment keyRef) implements LuaKey {
+    LuaKeyImpl(String key) {
+        if (key.indexOf('\0') >= 0)
+            throw new IllegalArgumentException("key must not contain NUL: " + key);
+        this(key, Arena.ofAuto().allocateFrom(key));
+    }
+
+    @Override
+    public String toString() {
+        return "LuaKey[" + key + "]";
+    }
+}
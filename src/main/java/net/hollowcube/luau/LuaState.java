@@ -7,6 +7,7 @@ import org.jetbrains.annotations.CheckReturnValue;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.foreign.MemoryLayout;
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.util.List;
@@ -19,6 +20,10 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     int USERDATA_TAG_LIMIT = LuaStateImpl.USERDATA_TAG_LIMIT;
     /// Maximum number of memory categories for use in [#setMemCat(int)]
     int MEMORY_CATEGORIES = LuaStateImpl.MEMORY_CATEGORIES;
+    /// Number of primitive thread slots for use in [#getThreadLong(int)]
+    int THREAD_SLOTS = LuaStateImpl.THREAD_SLOTS;
+    /// Frames kept per stack by [#dumpAllocProfile(boolean)]
+    int ALLOC_PROFILE_DEPTH = LuaStateImpl.ALLOC_PROFILE_DEPTH;
 
     /// The string atom value used to represent no atom in a [LuaCallbacks.UserAtom] callback.
     short NO_ATOM = (short) -1;
@@ -38,14 +43,14 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     ///
     /// Must be cleaned up with [#close()] when finished, or will leak resources.
     static LuaState newState() {
-        return LuaStateImpl.newState(null);
+        return LuaStateImpl.newState(MemorySegment.NULL);
     }
 
     /// Create a new lua state (main thread) with a custom memory allocator.
     ///
     /// Must be cleaned up with [#close()] when finished, or will leak resources.
     static LuaState newState(LuaAlloc allocator) {
-        return LuaStateImpl.newState(((LuaStateImpl.AllocImpl) allocator).handle());
+        return LuaStateImpl.newState((LuaStateImpl.AllocImpl) allocator);
     }
 
     /// Create a new lua state (main thread) with a custom memory allocator.
@@ -170,6 +175,22 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     @Nullable String toString(int index);
     @Nullable String unsafeToString(int index);
     String toStringRepr(int index);
+    /// Copies the bytes of the string at index, or returns null if the value is not a
+    /// string. Like [#toString(int)], numbers are not converted.
+    byte @Nullable [] toStringBytes(int index);
+    /// A read-only view of the bytes of the string at index, or null if the value is not
+    /// a string. Like [#toString(int)], numbers are not converted.
+    ///
+    /// Nothing is copied. The view points into the Lua string itself, which is only kept
+    /// alive by the value it was read from: it is valid while that value stays on the
+    /// stack (or is otherwise reachable from Lua), and must not be touched after.
+    @Nullable MemorySegment toStringView(int index);
+    /// The string at index as a [CharSequence], or null if the value is not a string.
+    ///
+    /// Pure ASCII strings, where bytes and chars correspond, are returned as a view with the
+    /// same lifetime rules as [#toStringView(int)], so use it before popping the value and
+    /// call `toString()` on it to keep a copy. Anything else is decoded to a [String].
+    @Nullable CharSequence toCharSequence(int index);
     /// Returns the string atom if present, otherwise [#NO_ATOM].
     short toStringAtomRaw(int index);
     @Nullable LuaString toStringAtom(int index);
@@ -185,6 +206,10 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     /// Unlike the lua api, will NOT return a light userdata object.
     @Nullable Object toUserData(int index);
     @Nullable Object toUserDataTagged(int index, int tag);
+    /// The body of struct userdata created by [#newUserDataStruct(MemoryLayout, int)], or
+    /// null if the value is not userdata with the given tag. Same lifetime rules as the
+    /// segment returned on creation.
+    @Nullable MemorySegment toUserDataStruct(int index, MemoryLayout layout, int tag);
     /// Returns -1 if the value is not a userdata, or 0 for untagged userdata
     int userDataTag(int index);
     @Nullable LuaState toThread(int index);
@@ -200,19 +225,83 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     void pushVector(float x, float y, float z);
     void pushVector(float[] value);
     void pushString(String value);
+    /// Pushes the bytes as a Lua string. Lua strings are byte strings, so they need not be
+    /// UTF-8 (although [#toString(int)] will decode them as such).
+    void pushString(byte[] value);
+    /// Pushes the bytes between the position and limit of `value` as a Lua string. The
+    /// position is not changed. A direct buffer is read in place, without a copy.
+    void pushString(ByteBuffer value);
+    /// Pushes the contents of `value` as a Lua string. A native segment is read in place,
+    /// without a copy.
+    void pushString(MemorySegment value);
     void pushLightUserData(long value);
     void pushLightUserDataTagged(long value, int tag);
     void newUserData(Object value);
+    /// As [#newUserData(Object)], for a value which owns `externalBytes` of memory outside
+    /// the Lua heap (a large array, a native buffer). The collector only sees the userdata
+    /// itself otherwise, so would never pace for it; the bytes count towards the heap and
+    /// the active memory category until the userdata is destroyed.
+    ///
+    /// @throws IllegalArgumentException if `externalBytes` is negative
+    void newUserData(Object value, long externalBytes);
     void newUserDataTagged(Object value, int tag);
     /// metatable fetched with lua_getuserdatametatable
     void newUserDataTaggedWithMetatable(Object value, int tag);
+    /// Pushes the userdata already holding `value` with `tag`, creating it as
+    /// [#newUserDataTaggedWithMetatable(Object, int)] only if there is none alive. The same
+    /// object then always reaches Lua as the same userdata, so it is `rawequal` to itself
+    /// and can key tables, and pushing it again allocates nothing.
+    ///
+    /// Objects are matched by identity. The cache is per state and opted into by the first
+    /// call: it holds weak references (see [#weakRef(int)]) and does not keep the object
+    /// alive, its entries going as the userdata is freed. Userdata created by the
+    /// other `newUserData` methods is never found here.
+    void pushUserDataCached(Object value, int tag);
+    /// Pushes userdata whose body is `layout` itself, allocated inline on the Lua heap, and
+    /// returns a zero filled segment over it. Small value types kept this way need no Java
+    /// object, no handle and no destructor. Fields are accessed with the layout's
+    /// [java.lang.invoke.VarHandle]s:
+    ///
+    /// ```java
+    /// static final StructLayout POSITION = MemoryLayout.structLayout(
+    ///         ValueLayout.JAVA_DOUBLE.withName("x"), ValueLayout.JAVA_DOUBLE.withName("y"));
+    /// static final VarHandle X = POSITION.varHandle(PathElement.groupElement("x"));
+    ///
+    /// final MemorySegment position = state.newUserDataStruct(POSITION, POSITION_TAG);
+    /// X.set(position, 0L, 1.5);
+    ///```
+    ///
+    /// The segment points into the userdata, which is only kept alive by Lua: it is valid
+    /// while the value is reachable from Lua (on the stack, in a table, ...) and must not be
+    /// touched after.
+    ///
+    /// The tag must first be registered with [#registerStructTag(int)]. The tag's userdata
+    /// metatable, if any, is set as with [#newUserDataTaggedWithMetatable(Object, int)].
+    ///
+    /// @param tag between 1 (inclusive) and [#USERDATA_TAG_LIMIT] (exclusive)
+    /// @throws IllegalArgumentException if `layout` needs more than 8 byte alignment
+    /// @throws LuaError if `tag` is not registered for struct userdata
+    MemorySegment newUserDataStruct(MemoryLayout layout, int tag);
+    /// Reserves `tag` for [#newUserDataStruct(MemoryLayout, int)]. Struct userdata has no
+    /// destructor, so this removes the one the state installs for object userdata, once. A
+    /// tag is used for one kind or the other: the `newUserDataTagged` methods and
+    /// [#pushUserDataCached(Object, int)] raise an error for a struct tag afterwards.
+    /// Registering a tag again does nothing.
+    ///
+    /// @param tag between 1 (inclusive) and [#USERDATA_TAG_LIMIT] (exclusive)
+    /// @throws IllegalStateException if `tag` has already been used for object userdata
+    void registerStructTag(int tag);
     boolean pushThread(LuaState thread);
     ByteBuffer newBuffer(long size);
     void pushFunction(LuaFunc func);
 
     LuaType getTable(int index);
     LuaType getField(int index, String key);
+    /// As [#getField(int, String)], without encoding the key on every call.
+    LuaType getField(int index, LuaKey key);
     LuaType rawGetField(int index, String key);
+    /// As [#rawGetField(int, String)], without encoding the key on every call.
+    LuaType rawGetField(int index, LuaKey key);
     LuaType rawGet(int index);
     LuaType rawGetI(int index, int n);
     /// Raw get from the table at index, keyed by a tagged light userdata.
@@ -226,7 +315,11 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     void newTable();
     void setTable(int index);
     void setField(int index, String key);
+    /// As [#setField(int, String)], without encoding the key on every call.
+    void setField(int index, LuaKey key);
     void rawSetField(int index, String key);
+    /// As [#rawSetField(int, String)], without encoding the key on every call.
+    void rawSetField(int index, LuaKey key);
     void rawSet(int index);
     void rawSetI(int index, int n);
     /// Raw set into the table at index, keyed by a tagged light userdata. See [#rawGetP(int, long, int)].
@@ -253,19 +346,85 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     boolean isYieldable();
     LuaCoStatus costatus(LuaState co);
 
-    // TODO: how to handle threaddata callbacks
-    //    taking arbitrary java objects would be nice, but then we need to use the thread change callback to delete refs.
-    //    void* lua_getthreaddata(lua_State* L);
-    //    void lua_setthreaddata(lua_State* L, void* data);
-
+    /// The object set on this thread by [#setThreadData(Object)], or null.
+    ///
+    /// Thread data is released with its thread, by the collector for a coroutine or by
+    /// [#close()] for the main thread, without calling into Java to do so.
     @Nullable Object getThreadData();
     void setThreadData(@Nullable Object data);
 
+    /// Primitive thread data: slot `slot` of this thread, or 0 if never set. Cheaper than
+    /// [#getThreadData()] for a value such as an id, as there is no object to resolve.
+    ///
+    /// @param slot the slot, from 0 to [#THREAD_SLOTS] (exclusive)
+    long getThreadLong(int slot);
+    void setThreadLong(int slot, long value);
+
     /// Se comments on [LuaGcOp] for the meaning of the data parameter
     int gc(LuaGcOp op, int data);
     void setMemCat(int category);
     long totalBytes(int category);
 
+    /// Limits memory category `category`, where 0 is no limit: past `softLimit` bytes the
+    /// collector steps early, and an allocation which would take it past `hardLimit` fails,
+    /// raising [LuaStatus#ERRMEM] in the script.
+    ///
+    /// The limits are checked natively by a wrapper around the state's allocator, installed
+    /// by the first call, so nothing calls into Java. The allocator only sees the pages small
+    /// objects are carved from, so a category may overshoot its hard limit by about a page.
+    /// Each call from Java attributes allocations to the category of the thread it is made
+    /// on until it returns, so a script is held to its own thread's limits even when it
+    /// calls back into Java which touches another thread; a coroutine resumed from Lua
+    /// counts towards its resumer.
+    void setMemoryLimit(int category, long softLimit, long hardLimit);
+
+    /// The live byte count of each memory category, [#MEMORY_CATEGORIES] native longs
+    /// (element `i` is [#totalBytes(int)] of `i`), as a read-only view of the state's own
+    /// counters. It may be polled from any thread without calling into the state, for as
+    /// long as the state is open; values read while it runs are approximate. The segment is
+    /// scoped to the state, so reading it after [#close()] throws [IllegalStateException].
+    MemorySegment memoryCounters();
+
+    /// The high watermark of each memory category since the first
+    /// [#setMemoryLimit(int, long, long)], in the layout of [#memoryCounters()], or
+    /// [MemorySegment#NULL] if no limit has been set.
+    MemorySegment memoryPeaks();
+
+    /// The counters of the state's allocator if it was created with [LuaAlloc#slab(LuaAlloc.SlabConfig)],
+    /// otherwise null.
+    LuaAlloc.@Nullable SlabStats slabStats();
+
+    /// Samples the Lua call stack about every `intervalBytes` bytes allocated, counting each
+    /// distinct stack natively (and outside the Lua heap) until [#stopAllocProfile()]. Each
+    /// sample stands for `intervalBytes`, so a stack's total estimates the bytes allocated
+    /// under it; see [#dumpAllocProfile(boolean)].
+    ///
+    /// Sampling runs in the onallocate callback, calling whichever one was installed before
+    /// it, so [LuaCallbacks#onAllocate(LuaCallbacks.OnAllocate)] replaces it until the next
+    /// start, which then calls the new callback instead. Starting again otherwise only
+    /// changes the interval.
+    void startAllocProfile(long intervalBytes);
+
+    /// Stops sampling, keeping the samples taken so far.
+    void stopAllocProfile();
+
+    /// The samples taken so far in collapsed stack form, as flame graph tools read it: one
+    /// line per stack, its frames root first separated by `;`, then a space and the sampled
+    /// bytes. At most [#ALLOC_PROFILE_DEPTH] of the innermost frames are kept.
+    ///
+    /// @param reset whether to clear the samples, so that the next report covers only what
+    ///              follows
+    String dumpAllocProfile(boolean reset);
+
+    /// Counts `delta` bytes of memory held outside the Lua heap on behalf of this state
+    /// towards the heap and the active memory category, as [#newUserData(Object, long)]
+    /// does for a single userdata. A positive delta steps the collector if it is now due,
+    /// so heap growth stays paced without full collections; release the bytes again with
+    /// a negative one. Anything still counted is released when the state is closed.
+    ///
+    /// @throws LuaError if releasing more than is counted for the active category
+    void adjustExternalMemory(long delta);
+
     /// Throws, assumes that there is a value on the stack which becomes the thrown object.
     @Contract("-> fail")
     LuaError error();
@@ -325,7 +484,9 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     LuaType getWeakRef(int ref);
 
     void setGlobal(String s);
+    void setGlobal(LuaKey key);
     void getGlobal(String s);
+    void getGlobal(LuaKey key);
 
     LuaCallbacks callbacks();
 
@@ -353,6 +514,9 @@ public sealed interface LuaState extends AutoCloseable permits LuaStateImpl {
     /// metatable as [#checkUserData(int, String)] does. Reports the type error using
     /// [#getUserDataName(int)].
     Object checkUserDataTagged(int argNum, int tag);
+    /// As [#checkUserDataTagged(int, int)], for struct userdata; see
+    /// [#newUserDataStruct(MemoryLayout, int)].
+    MemorySegment checkUserDataStruct(int argNum, MemoryLayout layout, int tag);
     ByteBuffer checkBuffer(int argNum);
 
     //    LUALIB_API int luaL_getmetafield(lua_State* L, int obj, const char* e);
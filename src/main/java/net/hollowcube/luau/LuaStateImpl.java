@@ -5,12 +5,14 @@ import net.hollowcube.luau.internal.vm.*;
 import net.hollowcube.luau.require.RequireImpl;
 import net.hollowcube.luau.require.RequireResolver;
 import net.hollowcube.luau.util.GlobalRef;
+import net.hollowcube.luau.util.HandleTable;
 import net.hollowcube.luau.util.NativeLibraryLoader;
 import org.intellij.lang.annotations.PrintFormat;
 import org.jetbrains.annotations.CheckReturnValue;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
 import java.nio.ByteBuffer;
@@ -21,6 +23,28 @@ import java.util.*;
 import java.util.regex.Pattern;
 
 import static net.hollowcube.luau.LuaCallbacksImpl.JavaCallbacks.fromCallbacks;
+// Single static imports shadow the lua_h.* versions below; see CriticalDowncalls.
+import static net.hollowcube.luau.CriticalDowncalls.lua_absindex;
+import static net.hollowcube.luau.CriticalDowncalls.lua_getthreaddata;
+import static net.hollowcube.luau.CriticalDowncalls.lua_gettop;
+import static net.hollowcube.luau.CriticalDowncalls.lua_lightuserdatatag;
+import static net.hollowcube.luau.CriticalDowncalls.lua_pushboolean;
+import static net.hollowcube.luau.CriticalDowncalls.lua_pushinteger;
+import static net.hollowcube.luau.CriticalDowncalls.lua_pushlightuserdatatagged;
+import static net.hollowcube.luau.CriticalDowncalls.lua_pushnil;
+import static net.hollowcube.luau.CriticalDowncalls.lua_pushnumber;
+import static net.hollowcube.luau.CriticalDowncalls.lua_pushvalue;
+import static net.hollowcube.luau.CriticalDowncalls.lua_rawequal;
+import static net.hollowcube.luau.CriticalDowncalls.lua_rawgeti;
+import static net.hollowcube.luau.CriticalDowncalls.lua_settop;
+import static net.hollowcube.luau.CriticalDowncalls.lua_toboolean;
+import static net.hollowcube.luau.CriticalDowncalls.lua_tointeger64;
+import static net.hollowcube.luau.CriticalDowncalls.lua_tointegerx;
+import static net.hollowcube.luau.CriticalDowncalls.lua_tonumberx;
+import static net.hollowcube.luau.CriticalDowncalls.lua_touserdata;
+import static net.hollowcube.luau.CriticalDowncalls.lua_touserdatatagged;
+import static net.hollowcube.luau.CriticalDowncalls.lua_type;
+import static net.hollowcube.luau.CriticalDowncalls.lua_userdatatag;
 import static net.hollowcube.luau.internal.vm.lua_h.*;
 import static net.hollowcube.luau.internal.vm.lualib_h.*;
 import static net.hollowcube.luau.internal.vm.luaujava_h.*;
@@ -40,10 +64,9 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     /// Note that release builds do not contain assertions at all, so this will have
     /// no affect on the runtime behavior.
     private static final String ASSERT_HANDLER = System.getProperty("luau.assert-handler");
-    private static final boolean SHOW_COMPLETE_BACKTRACE =
-            Boolean.getBoolean("luau.show-complete-backtrace");
-    private static final boolean NO_BACKTRACE_MERGE =
-            Boolean.getBoolean("luau.no-backtrace-merge");
+    /// How many collected userdata handles a state queues before they are released from
+    /// inside the collection; the rest wait for the next [#gc], [#call], [#resume] or [#close].
+    private static final int FREE_BATCH = Math.max(1, Integer.getInteger("luau.destructor-batch", 256));
 
     /// Set to false to leave Luau's pointer encoding key at its default, which is the
     /// identity function. Only useful when debugging against real addresses.
@@ -54,6 +77,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     static {
         NativeLibraryLoader.loadLibrary("luaujava");
         luaW_setflagsdefault();
+        luaW_setfreehandler(luaW_FreeHandles.allocate(LuaStateImpl::freeHandles, Arena.global()), FREE_BATCH);
 
         if ("dump".equals(ASSERT_HANDLER)) {
             luaW_assertconf_dump();
@@ -65,6 +89,8 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     static final int LIGHT_USERDATA_TAG_LIMIT = LUA_LUTAG_LIMIT();
     static final int USERDATA_TAG_LIMIT = LUA_UTAG_LIMIT();
     static final int MEMORY_CATEGORIES = LUA_MEMORY_CATEGORIES();
+    static final int THREAD_SLOTS = LUAW_THREAD_SLOTS();
+    static final int ALLOC_PROFILE_DEPTH = LUAW_ALLOCPROFILE_DEPTH();
 
     static final int REGISTRY_INDEX = LUA_REGISTRYINDEX();
     static final int GLOBALS_INDEX = LUA_GLOBALSINDEX();
@@ -72,37 +98,50 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     /// LUAW_PCALLYIELDABLE_NOCONT; see luaujava.h.
     private static final int PCALLYIELDABLE_NOCONT = -2;
 
+    /// Field offsets of luaW_threaddata; see luaujava.h.
+    private static final long THREAD_OBJECT = 0, THREAD_SLOT_BASE = Long.BYTES;
+
+    /// Alignment of a userdata body, LUAI_USER_ALIGNMENT_T in Luau.
+    private static final long STRUCT_ALIGNMENT = 8;
+
     /// Upvalue slots reserved by luaW_pushcclosurek for the Java function and continuation.
     static final int DISPATCH_UPVALUES = 2;
 
     private static final Pattern DEFAULT_ERROR_TRACE_REGEX = Pattern.compile("^\\[string \"" +
                                                                                      ".*?\"]:\\d+:\\s");
 
-    private static final MemorySegment UNTAGGED_UDATA_DTOR = luaW_newuserdatadtor$dtor.allocate(
-            ud -> GlobalRef.unref(ud.get(ValueLayout.JAVA_LONG, 0)),
-            Arena.global());
-    private static final MemorySegment TAGGED_UDATA_DTOR = lua_Destructor.allocate(
-            (_, ud) -> GlobalRef.unref(ud.get(ValueLayout.JAVA_LONG, 0)),
-            Arena.global());
-    private static final MemorySegment PCALL_ERRFUNC_REF = lua_CFunction.allocate(
-            (L) -> pcallErrFunc(new LuaStateImpl(L)),
-            Arena.global());
-    private static final MemorySegment USERTHREAD_CALLBACK = lua_Callbacks.userthread.allocate(
+    /// Native, queueing the handle for [#freeHandles] rather than calling back per userdata.
+    private static final MemorySegment TAGGED_UDATA_DTOR = luaW_freehandletagged$address();
+    private static final LuaFunc PCALL_ERRFUNC = LuaFunc.wrap(LuaStateImpl::pcallErrFunc, "");
+    /// Forwarded to by the native userthread callback, only while a handler is set.
+    static final MemorySegment USERTHREAD_CALLBACK = luaW_userdata.userthread.allocate(
             (LP, L) -> userThreadCallback(
                     LP.equals(MemorySegment.NULL) ? null : new LuaStateImpl(LP),
                     new LuaStateImpl(L)),
             Arena.global());
-    private static final MemorySegment LUA_DEBUG_WHAT = Arena.global().allocateFrom("sln");
+
+    /// Out-parameter scratch space, see [#scratch()].
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    static LuaState newState(AllocImpl allocator) {
+        final LuaAlloc.SlabConfig slab = allocator.slab();
+        if (slab == null) return newState(allocator.handle());
+        return setup(luaW_newslabstate(slab.maxBlockSize(), slab.maxCachedBytes()));
+    }
 
     static LuaState newState(@Nullable MemorySegment allocator) {
-        var L = luaW_newstate(Objects.requireNonNullElse(allocator, MemorySegment.NULL));
+        return setup(luaW_newstate(Objects.requireNonNullElse(allocator, MemorySegment.NULL)));
+    }
+
+    private static LuaState setup(MemorySegment L) {
         if (L.equals(MemorySegment.NULL)) {
             throw new IllegalStateException("Failed to create new Lua state");
         }
 
-        // Set up the userthread callback to clean up threaddata refs
+        // The native userthread callback frees thread data, and calls into Java only for
+        // a state with a LuaCallbacks.UserThread handler.
         final MemorySegment callbacks = lua_callbacks(L);
-        lua_Callbacks.userthread(callbacks, USERTHREAD_CALLBACK);
+        lua_Callbacks.userthread(callbacks, luaW_userthread$address());
 
         // lua_Callbacks.userdata points at a luaW_userdata we own for the life of the
         // state. It holds our JavaCallbacks ref plus the preempt handler, which used to
@@ -113,6 +152,13 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
         luaW_userdata.javadata(bridgeData, MemorySegment.ofAddress(javaCallbacks));
         lua_Callbacks.userdata(callbacks, bridgeData);
 
+        // The error handler for call(), created once and pinned in the registry so that
+        // luaW_pcall can insert it without allocating a closure per call.
+        if (luaW_pushcclosurek(L, PCALL_ERRFUNC.funcId(), MemorySegment.NULL, 0, 0) != 0)
+            throw new IllegalStateException("Failed to create the pcall error handler");
+        luaW_userdata.errfunc(bridgeData, lua_ref(L, -1));
+        lua_settop(L, -2);
+
         // We use userdata destructors to remove the java object ref (so it may be GC'd).
         // So we must add a destructor for every tag immediately.
         for (int i = 0; i < USERDATA_TAG_LIMIT; i++) {
@@ -132,8 +178,9 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void close() {
-        // Remove our reference to a threaddata object
-        setThreadData(null);
+        // The userthread callback is not called for the main thread, so free its data here.
+        // The handle is queued, and released by luaW_close.
+        luaW_freethreaddata(L);
 
         // Get our reference to the JavaCallbacks object, but keep it so closing threads have it.
         final MemorySegment callbacks = lua_callbacks(L);
@@ -141,8 +188,10 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
         final long javaCallbacks = luaW_userdata.javadata(bridgeData).address();
         final Arena bridgeArena = ((JavaCallbacks) GlobalRef.get(javaCallbacks)).arena;
 
-        // Finally, close the lua state itself.
-        lua_close(L);
+        // Finally, close the lua state itself. Its heap must be empty once every object is
+        // freed, so drop the external memory nothing will release now.
+        luaW_clearexternalmemory(L);
+        luaW_close(L);
 
         // Destroy the ref and the native bridge state
         GlobalRef.unref(javaCallbacks);
@@ -152,7 +201,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     @Override
     public LuaState newThread() {
         final MemorySegment thread = luaW_newthread(L);
-        propagateException();
+        if (thread.equals(MemorySegment.NULL)) propagateException();
         return new LuaStateImpl(thread);
     }
 
@@ -163,8 +212,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void resetThread() {
-        luaW_resetthread(L);
-        propagateException();
+        checkStatus(luaW_resetthread(L));
     }
 
     @Override
@@ -179,8 +227,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public int top() {
-        // TODO: might be faster for some simple methods to inline the reads from luastate directly.
-        //       The jvm is able to optimize that much better than a downcall
+        if (StackLayout.ENABLED) return StackLayout.top(L);
         return lua_gettop(L);
     }
 
@@ -226,7 +273,17 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public LuaType type(int index) {
-        return LuaType.byId(lua_type(L, index));
+        return LuaType.byId(typeId(index));
+    }
+
+    /// `lua_type`, read straight off the stack where [StackLayout] allows it.
+    private int typeId(int index) {
+        if (StackLayout.ENABLED) {
+            final long slot = StackLayout.slot(L, index);
+            if (slot == StackLayout.NONE) return LuaType.NONE.id();
+            if (slot != StackLayout.API) return StackLayout.tag(slot);
+        }
+        return lua_type(L, index);
     }
 
     //TODO: test me (including on userdata types & stuff)
@@ -319,9 +376,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public boolean equal(int index1, int index2) {
-        final boolean result = luaW_equal(L, index1, index2) != 0;
-        propagateException();
-        return result;
+        return checkResult(luaW_equal(L, index1, index2)) != 0;
     }
 
     @Override
@@ -331,41 +386,50 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public boolean lessThan(int index1, int index2) {
-        int res = luaW_lessthan(L, index1, index2);
-        propagateException();
-        return res != 0;
+        return checkResult(luaW_lessthan(L, index1, index2)) != 0;
     }
 
     @Override
     public void concat(int n) {
-        luaW_concat(L, n);
-        propagateException();
+        checkStatus(luaW_concat(L, n));
     }
 
     @Override
     public int len(int index) {
-        int result = luaW_objlen(L, index);
-        propagateException();
-        return result;
+        return checkResult(luaW_objlen(L, index));
     }
 
     @Override
     public boolean toBoolean(int index) {
+        if (StackLayout.ENABLED) {
+            final long slot = StackLayout.slot(L, index);
+            if (slot == StackLayout.NONE) return false;
+            if (slot != StackLayout.API) {
+                final int tag = StackLayout.tag(slot);
+                if (tag == LuaType.NIL.id()) return false;
+                return tag != LuaType.BOOLEAN.id() || StackLayout.booleanValue(slot);
+            }
+        }
         return lua_toboolean(L, index) != 0;
     }
 
     @Override
     public double toNumber(int index) {
+        if (StackLayout.ENABLED) {
+            // Only numbers are read directly, strings still need the API to coerce them.
+            final long slot = StackLayout.slot(L, index);
+            if (slot == StackLayout.NONE) return 0;
+            if (slot != StackLayout.API && StackLayout.tag(slot) == LuaType.NUMBER.id())
+                return StackLayout.numberValue(slot);
+        }
         return lua_tonumberx(L, index, MemorySegment.NULL);
     }
 
     @Override
     public @Nullable Double toNumberOrNull(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment isNum = arena.allocate(ValueLayout.JAVA_INT);
-            final double value = lua_tonumberx(L, index, isNum);
-            return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? value : null;
-        }
+        final MemorySegment isNum = scratch();
+        final double value = lua_tonumberx(L, index, isNum);
+        return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? value : null;
     }
 
     @Override
@@ -375,11 +439,9 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public @Nullable Integer toIntegerOrNull(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment isNum = arena.allocate(ValueLayout.JAVA_INT);
-            final int value = lua_tointegerx(L, index, isNum);
-            return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? value : null;
-        }
+        final MemorySegment isNum = scratch();
+        final int value = lua_tointegerx(L, index, isNum);
+        return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? value : null;
     }
 
     @Override
@@ -389,25 +451,27 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public @Nullable Long toUnsignedOrNull(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment isNum = arena.allocate(ValueLayout.JAVA_INT);
-            final int value = lua_tounsignedx(L, index, isNum);
-            return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? Integer.toUnsignedLong(value) : null;
-        }
+        final MemorySegment isNum = scratch();
+        final int value = lua_tounsignedx(L, index, isNum);
+        return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? Integer.toUnsignedLong(value) : null;
     }
 
     @Override
     public long toInteger64(int index) {
+        if (StackLayout.ENABLED) {
+            final long slot = StackLayout.slot(L, index);
+            if (slot == StackLayout.NONE) return 0;
+            if (slot != StackLayout.API && StackLayout.tag(slot) == LuaType.INTEGER.id())
+                return StackLayout.integer64Value(slot);
+        }
         return lua_tointeger64(L, index, MemorySegment.NULL);
     }
 
     @Override
     public @Nullable Long toInteger64OrNull(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment isInteger = arena.allocate(ValueLayout.JAVA_INT);
-            final long value = lua_tointeger64(L, index, isInteger);
-            return isInteger.get(ValueLayout.JAVA_INT, 0) != 0 ? value : null;
-        }
+        final MemorySegment isInteger = scratch();
+        final long value = lua_tointeger64(L, index, isInteger);
+        return isInteger.get(ValueLayout.JAVA_INT, 0) != 0 ? value : null;
     }
 
     @Override
@@ -428,86 +492,101 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public @Nullable String unsafeToString(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment len = arena.allocate(ValueLayout.JAVA_LONG);
-            final MemorySegment raw = luaW_tolstring(L, index, len);
+        final MemorySegment len = scratch();
+        final MemorySegment raw = luaW_tolstring(L, index, len);
+        if (raw.equals(MemorySegment.NULL)) {
+            // Either not a string or number, or the conversion raised.
             propagateException();
+            return null;
+        }
 
-            if (raw.equals(MemorySegment.NULL)) return null;
+        return StringTransfer.decode(raw, len.get(ValueLayout.JAVA_LONG, 0));
+    }
 
-            final long msgLen = len.get(ValueLayout.JAVA_LONG, 0);
-            final byte[] msg = raw.asSlice(0, msgLen).toArray(ValueLayout.JAVA_BYTE);
-            return new String(msg, StandardCharsets.UTF_8);
-        }
+    @Override
+    public byte @Nullable [] toStringBytes(int index) {
+        final MemorySegment view = toStringView(index);
+        return view != null ? view.toArray(ValueLayout.JAVA_BYTE) : null;
     }
 
     @Override
-    public String toStringRepr(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment len = arena.allocate(ValueLayout.JAVA_LONG);
-            final MemorySegment raw = luaLW_tolstring(L, index, len);
-            propagateException();
+    public @Nullable MemorySegment toStringView(int index) {
+        if (!isString(index)) return null;
 
-            final long msgLen = len.get(ValueLayout.JAVA_LONG, 0);
-            final byte[] msg = raw.asSlice(0, msgLen).toArray(ValueLayout.JAVA_BYTE);
-            // luaL_tolstring leaves its result on the stack; the bytes are copied out above,
-            // so drop it rather than growing the stack by one on every call.
-            pop(1);
-            return new String(msg, StandardCharsets.UTF_8);
-        }
+        // A string is never converted, so this cannot raise or return null.
+        final MemorySegment len = scratch();
+        final MemorySegment raw = luaW_tolstring(L, index, len);
+        return raw.asSlice(0, len.get(ValueLayout.JAVA_LONG, 0)).asReadOnly();
+    }
+
+    @Override
+    public @Nullable CharSequence toCharSequence(int index) {
+        final MemorySegment view = toStringView(index);
+        return view != null ? StringTransfer.charSequence(view) : null;
+    }
+
+    @Override
+    public String toStringRepr(int index) {
+        final MemorySegment len = scratch();
+        final MemorySegment raw = luaLW_tolstring(L, index, len);
+        if (raw.equals(MemorySegment.NULL)) propagateException();
+
+        final String result = StringTransfer.decode(raw, len.get(ValueLayout.JAVA_LONG, 0));
+        // luaL_tolstring leaves its result on the stack; the bytes are copied out above,
+        // so drop it rather than growing the stack by one on every call.
+        pop(1);
+        return result;
     }
 
     @Override
     public short toStringAtomRaw(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment atomRef = arena.allocate(ValueLayout.JAVA_SHORT);
-            final MemorySegment str = lua_tolstringatom(L, index, MemorySegment.NULL, atomRef);
-            if (str.equals(MemorySegment.NULL)) return NO_ATOM;
-            return atomRef.get(ValueLayout.JAVA_SHORT, 0);
-        }
+        final MemorySegment atomRef = scratch();
+        final MemorySegment str = lua_tolstringatom(L, index, MemorySegment.NULL, atomRef);
+        if (str.equals(MemorySegment.NULL)) return NO_ATOM;
+        return atomRef.get(ValueLayout.JAVA_SHORT, 0);
     }
 
     @Override
     public @Nullable LuaString toStringAtom(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment lenRef = arena.allocate(ValueLayout.JAVA_INT);
-            final MemorySegment atomRef = arena.allocate(ValueLayout.JAVA_SHORT);
-            final MemorySegment str = lua_tolstringatom(L, index, lenRef, atomRef);
-            if (str.equals(MemorySegment.NULL)) return null;
+        final Scratch scratch = SCRATCH.get();
+        final MemorySegment lenRef = scratch.first;
+        final MemorySegment atomRef = scratch.second;
+        final MemorySegment str = lua_tolstringatom(L, index, lenRef, atomRef);
+        if (str.equals(MemorySegment.NULL)) return null;
 
-            short atom = atomRef.get(ValueLayout.JAVA_SHORT, 0);
-            if (atom >= 0) return new LuaString.Atom(atom);
+        short atom = atomRef.get(ValueLayout.JAVA_SHORT, 0);
+        if (atom >= 0) return new LuaString.Atom(atom);
 
-            byte[] text = str.reinterpret(lenRef.get(ValueLayout.JAVA_INT, 0))
-                    .toArray(ValueLayout.JAVA_BYTE);
-            return new LuaString.Str(new String(text, StandardCharsets.UTF_8));
-        }
+        return new LuaString.Str(StringTransfer.decode(str, lenRef.get(ValueLayout.JAVA_INT, 0)));
     }
 
     @Override
     public short nameCallAtomRaw() {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment atomRef = arena.allocate(ValueLayout.JAVA_SHORT);
-            final MemorySegment str = lua_namecallatom(L, atomRef);
-            if (str.equals(MemorySegment.NULL)) return NO_ATOM;
-            return atomRef.get(ValueLayout.JAVA_SHORT, 0);
-        }
+        final MemorySegment atomRef = scratch();
+        final MemorySegment str = lua_namecallatom(L, atomRef);
+        if (str.equals(MemorySegment.NULL)) return NO_ATOM;
+        return atomRef.get(ValueLayout.JAVA_SHORT, 0);
     }
 
     @Override
     public LuaString nameCallAtom() {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment atomRef = arena.allocate(ValueLayout.JAVA_SHORT);
-            final MemorySegment str = lua_namecallatom(L, atomRef);
-            if (str.equals(MemorySegment.NULL)) {
-                final String errorMessage = "namecallatom may only be called within a __namecall metamethod";
-                throw new IllegalStateException(errorMessage);
-            }
-
-            short atom = atomRef.get(ValueLayout.JAVA_SHORT, 0);
-            if (atom >= 0) return new LuaString.Atom(atom);
-            return new LuaString.Str(str.getString(0, StandardCharsets.UTF_8));
+        final MemorySegment atomRef = scratch();
+        final MemorySegment str = lua_namecallatom(L, atomRef);
+        if (str.equals(MemorySegment.NULL)) {
+            final String errorMessage = "namecallatom may only be called within a __namecall metamethod";
+            throw new IllegalStateException(errorMessage);
         }
+
+        short atom = atomRef.get(ValueLayout.JAVA_SHORT, 0);
+        if (atom >= 0) return new LuaString.Atom(atom);
+        return new LuaString.Str(str.getString(0, StandardCharsets.UTF_8));
+    }
+
+    /// The method name of the current `__namecall` whether or not it has an atom, or null
+    /// when not inside one (such as when the metamethod is called directly).
+    @Nullable String nameCallName() {
+        final MemorySegment str = lua_namecallatom(L, MemorySegment.NULL);
+        return str.equals(MemorySegment.NULL) ? null : str.getString(0, StandardCharsets.UTF_8);
     }
 
     @Override
@@ -529,14 +608,21 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     public @Nullable Object toUserData(int index) {
         if (type(index) != LuaType.USERDATA) return null;
         // Can't return null because we already ensured it is a userdata.
-        return GlobalRef.get(lua_touserdata(L, index).get(ValueLayout.JAVA_LONG, 0));
+        return HandleTable.get(lua_touserdata(L, index).get(ValueLayout.JAVA_LONG, 0));
     }
 
     @Override
     public @Nullable Object toUserDataTagged(int index, int tag) {
         final MemorySegment address = lua_touserdatatagged(L, index, tag);
         if (address.equals(MemorySegment.NULL)) return null;
-        return GlobalRef.get(address.get(ValueLayout.JAVA_LONG, 0));
+        return HandleTable.get(address.get(ValueLayout.JAVA_LONG, 0));
+    }
+
+    @Override
+    public @Nullable MemorySegment toUserDataStruct(int index, MemoryLayout layout, int tag) {
+        final MemorySegment address = lua_touserdatatagged(L, index, tag);
+        if (address.equals(MemorySegment.NULL)) return null;
+        return address.reinterpret(layout.byteSize());
     }
 
     @Override
@@ -556,15 +642,13 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public @Nullable ByteBuffer toBuffer(int index) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment sizePtr = arena.allocate(ValueLayout.JAVA_LONG);
-            final MemorySegment ptr = lua_tobuffer(L, index, sizePtr);
+        final MemorySegment sizePtr = scratch();
+        final MemorySegment ptr = lua_tobuffer(L, index, sizePtr);
 
-            if (ptr.equals(MemorySegment.NULL)) return null;
+        if (ptr.equals(MemorySegment.NULL)) return null;
 
-            final MemorySegment sizedPtr = ptr.asSlice(0, sizePtr.get(ValueLayout.JAVA_LONG, 0));
-            return sizedPtr.asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
-        }
+        final MemorySegment sizedPtr = ptr.asSlice(0, sizePtr.get(ValueLayout.JAVA_LONG, 0));
+        return sizedPtr.asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
     }
 
     @Override
@@ -610,10 +694,25 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void pushString(String value) {
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment str = arena.allocateFrom(value);
-            luaW_pushlstring(L, str, str.byteSize() - 1); // -1 to exclude null terminator
-            propagateException();
+        pushString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void pushString(byte[] value) {
+        pushString(MemorySegment.ofArray(value));
+    }
+
+    @Override
+    public void pushString(ByteBuffer value) {
+        pushString(MemorySegment.ofBuffer(value));
+    }
+
+    @Override
+    public void pushString(MemorySegment value) {
+        if (value.isNative()) {
+            checkStatus(luaW_pushlstring(L, value, value.byteSize()));
+        } else {
+            StringTransfer.stage(value, (bytes, length) -> checkStatus(luaW_pushlstring(L, bytes, length)));
         }
     }
 
@@ -632,26 +731,77 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void newUserData(Object value) {
-        final MemorySegment ud = luaW_newuserdatadtor(L,
-                                                      ValueLayout.JAVA_LONG.byteSize(),
-                                                      UNTAGGED_UDATA_DTOR);
-        propagateException();
-        ud.set(ValueLayout.JAVA_LONG, 0, GlobalRef.newref(value));
+        final MemorySegment ud = luaW_newuserdatahandle(L, 0);
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        ud.set(ValueLayout.JAVA_LONG, 0, HandleTable.newref(value));
+    }
+
+    @Override
+    public void newUserData(Object value, long externalBytes) {
+        if (externalBytes < 0) throw new IllegalArgumentException("externalBytes must not be negative: " + externalBytes);
+        final MemorySegment ud = luaW_newuserdatahandle(L, externalBytes);
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        ud.set(ValueLayout.JAVA_LONG, 0, HandleTable.newref(value));
     }
 
     @Override
     public void newUserDataTagged(Object value, int tag) {
         final MemorySegment ud = luaW_newuserdatatagged(L, ValueLayout.JAVA_LONG.byteSize(), tag);
-        propagateException();
-        ud.set(ValueLayout.JAVA_LONG, 0, GlobalRef.newref(value));
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        ud.set(ValueLayout.JAVA_LONG, 0, HandleTable.newref(value));
     }
 
     @Override
     public void newUserDataTaggedWithMetatable(Object value, int tag) {
         final MemorySegment ud = luaW_newuserdatataggedwithmetatable(L,
                                                                      ValueLayout.JAVA_LONG.byteSize(), tag);
-        propagateException();
-        ud.set(ValueLayout.JAVA_LONG, 0, GlobalRef.newref(value));
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        ud.set(ValueLayout.JAVA_LONG, 0, HandleTable.newref(value));
+    }
+
+    @Override
+    public void pushUserDataCached(Object value, int tag) {
+        if (tag < 0 || tag >= USERDATA_TAG_LIMIT)
+            throw new LuaError("userdata tag must be between 0 and " + USERDATA_TAG_LIMIT);
+        final JavaCallbacks callbacks = fromCallbacks(lua_callbacks(L));
+        UserDataCache cache = callbacks.userDataCache;
+        if (cache == null) cache = callbacks.userDataCache = new UserDataCache();
+        cache.releasePending(L);
+
+        final UserDataCache.Entry entry = cache.find(value, tag);
+        if (entry != null) {
+            if (LuaType.byId(lua_getweakref(L, entry.weakRef)) != LuaType.NIL) return;
+            // Collected but its handle not yet released, which is what removes the entry.
+            lua_settop(L, -2);
+            cache.remove(entry.handle);
+        }
+
+        final MemorySegment ud = luaW_newuserdatataggedwithmetatable(L, ValueLayout.JAVA_LONG.byteSize(), tag);
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        final long handle = HandleTable.newref(value);
+        ud.set(ValueLayout.JAVA_LONG, 0, handle);
+        cache.add(value, tag, handle, lua_weakref(L, -1));
+    }
+
+    @Override
+    public MemorySegment newUserDataStruct(MemoryLayout layout, int tag) {
+        if (tag <= 0 || tag >= USERDATA_TAG_LIMIT)
+            throw new LuaError("struct userdata tag must be between 1 and " + USERDATA_TAG_LIMIT);
+        if (layout.byteAlignment() > STRUCT_ALIGNMENT)
+            throw new IllegalArgumentException("userdata bodies are only " + STRUCT_ALIGNMENT
+                    + " byte aligned, layout needs " + layout.byteAlignment() + ": " + layout);
+
+        final MemorySegment ud = luaW_newuserdatastruct(L, layout.byteSize(), tag);
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        return ud.reinterpret(layout.byteSize()).fill((byte) 0);
+    }
+
+    @Override
+    public void registerStructTag(int tag) {
+        if (tag <= 0 || tag >= USERDATA_TAG_LIMIT)
+            throw new LuaError("struct userdata tag must be between 1 and " + USERDATA_TAG_LIMIT);
+        if (luaW_registerstructtag(L, tag) != 0)
+            throw new IllegalStateException("userdata tag " + tag + " is already used for object userdata");
     }
 
     @Override
@@ -667,7 +817,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     @Override
     public ByteBuffer newBuffer(long size) {
         final MemorySegment value = luaW_newbuffer(L, size);
-        propagateException();
+        if (value.equals(MemorySegment.NULL)) propagateException();
         return value.reinterpret(size).asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
     }
 
@@ -675,28 +825,30 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     public void pushFunction(LuaFunc func) {
         // The switch is here as an exhaustivity check :)
         switch (func) {
-            case LuaFuncImpl(
-                    MemorySegment funcRef, MemorySegment contRef, MemorySegment debugNameRef, _
-            ) -> luaW_pushcclosurek(L, funcRef, debugNameRef, 0, contRef);
+            case LuaFuncImpl(long funcId, long contId, MemorySegment debugNameRef, int signature, _) ->
+                    checkStatus(signature == LuaFuncImpl.SIG_GENERIC
+                            ? luaW_pushcclosurek(L, funcId, debugNameRef, 0, contId)
+                            : luaW_pushprimitiveclosure(L, funcId, signature, debugNameRef));
         }
     }
 
     @Override
     public LuaType getTable(int index) {
-        int result = luaW_gettable(L, index);
-        propagateException();
-        return LuaType.byId(result);
+        return LuaType.byId(checkResult(luaW_gettable(L, index)));
     }
 
     @Override
     public LuaType getField(int index, String key) {
         try (Arena arena = Arena.ofConfined()) {
-            int result = luaW_getfield(L, index, arena.allocateFrom(key));
-            propagateException();
-            return LuaType.byId(result);
+            return LuaType.byId(checkResult(luaW_getfield(L, index, arena.allocateFrom(key))));
         }
     }
 
+    @Override
+    public LuaType getField(int index, LuaKey key) {
+        return LuaType.byId(checkResult(luaW_getfield(L, index, key.keyRef())));
+    }
+
     @Override
     public LuaType rawGetField(int index, String key) {
         try (Arena arena = Arena.ofConfined()) {
@@ -705,6 +857,11 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
         }
     }
 
+    @Override
+    public LuaType rawGetField(int index, LuaKey key) {
+        return LuaType.byId(lua_rawgetfield(L, index, key.keyRef()));
+    }
+
     @Override
     public LuaType rawGet(int index) {
         int result = lua_rawget(L, index);
@@ -724,8 +881,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void createTable(int narr, int nrec) {
-        luaW_createtable(L, narr, nrec);
-        propagateException();
+        checkStatus(luaW_createtable(L, narr, nrec));
     }
 
     @Override
@@ -745,42 +901,46 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void setTable(int index) {
-        luaW_settable(L, index);
-        propagateException();
+        checkStatus(luaW_settable(L, index));
     }
 
     @Override
     public void setField(int index, String key) {
         try (Arena arena = Arena.ofConfined()) {
-            luaW_setfield(L, index, arena.allocateFrom(key));
-            propagateException();
+            checkStatus(luaW_setfield(L, index, arena.allocateFrom(key)));
         }
     }
 
+    @Override
+    public void setField(int index, LuaKey key) {
+        checkStatus(luaW_setfield(L, index, key.keyRef()));
+    }
+
     @Override
     public void rawSetField(int index, String key) {
         try (Arena arena = Arena.ofConfined()) {
-            luaW_rawsetfield(L, index, arena.allocateFrom(key));
-            propagateException();
+            checkStatus(luaW_rawsetfield(L, index, arena.allocateFrom(key)));
         }
     }
 
+    @Override
+    public void rawSetField(int index, LuaKey key) {
+        checkStatus(luaW_rawsetfield(L, index, key.keyRef()));
+    }
+
     @Override
     public void rawSet(int index) {
-        luaW_rawset(L, index);
-        propagateException();
+        checkStatus(luaW_rawset(L, index));
     }
 
     @Override
     public void rawSetI(int index, int n) {
-        luaW_rawseti(L, index, n);
-        propagateException();
+        checkStatus(luaW_rawseti(L, index, n));
     }
 
     @Override
     public void rawSetP(int index, long pointer, int tag) {
-        luaW_rawsetptagged(L, index, MemorySegment.ofAddress(pointer), tag);
-        propagateException();
+        checkStatus(luaW_rawsetptagged(L, index, MemorySegment.ofAddress(pointer), tag));
     }
 
     @Override
@@ -790,8 +950,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void setMetaTable(int index) {
-        luaW_setmetatable(L, index); // always returns 1
-        propagateException();
+        checkResult(luaW_setmetatable(L, index)); // always returns 1
     }
 
     @Override
@@ -810,16 +969,9 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void call(int nargs, int nresults) {
-        luaW_pushcclosurek(L, PCALL_ERRFUNC_REF, MemorySegment.NULL, 0, MemorySegment.NULL);
-        // Move the errfunc above the function being called
-        // Stack before: [func] [arg1] [arg2] ... [argN]
-        // Stack after:  [errfunc] [func] [arg1] [arg2] ... [argN]
-        lua_insert(L, -(nargs + 2));
-
-        int errFuncIndex = lua_absindex(L, -(nargs + 2));
-        LuaStatus status = LuaStatus.byId(lua_pcall(L, nargs, nresults, -(nargs + 2)));
-        lua_remove(L, errFuncIndex);
-
+        // luaW_pcall inserts the state's error handler below the function, and removes it
+        // again once the call returns.
+        LuaStatus status = LuaStatus.byId(luaW_pcall(L, nargs, nresults));
         if (status != LuaStatus.OK) propagateExceptionInner(status);
     }
 
@@ -833,7 +985,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     @Override
     public LuaStatus resume(@Nullable LuaState from, int narg) {
         final MemorySegment fromL = from != null ? ((LuaStateImpl) from).L : MemorySegment.NULL;
-        final LuaStatus status = LuaStatus.byId(lua_resume(L, fromL, narg));
+        final LuaStatus status = LuaStatus.byId(luaW_resume(L, fromL, narg));
         if (status != LuaStatus.OK && status != LuaStatus.YIELD)
             propagateExceptionInner(status);
         return status;
@@ -856,30 +1008,55 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public @Nullable Object getThreadData() {
-        final MemorySegment ref = lua_getthreaddata(L);
-        if (ref.equals(MemorySegment.NULL)) return null;
-        return GlobalRef.get(ref.address());
+        final MemorySegment data = lua_getthreaddata(L);
+        if (data.equals(MemorySegment.NULL)) return null;
+        final long handle = StackLayout.MEMORY.get(ValueLayout.JAVA_LONG, data.address() + THREAD_OBJECT);
+        return handle != 0 ? HandleTable.get(handle) : null;
     }
 
     @Override
-    public void setThreadData(@Nullable Object data) {
-        final MemorySegment oldRef = lua_getthreaddata(L);
-        if (!oldRef.equals(MemorySegment.NULL))
-            GlobalRef.unref(oldRef.address());
+    public void setThreadData(@Nullable Object value) {
+        final MemorySegment data = value != null ? threadData() : lua_getthreaddata(L);
+        if (data.equals(MemorySegment.NULL)) return;
+
+        final long address = data.address() + THREAD_OBJECT;
+        final long oldHandle = StackLayout.MEMORY.get(ValueLayout.JAVA_LONG, address);
+        StackLayout.MEMORY.set(ValueLayout.JAVA_LONG, address, value != null ? HandleTable.newref(value) : 0);
+        if (oldHandle != 0) HandleTable.unref(oldHandle);
+    }
+
+    @Override
+    public long getThreadLong(int slot) {
+        Objects.checkIndex(slot, THREAD_SLOTS);
+        final MemorySegment data = lua_getthreaddata(L);
+        if (data.equals(MemorySegment.NULL)) return 0;
+        return StackLayout.MEMORY.get(ValueLayout.JAVA_LONG, data.address() + THREAD_SLOT_BASE + (long) slot * Long.BYTES);
+    }
+
+    @Override
+    public void setThreadLong(int slot, long value) {
+        Objects.checkIndex(slot, THREAD_SLOTS);
+        final MemorySegment data = value != 0 ? threadData() : lua_getthreaddata(L);
+        if (data.equals(MemorySegment.NULL)) return;
+        StackLayout.MEMORY.set(ValueLayout.JAVA_LONG, data.address() + THREAD_SLOT_BASE + (long) slot * Long.BYTES, value);
+    }
 
-        lua_setthreaddata(L, data != null
-                ? MemorySegment.ofAddress(GlobalRef.newref(data))
-                : MemorySegment.NULL);
+    /// The luaW_threaddata of this thread, allocated if it has none yet.
+    private MemorySegment threadData() {
+        final MemorySegment data = luaW_newthreaddata(L);
+        if (data.equals(MemorySegment.NULL))
+            throw new IllegalStateException("Failed to allocate thread data");
+        return data;
     }
 
     @Override
     public int gc(LuaGcOp op, int data) {
-        return lua_gc(L, op.ordinal(), data);
+        return luaW_gc(L, op.ordinal(), data);
     }
 
     @Override
     public void setMemCat(int category) {
-        lua_setmemcat(L, category);
+        luaW_setmemcat(L, category);
     }
 
     @Override
@@ -887,6 +1064,71 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
         return lua_totalbytes(L, category);
     }
 
+    @Override
+    public void setMemoryLimit(int category, long softLimit, long hardLimit) {
+        Objects.checkIndex(category, MEMORY_CATEGORIES);
+        if (softLimit < 0 || hardLimit < 0)
+            throw new IllegalArgumentException("negative memory limit: " + softLimit + ", " + hardLimit);
+        if (luaW_setmemlimit(L, category, softLimit, hardLimit) != 0)
+            throw new IllegalStateException("Failed to allocate memory limits");
+    }
+
+    @Override
+    public MemorySegment memoryCounters() {
+        return stateScoped(luaW_memcatbytes(L), MEMORY_CATEGORIES * Long.BYTES).asReadOnly();
+    }
+
+    @Override
+    public MemorySegment memoryPeaks() {
+        final MemorySegment peaks = luaW_mempeaks(L);
+        if (peaks.equals(MemorySegment.NULL)) return MemorySegment.NULL;
+        return stateScoped(peaks, MEMORY_CATEGORIES * Long.BYTES).asReadOnly();
+    }
+
+    /// `size` bytes at `address`, scoped to the bridge arena so that the segment is unusable
+    /// once the state is closed rather than reading freed memory.
+    private MemorySegment stateScoped(MemorySegment address, long size) {
+        return address.reinterpret(size, fromCallbacks(lua_callbacks(L)).arena, null);
+    }
+
+    @Override
+    public LuaAlloc.@Nullable SlabStats slabStats() {
+        final MemorySegment stats = luaW_slabstats(L);
+        if (stats.equals(MemorySegment.NULL)) return null;
+        final long[] values = stats.reinterpret(6 * Long.BYTES).toArray(ValueLayout.JAVA_LONG);
+        return new LuaAlloc.SlabStats(values[0], values[1], values[2], values[3], values[4], values[5]);
+    }
+
+    @Override
+    public void startAllocProfile(long intervalBytes) {
+        if (intervalBytes <= 0)
+            throw new IllegalArgumentException("allocation sampling interval must be positive: " + intervalBytes);
+        if (luaW_startallocprofile(L, intervalBytes) != 0)
+            throw new IllegalStateException("Failed to allocate the allocation profile");
+    }
+
+    @Override
+    public void stopAllocProfile() {
+        luaW_stopallocprofile(L);
+    }
+
+    @Override
+    public String dumpAllocProfile(boolean reset) {
+        // Sized by a first call; nothing runs on the state in between to change it.
+        final long length = luaW_dumpallocprofile(L, MemorySegment.NULL, 0, 0);
+        if (length == 0) return "";
+        try (Arena arena = Arena.ofConfined()) {
+            final MemorySegment buffer = arena.allocate(length);
+            luaW_dumpallocprofile(L, buffer, length, reset ? 1 : 0);
+            return new String(buffer.toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void adjustExternalMemory(long delta) {
+        checkStatus(luaW_adjustexternalmemory(L, delta));
+    }
+
     //region Error Throwing
 
     @Override
@@ -907,16 +1149,14 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     @Override
     public void typeError(int argNum, String typeName) {
         try (Arena arena = Arena.ofConfined()) {
-            luaLW_typeerror(L, argNum, arena.allocateFrom(typeName));
-            propagateException();
+            checkStatus(luaLW_typeerror(L, argNum, arena.allocateFrom(typeName)));
         }
     }
 
     @Override
     public void argError(int argNum, String message) {
         try (Arena arena = Arena.ofConfined()) {
-            luaLW_argerror(L, argNum, arena.allocateFrom(message));
-            propagateException();
+            checkStatus(luaLW_argerror(L, argNum, arena.allocateFrom(message)));
         }
     }
 
@@ -938,8 +1178,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public boolean next(int index) {
-        int result = luaW_next(L, index);
-        propagateException();
+        final int result = checkResult(luaW_next(L, index));
         return result != 0;
     }
 
@@ -971,24 +1210,20 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     @Override
     public void setLightUserDataName(int tag, String name) {
         try (Arena arena = Arena.ofConfined()) {
-            luaW_setlightuserdataname(L, tag, arena.allocateFrom(name));
-            propagateException();
+            checkStatus(luaW_setlightuserdataname(L, tag, arena.allocateFrom(name)));
         }
     }
 
     @Override
     public @Nullable String getLightUserDataName(int tag) {
-        try (Arena arena = Arena.ofConfined()) {
-            var name = lua_getlightuserdataname(L, tag);
-            if (name.equals(MemorySegment.NULL)) return null;
-            return name.getString(0, StandardCharsets.UTF_8);
-        }
+        var name = lua_getlightuserdataname(L, tag);
+        if (name.equals(MemorySegment.NULL)) return null;
+        return name.getString(0, StandardCharsets.UTF_8);
     }
 
     @Override
     public void cloneFunction(int index) {
-        luaW_clonefunction(L, index);
-        propagateException();
+        checkStatus(luaW_clonefunction(L, index));
     }
 
     @Override
@@ -998,14 +1233,12 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void clearTable(int index) {
-        luaW_cleartable(L, index);
-        propagateException();
+        checkStatus(luaW_cleartable(L, index));
     }
 
     @Override
     public void cloneTable(int index) {
-        luaW_clonetable(L, index);
-        propagateException();
+        checkStatus(luaW_clonetable(L, index));
     }
 
     @Override
@@ -1041,12 +1274,22 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void setGlobal(String s) {
-        setField(LUA_GLOBALSINDEX(), s);
+        setField(GLOBALS_INDEX, s);
+    }
+
+    @Override
+    public void setGlobal(LuaKey key) {
+        setField(GLOBALS_INDEX, key);
     }
 
     @Override
     public void getGlobal(String s) {
-        getField(LUA_GLOBALSINDEX(), s);
+        getField(GLOBALS_INDEX, s);
+    }
+
+    @Override
+    public void getGlobal(LuaKey key) {
+        getField(GLOBALS_INDEX, key);
     }
 
     @Override
@@ -1058,20 +1301,19 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public void checkAny(int argNum) {
-        if (lua_type(L, argNum) != LuaType.NONE.id()) return;
+        if (typeId(argNum) != LuaType.NONE.id()) return;
         throw error("missing argument #%d", argNum);
     }
 
     @Override
     public void checkType(int argNum, LuaType type) {
-        if (lua_type(L, argNum) == type.id()) return;
+        if (typeId(argNum) == type.id()) return;
         typeError(argNum, type.typeName());
     }
 
     @Override
     public boolean checkBoolean(int argNum) {
-        boolean result = luaLW_checkboolean(L, argNum) != 0;
-        propagateException();
+        final boolean result = checkResult(luaLW_checkboolean(L, argNum)) != 0;
         return result;
     }
 
@@ -1084,10 +1326,21 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
         return checkBoolean(argNum);
     }
 
+    // The check and opt variants read the out-parameter directly rather than going through
+    // the OrNull methods, so that the hot argument checking path never boxes.
+
     @Override
     public double checkNumber(int argNum) {
-        final Double number = toNumberOrNull(argNum);
-        if (number != null) return number;
+        if (StackLayout.ENABLED) {
+            final long slot = StackLayout.slot(L, argNum);
+            if (slot != StackLayout.API && slot != StackLayout.NONE
+                && StackLayout.tag(slot) == LuaType.NUMBER.id())
+                return StackLayout.numberValue(slot);
+        }
+
+        final MemorySegment isNum = scratch();
+        final double number = lua_tonumberx(L, argNum, isNum);
+        if (isNum.get(ValueLayout.JAVA_INT, 0) != 0) return number;
 
         typeError(argNum, LuaType.NUMBER.typeName());
         return 0; // unreachable
@@ -1095,14 +1348,16 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public double optNumber(int argNum, double def) {
-        final Double number = toNumberOrNull(argNum);
-        return number != null ? number : def;
+        final MemorySegment isNum = scratch();
+        final double number = lua_tonumberx(L, argNum, isNum);
+        return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? number : def;
     }
 
     @Override
     public int checkInteger(int argNum) {
-        final Integer integer = toIntegerOrNull(argNum);
-        if (integer != null) return integer;
+        final MemorySegment isNum = scratch();
+        final int integer = lua_tointegerx(L, argNum, isNum);
+        if (isNum.get(ValueLayout.JAVA_INT, 0) != 0) return integer;
 
         typeError(argNum, LuaType.NUMBER.typeName());
         return 0; // unreachable
@@ -1110,14 +1365,16 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public int optInteger(int argNum, int def) {
-        final Integer integer = toIntegerOrNull(argNum);
-        return integer != null ? integer : def;
+        final MemorySegment isNum = scratch();
+        final int integer = lua_tointegerx(L, argNum, isNum);
+        return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? integer : def;
     }
 
     @Override
     public long checkInteger64(int argNum) {
-        final Long integer = toInteger64OrNull(argNum);
-        if (integer != null) return integer;
+        final MemorySegment isInteger = scratch();
+        final long integer = lua_tointeger64(L, argNum, isInteger);
+        if (isInteger.get(ValueLayout.JAVA_INT, 0) != 0) return integer;
 
         typeError(argNum, LuaType.INTEGER.typeName());
         return 0; // unreachable
@@ -1125,14 +1382,16 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public long optInteger64(int argNum, long def) {
-        final Long integer = toInteger64OrNull(argNum);
-        return integer != null ? integer : def;
+        final MemorySegment isInteger = scratch();
+        final long integer = lua_tointeger64(L, argNum, isInteger);
+        return isInteger.get(ValueLayout.JAVA_INT, 0) != 0 ? integer : def;
     }
 
     @Override
     public long checkUnsigned(int argNum) {
-        final Long unsigned = toUnsignedOrNull(argNum);
-        if (unsigned != null) return unsigned;
+        final MemorySegment isNum = scratch();
+        final int unsigned = lua_tounsignedx(L, argNum, isNum);
+        if (isNum.get(ValueLayout.JAVA_INT, 0) != 0) return Integer.toUnsignedLong(unsigned);
 
         typeError(argNum, LuaType.NUMBER.typeName());
         return 0; // unreachable
@@ -1140,8 +1399,9 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     @Override
     public long optUnsigned(int argNum, long def) {
-        final Long unsigned = toUnsignedOrNull(argNum);
-        return unsigned != null ? unsigned : def;
+        final MemorySegment isNum = scratch();
+        final int unsigned = lua_tounsignedx(L, argNum, isNum);
+        return isNum.get(ValueLayout.JAVA_INT, 0) != 0 ? Integer.toUnsignedLong(unsigned) : def;
     }
 
     @Override
@@ -1188,16 +1448,23 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     public Object checkUserData(int argNum, String typeName) {
         try (Arena arena = Arena.ofConfined()) {
             final MemorySegment ud = luaLW_checkudata(L, argNum, arena.allocateFrom(typeName));
-            propagateException();
-            return GlobalRef.get(ud.get(ValueLayout.JAVA_LONG, 0));
+            if (ud.equals(MemorySegment.NULL)) propagateException();
+            return HandleTable.get(ud.get(ValueLayout.JAVA_LONG, 0));
         }
     }
 
     @Override
     public Object checkUserDataTagged(int argNum, int tag) {
         final MemorySegment ud = luaLW_checkudatatagged(L, argNum, tag);
-        propagateException();
-        return GlobalRef.get(ud.get(ValueLayout.JAVA_LONG, 0));
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        return HandleTable.get(ud.get(ValueLayout.JAVA_LONG, 0));
+    }
+
+    @Override
+    public MemorySegment checkUserDataStruct(int argNum, MemoryLayout layout, int tag) {
+        final MemorySegment ud = luaLW_checkudatatagged(L, argNum, tag);
+        if (ud.equals(MemorySegment.NULL)) propagateException();
+        return ud.reinterpret(layout.byteSize());
     }
 
     @Override
@@ -1214,8 +1481,7 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
     @Override
     public boolean newMetaTable(String typeName) {
         try (var arena = Arena.ofConfined()) {
-            final int result = luaLW_newmetatable(L, arena.allocateFrom(typeName));
-            propagateException();
+            final int result = checkResult(luaLW_newmetatable(L, arena.allocateFrom(typeName)));
             return result != 0;
         }
     }
@@ -1295,6 +1561,30 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
         return readName(lua_setupvalue(L, funcIndex, n));
     }
 
+    /// Scratch space for the out-parameters of a single downcall (lengths, `isnum` flags,
+    /// atoms), so that reading a value does not open an arena just to allocate a few bytes.
+    ///
+    /// One per thread rather than per state, since this record may hold no state of its own
+    /// and a thread local read is far cheaper than the downcall to find per state data. The
+    /// contents are only meaningful between a downcall and the read which immediately follows
+    /// it. An upcall made during that downcall may reuse the same slots, which is fine because
+    /// Luau writes its out-parameters last, after anything which could call back into Java.
+    private static MemorySegment scratch() {
+        return SCRATCH.get().first;
+    }
+
+    /// Two 8 byte slots, for the methods which need a length and an atom from one downcall.
+    private static final class Scratch {
+        final MemorySegment first;
+        final MemorySegment second;
+
+        Scratch() {
+            final MemorySegment both = Arena.ofAuto().allocate(2 * Long.BYTES, Long.BYTES);
+            this.first = both.asSlice(0, Long.BYTES);
+            this.second = both.asSlice(Long.BYTES, Long.BYTES);
+        }
+    }
+
     private static @Nullable String readName(MemorySegment name) {
         return name.equals(MemorySegment.NULL) ? null : name.getString(0, StandardCharsets.UTF_8);
     }
@@ -1452,28 +1742,40 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     //endregion
 
-    private static void userThreadCallback(@Nullable LuaStateImpl parent, LuaState thread) {
-        boolean isDestruction = parent == null;
-
-        // When destroying a thread we must clear any jni ref we have to the thread data.
-        if (isDestruction) thread.setThreadData(null);
-
-        // Always call the java handle if set.
-        final MemorySegment threadL = ((LuaStateImpl) thread).L;
-        final LuaCallbacks.UserThread callback = fromCallbacks(lua_callbacks(threadL)).userThread;
+    /// Thread data is freed natively after this returns, so a destroyed thread's is still
+    /// readable here.
+    private static void userThreadCallback(@Nullable LuaStateImpl parent, LuaStateImpl thread) {
+        final LuaCallbacks.UserThread callback = fromCallbacks(lua_callbacks(thread.L)).userThread;
         if (callback != null) callback.userThread(parent, thread);
     }
 
     //region Exception Handling
 
+    /// For wrappers of void APIs, which return the status directly; see luaujava.h.
+    private void checkStatus(int status) {
+        if (status != 0) propagateExceptionInner(LuaStatus.byId(status));
+    }
+
+    /// For wrappers of APIs whose result is never negative, which return `-status` instead
+    /// of the result when they raise; see luaujava.h.
+    private int checkResult(int result) {
+        if (result < 0) propagateExceptionInner(LuaStatus.byId(-result));
+        return result;
+    }
+
+    /// For the remaining wrappers, which leave the status in `luaW_getstatus`.
     private void propagateException() {
         LuaStatus status = LuaStatus.byId(luaW_getstatus(L));
         if (status != LuaStatus.OK) propagateExceptionInner(status);
     }
 
     private void propagateExceptionInner(LuaStatus status) {
-        // If we have one of our own errors on the stack, simply rethrow
-        if (toUserData(-1) instanceof LuaError err) throw err;
+        // If we have one of our own errors on the stack, simply rethrow. It is leaving Lua,
+        // and may be wrapped as the cause of another exception, so the trace is merged now.
+        if (toUserData(-1) instanceof LuaError err) {
+            err.mergeBacktrace();
+            throw err;
+        }
 
         // Otherwise, start throwing with the message at index -1
         final String message = toString(-1);
@@ -1481,7 +1783,8 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
         // In this case the initial trace was in lua, so start with that.
         final LuaError err = new LuaError(status, stripDefaultErrorPrefix(message));
-        err.setStackTrace(mergeBacktrace(this, err.getStackTrace(), false));
+        LuaBacktrace.capture(err, this, false, null);
+        err.mergeBacktrace();
         throw err;
     }
 
@@ -1501,98 +1804,28 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
         // In this case the initial trace was in lua, so start with that.
         final LuaError err = new LuaError(stripDefaultErrorPrefix(message));
-        err.setStackTrace(mergeBacktrace(state, err.getStackTrace(), true));
+        LuaBacktrace.capture(err, state, true, null);
         state.newUserData(err);
         return 1;
     }
 
-    static StackTraceElement[] mergeBacktrace(
-            LuaState state, StackTraceElement[] javaTrace,
-            boolean startInLua
-    ) {
-        if (NO_BACKTRACE_MERGE) return javaTrace;
-
-        final MemorySegment L = ((LuaStateImpl) state).L;
-        final List<StackTraceElement> mergedTrace = new ArrayList<>(javaTrace.length);
-        try (Arena arena = Arena.ofConfined()) {
-            final MemorySegment luaElem = lua_Debug.allocate(arena);
-
-            int luaTraceIndex = 1;
-
-            // If we are starting in lua, read the first part of the trace before any java parts.
-            if (startInLua)
-                luaTraceIndex = readLuaTracePart(L, luaElem, mergedTrace, luaTraceIndex) - 1;
-
-            for (final StackTraceElement javaElem : javaTrace) {
-                if (isDowncall(javaElem)) {
-                    luaTraceIndex = readLuaTracePart(L, luaElem, mergedTrace, luaTraceIndex);
-                }
-
-                if (!shouldExcludeElement(javaElem)) mergedTrace.add(javaElem);
-            }
-        }
-        return mergedTrace.toArray(new StackTraceElement[0]);
-    }
-
-    private static boolean isDowncall(StackTraceElement elem) {
-        // lua_h.lua_pcall is our downcall marker, we expect no other downcalls to occur.
-        // At every downcall point, we need to get the 'next' lua trace segment.
-        if (lua_h.class.getName().equals(elem.getClassName())
-                && "lua_pcall".equals(elem.getMethodName())) return true;
-        if (LuaStateImpl.class.getName().equals(elem.getClassName())
-                && "resume".equals(elem.getMethodName())) return true;
-        return false;
-    }
-
-    private static int readLuaTracePart(
-            MemorySegment L, MemorySegment luaElem,
-            List<StackTraceElement> mergedTrace,
-            int index
-    ) {
-        while (lua_getinfo(L, index++, LUA_DEBUG_WHAT, luaElem) != 0) {
-            char what = (char) lua_Debug.what(luaElem).get(ValueLayout.JAVA_BYTE, 0);
-            // A Java closure ends this segment of the trace; the Java frames which
-            // implement it come next. Every Java closure shares the native dispatch
-            // trampoline, which is what luaW_isjavaframe tests for.
-            if (what == 'C' && luaW_isjavaframe(L, index - 1) != 0) return index;
-
-            boolean isLua = what == 'L';
-            String source = null, name = "<anonymous>";
-            if (isLua) {
-                var sourceRef = lua_Debug.source(luaElem);
-                if (!sourceRef.equals(MemorySegment.NULL)) source = sourceRef.getString(0);
+    /// An upcall, so nothing may escape it: a failure to release one handle is reported and
+    /// the rest of the batch is still released.
+    private static void freeHandles(MemorySegment javadata, MemorySegment handles, int count) {
+        final MemorySegment batch = handles.reinterpret(count * ValueLayout.JAVA_LONG.byteSize());
+        final UserDataCache cache = ((JavaCallbacks) GlobalRef.get(javadata.address())).userDataCache;
+        final boolean cached = cache != null && cache.size() > 0;
+        for (int i = 0; i < count; i++) {
+            final long handle = batch.getAtIndex(ValueLayout.JAVA_LONG, i);
+            try {
+                // Evict before the handle is released, as the cache matches entries through it.
+                if (cached) cache.remove(handle);
+                HandleTable.unref(handle);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to release userdata handle " + handle + ":");
+                e.printStackTrace();
             }
-            var nameRef = lua_Debug.name(luaElem);
-            if (!nameRef.equals(MemorySegment.NULL)) name = nameRef.getString(0);
-            int currentLine = !isLua ? -1 : lua_Debug.currentline(luaElem);
-
-            mergedTrace.add(new StackTraceElement(
-                    // declaring class
-                    "lua",
-                    // method name
-                    name,
-                    // file name
-                    Objects.requireNonNullElse(source, "<native>"),
-                    // line number
-                    currentLine));
         }
-        return index;
-    }
-
-    private static boolean shouldExcludeElement(StackTraceElement elem) {
-        if (SHOW_COMPLETE_BACKTRACE) return false;
-
-        class Exclusions {
-            static final Set<String> SET = Set.of(lua_h.class.getName() + "-lua_pcall",
-                                                  LuaFuncImpl.CFunctionWrapper.class.getName() + "-apply",
-                                                  LuaStateImpl.class.getName() +
-                                                          "-propagateException", LuaStateImpl.class.getName() +
-                                                          "-propagateExceptionInner",
-                                                  LuaStateImpl.class.getName() + "-pcallErrFunc",
-                                                  LuaStateImpl.class.getName() + "-lambda$static$2");
-        }
-        return Exclusions.SET.contains("%s-%s".formatted(elem.getClassName(),
-                                                         elem.getMethodName()));
     }
 
     static @Nullable String stripDefaultErrorPrefix(@Nullable String raw) {
@@ -1602,9 +1835,15 @@ record LuaStateImpl(MemorySegment L) implements LuaState {
 
     //endregion
 
-    record AllocImpl(MemorySegment handle) implements LuaAlloc {
+    /// @param slab the config of a native slab allocator, created per state, in which case
+    ///             there is no handle
+    record AllocImpl(MemorySegment handle, LuaAlloc.@Nullable SlabConfig slab) implements LuaAlloc {
         public AllocImpl(Function function, Arena arena) {
-            this(lua_Alloc.allocate(function, arena));
+            this(lua_Alloc.allocate(function, arena), null);
+        }
+
+        public AllocImpl(LuaAlloc.SlabConfig slab) {
+            this(MemorySegment.NULL, slab);
         }
     }
 }
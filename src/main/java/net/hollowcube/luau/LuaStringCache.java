@@ -0,0 +1,47 @@
+package net.hollowcube.luau;
+
+import org.jetbrains.annotations.Nullable;
+
+/// A bounded cache of decoded Lua strings, so that reading the same string repeatedly (field
+/// names, enum-like constants, method names passed as arguments) returns the same Java
+/// [String] instead of decoding and allocating a new one each time.
+///
+/// Entries are keyed by the address of the interned Lua string and its hash. Lua may free a
+/// string and allocate a different one at the same address, so a hit is only taken after the
+/// bytes have been compared against the cached copy; a stale entry is simply replaced. The
+/// cache therefore never needs to be told about a collection, and is never wrong, only
+/// cold.
+///
+/// A cache is cheap to keep per state and is not thread safe, exactly like the state it is
+/// used with:
+///
+/// ```java
+/// final LuaStringCache names = LuaStringCache.create(256);
+///
+/// final String name = names.toString(state, 1);
+///```
+public sealed interface LuaStringCache permits LuaStringCacheImpl {
+
+    /// @param capacity the number of entries, rounded up to a power of two
+    /// @throws IllegalArgumentException if `capacity` is not positive
+    static LuaStringCache create(int capacity) {
+        return new LuaStringCacheImpl(capacity);
+    }
+
+    /// Same as [LuaState#toString(int)]: the string at index, or null if the value is not a
+    /// string (numbers are not converted).
+    @Nullable String toString(LuaState state, int index);
+
+    /// The number of entries, after rounding.
+    int capacity();
+
+    long hits();
+
+    long misses();
+
+    /// Hits over lookups, or 0 if nothing has been looked up.
+    double hitRate();
+
+    /// Drops every entry and resets the counters.
+    void clear();
+}
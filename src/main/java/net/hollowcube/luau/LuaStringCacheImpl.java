@@ -0,0 +1,101 @@
+package net.hollowcube.luau;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/// Direct mapped: each string has exactly one slot, and a miss overwrites whatever is there.
+final class LuaStringCacheImpl implements LuaStringCache {
+    /// Strings longer than this are decoded but never cached; comparing them on every hit
+    /// costs about as much as decoding them, and they are rarely repeated.
+    static final int MAX_CACHED_LENGTH = 256;
+
+    private final @Nullable Entry[] entries;
+    private final int mask;
+
+    private long hits;
+    private long misses;
+
+    LuaStringCacheImpl(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        if (capacity > 1 << 30) throw new IllegalArgumentException("capacity too large: " + capacity);
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new Entry[Math.max(size, 1)];
+        this.mask = entries.length - 1;
+    }
+
+    @Override
+    public @Nullable String toString(LuaState state, int index) {
+        final MemorySegment view = state.toStringView(index);
+        if (view == null) return null;
+
+        final long length = view.byteSize();
+        if (length == 0) return "";
+        if (length > MAX_CACHED_LENGTH) return StringTransfer.decode(view, length);
+
+        final long address = view.address();
+        final int hash = StackLayout.ENABLED ? StackLayout.stringHash(address) : 0;
+        final int slot = slot(address, hash);
+
+        final Entry entry = entries[slot];
+        if (entry != null && entry.address == address && entry.hash == hash && entry.matches(view)) {
+            hits++;
+            return entry.string;
+        }
+
+        misses++;
+        final byte[] bytes = view.toArray(ValueLayout.JAVA_BYTE);
+        final String string = new String(bytes, StandardCharsets.UTF_8);
+        entries[slot] = new Entry(address, hash, bytes, string);
+        return string;
+    }
+
+    private int slot(long address, int hash) {
+        // Allocations are at least 8 byte aligned, so the low address bits carry nothing.
+        final long mixed = (address >>> 3) * 0x9E3779B97F4A7C15L;
+        return ((int) (mixed >>> 32) ^ hash) & mask;
+    }
+
+    @Override
+    public int capacity() {
+        return entries.length;
+    }
+
+    @Override
+    public long hits() {
+        return hits;
+    }
+
+    @Override
+    public long misses() {
+        return misses;
+    }
+
+    @Override
+    public double hitRate() {
+        final long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(entries, null);
+        hits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LuaStringCache[capacity=" + capacity() + ", hits=" + hits + ", misses=" + misses + "]";
+    }
+
+    private record Entry(long address, int hash, byte[] bytes, String string) {
+        boolean matches(MemorySegment view) {
+            return view.byteSize() == bytes.length
+                    && MemorySegment.mismatch(view, 0, bytes.length, MemorySegment.ofArray(bytes), 0, bytes.length) == -1;
+        }
+    }
+}
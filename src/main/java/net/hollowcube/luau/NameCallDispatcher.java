@@ -0,0 +1,63 @@
+package net.hollowcube.luau;
+
+import java.io.Closeable;
+import java.lang.foreign.Arena;
+import java.util.function.ToIntFunction;
+
+/// A `__namecall` metamethod dispatching `obj:method(...)` calls to Java implementations by
+/// string atom: an array index per call, with no string decoded or compared.
+///
+/// Method names are given atoms by a [LuaAtomTable], which must be installed as the state's
+/// user atom callback before scripts are loaded (see there). A name without an atom (a
+/// string interned before the table was installed) is still dispatched, by name, at the cost
+/// of decoding it.
+///
+/// ```java
+/// final LuaAtomTable atoms = LuaAtomTable.create();
+/// final NameCallDispatcher entity = NameCallDispatcher.builder(atoms)
+///         .method("getName", state -> { ...; return 1; })
+///         .method("teleport", state -> { ...; return 0; })
+///         .build("Entity");
+///
+/// state.callbacks().userAtom(atoms.userAtom(arena));
+/// state.newTable();
+/// state.pushFunction(entity.nameCall());
+/// state.setField(-2, "__namecall");
+/// state.setUserDataMetaTable(ENTITY_TAG);
+///```
+///
+/// Methods see the stack exactly as an ordinary method call would: the object at 1, then
+/// the arguments.
+public sealed interface NameCallDispatcher extends Closeable permits NameCallDispatcherImpl {
+
+    static Builder builder(LuaAtomTable atoms) {
+        return new NameCallDispatcherImpl.BuilderImpl(atoms);
+    }
+
+    sealed interface Builder permits NameCallDispatcherImpl.BuilderImpl {
+        /// Adds a method, assigning `name` an atom in the table if it has none.
+        ///
+        /// @throws IllegalArgumentException if the method was already added
+        Builder method(String name, ToIntFunction<LuaState> impl);
+
+        /// Called for names which are not methods, with the stack as for a method; use
+        /// [LuaState#nameCallAtom()] to find the name. By default such calls raise
+        /// `attempt to call missing method 'name' of type`.
+        Builder fallback(ToIntFunction<LuaState> impl);
+
+        /// @param typeName used in the default missing method error and as the debug name
+        ///                 of the `__namecall` function
+        NameCallDispatcher build(String typeName);
+
+        /// As [#build(String)], allocating the `__namecall` function in `arena`; the
+        /// dispatcher may not be closed then.
+        NameCallDispatcher build(String typeName, Arena arena);
+    }
+
+    /// The `__namecall` metamethod.
+    LuaFunc nameCall();
+
+    /// Frees [#nameCall()], see [LuaFunc#close()].
+    @Override
+    void close();
+}
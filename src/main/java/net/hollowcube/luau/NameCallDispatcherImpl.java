@@ -0,0 +1,98 @@
+package net.hollowcube.luau;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.foreign.Arena;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+record NameCallDispatcherImpl(LuaFunc nameCall) implements NameCallDispatcher {
+
+    @Override
+    public void close() {
+        nameCall.close();
+    }
+
+    /// The `__namecall` implementation. `byAtom` is indexed by atom and has holes for atoms
+    /// of names which are not methods of this type (other types' methods).
+    record Dispatch(
+            LuaAtomTable atoms,
+            @Nullable ToIntFunction<LuaState>[] byAtom,
+            Map<String, ToIntFunction<LuaState>> byName,
+            @Nullable ToIntFunction<LuaState> fallback,
+            String typeName
+    ) implements ToIntFunction<LuaState> {
+        @Override
+        public int applyAsInt(LuaState state) {
+            final short atom = state.nameCallAtomRaw();
+            if (atom >= 0 && atom < byAtom.length) {
+                final ToIntFunction<LuaState> method = byAtom[atom];
+                if (method != null) return method.applyAsInt(state);
+            }
+            return slowPath(state, atom);
+        }
+
+        private int slowPath(LuaState state, short atom) {
+            // An atom may come from some other callback than this table's, so go by the
+            // string itself when the table does not know it.
+            String name = atom >= 0 ? atoms.name(atom) : null;
+            if (name == null) name = ((LuaStateImpl) state).nameCallName();
+            if (name == null) throw state.error("no method name, %s __namecall must be called as a method", typeName);
+
+            final ToIntFunction<LuaState> method = byName.get(name);
+            if (method != null) return method.applyAsInt(state);
+            if (fallback != null) return fallback.applyAsInt(state);
+            throw state.error("attempt to call missing method '%s' of %s", name, typeName);
+        }
+    }
+
+    static final class BuilderImpl implements Builder {
+        private final LuaAtomTable atoms;
+        private final Map<String, ToIntFunction<LuaState>> methods = new LinkedHashMap<>();
+        private @Nullable ToIntFunction<LuaState> fallback;
+
+        BuilderImpl(LuaAtomTable atoms) {
+            this.atoms = atoms;
+        }
+
+        @Override
+        public Builder method(String name, ToIntFunction<LuaState> impl) {
+            Objects.requireNonNull(impl, "impl");
+            if (methods.putIfAbsent(name, impl) != null)
+                throw new IllegalArgumentException("duplicate method: " + name);
+            atoms.atom(name);
+            return this;
+        }
+
+        @Override
+        public Builder fallback(ToIntFunction<LuaState> impl) {
+            this.fallback = Objects.requireNonNull(impl, "impl");
+            return this;
+        }
+
+        @Override
+        public NameCallDispatcher build(String typeName) {
+            return new NameCallDispatcherImpl(LuaFunc.wrap(dispatch(typeName), typeName + ":__namecall"));
+        }
+
+        @Override
+        public NameCallDispatcher build(String typeName, Arena arena) {
+            return new NameCallDispatcherImpl(LuaFunc.wrap(dispatch(typeName), typeName + ":__namecall", arena));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Dispatch dispatch(String typeName) {
+            int length = 0;
+            for (String name : methods.keySet())
+                length = Math.max(length, atoms.find(name) + 1);
+
+            final ToIntFunction<LuaState>[] byAtom = new ToIntFunction[length];
+            for (Map.Entry<String, ToIntFunction<LuaState>> method : methods.entrySet())
+                byAtom[atoms.find(method.getKey())] = method.getValue();
+            return new Dispatch(atoms, byAtom, new HashMap<>(methods), fallback, typeName);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package net.hollowcube.luau;
+
+import net.hollowcube.luau.util.NativeLibraryLoader;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import static net.hollowcube.luau.internal.vm.luaujava_h.luaW_layout;
+
+/// Direct reads of `lua_State::top`/`base` and the `TValue`s between them, for stack queries
+/// which are too trivial to be worth a downcall (gettop, type, toboolean, ...). The JIT can
+/// inline these into the caller, which it can never do with a native call. Also the hash of
+/// an interned string, for [LuaStringCache].
+///
+/// Offsets come from `luaW_layout` and are only trusted if the native layout version is the
+/// one this class was written against; otherwise [#ENABLED] is false and every caller goes
+/// through the `lua_*` API as before. Set `luau.direct-stack-reads=false` to force that.
+///
+/// Only the plain stack is handled: pseudo indices (registry, globals, upvalues), index 0
+/// and negative indices below the frame base resolve to [#API], so that the native API
+/// keeps owning their semantics (and its api_checks).
+final class StackLayout {
+    /// LUAW_LAYOUT_VERSION and the luaW_LayoutField ids; see luaujava.h.
+    private static final int LAYOUT_VERSION = 2;
+    private static final int FIELD_VERSION = 0, FIELD_STATE_TOP = 1, FIELD_STATE_BASE = 2,
+            FIELD_TVALUE_SIZE = 3, FIELD_TVALUE_VALUE = 4, FIELD_TVALUE_TT = 5,
+            FIELD_TSTRING_DATA = 6, FIELD_TSTRING_HASH = 7;
+
+    /// Result of [#slot(MemorySegment, int)] for a valid index with no value (`LUA_TNONE`).
+    static final long NONE = 0;
+    /// Result of [#slot(MemorySegment, int)] for an index which must go through the API.
+    static final long API = -1;
+
+    static final boolean ENABLED;
+
+    private static final long STATE_TOP;
+    private static final long STATE_BASE;
+    private static final long TVALUE_SIZE;
+    private static final long TVALUE_VALUE;
+    private static final long TVALUE_TT;
+    private static final long TSTRING_DATA;
+    private static final long TSTRING_HASH;
+
+    /// Every address, so reads need no per-call segment. Bounds are the native API's
+    /// problem, exactly as they would be for the equivalent downcall.
+    static final MemorySegment MEMORY = MemorySegment.NULL.reinterpret(Long.MAX_VALUE);
+
+    static {
+        NativeLibraryLoader.loadLibrary("luaujava");
+
+        final boolean requested = !"false".equalsIgnoreCase(System.getProperty("luau.direct-stack-reads"));
+        final long version = luaW_layout(FIELD_VERSION);
+        STATE_TOP = luaW_layout(FIELD_STATE_TOP);
+        STATE_BASE = luaW_layout(FIELD_STATE_BASE);
+        TVALUE_SIZE = luaW_layout(FIELD_TVALUE_SIZE);
+        TVALUE_VALUE = luaW_layout(FIELD_TVALUE_VALUE);
+        TVALUE_TT = luaW_layout(FIELD_TVALUE_TT);
+        TSTRING_DATA = luaW_layout(FIELD_TSTRING_DATA);
+        TSTRING_HASH = luaW_layout(FIELD_TSTRING_HASH);
+
+        ENABLED = requested
+                && version == LAYOUT_VERSION
+                && ValueLayout.ADDRESS.byteSize() == Long.BYTES
+                && STATE_TOP >= 0 && STATE_BASE >= 0
+                && TVALUE_VALUE >= 0 && TVALUE_TT >= 0
+                && TVALUE_VALUE + Long.BYTES <= TVALUE_SIZE
+                && TVALUE_TT + Integer.BYTES <= TVALUE_SIZE
+                && TSTRING_DATA >= 0 && TSTRING_HASH >= 0
+                && TSTRING_HASH + Integer.BYTES <= TSTRING_DATA;
+    }
+
+    /// Equivalent of `lua_gettop`.
+    static int top(MemorySegment L) {
+        final long address = L.address();
+        final long top = MEMORY.get(ValueLayout.JAVA_LONG, address + STATE_TOP);
+        final long base = MEMORY.get(ValueLayout.JAVA_LONG, address + STATE_BASE);
+        return (int) ((top - base) / TVALUE_SIZE);
+    }
+
+    /// Resolves `index` the way `index2addr` does for stack indices, returning the address
+    /// of its `TValue`, [#NONE] if it is past the top, or [#API] if it is not a stack index.
+    static long slot(MemorySegment L, int index) {
+        final long address = L.address();
+        final long top = MEMORY.get(ValueLayout.JAVA_LONG, address + STATE_TOP);
+        final long base = MEMORY.get(ValueLayout.JAVA_LONG, address + STATE_BASE);
+        if (index > 0) {
+            final long slot = base + (index - 1) * TVALUE_SIZE;
+            return slot < top ? slot : NONE;
+        } else if (index < 0 && index > LuaStateImpl.REGISTRY_INDEX) {
+            final long slot = top + index * TVALUE_SIZE;
+            return slot >= base ? slot : API;
+        }
+        return API;
+    }
+
+    /// The type tag of a slot, which is the `lua_Type` id.
+    static int tag(long slot) {
+        return MEMORY.get(ValueLayout.JAVA_INT, slot + TVALUE_TT);
+    }
+
+    static boolean booleanValue(long slot) {
+        return MEMORY.get(ValueLayout.JAVA_INT, slot + TVALUE_VALUE) != 0;
+    }
+
+    static double numberValue(long slot) {
+        return MEMORY.get(ValueLayout.JAVA_DOUBLE, slot + TVALUE_VALUE);
+    }
+
+    static long integer64Value(long slot) {
+        return MEMORY.get(ValueLayout.JAVA_LONG, slot + TVALUE_VALUE);
+    }
+
+    /// The hash Luau interned a string under, given the address of its characters (as
+    /// returned by `lua_tolstring`).
+    static int stringHash(long data) {
+        return MEMORY.get(ValueLayout.JAVA_INT, data - TSTRING_DATA + TSTRING_HASH);
+    }
+
+    private StackLayout() {
+    }
+}
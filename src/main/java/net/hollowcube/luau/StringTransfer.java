@@ -0,0 +1,113 @@
+package net.hollowcube.luau;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+
+/// Moving string bytes between the Java heap and Lua without the throwaway copies.
+///
+/// Pushes from the heap are staged through a per-thread native buffer instead of a fresh
+/// arena, and reads are decoded through a per-thread `byte[]` rather than an intermediate
+/// array per string. Both are bounded; anything larger takes the allocating path.
+final class StringTransfer {
+    /// Largest string staged or decoded through the per-thread buffers.
+    static final int SCRATCH_SIZE = 16 * 1024;
+
+    private static final ThreadLocal<StringTransfer> LOCAL = ThreadLocal.withInitial(StringTransfer::new);
+
+    private final MemorySegment stage = Arena.ofAuto().allocate(SCRATCH_SIZE);
+    private final byte[] decode = new byte[SCRATCH_SIZE];
+    /// Set while [#stage] holds a string on its way into Lua. Pushing allocates, and an
+    /// allocation can call back into Java (a custom allocator, userdata destructors run by
+    /// the GC step) before the bytes are read, so a nested push must not reuse it.
+    private boolean staging;
+
+    /// Copies `bytes` (a heap segment) somewhere native and hands it to `push`.
+    static void stage(MemorySegment bytes, NativePush push) {
+        final long size = bytes.byteSize();
+        final StringTransfer local = LOCAL.get();
+        if (size <= SCRATCH_SIZE && !local.staging) {
+            local.staging = true;
+            try {
+                MemorySegment.copy(bytes, 0, local.stage, 0, size);
+                push.push(local.stage, size);
+            } finally {
+                local.staging = false;
+            }
+            return;
+        }
+
+        try (Arena arena = Arena.ofConfined()) {
+            final MemorySegment copy = arena.allocate(size);
+            MemorySegment.copy(bytes, 0, copy, 0, size);
+            push.push(copy, size);
+        }
+    }
+
+    /// Decodes `length` bytes of UTF-8 at `raw`.
+    static String decode(MemorySegment raw, long length) {
+        if (length == 0) return "";
+        if (length > SCRATCH_SIZE)
+            return new String(raw.asSlice(0, length).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+
+        // No upcalls happen between the copy and the decode, so this needs no guard.
+        final byte[] buffer = LOCAL.get().decode;
+        MemorySegment.copy(raw, ValueLayout.JAVA_BYTE, 0, buffer, 0, (int) length);
+        return new String(buffer, 0, (int) length, StandardCharsets.UTF_8);
+    }
+
+    /// A [CharSequence] over `bytes`: a view for pure ASCII, where chars and bytes are one
+    /// to one, otherwise the decoded string.
+    static CharSequence charSequence(MemorySegment bytes) {
+        return isAscii(bytes) ? new AsciiView(bytes) : decode(bytes, bytes.byteSize());
+    }
+
+    static boolean isAscii(MemorySegment bytes) {
+        final long size = bytes.byteSize();
+        long i = 0;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            if ((bytes.get(ValueLayout.JAVA_LONG_UNALIGNED, i) & 0x8080808080808080L) != 0) return false;
+        }
+        for (; i < size; i++) {
+            if (bytes.get(ValueLayout.JAVA_BYTE, i) < 0) return false;
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    interface NativePush {
+        void push(MemorySegment bytes, long length);
+    }
+
+    /// See [LuaState#toCharSequence(int)] for the lifetime rules.
+    record AsciiView(MemorySegment bytes) implements CharSequence {
+        @Override
+        public int length() {
+            return (int) bytes.byteSize();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) bytes.get(ValueLayout.JAVA_BYTE, index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiView(bytes.asSlice(start, end - start));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return bytes.byteSize() == 0;
+        }
+
+        @Override
+        public String toString() {
+            return decode(bytes, bytes.byteSize());
+        }
+    }
+
+    private StringTransfer() {
+    }
+}
@@ -0,0 +1,104 @@
+package net.hollowcube.luau;
+
+import net.hollowcube.luau.util.HandleTable;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+import static net.hollowcube.luau.internal.vm.lua_h.lua_weakunref;
+
+/// The per state identity map behind [LuaState#pushUserDataCached(Object, int)], from a Java
+/// object (and tag) to a weak reference to the userdata holding it.
+///
+/// Entries are bucketed by identity hash and matched through the userdata's [HandleTable]
+/// handle, so the cache itself never holds the object: it stays reachable exactly as long as
+/// the userdata does. Cached userdata keeps the state's usual tag destructor, which queues
+/// its handle; entries are removed as the queued handles are released (see
+/// `LuaStateImpl.freeHandles`), before the handle itself. That can run inside a collection,
+/// so the weak reference is released later, by [#releasePending(MemorySegment)].
+///
+/// Not thread safe, as a state is not.
+final class UserDataCache {
+    static final class Entry {
+        final int hash;
+        final int tag;
+        final long handle;
+        final int weakRef;
+        @Nullable Entry next;
+
+        Entry(int hash, int tag, long handle, int weakRef, @Nullable Entry next) {
+            this.hash = hash;
+            this.tag = tag;
+            this.handle = handle;
+            this.weakRef = weakRef;
+            this.next = next;
+        }
+    }
+
+    private @Nullable Entry[] buckets = new Entry[16];
+    private int size = 0;
+    private int[] pending = new int[8];
+    private int pendingCount = 0;
+
+    /// The entry of the userdata holding `value` with `tag`, if any.
+    @Nullable Entry find(Object value, int tag) {
+        final int hash = System.identityHashCode(value);
+        for (Entry e = buckets[hash & (buckets.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.tag == tag && HandleTable.get(e.handle) == value)
+                return e;
+        }
+        return null;
+    }
+
+    void add(Object value, int tag, long handle, int weakRef) {
+        if (size >= buckets.length - (buckets.length >> 2)) resize();
+        final int hash = System.identityHashCode(value);
+        final int bucket = hash & (buckets.length - 1);
+        buckets[bucket] = new Entry(hash, tag, handle, weakRef, buckets[bucket]);
+        size++;
+    }
+
+    /// Removes the entry of the userdata owning `handle`, if it is cached. Called as queued
+    /// handles are released, while the handle is still live, or early for a userdata which
+    /// has been collected but not yet released.
+    void remove(long handle) {
+        final int hash = System.identityHashCode(HandleTable.get(handle));
+        final int bucket = hash & (buckets.length - 1);
+        Entry prev = null;
+        for (Entry e = buckets[bucket]; e != null; prev = e, e = e.next) {
+            if (e.handle != handle) continue;
+            if (prev == null) buckets[bucket] = e.next;
+            else prev.next = e.next;
+            size--;
+            if (pendingCount == pending.length) pending = Arrays.copyOf(pending, pendingCount * 2);
+            pending[pendingCount++] = e.weakRef;
+            return;
+        }
+    }
+
+    /// Releases the weak references of removed entries.
+    void releasePending(MemorySegment L) {
+        for (int i = 0; i < pendingCount; i++) lua_weakunref(L, pending[i]);
+        pendingCount = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        final Entry[] old = buckets;
+        final Entry[] resized = new Entry[old.length << 1];
+        for (Entry head : old) {
+            for (Entry e = head; e != null; ) {
+                final Entry next = e.next;
+                final int bucket = e.hash & (resized.length - 1);
+                e.next = resized[bucket];
+                resized[bucket] = e;
+                e = next;
+            }
+        }
+        buckets = resized;
+    }
+}
@@ -0,0 +1,28 @@
+package net.hollowcube.luau.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/// Exposes an instance method of a [LuaUserData] class as a Lua method.
+///
+/// Parameters are decoded from the arguments after the object with the matching `check`
+/// function: `double`, `float`, `int`, `long`, `boolean`, `String`, `float[]` (a vector) or
+/// another [LuaUserData] class. A `LuaState` parameter is passed the calling state and takes
+/// no argument. The return value, if any, is pushed the same way, with `null` becoming nil.
+///
+/// A [#raw()] method instead takes only the `LuaState` and returns its result count, for
+/// anything the mapping above cannot express.
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface LuaExport {
+    /// The method name in Lua. Defaults to the Java name.
+    String name() default "";
+
+    /// True if the method is `int m(LuaState state)`, reading its own arguments (the
+    /// object is at 1) and returning the number of results it pushed.
+    boolean raw() default false;
+}
@@ -0,0 +1,46 @@
+package net.hollowcube.luau.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/// Marks a class whose instances are exposed to Lua as tagged userdata, with the methods
+/// annotated [LuaExport] callable as `obj:method(...)`.
+///
+/// The `luau-processor` annotation processor generates `<Class>LuaBinding` next to the
+/// class, holding the argument decoding for every exported method and the metatable setup,
+/// so no reflection happens at runtime:
+///
+/// ```java
+/// @LuaUserData(name = "Counter", tag = 1)
+/// public class Counter {
+///     private int value;
+///
+///     @LuaExport
+///     public void increment(int by) { value += by; }
+///
+///     @LuaExport
+///     public int get() { return value; }
+/// }
+///
+/// final LuaAtomTable atoms = LuaAtomTable.create();
+/// final NameCallDispatcher counter = CounterLuaBinding.dispatcher(atoms, arena);
+/// state.callbacks().userAtom(atoms.userAtom(arena));
+/// CounterLuaBinding.install(state, counter);
+/// CounterLuaBinding.push(state, new Counter());
+/// ```
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface LuaUserData {
+    /// The type name seen by scripts (`typeof(obj)`) and in argument errors. Defaults to
+    /// the simple name of the class.
+    String name() default "";
+
+    /// The userdata tag, which must be unique within a state and between 1 and
+    /// `LuaState.USERDATA_TAG_LIMIT - 1`. Both are checked at compile time, uniqueness
+    /// among the classes compiled together.
+    int tag();
+}
@@ -0,0 +1,6 @@
+/// Annotations read by the `luau-processor` annotation processor, which generates Lua
+/// bindings for Java classes at compile time. See [net.hollowcube.luau.annotation.LuaUserData].
+@NotNullByDefault
+package net.hollowcube.luau.annotation;
+
+import org.jetbrains.annotations.NotNullByDefault;
@@ -3,7 +3,6 @@ package net.hollowcube.luau.require;
 import net.hollowcube.luau.LuaFunc;
 import net.hollowcube.luau.LuaState;
 import net.hollowcube.luau.LuaStatus;
-import net.hollowcube.luau.internal.vm.lua_Continuation;
 import net.hollowcube.luau.internal.vm.lua_Debug;
 import org.jetbrains.annotations.ApiStatus;
 
@@ -22,10 +21,9 @@ public final class RequireImpl {
     private static final String REGISTERED_CACHE_TABLE_KEY = "_REGISTEREDMODULES";
     private static final String REQUIRED_CACHE_TABLE_KEY = "_MODULES";
 
-    private static final LuaFunc REQUIRE_IMPL = LuaFunc.wrap(RequireImpl::requireImpl, "require");
-    private static final MemorySegment REQUIRE_CONTINUATION_IMPL = lua_Continuation.allocate(
-        (L, status) -> requireContinuationImpl(LuaState.wrap(L), LuaStatus.byId(status)),
-        Arena.global()); //todo exception handling in continuation
+    private static final LuaFunc REQUIRE_IMPL = LuaFunc.yieldable(
+        RequireImpl::requireImpl, RequireImpl::requireContinuationImpl,
+        "require", Arena.global());
     private static final MemorySegment DEBUG_WHAT = Arena.global().allocateFrom("s");
 
     private static final int REQUIRE_STACK_VALUES = 4;
@@ -33,9 +31,8 @@ public final class RequireImpl {
     public static void pushRequireClosure(LuaState state, RequireResolver lrc) {
         state.newUserData(lrc);
 
-        final MemorySegment funcRef = REQUIRE_IMPL.funcRef();
         final MemorySegment debugNameRef = REQUIRE_IMPL.debugNameRef();
-        luaW_pushcclosurek(state.L(), funcRef, debugNameRef, 1, REQUIRE_CONTINUATION_IMPL);
+        luaW_pushcclosurek(state.L(), REQUIRE_IMPL.funcId(), debugNameRef, 1, REQUIRE_IMPL.contId());
     }
 
     public static void registerModule(LuaState state, String path) {
@@ -0,0 +1,155 @@
+package net.hollowcube.luau.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/// Handles to Java objects which can be stored in native memory, without JNI global refs.
+///
+/// A handle is a slot index in the low 32 bits and the slot's generation in the high 32
+/// bits. Freeing a slot bumps its generation, so a handle used after [#unref(long)] (or a
+/// value which was never a handle) is detected rather than resolving to whatever took the
+/// slot next. Handles are never 0.
+///
+/// Slots are split over a power of two number of stripes, each with its own lock and free
+/// list, chosen by the creating thread, so unrelated threads do not contend when creating
+/// and freeing handles. [#get(long)] takes no lock.
+@ApiStatus.Internal
+public final class HandleTable {
+    private static final int STRIPE_COUNT = Math.min(64,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+    private static final int STRIPE_BITS = Integer.numberOfTrailingZeros(STRIPE_COUNT);
+    private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+    /// Slots per stripe, such that every index fits in a non-negative int.
+    private static final int MAX_SLOTS = 1 << (31 - STRIPE_BITS);
+    private static final int INITIAL_SLOTS = 64;
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle GENERATIONS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final Stripe[] STRIPES = new Stripe[STRIPE_COUNT];
+
+    static {
+        for (int i = 0; i < STRIPE_COUNT; i++) STRIPES[i] = new Stripe(i);
+    }
+
+    public static long newref(Object obj) {
+        final Stripe stripe = STRIPES[(int) Thread.currentThread().threadId() & STRIPE_MASK];
+        return stripe.add(obj);
+    }
+
+    /// @throws IllegalStateException if `handle` is not live
+    public static void unref(long handle) {
+        stripe(handle).remove(handle);
+    }
+
+    /// @throws IllegalStateException if `handle` is not live
+    public static Object get(long handle) {
+        final Slots slots = stripe(handle).slots;
+        final int slot = slot(handle);
+        if (slot >= slots.values.length || (int) GENERATIONS.getAcquire(slots.generations, slot) != generation(handle))
+            throw invalid(handle);
+        final Object value = VALUES.getAcquire(slots.values, slot);
+        if (value == null) throw invalid(handle);
+        return value;
+    }
+
+    /// The number of live handles, for tests and diagnostics.
+    public static int size() {
+        int size = 0;
+        for (Stripe stripe : STRIPES) {
+            synchronized (stripe) {
+                size += stripe.live;
+            }
+        }
+        return size;
+    }
+
+    private static Stripe stripe(long handle) {
+        return STRIPES[(int) handle & STRIPE_MASK];
+    }
+
+    private static int slot(long handle) {
+        return (int) handle >>> STRIPE_BITS;
+    }
+
+    private static int generation(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    private static IllegalStateException invalid(long handle) {
+        return new IllegalStateException("invalid or freed handle: 0x" + Long.toHexString(handle));
+    }
+
+    /// The arrays are replaced together when a stripe grows, so readers never see a values
+    /// array and a generations array of different sizes.
+    private record Slots(@Nullable Object[] values, int[] generations) {
+    }
+
+    private static final class Stripe {
+        private final int index;
+        private volatile Slots slots;
+
+        // Guarded by this
+        private int[] nextFree;
+        private int freeHead; // 0 is never a slot, so it ends the list
+        private int used = 1;
+        private int live;
+
+        Stripe(int index) {
+            this.index = index;
+            final int[] generations = new int[INITIAL_SLOTS];
+            Arrays.fill(generations, 1);
+            this.slots = new Slots(new Object[INITIAL_SLOTS], generations);
+            this.nextFree = new int[INITIAL_SLOTS];
+        }
+
+        synchronized long add(Object obj) {
+            int slot = freeHead;
+            if (slot != 0) {
+                freeHead = nextFree[slot];
+            } else {
+                slot = used++;
+                if (slot >= slots.values.length) grow();
+            }
+
+            final Slots slots = this.slots;
+            VALUES.setRelease(slots.values, slot, obj);
+            live++;
+            final long id = ((long) slot << STRIPE_BITS | index) & 0xFFFFFFFFL;
+            return (long) slots.generations[slot] << 32 | id;
+        }
+
+        synchronized void remove(long handle) {
+            final Slots slots = this.slots;
+            final int slot = slot(handle);
+            if (slot == 0 || slot >= used || slots.generations[slot] != generation(handle))
+                throw invalid(handle);
+
+            final int next = slots.generations[slot] + 1;
+            GENERATIONS.setRelease(slots.generations, slot, next == 0 ? 1 : next);
+            VALUES.setRelease(slots.values, slot, null);
+            nextFree[slot] = freeHead;
+            freeHead = slot;
+            live--;
+        }
+
+        private void grow() {
+            final Slots old = slots;
+            if (old.values.length >= MAX_SLOTS)
+                throw new IllegalStateException("handle table is full");
+
+            final int capacity = (int) Math.min((long) old.values.length * 2, MAX_SLOTS);
+            final int[] generations = Arrays.copyOf(old.generations, capacity);
+            Arrays.fill(generations, old.values.length, capacity, 1);
+            nextFree = Arrays.copyOf(nextFree, capacity);
+            slots = new Slots(Arrays.copyOf(old.values, capacity), generations);
+        }
+    }
+
+    private HandleTable() {
+    }
+}
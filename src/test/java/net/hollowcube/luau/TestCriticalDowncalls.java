@@ -0,0 +1,114 @@
+package net.hollowcube.luau;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/// Guards the list in [CriticalDowncalls]. A critical downcall which raises longjmps over
+/// the stub, and one which calls back into Java (directly, or through a GC step running a
+/// userdata destructor) is undefined behaviour, so every entry is checked against the Luau
+/// sources rather than trusted.
+class TestCriticalDowncalls {
+    private static final Path BRIDGE_HEADER = Path.of("native/include/luaujava.h");
+    private static final Path LUA_HEADER = Path.of("native/luau/VM/include/lua.h");
+    private static final Path LUA_API = Path.of("native/luau/VM/src/lapi.cpp");
+
+    /// Calls which, inside an API body, mean it can raise, allocate (and so step the GC) or
+    /// run arbitrary code.
+    private static final List<String> FORBIDDEN_CALLS = List.of(
+        "luaC_checkGC", "luaC_step", "luaC_fullgc", "luaM_", "luaS_new", "luaH_new",
+        "luaH_set", "luaH_resize", "luaF_new", "luaE_", "luaD_", "luaG_", "luaU_", "luaL_",
+        "luaV_gettable", "luaV_settable", "luaV_concat", "luaV_lessthan", "luaV_equalval",
+        "luaO_pushfstring", "->cb."
+    );
+
+    /// Parameter types in a prototype which mean the function is handed something to call.
+    private static final List<String> CALLBACK_TYPES = List.of(
+        "lua_CFunction", "lua_Continuation", "lua_Destructor", "lua_Alloc", "(*"
+    );
+
+    static List<String> criticalFunctions() {
+        return Arrays.stream(CriticalDowncalls.class.getDeclaredMethods())
+            .filter(m -> Modifier.isStatic(m.getModifiers()) && !Modifier.isPrivate(m.getModifiers()))
+            .map(Method::getName)
+            .sorted()
+            .toList();
+    }
+
+    @Test
+    void listIsNotEmpty() {
+        assertFalse(criticalFunctions().isEmpty());
+        for (String name : criticalFunctions())
+            assertTrue(name.startsWith("lua_"), name + " is not a lua.h API function");
+    }
+
+    /// The bridge wraps exactly the APIs which can raise, so none of them may be critical.
+    @ParameterizedTest
+    @MethodSource("criticalFunctions")
+    void notWrappedByBridge(String name) throws IOException {
+        final Set<String> wrapped = Pattern.compile("\\bluaW_(\\w+)\\s*\\(")
+            .matcher(Files.readString(BRIDGE_HEADER))
+            .results()
+            .map(r -> "lua_" + r.group(1))
+            .collect(Collectors.toSet());
+        assertFalse(wrapped.contains(name), name + " has a luaW_ barrier wrapper, so it can raise");
+    }
+
+    @ParameterizedTest
+    @MethodSource("criticalFunctions")
+    void takesNoCallbacks(String name) throws IOException {
+        final Matcher prototype = Pattern.compile("LUA_API[^;]*\\b" + name + "\\s*\\(([^;]*)\\)\\s*;")
+            .matcher(Files.readString(LUA_HEADER));
+        assertTrue(prototype.find(), "no prototype for " + name + " in lua.h");
+        for (String type : CALLBACK_TYPES)
+            assertFalse(prototype.group(1).contains(type), name + " takes a callback (" + type + ")");
+    }
+
+    @ParameterizedTest
+    @MethodSource("criticalFunctions")
+    void bodyCannotRaiseOrCallBack(String name) throws IOException {
+        final String body = functionBody(Files.readString(LUA_API), name);
+        for (String call : FORBIDDEN_CALLS)
+            assertFalse(body.contains(call), name + " calls " + call + ", so it may raise or call back");
+    }
+
+    private static String functionBody(String source, String name) {
+        final Matcher definition = Pattern.compile("(?m)^[\\w \\t*]*\\b" + name + "\\s*\\([^)]*\\)\\s*\\{")
+            .matcher(source);
+        assertTrue(definition.find(), "no definition for " + name + " in lapi.cpp");
+
+        int depth = 1, i = definition.end();
+        for (; depth > 0; i++) {
+            final char c = source.charAt(i);
+            if (c == '{') depth++;
+            else if (c == '}') depth--;
+        }
+        final String body = source.substring(definition.end(), i - 1);
+        assertNotEquals("", body.strip(), "empty body for " + name);
+        return body;
+    }
+
+    /// Sanity check of the checker itself: an API which allocates must be caught.
+    @Test
+    void checkerRejectsAllocatingApi() throws IOException {
+        final String body = functionBody(Files.readString(LUA_API), "lua_pushlstring");
+        assertTrue(FORBIDDEN_CALLS.stream().anyMatch(body::contains));
+        assertEquals(List.of(), criticalFunctions().stream().filter("lua_pushlstring"::equals).toList());
+    }
+}
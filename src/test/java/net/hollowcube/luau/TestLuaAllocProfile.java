@@ -0,0 +1,132 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+/// Allocation sampling, reported as collapsed stacks.
+@LuaStateParam
+class TestLuaAllocProfile {
+    private static final long INTERVAL = 1024;
+    private static final Pattern LINE = Pattern.compile("[^\n]+ \\d+");
+    private static final String ALLOCATE = """
+            local function makeTables()
+                local t = {}
+                for i = 1, 10000 do t[i] = { i } end
+                return t
+            end
+            local function idle()
+                return 1
+            end
+            idle()
+            makeTables()
+            """;
+
+    @Test
+    void samplesAllocatingFunction(LuaState state) {
+        state.startAllocProfile(INTERVAL);
+        eval(state, ALLOCATE);
+        state.stopAllocProfile();
+
+        final String report = state.dumpAllocProfile(false);
+        long total = 0;
+        boolean sawMakeTables = false;
+        for (String line : report.lines().toList()) {
+            assertTrue(LINE.matcher(line).matches(), line);
+            final int space = line.lastIndexOf(' ');
+            final long bytes = Long.parseLong(line.substring(space + 1));
+            assertEquals(0, bytes % INTERVAL, line);
+            total += bytes;
+
+            // Root first, so the allocating function is the last frame.
+            final String[] frames = line.substring(0, space).split(";");
+            sawMakeTables |= frames[frames.length - 1].startsWith("makeTables (");
+        }
+        assertTrue(sawMakeTables, report);
+        assertFalse(report.contains("idle ("), report);
+        // Ten thousand tables are a good deal more than this.
+        assertTrue(total >= 100 * INTERVAL, "sampled only " + total + " bytes");
+    }
+
+    @Test
+    void resetClears(LuaState state) {
+        state.startAllocProfile(INTERVAL);
+        eval(state, ALLOCATE);
+
+        assertFalse(state.dumpAllocProfile(true).isEmpty());
+        assertEquals("", state.dumpAllocProfile(false));
+    }
+
+    @Test
+    void stopKeepsSamples(LuaState state) {
+        state.startAllocProfile(INTERVAL);
+        eval(state, ALLOCATE);
+        state.stopAllocProfile();
+
+        final String report = state.dumpAllocProfile(false);
+        eval(state, ALLOCATE);
+        assertEquals(report, state.dumpAllocProfile(false));
+    }
+
+    @Test
+    void emptyWithoutProfile(LuaState state) {
+        eval(state, ALLOCATE);
+        assertEquals("", state.dumpAllocProfile(true));
+    }
+
+    /// The onallocate handler installed before is still called, and back on its own after.
+    @Test
+    void forwardsToOnAllocate(LuaState state) {
+        final AtomicInteger calls = new AtomicInteger();
+        try (Arena arena = Arena.ofConfined()) {
+            state.callbacks().onAllocate(LuaCallbacks.OnAllocate.allocate(
+                    (_, _, _) -> calls.incrementAndGet(), arena));
+
+            state.startAllocProfile(INTERVAL);
+            eval(state, "local t = { 1, 2, 3 }");
+            assertTrue(calls.get() > 0, "onAllocate was not forwarded to");
+
+            state.stopAllocProfile();
+            final int before = calls.get();
+            eval(state, "local t = { 1, 2, 3 }");
+            assertTrue(calls.get() > before, "onAllocate was not restored");
+            state.callbacks().onAllocate((LuaCallbacks.OnAllocate) null);
+        }
+    }
+
+    /// An onallocate handler set while sampling replaces the sampler, until the next start
+    /// puts it back in front.
+    @Test
+    void restartReinstallsSampler(LuaState state) {
+        final AtomicInteger calls = new AtomicInteger();
+        try (Arena arena = Arena.ofConfined()) {
+            state.startAllocProfile(INTERVAL);
+            state.callbacks().onAllocate(LuaCallbacks.OnAllocate.allocate(
+                    (_, _, _) -> calls.incrementAndGet(), arena));
+            eval(state, ALLOCATE);
+            assertEquals("", state.dumpAllocProfile(true));
+
+            state.startAllocProfile(INTERVAL);
+            eval(state, ALLOCATE);
+            state.stopAllocProfile();
+            assertFalse(state.dumpAllocProfile(false).isEmpty(), "sampler was not reinstalled");
+
+            final int before = calls.get();
+            eval(state, "local t = { 1, 2, 3 }");
+            assertTrue(calls.get() > before, "onAllocate was not restored");
+            state.callbacks().onAllocate((LuaCallbacks.OnAllocate) null);
+        }
+    }
+
+    @Test
+    void invalidInterval(LuaState state) {
+        assertThrows(IllegalArgumentException.class, () -> state.startAllocProfile(0));
+    }
+}
@@ -0,0 +1,203 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import net.hollowcube.luau.annotation.LuaExport;
+import net.hollowcube.luau.annotation.LuaUserData;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/// Bindings generated by `luau-processor` for the classes below, which is a compile time
+/// test of the processor as much as a runtime one.
+@LuaStateParam
+class TestLuaBindings {
+
+    @LuaUserData(tag = 20)
+    static class Vec {
+        final double x, y;
+
+        Vec(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @LuaExport
+        double x() {
+            return x;
+        }
+
+        @LuaExport
+        double y() {
+            return y;
+        }
+
+        @LuaExport
+        Vec add(Vec other) {
+            return new Vec(x + other.x, y + other.y);
+        }
+
+        @LuaExport(name = "scale")
+        Vec times(float factor) {
+            return new Vec(x * factor, y * factor);
+        }
+    }
+
+    @LuaUserData(name = "Entity", tag = 21)
+    static class TestEntity {
+        String name = "";
+        int health = 20;
+        long id;
+        boolean alive = true;
+        @Nullable Vec position;
+
+        @LuaExport
+        void setName(String name) {
+            this.name = name;
+        }
+
+        @LuaExport
+        String getName() {
+            return name;
+        }
+
+        @LuaExport
+        int damage(int amount) {
+            health -= amount;
+            if (health <= 0) alive = false;
+            return health;
+        }
+
+        @LuaExport
+        boolean isAlive() {
+            return alive;
+        }
+
+        @LuaExport
+        void setId(long id) {
+            this.id = id;
+        }
+
+        @LuaExport
+        void teleport(Vec position) {
+            this.position = position;
+        }
+
+        @LuaExport
+        @Nullable Vec getPosition() {
+            return position;
+        }
+
+        /// Needs the state for something other than its arguments.
+        @LuaExport
+        void remember(LuaState state, String key) {
+            state.pushString(name);
+            state.setGlobal(key);
+        }
+
+        /// Returns any number of results.
+        @LuaExport(raw = true)
+        int unpack(LuaState state) {
+            state.pushString(name);
+            state.pushInteger(health);
+            return 2;
+        }
+    }
+
+    private final TestEntity entity = new TestEntity();
+
+    @BeforeEach
+    void setup(LuaState state, Arena arena) {
+        final LuaAtomTable atoms = LuaAtomTable.create();
+        final NameCallDispatcher vec = TestLuaBindings_VecLuaBinding.dispatcher(atoms, arena);
+        final NameCallDispatcher entity = TestLuaBindings_TestEntityLuaBinding.dispatcher(atoms, arena);
+        state.callbacks().userAtom(atoms.userAtom(arena));
+        TestLuaBindings_VecLuaBinding.install(state, vec);
+        TestLuaBindings_TestEntityLuaBinding.install(state, entity);
+
+        TestLuaBindings_TestEntityLuaBinding.push(state, this.entity);
+        state.setGlobal("entity");
+        state.pushFunction(LuaFunc.wrap(s -> {
+            TestLuaBindings_VecLuaBinding.push(s, new Vec(s.checkNumber(1), s.checkNumber(2)));
+            return 1;
+        }, "vec", arena));
+        state.setGlobal("vec");
+    }
+
+    @Test
+    void decodesArgumentsAndPushesResults(LuaState state) {
+        eval(state, """
+            entity:setName("steve")
+            entity:setId(123456789012)
+            return entity:getName(), entity:damage(5), entity:isAlive()
+            """, 3);
+
+        assertEquals("steve", state.toString(-3));
+        assertEquals(15, state.toNumber(-2));
+        assertEquals(true, state.toBoolean(-1));
+        assertEquals(123456789012L, entity.id);
+    }
+
+    @Test
+    void passesAndReturnsUserData(LuaState state) {
+        eval(state, """
+            entity:teleport(vec(1, 2):add(vec(3, 4)):scale(2))
+            local pos = entity:getPosition()
+            return pos:x(), pos:y(), typeof(pos)
+            """, 3);
+
+        assertEquals(8, state.toNumber(-3));
+        assertEquals(12, state.toNumber(-2));
+        assertEquals("Vec", state.toString(-1));
+        assertEquals(8, entity.position.x);
+    }
+
+    @Test
+    void nullBecomesNil(LuaState state) {
+        eval(state, "return entity:getPosition()", 1);
+
+        assertEquals(LuaType.NIL, state.type(-1));
+    }
+
+    @Test
+    void injectsStateAndSupportsRawMethods(LuaState state) {
+        entity.name = "alex";
+        eval(state, """
+            entity:remember("who")
+            return entity:unpack()
+            """, 2);
+
+        assertEquals("alex", state.toString(-2));
+        assertEquals(20, state.toNumber(-1));
+        state.getGlobal("who");
+        assertEquals("alex", state.toString(-1));
+    }
+
+    @Test
+    void badArgumentIsReported(LuaState state) {
+        var err = assertThrows(LuaError.class, () -> eval(state, "entity:damage('lots')"));
+        assertTrue(err.getMessage().contains("number expected, got string"), err.getMessage());
+        err = assertThrows(LuaError.class, () -> eval(state, "entity:teleport(entity)"));
+        assertTrue(err.getMessage().contains("Vec expected"), err.getMessage());
+        assertEquals(20, entity.health);
+    }
+
+    @Test
+    void unknownMethodRaises(LuaState state) {
+        final var err = assertThrows(LuaError.class, () -> eval(state, "entity:fly()"));
+        assertEquals("attempt to call missing method 'fly' of Entity", err.getMessage());
+    }
+
+    @Test
+    void toRejectsOtherTypes(LuaState state) {
+        state.getGlobal("entity");
+        assertNull(TestLuaBindings_VecLuaBinding.to(state, -1));
+        assertSame(entity, TestLuaBindings_TestEntityLuaBinding.check(state, -1));
+    }
+}
@@ -1,8 +1,13 @@
 package net.hollowcube.luau;
 
+import net.hollowcube.luau.compiler.LuauCompiler;
 import org.junit.jupiter.api.Test;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.lang.foreign.Arena;
+import java.util.Arrays;
+import java.util.List;
 
 import static net.hollowcube.luau.TestHelpers.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -431,4 +436,180 @@ public class TestLuaError {
             printStackTrace(err, 10)
         );
     }
+
+    /// The barrier wrappers report a raise three ways (a returned status, a negated result,
+    /// or a null pointer with the status left for luaW_getstatus); one of each.
+    @Test
+    void raiseFromEachWrapperKind(LuaState state) {
+        eval(state, """
+            local mt = {
+                __index = function() error("from index") end,
+                __newindex = function() error("from newindex") end,
+                __tostring = function() error("from tostring") end,
+            }
+            t = setmetatable({}, mt)
+            """);
+        state.getGlobal("t");
+
+        state.pushNumber(1);
+        var err = assertThrows(LuaError.class, () -> state.setField(-2, "k"));
+        assertEquals("from newindex", err.getMessage());
+        state.top(1);
+
+        err = assertThrows(LuaError.class, () -> state.getField(-1, "k"));
+        assertEquals("from index", err.getMessage());
+        state.top(1);
+
+        err = assertThrows(LuaError.class, () -> state.toStringRepr(-1));
+        assertEquals("from tostring", err.getMessage());
+        state.top(1);
+
+        // A failed call must not leave anything behind for the next one to trip over.
+        state.pushNumber(1);
+        state.rawSetField(-2, "k");
+        assertEquals(LuaType.NUMBER, state.rawGetField(-1, "k"));
+        assertEquals(1, state.toNumber(-1));
+    }
+
+    @Test
+    void callLeavesOnlyResults(LuaState state) {
+        eval(state, "function add(a, b) return a + b end");
+        state.pushString("below");
+
+        state.getGlobal("add");
+        state.pushNumber(1);
+        state.pushNumber(2);
+        state.call(2, 1);
+        assertEquals(2, state.top(), "the error handler must not be left on the stack");
+        assertEquals(3, state.toNumber(-1));
+        assertEquals("below", state.toString(1));
+    }
+
+    @Test
+    void callErrorStillCarriesTrace(LuaState state) {
+        eval(state, "function fail() error('boom') end");
+        state.pushString("below");
+
+        for (int i = 0; i < 3; i++) {
+            state.getGlobal("fail");
+            var err = assertThrows(LuaError.class, () -> state.call(0, 0));
+            assertEquals("boom", err.getMessage());
+            assertTrue(err.getStackTrace().length > 0);
+            assertEquals(1, state.top(), "iteration " + i);
+        }
+    }
+
+    @Test
+    void callDoesNotAllocate(LuaState state) {
+        eval(state, "function noop() end");
+        state.gc(LuaGcOp.STOP, 0);
+
+        final int before = state.gc(LuaGcOp.COUNTB, 0) + state.gc(LuaGcOp.COUNT, 0) * 1024;
+        for (int i = 0; i < 1000; i++) {
+            state.getGlobal("noop");
+            state.call(0, 0);
+        }
+        final int after = state.gc(LuaGcOp.COUNTB, 0) + state.gc(LuaGcOp.COUNT, 0) * 1024;
+        // A closure per call would be tens of kilobytes here.
+        assertTrue(after - before < 1024, "heap grew by " + (after - before) + " bytes");
+    }
+
+    @Test
+    void backtraceSurvivesStackChanges(LuaState state) {
+        state.openLibs();
+        eval(state, """
+            function inner() error("late") end
+            function outer() inner() end
+            function other(n) if n > 0 then return other(n - 1) end return 0 end
+            """);
+
+        state.getGlobal("outer");
+        var err = assertThrows(LuaError.class, () -> state.call(0, 0));
+
+        // The Lua stack the error was raised on is long gone by the time the trace is read.
+        for (int i = 0; i < 10; i++) {
+            state.getGlobal("other");
+            state.pushNumber(20);
+            state.call(1, 1);
+            state.pop(1);
+        }
+
+        var lua = Arrays.stream(err.getStackTrace())
+            .filter(e -> "lua".equals(e.getClassName()))
+            .map(StackTraceElement::getMethodName)
+            .toList();
+        assertEquals(List.of("error", "inner", "outer"), lua);
+    }
+
+    /// Printed as a cause, the trace is read without going through getStackTrace.
+    @Test
+    void causeShowsLuaFrames(LuaState state) {
+        state.openLibs();
+        eval(state, """
+            function inner() error("wrapped") end
+            function outer() inner() end
+            """);
+
+        state.getGlobal("outer");
+        var err = assertThrows(LuaError.class, () -> state.call(0, 0));
+
+        var out = new StringWriter();
+        new RuntimeException(err).printStackTrace(new PrintWriter(out));
+        assertTrue(out.toString().contains("lua.inner("), out.toString());
+    }
+
+    @Test
+    void setStackTraceReplacesPendingBacktrace(LuaState state) {
+        state.openLibs();
+        load(state, "error('x')");
+        var err = assertThrows(LuaError.class, () -> state.call(0, 0));
+
+        var replacement = new StackTraceElement[]{new StackTraceElement("a", "b", "c", 1)};
+        err.setStackTrace(replacement);
+        assertArrayEquals(replacement, err.getStackTrace());
+    }
+
+    /// Deeper than the per-thread snapshot buffer, so captured again into a larger one.
+    @Test
+    void deepBacktraceIsComplete(LuaState state) {
+        state.openLibs();
+        load(state, """
+            local function deep(n)
+                if n == 0 then error("bottom") end
+                return (deep(n - 1))
+            end
+            deep(2000)
+            """);
+        var err = assertThrows(LuaError.class, () -> state.call(0, 0));
+
+        var lua = Arrays.stream(err.getStackTrace())
+            .filter(e -> "lua".equals(e.getClassName()))
+            .map(StackTraceElement::getMethodName)
+            .toList();
+        assertEquals(2001, lua.stream().filter("deep"::equals).count());
+        assertFalse(lua.contains("<truncated>"));
+    }
+
+    /// Past the largest snapshot the outermost frames are replaced by a marker.
+    @Test
+    void hugeBacktraceIsMarkedTruncated(LuaState state) {
+        state.openLibs();
+        // Every frame carries the chunk name, so a long one makes each frame large.
+        state.load("x".repeat(4096), assertDoesNotThrow(() -> LuauCompiler.DEFAULT.compile("""
+            local function deep(n)
+                if n == 0 then error("bottom") end
+                return (deep(n - 1))
+            end
+            deep(1000)
+            """)));
+        var err = assertThrows(LuaError.class, () -> state.call(0, 0));
+
+        var lua = Arrays.stream(err.getStackTrace())
+            .filter(e -> "lua".equals(e.getClassName()))
+            .map(StackTraceElement::getMethodName)
+            .toList();
+        assertEquals("<truncated>", lua.getLast());
+        assertEquals(1, lua.stream().filter("<truncated>"::equals).count());
+        assertTrue(lua.size() < 1000, "kept " + lua.size() + " frames");
+    }
 }
@@ -0,0 +1,77 @@
+package net.hollowcube.luau;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/// Memory held outside the Lua heap, counted towards it so that the collector paces for it.
+@LuaStateParam
+class TestLuaExternalMemory {
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void userDataCountsUntilDestroyed(LuaState state) {
+        final long before = state.totalBytes(0);
+        state.newUserData(new byte[16], 10 * MB);
+        assertTrue(state.totalBytes(0) >= before + 10 * MB, "external bytes were not counted");
+
+        state.pop(1);
+        state.gc(LuaGcOp.COLLECT, 0);
+        assertTrue(state.totalBytes(0) < before + MB, "external bytes were not released");
+    }
+
+    @Test
+    void userDataCountsInActiveCategory(LuaState state) {
+        state.setMemCat(3);
+        state.newUserData(new Object(), 4 * MB);
+        state.setMemCat(0);
+
+        assertTrue(state.totalBytes(3) >= 4 * MB);
+        assertTrue(state.totalBytes(0) < 4 * MB);
+    }
+
+    @Test
+    void userDataIsUsable(LuaState state) {
+        final Object value = new Object();
+        state.newUserData(value, MB);
+        assertEquals(value, state.toUserData(-1));
+    }
+
+    @Test
+    void negativeUserDataBytesRejected(LuaState state) {
+        assertThrows(IllegalArgumentException.class, () -> state.newUserData(new Object(), -1));
+    }
+
+    @Test
+    void adjustAndRelease(LuaState state) {
+        final long before = state.totalBytes(0);
+        state.adjustExternalMemory(8 * MB);
+        assertEquals(before + 8 * MB, state.totalBytes(0), 64 * 1024);
+
+        state.adjustExternalMemory(-8 * MB);
+        assertTrue(state.totalBytes(0) <= before + 64 * 1024);
+    }
+
+    @Test
+    void overReleaseRaises(LuaState state) {
+        state.adjustExternalMemory(MB);
+        final var err = assertThrows(LuaError.class, () -> state.adjustExternalMemory(-2 * MB));
+        assertTrue(err.getMessage().contains("external bytes"), err.getMessage());
+
+        // Counted per category, so none of it is releasable from another.
+        state.setMemCat(1);
+        assertThrows(LuaError.class, () -> state.adjustExternalMemory(-MB));
+        state.setMemCat(0);
+    }
+
+    /// Left for close to release, which must still find an empty heap.
+    @Test
+    void unreleasedAtClose(LuaState state) {
+        state.adjustExternalMemory(MB);
+        state.setMemCat(2);
+        state.adjustExternalMemory(MB);
+        state.setMemCat(0);
+    }
+}
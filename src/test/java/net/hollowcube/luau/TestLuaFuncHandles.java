@@ -0,0 +1,77 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import net.hollowcube.luau.util.HandleTable;
+import org.junit.jupiter.api.Test;
+
+/// A [LuaFunc] is a [HandleTable] handle called through a shared dispatcher, so its
+/// lifetime is that of the handle: a closure outliving its function raises rather than
+/// calling into freed (or reused) memory.
+@LuaStateParam
+class TestLuaFuncHandles {
+
+    @Test
+    void closeReleasesHandle() {
+        final LuaFunc func = LuaFunc.wrap(_ -> 0, "noop");
+        final long id = func.funcId();
+        assertEquals(0, func.contId());
+
+        func.close();
+        assertThrows(IllegalStateException.class, () -> HandleTable.get(id));
+        assertThrows(IllegalStateException.class, func::close);
+    }
+
+    @Test
+    void closedFunctionRaises(LuaState state) {
+        final LuaFunc func = LuaFunc.wrap(s -> {
+            s.pushString("hello");
+            return 1;
+        }, "greet");
+        state.pushFunction(func);
+        state.setGlobal("greet");
+        eval(state, "return greet()", 1);
+        assertEquals("hello", state.toString(-1));
+        state.pop(1);
+
+        func.close();
+        // Take the slot straight back, which must not make the stale closure callable.
+        final LuaFunc other = LuaFunc.wrap(_ -> 0, "other");
+        try {
+            final var err = assertThrows(LuaError.class, () -> eval(state, "return greet()"));
+            assertTrue(err.getMessage().startsWith("java.lang.IllegalStateException"), err.getMessage());
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    void arenaReleasesHandles() {
+        final LuaFunc func;
+        try (Arena arena = Arena.ofConfined()) {
+            func = LuaFunc.yieldable(_ -> 0, (_, _) -> 0, "yieldable", arena);
+            assertNotEquals(0, func.contId());
+            assertThrows(IllegalStateException.class, func::close);
+        }
+        assertThrows(IllegalStateException.class, () -> HandleTable.get(func.funcId()));
+        assertThrows(IllegalStateException.class, () -> HandleTable.get(func.contId()));
+    }
+
+    @Test
+    void namesAreShared() {
+        final LuaFunc a = LuaFunc.wrap(_ -> 0, "shared");
+        final LuaFunc b = LuaFunc.wrapDoubleUnary(Math::abs, "shared");
+        try {
+            assertEquals(a.debugNameRef().address(), b.debugNameRef().address());
+            assertNotEquals(a.funcId(), b.funcId());
+        } finally {
+            a.close();
+            b.close();
+        }
+    }
+}
@@ -5,11 +5,10 @@ import static net.hollowcube.luau.internal.vm.luaujava_h.luaW_pushcclosurek;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.lang.foreign.Arena;
-import java.lang.foreign.MemorySegment;
 import org.junit.jupiter.api.Test;
 
 /// Java closures are pushed as a native dispatch trampoline which reserves the first two
-/// upvalue slots for the Java function and continuation, so [LuaState#upvalueIndex(int)]
+/// upvalue slots for the Java function and continuation handles, so [LuaState#upvalueIndex(int)]
 /// is offset from the raw `lua_upvalueindex`. Getting that offset wrong reads the
 /// trampoline's own light userdata instead of the caller's upvalue.
 @LuaStateParam
@@ -31,10 +30,10 @@ class TestLuaFuncUpvalues {
         state.pushString("second");
         luaW_pushcclosurek(
             state.L(),
-            func.funcRef(),
+            func.funcId(),
             func.debugNameRef(),
             2,
-            MemorySegment.NULL
+            0
         );
         state.setGlobal("upvals");
 
@@ -0,0 +1,91 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/// [LuaKey] overloads must behave exactly like their `String` counterparts, including
+/// metamethods for the non-raw variants.
+@LuaStateParam
+class TestLuaKey {
+    private static final LuaKey NAME = LuaKey.of("name");
+
+    @Test
+    void setAndGetField(LuaState state) {
+        state.newTable();
+        state.pushString("value");
+        state.setField(-2, NAME);
+
+        assertEquals(LuaType.STRING, state.getField(-1, NAME));
+        assertEquals("value", state.toString(-1));
+        state.pop(1);
+
+        assertEquals(LuaType.STRING, state.getField(-1, "name"), "same key as the String overload");
+        state.pop(1);
+    }
+
+    @Test
+    void rawSetAndGetField(LuaState state) {
+        state.newTable();
+        state.pushNumber(4);
+        state.rawSetField(-2, NAME);
+
+        assertEquals(LuaType.NUMBER, state.rawGetField(-1, NAME));
+        assertEquals(4, state.toNumber(-1));
+    }
+
+    @Test
+    void fieldsGoThroughMetamethods(LuaState state) {
+        eval(state, """
+            t = setmetatable({}, {
+                __index = function(_, k) return "index:" .. k end,
+                __newindex = function(t, k, v) rawset(t, k, "newindex:" .. v) end,
+            })
+            """);
+        state.getGlobal("t");
+
+        assertEquals(LuaType.STRING, state.getField(-1, NAME));
+        assertEquals("index:name", state.toString(-1));
+        state.pop(1);
+        assertEquals(LuaType.NIL, state.rawGetField(-1, NAME));
+        state.pop(1);
+
+        state.pushString("v");
+        state.setField(-2, NAME);
+        state.rawGetField(-1, NAME);
+        assertEquals("newindex:v", state.toString(-1));
+    }
+
+    @Test
+    void globals(LuaState state) {
+        state.pushNumber(42);
+        state.setGlobal(NAME);
+
+        eval(state, "assert(name == 42)");
+        state.getGlobal(NAME);
+        assertEquals(42, state.toNumber(-1));
+    }
+
+    /// Keys are not tied to a state; one constant serves any number of them.
+    @Test
+    void sharedBetweenStates(LuaState state) {
+        try (LuaState other = LuaState.newState()) {
+            other.pushString("other");
+            other.setGlobal(NAME);
+            state.pushString("this");
+            state.setGlobal(NAME);
+
+            other.getGlobal(NAME);
+            assertEquals("other", other.toString(-1));
+            state.getGlobal(NAME);
+            assertEquals("this", state.toString(-1));
+        }
+    }
+
+    @Test
+    void rejectsNul() {
+        assertThrows(IllegalArgumentException.class, () -> LuaKey.of("a\0b"));
+    }
+}
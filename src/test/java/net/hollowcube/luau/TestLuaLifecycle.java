@@ -4,14 +4,18 @@ import static net.hollowcube.luau.TestHelpers.eval;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import net.hollowcube.luau.util.HandleTable;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 /// The lifetime of the Lua objects Java hands to a state, and how much of it survives a
 /// close.
 ///
-/// Every Java object given to Lua is held by a JNI global reference for as long as the Lua
-/// side owns it, which the userdata destructor releases. So "the destructor ran" is
+/// Every Java object given to Lua is held strongly for as long as the Lua side owns it (a
+/// [HandleTable] handle, for userdata and thread data alike), which the userdata destructor
+/// releases. So "the destructor ran" is
 /// observable from Java as "the object became collectible", and that is what the tests here
 /// use to tell whether a value was really let go of.
 ///
@@ -81,8 +85,23 @@ class TestLuaLifecycle {
             assertCollected(ref);
         }
 
-        /// The control for the two above: while Lua still holds the userdata the JNI global
-        /// reference keeps the Java object alive no matter what either collector does.
+        @Test
+        void collectedUserDataFreesItsHandle(LuaState state) {
+            state.gc(LuaGcOp.STOP, 0);
+            final int before = HandleTable.size();
+            for (int i = 0; i < 1000; i++) {
+                state.newUserDataTagged(new Object(), 5);
+                state.pop(1);
+            }
+            assertEquals(before + 1000, HandleTable.size());
+
+            state.gc(LuaGcOp.COLLECT, 0);
+
+            assertEquals(before, HandleTable.size());
+        }
+
+        /// The control for the two above: while Lua still holds the userdata its handle keeps
+        /// the Java object alive no matter what either collector does.
         @Test
         void reachableUserDataIsNotReleased(LuaState state) {
             final WeakReference<Object> ref = pushOwnedUserData(state);
@@ -96,6 +115,22 @@ class TestLuaLifecycle {
             assertNotNull(state.toUserData(-1));
         }
 
+        /// Destructors queue handles natively and release them in batches, so fewer than a
+        /// batch are only released once the collection returns to Java.
+        @Test
+        void partialBatchIsReleasedAfterCollect(LuaState state) {
+            state.gc(LuaGcOp.STOP, 0);
+            final List<WeakReference<Object>> refs = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                refs.add(pushOwnedUserData(state));
+                state.pop(1);
+            }
+
+            state.gc(LuaGcOp.COLLECT, 0);
+
+            refs.forEach(TestLuaLifecycle::assertCollected);
+        }
+
         /// Userdata reachable only from a thread's stack dies with the thread, which is
         /// itself an ordinary collectible object once nothing refers to it.
         @Test
@@ -147,6 +182,15 @@ class TestLuaLifecycle {
 
             assertCollected(ref);
         }
+
+        @Test
+        void collectedThreadReleasesItsData(LuaState state) {
+            final WeakReference<Object> ref = setOwnedThreadData(state.newThread());
+            state.pop(1);
+            state.gc(LuaGcOp.COLLECT, 0);
+
+            assertCollected(ref);
+        }
     }
 
     @Nested
@@ -169,6 +213,26 @@ class TestLuaLifecycle {
             assertCollected(ref);
         }
 
+        /// Handles are queued per state rather than per thread, so those a collection queued
+        /// on one thread are still released by closing the state on another.
+        @Test
+        void closeReleasesHandlesQueuedOnAnotherThread() throws InterruptedException {
+            final LuaState state = LuaState.newState();
+            final List<WeakReference<Object>> refs = new ArrayList<>();
+            // Allocation steps the collector, which queues the handles of what it sweeps
+            // without anything returning through call or gc to release them.
+            final Thread worker = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    refs.add(pushOwnedUserData(state));
+                    state.pop(1);
+                }
+            });
+            worker.join();
+
+            state.close();
+            refs.forEach(TestLuaLifecycle::assertCollected);
+        }
+
         /// Threads are collectible objects rather than resources, so there is nothing to
         /// close on one; the parent close is what ends their lifetime.
         @Test
@@ -0,0 +1,104 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static net.hollowcube.luau.TestHelpers.load;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import org.junit.jupiter.api.Test;
+
+/// Per memory category quotas, enforced by the native allocator wrapper.
+@LuaStateParam
+class TestLuaMemoryLimits {
+    private static final long MB = 1024 * 1024;
+    private static final String FILL = """
+            local t = {}
+            for i = 1, 1000000 do t[i] = i end
+            """;
+
+    @Test
+    void hardLimitRaisesErrMem(LuaState state) {
+        state.setMemoryLimit(1, 0, MB);
+        state.setMemCat(1);
+        // The error handler runs in the full category too, so this may surface as an error
+        // in error handling rather than the out of memory error itself.
+        assertThrows(LuaError.class, () -> eval(state, FILL));
+        state.setMemCat(0);
+
+        // The state is still usable, and the category within its limit.
+        eval(state, "return 1 + 1", 1);
+        assertEquals(2, state.toInteger(-1));
+        assertTrue(state.totalBytes(1) <= MB + 64 * 1024);
+    }
+
+    @Test
+    void limitFollowsCalledThread(LuaState state) {
+        state.setMemoryLimit(1, 0, MB);
+        final LuaState thread = state.newThread();
+        thread.setMemCat(1);
+        // Leaves category 0 as the one last set, which must not be what the call is held to.
+        state.setMemCat(0);
+
+        load(thread, FILL);
+        assertThrows(LuaError.class, () -> thread.call(0, 0));
+        state.pop(1);
+
+        assertTrue(state.totalBytes(1) <= MB + 64 * 1024);
+        assertDoesNotThrow(() -> eval(state, FILL));
+    }
+
+    @Test
+    void otherCategoriesUnaffected(LuaState state) {
+        state.setMemoryLimit(1, 0, 64 * 1024);
+        assertDoesNotThrow(() -> eval(state, FILL));
+    }
+
+    @Test
+    void countersAreTotalBytes(LuaState state) {
+        final MemorySegment counters = state.memoryCounters();
+        state.setMemCat(2);
+        eval(state, "held = {1, 2, 3}");
+        state.setMemCat(0);
+
+        for (int category : new int[]{0, 2})
+            assertEquals(state.totalBytes(category), counters.getAtIndex(ValueLayout.JAVA_LONG, category));
+        assertTrue(counters.isReadOnly());
+    }
+
+    @Test
+    void countersAreClosedWithState() {
+        final LuaState state = LuaState.newState();
+        state.setMemoryLimit(1, 0, MB);
+        final MemorySegment counters = state.memoryCounters();
+        final MemorySegment peaks = state.memoryPeaks();
+        state.close();
+
+        assertThrows(IllegalStateException.class, () -> counters.getAtIndex(ValueLayout.JAVA_LONG, 0));
+        assertThrows(IllegalStateException.class, () -> peaks.getAtIndex(ValueLayout.JAVA_LONG, 0));
+    }
+
+    @Test
+    void peaksOutliveCollection(LuaState state) {
+        assertEquals(MemorySegment.NULL, state.memoryPeaks());
+
+        state.setMemoryLimit(2, 0, 0);
+        state.setMemCat(2);
+        eval(state, FILL);
+        state.setMemCat(0);
+        state.gc(LuaGcOp.COLLECT, 0);
+
+        final long peak = state.memoryPeaks().getAtIndex(ValueLayout.JAVA_LONG, 2);
+        assertTrue(peak >= 8 * MB, "peak was " + peak);
+        assertTrue(state.totalBytes(2) < peak);
+    }
+
+    @Test
+    void invalidLimitsRejected(LuaState state) {
+        assertThrows(IllegalArgumentException.class, () -> state.setMemoryLimit(0, -1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> state.setMemoryLimit(LuaState.MEMORY_CATEGORIES, 0, 0));
+    }
+}
@@ -201,6 +201,147 @@ class TestLuaNameCall {
         }
     }
 
+    @Nested
+    class Dispatcher {
+
+        private static final int TAG = 9;
+
+        private record Counter(int[] value) {}
+
+        private static NameCallDispatcher counterDispatcher(LuaAtomTable atoms, Arena arena) {
+            return NameCallDispatcher.builder(atoms)
+                    .method("increment", s -> {
+                        final Counter counter = (Counter) s.checkUserDataTagged(1, TAG);
+                        counter.value()[0] += (int) s.optNumber(2, 1);
+                        return 0;
+                    })
+                    .method("get", s -> {
+                        s.pushInteger(((Counter) s.checkUserDataTagged(1, TAG)).value()[0]);
+                        return 1;
+                    })
+                    .build("Counter", arena);
+        }
+
+        private static void install(LuaState state, NameCallDispatcher dispatcher) {
+            state.newTable();
+            state.pushFunction(dispatcher.nameCall());
+            state.setField(-2, "__namecall");
+            state.setUserDataMetaTable(TAG);
+
+            state.newUserDataTaggedWithMetatable(new Counter(new int[1]), TAG);
+            state.setGlobal("counter");
+        }
+
+        @Test
+        void dispatchesByAtom(LuaState state, Arena arena) {
+            final LuaAtomTable atoms = LuaAtomTable.create();
+            final NameCallDispatcher dispatcher = counterDispatcher(atoms, arena);
+            state.callbacks().userAtom(atoms.userAtom(arena));
+            install(state, dispatcher);
+
+            eval(state, """
+                counter:increment()
+                counter:increment(5)
+                return counter:get()
+                """, 1);
+
+            assertEquals(6, state.toNumber(-1));
+            assertEquals(0, atoms.find("increment"));
+            assertEquals(1, atoms.find("get"));
+        }
+
+        /// Without the atom callback, names arrive as strings and take the by-name path.
+        @Test
+        void dispatchesByNameWithoutAtoms(LuaState state, Arena arena) {
+            install(state, counterDispatcher(LuaAtomTable.create(), arena));
+
+            eval(state, """
+                counter:increment(2)
+                return counter:get()
+                """, 1);
+
+            assertEquals(2, state.toNumber(-1));
+        }
+
+        /// An atom belonging to another dispatcher sharing the table is not a method here.
+        @Test
+        void missingMethodRaises(LuaState state, Arena arena) {
+            final LuaAtomTable atoms = LuaAtomTable.create();
+            atoms.atom("unrelated");
+            final NameCallDispatcher dispatcher = counterDispatcher(atoms, arena);
+            state.callbacks().userAtom(atoms.userAtom(arena));
+            install(state, dispatcher);
+
+            var err = assertThrows(LuaError.class, () -> eval(state, "counter:unrelated()"));
+            assertEquals("attempt to call missing method 'unrelated' of Counter", err.getMessage());
+            err = assertThrows(LuaError.class, () -> eval(state, "counter:nope()"));
+            assertEquals("attempt to call missing method 'nope' of Counter", err.getMessage());
+        }
+
+        /// Called as a plain function there is no method name at all.
+        @Test
+        void directCallRaises(LuaState state, Arena arena) {
+            install(state, counterDispatcher(LuaAtomTable.create(), arena));
+
+            var err = assertThrows(LuaError.class,
+                    () -> eval(state, "getmetatable(counter).__namecall(counter)"));
+            assertEquals("no method name, Counter __namecall must be called as a method", err.getMessage());
+        }
+
+        @Test
+        void fallbackSeesUnknownNames(LuaState state, Arena arena) {
+            final List<LuaString> seen = new ArrayList<>();
+            final NameCallDispatcher dispatcher = NameCallDispatcher.builder(LuaAtomTable.create())
+                    .method("known", _ -> 0)
+                    .fallback(s -> {
+                        seen.add(s.nameCallAtom());
+                        return 0;
+                    })
+                    .build("Thing", arena);
+            install(state, dispatcher);
+
+            eval(state, """
+                counter:known()
+                counter:other()
+                """);
+
+            assertEquals(List.of(new LuaString.Str("other")), seen);
+        }
+
+        @Test
+        void duplicateMethodIsRejected() {
+            final NameCallDispatcher.Builder builder = NameCallDispatcher.builder(LuaAtomTable.create())
+                    .method("a", _ -> 0);
+            assertThrows(IllegalArgumentException.class, () -> builder.method("a", _ -> 0));
+        }
+
+        @Test
+        void atomTableIsDenseAndStable() {
+            final LuaAtomTable atoms = LuaAtomTable.create();
+            assertEquals(0, atoms.atom("a"));
+            assertEquals(1, atoms.atom("b"));
+            assertEquals(0, atoms.atom("a"));
+            assertEquals(LuaState.NO_ATOM, atoms.find("c"));
+            assertEquals("b", atoms.name((short) 1));
+            assertEquals(null, atoms.name((short) 2));
+            assertEquals(2, atoms.size());
+        }
+
+        /// The callback is a native copy of the names at the time it was made.
+        @Test
+        void userAtomIsASnapshot(LuaState state, Arena arena) {
+            final LuaAtomTable atoms = LuaAtomTable.create();
+            atoms.atom("before");
+            state.callbacks().userAtom(atoms.userAtom(arena));
+            atoms.atom("after");
+
+            state.pushString("before");
+            assertEquals(0, state.toStringAtomRaw(-1));
+            state.pushString("after");
+            assertEquals(LuaState.NO_ATOM, state.toStringAtomRaw(-1));
+        }
+    }
+
     @Nested
     class OutsideNameCall {
 
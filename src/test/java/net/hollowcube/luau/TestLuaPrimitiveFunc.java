@@ -0,0 +1,96 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/// The fixed signature [LuaFunc] factories, whose arguments and results are handled by a
+/// native trampoline rather than the Java side.
+@LuaStateParam
+class TestLuaPrimitiveFunc {
+
+    private static void register(LuaState state, String name, LuaFunc func) {
+        state.pushFunction(func);
+        state.setGlobal(name);
+    }
+
+    @Test
+    void doubleUnary(LuaState state, Arena arena) {
+        register(state, "sqrt", LuaFunc.wrapDoubleUnary(Math::sqrt, "sqrt", arena));
+        eval(state, "return sqrt(16)", 1);
+
+        assertEquals(4, state.toNumber(-1));
+    }
+
+    @Test
+    void doubleBinary(LuaState state, Arena arena) {
+        register(state, "pow", LuaFunc.wrapDoubleBinary(Math::pow, "pow", arena));
+        eval(state, "return pow(2, 10), pow(2, 0.5)", 2);
+
+        assertEquals(1024, state.toNumber(-2));
+        assertEquals(Math.sqrt(2), state.toNumber(-1));
+    }
+
+    @Test
+    void intConsumerReturnsNothing(LuaState state, Arena arena) {
+        state.openLibs();
+        final List<Integer> seen = new ArrayList<>();
+        register(state, "emit", LuaFunc.wrapIntConsumer(seen::add, "emit", arena));
+        eval(state, "return select('#', emit(3)), emit(-7)", 2);
+
+        assertEquals(0, state.toNumber(-2));
+        assertEquals(List.of(3, -7), seen);
+    }
+
+    @Test
+    void longBinary(LuaState state, Arena arena) {
+        state.openLibs();
+        register(state, "mul", LuaFunc.wrapLongBinary(Math::multiplyExact, "mul", arena));
+        eval(state, "return mul(3000000000i, 3i)", 1);
+
+        assertEquals(LuaType.INTEGER, state.type(-1));
+        assertEquals(9_000_000_000L, state.toInteger64(-1));
+    }
+
+    @Test
+    void checksArguments(LuaState state, Arena arena) {
+        register(state, "sqrt", LuaFunc.wrapDoubleUnary(Math::sqrt, "sqrt", arena));
+        register(state, "add", LuaFunc.wrapLongBinary(Long::sum, "add", arena));
+
+        var err = assertThrows(LuaError.class, () -> eval(state, "sqrt('x')"));
+        assertEquals("invalid argument #1 to 'sqrt' (number expected, got string)", err.getMessage());
+        err = assertThrows(LuaError.class, () -> eval(state, "add(1i, 2)"));
+        assertEquals("invalid argument #2 to 'add' (integer expected, got number)", err.getMessage());
+    }
+
+    /// A Java exception becomes a Lua error exactly as it would from a [LuaFunc#wrap]
+    /// function, and the state is usable afterwards.
+    @Test
+    void javaExceptionBecomesLuaError(LuaState state, Arena arena) {
+        register(state, "mul", LuaFunc.wrapLongBinary(Math::multiplyExact, "mul", arena));
+
+        final var err = assertThrows(LuaError.class, () -> eval(state, "return mul(4611686018427387904i, 4i)"));
+        assertTrue(err.getMessage().startsWith("java.lang.ArithmeticException"), err.getMessage());
+
+        eval(state, "return mul(2i, 2i)", 1);
+        assertEquals(4, state.toInteger64(-1));
+    }
+
+    @Test
+    void caughtByPcall(LuaState state, Arena arena) {
+        state.openLibs();
+        register(state, "fail", LuaFunc.wrapIntConsumer(_ -> {
+            throw new IllegalStateException("nope");
+        }, "fail", arena));
+        eval(state, "local ok, err = pcall(fail, 1) return ok, err", 2);
+
+        assertEquals(false, state.toBoolean(-2));
+        assertTrue(state.toString(-1).contains("nope"), state.toString(-1));
+    }
+}
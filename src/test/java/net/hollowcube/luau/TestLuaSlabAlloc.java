@@ -0,0 +1,96 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/// States created with [LuaAlloc#slab(LuaAlloc.SlabConfig)].
+class TestLuaSlabAlloc {
+    private static final String CHURN = """
+            local sum = 0
+            for i = 1, 2000 do
+                local t = {}
+                for j = 1, 64 do t[j] = tostring(j) end
+                sum += #t
+            end
+            return sum
+            """;
+
+    private LuaState state;
+
+    @BeforeEach
+    void setup() {
+        state = LuaState.newState(LuaAlloc.slab());
+        state.openLibs();
+    }
+
+    @AfterEach
+    void tearDown() {
+        state.close();
+    }
+
+    @Test
+    void runsScripts() {
+        eval(state, CHURN, 1);
+        assertEquals(2000 * 64, state.toInteger(-1));
+    }
+
+    @Test
+    void freedBlocksAreRecycled() {
+        eval(state, CHURN, 0);
+        state.gc(LuaGcOp.COLLECT, 0);
+        eval(state, CHURN, 0);
+
+        final LuaAlloc.SlabStats stats = state.slabStats();
+        assertNotNull(stats);
+        assertTrue(stats.recycled() > 0, stats.toString());
+        assertTrue(stats.inPlace() > 0, stats.toString());
+        assertTrue(stats.liveBytes() >= state.totalBytes(0), stats.toString());
+    }
+
+    @Test
+    void oversizedBlocksUseTheSystem() {
+        state.close();
+        state = LuaState.newState(LuaAlloc.slab(new LuaAlloc.SlabConfig(1024, 0)));
+        eval(state, "local t = {} for i = 1, 100000 do t[i] = i end return #t", 1);
+        assertEquals(100000, state.toInteger(-1));
+
+        final LuaAlloc.SlabStats stats = state.slabStats();
+        assertNotNull(stats);
+        assertTrue(stats.oversized() > 0, stats.toString());
+    }
+
+    @Test
+    void worksUnderMemoryLimits() {
+        state.setMemoryLimit(1, 0, 1024 * 1024);
+        state.setMemCat(1);
+        assertThrows(LuaError.class, () -> eval(state, "local t = {} for i = 1, 1000000 do t[i] = i end"));
+        state.setMemCat(0);
+
+        // The limits wrap the slab, which is still found under them.
+        assertNotNull(state.slabStats());
+        assertDoesNotThrow(() -> eval(state, CHURN, 1));
+    }
+
+    @Test
+    void noStatsForOtherStates() {
+        final LuaState other = LuaState.newState();
+        assertNull(other.slabStats());
+        other.close();
+    }
+
+    @Test
+    void invalidConfig() {
+        assertThrows(IllegalArgumentException.class, () -> new LuaAlloc.SlabConfig(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LuaAlloc.SlabConfig(32 * 1024 * 1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LuaAlloc.SlabConfig(1024, -1));
+    }
+}
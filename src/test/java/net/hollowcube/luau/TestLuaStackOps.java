@@ -9,9 +9,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import net.hollowcube.luau.internal.vm.lua_h;
+import net.hollowcube.luau.internal.vm.luaujava_h;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -507,4 +510,145 @@ class TestLuaStackOps {
             assertEquals("nil", state.typeName(1));
         }
     }
+
+    /// Out-parameters (lengths, `isnum` flags, atoms) share one scratch segment per thread.
+    @Nested
+    class OutParameters {
+
+        /// `__tostring` runs inside the luaL_tolstring downcall and reads values of its own,
+        /// reusing the same scratch slot before the outer call reads its length back.
+        @Test
+        void reentrantUseFromMetamethod(LuaState state, Arena arena) {
+            state.newUserData(new Object());
+            state.newTable();
+            state.pushFunction(LuaFunc.wrap(s -> {
+                s.pushNumber(12345);
+                final double number = s.checkNumber(-1);
+                assertEquals("12345", s.unsafeToString(-1));
+                s.pop(1);
+                s.pushString("n=" + (int) number);
+                return 1;
+            }, "__tostring", arena));
+            state.setField(-2, "__tostring");
+            state.setMetaTable(-2);
+
+            assertEquals("n=12345", state.toStringRepr(-1));
+        }
+
+        @Test
+        void sequentialReadsDoNotInterfere(LuaState state) {
+            state.pushNumber(1.5);
+            state.pushString("hello");
+            state.pushInteger64(42);
+
+            assertEquals(1.5, state.toNumberOrNull(1));
+            assertNull(state.toNumberOrNull(3));
+            assertEquals("hello", state.unsafeToString(2));
+            assertEquals(42L, state.toInteger64OrNull(3));
+            assertNull(state.toInteger64OrNull(1));
+            assertEquals(1.5, state.checkNumber(1));
+        }
+    }
+
+    /// [StackLayout] answers these without a downcall, so each is checked against the native
+    /// API it replaces, over every positive and negative index of a mixed stack.
+    @Nested
+    class DirectReads {
+
+        private static void pushMixed(LuaState state) {
+            state.pushNil();
+            state.pushBoolean(false);
+            state.pushBoolean(true);
+            state.pushNumber(-2.5);
+            state.pushInteger64(Long.MIN_VALUE);
+            state.pushString("42");
+            state.pushString("not a number");
+            state.newTable();
+            state.newUserData(new Object());
+            state.pushLightUserData(0x1234);
+        }
+
+        private static void assertMatchesApi(LuaState state) {
+            final var L = state.L();
+            assertEquals(lua_h.lua_gettop(L), state.top());
+
+            final int top = state.top();
+            for (int i = -top; i <= top + 2; i++) {
+                if (i == 0) continue;
+                final String at = "index " + i;
+                assertEquals(LuaType.byId(lua_h.lua_type(L, i)), state.type(i), at);
+                assertEquals(lua_h.lua_toboolean(L, i) != 0, state.toBoolean(i), at);
+                assertEquals(lua_h.lua_tonumberx(L, i, MemorySegment.NULL), state.toNumber(i), at);
+                assertEquals(lua_h.lua_tointeger64(L, i, MemorySegment.NULL), state.toInteger64(i), at);
+            }
+        }
+
+        @Test
+        void enabled() {
+            assertTrue(StackLayout.ENABLED, "native layout version does not match StackLayout");
+        }
+
+        @Test
+        void matchesApi(LuaState state) {
+            assertMatchesApi(state);
+
+            pushMixed(state);
+            assertMatchesApi(state);
+        }
+
+        @Test
+        void values(LuaState state) {
+            pushMixed(state);
+
+            assertEquals(10, state.top());
+            assertTrue(state.isNil(1));
+            assertFalse(state.toBoolean(2));
+            assertTrue(state.toBoolean(3));
+            assertEquals(-2.5, state.toNumber(-7));
+            assertEquals(Long.MIN_VALUE, state.toInteger64(-6));
+            assertEquals(42, state.toNumber(6), "strings still coerce");
+            assertEquals(0, state.toNumber(7));
+            assertTrue(state.toBoolean(-1));
+            assertTrue(state.isLightUserData(-1));
+            assertTrue(state.isNone(11));
+            assertFalse(state.toBoolean(11));
+        }
+
+        /// Inside a Java callback the frame base is above the bottom of the stack, so index 1
+        /// is the first argument rather than whatever the caller has below it.
+        @Test
+        void callbackFrame(LuaState state, Arena arena) {
+            state.pushString("below");
+            state.pushFunction(LuaFunc.wrap(s -> {
+                assertEquals(2, s.top());
+                assertEquals(1.5, s.toNumber(1));
+                assertTrue(s.toBoolean(-1));
+                assertTrue(s.isBoolean(2));
+                assertTrue(s.isNone(3));
+                assertMatchesApi(s);
+                return 0;
+            }, "callbackFrame", arena));
+            state.pushNumber(1.5);
+            state.pushBoolean(true);
+            state.call(2, 0);
+
+            assertEquals(1, state.top());
+        }
+
+        /// Pseudo indices are not stack slots and still go through the API.
+        @Test
+        void pseudoIndices(LuaState state, Arena arena) {
+            assertTrue(state.isTable(LuaState.REGISTRY_INDEX));
+
+            final LuaFunc func = LuaFunc.wrap(s -> {
+                assertEquals(7, s.toNumber(LuaState.upvalueIndex(1)));
+                assertTrue(s.toBoolean(LuaState.upvalueIndex(1)));
+                assertTrue(s.isNumber(LuaState.upvalueIndex(1)));
+                return 0;
+            }, "pseudoIndices", arena);
+            state.pushNumber(7);
+            luaujava_h.luaW_pushcclosurek(state.L(), func.funcId(), func.debugNameRef(), 1, 0);
+            state.call(0, 0);
+        }
+    }
 }
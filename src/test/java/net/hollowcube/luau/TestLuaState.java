@@ -472,6 +472,26 @@ class TestLuaState {
         assertNull(state.getThreadData());
     }
 
+    @Test
+    void threadLongSlots(LuaState state) {
+        assertEquals(0, state.getThreadLong(0));
+
+        state.setThreadLong(0, 42);
+        state.setThreadLong(LuaState.THREAD_SLOTS - 1, -1);
+        assertEquals(42, state.getThreadLong(0));
+        assertEquals(-1, state.getThreadLong(LuaState.THREAD_SLOTS - 1));
+
+        // Per thread, and independent of the object.
+        final LuaState thread = state.newThread();
+        assertEquals(0, thread.getThreadLong(0));
+        state.setThreadData(new Object());
+        state.setThreadData(null);
+        assertEquals(42, state.getThreadLong(0));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> state.getThreadLong(LuaState.THREAD_SLOTS));
+        assertThrows(IndexOutOfBoundsException.class, () -> state.setThreadLong(-1, 1));
+    }
+
     @Test
     void regressionCloseWithThreadsDestroyingCallbacksEarly() {
         // Covers a regression where the JavaCallbacks instance is destroyed too early,
@@ -0,0 +1,101 @@
+package net.hollowcube.luau;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+@LuaStateParam
+class TestLuaStringCache {
+
+    @Test
+    void repeatedReadReturnsSameString(LuaState state) {
+        final LuaStringCache cache = LuaStringCache.create(16);
+        state.pushString("hello");
+
+        final String first = cache.toString(state, -1);
+        final String second = cache.toString(state, -1);
+        assertEquals("hello", first);
+        assertSame(first, second);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    void internedStringsShareEntry(LuaState state) {
+        final LuaStringCache cache = LuaStringCache.create(16);
+        state.pushString("name");
+        state.pushString("name");
+
+        assertSame(cache.toString(state, -2), cache.toString(state, -1));
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void sameBehaviorAsToString(LuaState state) {
+        final LuaStringCache cache = LuaStringCache.create(16);
+        state.pushNumber(5);
+        state.pushNil();
+        state.pushString("");
+        state.pushString("héllo wörld");
+
+        assertNull(cache.toString(state, -4), "numbers are not converted");
+        assertNull(cache.toString(state, -3));
+        assertEquals("", cache.toString(state, -2));
+        assertEquals("héllo wörld", cache.toString(state, -1));
+        assertNull(cache.toString(state, 10));
+    }
+
+    @Test
+    void longStringsAreNotCached(LuaState state) {
+        final LuaStringCache cache = LuaStringCache.create(16);
+        final String value = "x".repeat(LuaStringCacheImpl.MAX_CACHED_LENGTH + 1);
+        state.pushString(value);
+
+        final String first = cache.toString(state, -1);
+        assertEquals(value, first);
+        assertNotSame(first, cache.toString(state, -1));
+        assertEquals(0, cache.hits() + cache.misses());
+    }
+
+    @Test
+    void collectedStringsAreNeverReturned(LuaState state) {
+        // A single slot, so every string competes for it, and collected strings' addresses
+        // are likely to be reused by the next ones. Whatever ends up in the slot, each read
+        // must see its own string.
+        final LuaStringCache cache = LuaStringCache.create(1);
+        for (int i = 0; i < 200; i++) {
+            final String value = "s" + (i % 7) + "-" + (i % 3);
+            state.pushString(value);
+            assertEquals(value, cache.toString(state, -1));
+            state.pop(1);
+            if (i % 10 == 0) state.gc(LuaGcOp.COLLECT, 0);
+        }
+    }
+
+    @Test
+    void capacityRoundsUp() {
+        assertEquals(1, LuaStringCache.create(1).capacity());
+        assertEquals(8, LuaStringCache.create(5).capacity());
+        assertEquals(64, LuaStringCache.create(64).capacity());
+        assertThrows(IllegalArgumentException.class, () -> LuaStringCache.create(0));
+    }
+
+    @Test
+    void clearResets(LuaState state) {
+        final LuaStringCache cache = LuaStringCache.create(16);
+        state.pushString("a");
+        final String first = cache.toString(state, -1);
+        cache.toString(state, -1);
+
+        cache.clear();
+        assertEquals(0, cache.hits());
+        assertEquals(0, cache.misses());
+        assertEquals(0, cache.hitRate());
+        assertNotSame(first, cache.toString(state, -1));
+    }
+}
@@ -0,0 +1,155 @@
+package net.hollowcube.luau;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/// The byte oriented string overloads, which skip the `String` encode/decode and, for
+/// native memory, the copy.
+@LuaStateParam
+class TestLuaStringTransfer {
+    private static final String NON_ASCII = "héllo wörld ✓";
+    /// Larger than the per-thread scratch buffers, so it takes the allocating path.
+    private static final String LARGE = "x".repeat(StringTransfer.SCRATCH_SIZE * 3 + 7);
+
+    @Nested
+    class Push {
+
+        @Test
+        void bytes(LuaState state) {
+            state.pushString(NON_ASCII.getBytes(StandardCharsets.UTF_8));
+            assertEquals(NON_ASCII, state.toString(-1));
+        }
+
+        /// Lua strings are byte strings; neither NULs nor invalid UTF-8 are special.
+        @Test
+        void arbitraryBytes(LuaState state) {
+            final byte[] bytes = {'a', 0, (byte) 0xff, 'b'};
+            state.pushString(bytes);
+
+            assertEquals(4, state.len(-1));
+            assertArrayEquals(bytes, state.toStringBytes(-1));
+        }
+
+        @Test
+        void heapBuffer(LuaState state) {
+            final ByteBuffer buffer = ByteBuffer.wrap("..hello..".getBytes(StandardCharsets.UTF_8));
+            buffer.position(2).limit(7);
+            state.pushString(buffer);
+
+            assertEquals("hello", state.toString(-1));
+            assertEquals(2, buffer.position(), "position is left alone");
+        }
+
+        @Test
+        void directBuffer(LuaState state) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+            buffer.put("direct".getBytes(StandardCharsets.UTF_8)).flip();
+            state.pushString(buffer);
+
+            assertEquals("direct", state.toString(-1));
+        }
+
+        @Test
+        void nativeSegment(LuaState state, Arena arena) {
+            final MemorySegment segment = arena.allocateFrom("native string");
+            state.pushString(segment.asSlice(0, 6));
+
+            assertEquals("native", state.toString(-1));
+        }
+
+        @Test
+        void large(LuaState state) {
+            state.pushString(LARGE);
+            state.pushString(LARGE.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(LARGE, state.toString(-2));
+            assertTrue(state.rawEqual(-1, -2));
+        }
+
+        @Test
+        void empty(LuaState state) {
+            state.pushString(new byte[0]);
+            assertEquals("", state.toString(-1));
+        }
+    }
+
+    @Nested
+    class Read {
+
+        @Test
+        void stringBytes(LuaState state) {
+            state.pushString(NON_ASCII);
+            assertArrayEquals(NON_ASCII.getBytes(StandardCharsets.UTF_8), state.toStringBytes(-1));
+        }
+
+        /// Like toString, and unlike unsafeToString, numbers are not strings here.
+        @Test
+        void numbersAreNotConverted(LuaState state) {
+            state.pushNumber(1);
+
+            assertNull(state.toStringBytes(-1));
+            assertNull(state.toStringView(-1));
+            assertNull(state.toCharSequence(-1));
+            assertTrue(state.isNumber(-1), "the value was not converted in place");
+        }
+
+        @Test
+        void view(LuaState state) {
+            state.pushString("view");
+            final MemorySegment view = state.toStringView(-1);
+
+            assertEquals(4, view.byteSize());
+            assertEquals('v', view.get(ValueLayout.JAVA_BYTE, 0));
+            assertTrue(view.isReadOnly());
+            assertThrows(UnsupportedOperationException.class, () -> view.set(ValueLayout.JAVA_BYTE, 0, (byte) 'x'));
+        }
+
+        @Test
+        void asciiCharSequenceIsAView(LuaState state) {
+            state.pushString("hello, world");
+            final CharSequence chars = state.toCharSequence(-1);
+
+            assertInstanceOf(StringTransfer.AsciiView.class, chars);
+            assertEquals(12, chars.length());
+            assertEquals('w', chars.charAt(7));
+            assertEquals("world", chars.subSequence(7, 12).toString());
+            assertEquals("hello, world", chars.toString());
+        }
+
+        @Test
+        void nonAsciiCharSequenceIsDecoded(LuaState state) {
+            state.pushString(NON_ASCII);
+            assertEquals(NON_ASCII, state.toCharSequence(-1));
+        }
+
+        @Test
+        void large(LuaState state) {
+            state.pushString(LARGE + NON_ASCII);
+            assertEquals(LARGE + NON_ASCII, state.toString(-1));
+            assertInstanceOf(String.class, state.toCharSequence(-1));
+        }
+    }
+
+    @Test
+    void isAscii() {
+        assertTrue(StringTransfer.isAscii(MemorySegment.ofArray("0123456789abcdef!".getBytes(StandardCharsets.UTF_8))));
+        for (int i = 0; i < 17; i++) {
+            final byte[] bytes = "0123456789abcdef!".getBytes(StandardCharsets.UTF_8);
+            bytes[i] = (byte) 0x80;
+            assertFalse(StringTransfer.isAscii(MemorySegment.ofArray(bytes)), "high bit at " + i);
+        }
+    }
+}
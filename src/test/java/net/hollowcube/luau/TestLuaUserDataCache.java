@@ -0,0 +1,113 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.lang.ref.WeakReference;
+import org.junit.jupiter.api.Test;
+
+/// [LuaState#pushUserDataCached(Object, int)] hands Lua one userdata per Java object, for
+/// as long as that userdata lives.
+@LuaStateParam
+class TestLuaUserDataCache {
+    private static final int TAG = 30;
+
+    @Test
+    void sameObjectSameUserData(LuaState state) {
+        final Object value = new Object();
+        state.pushUserDataCached(value, TAG);
+        state.pushUserDataCached(value, TAG);
+
+        assertTrue(state.rawEqual(-1, -2));
+        assertSame(value, state.toUserDataTagged(-1, TAG));
+    }
+
+    @Test
+    void distinctObjectsAndTags(LuaState state) {
+        final Object value = new Object();
+        state.pushUserDataCached(value, TAG);
+        state.pushUserDataCached(new Object(), TAG);
+        assertFalse(state.rawEqual(-1, -2));
+
+        state.pushUserDataCached(value, TAG + 1);
+        assertFalse(state.rawEqual(-1, -3));
+    }
+
+    @Test
+    void usableAsTableKey(LuaState state) {
+        final Object value = new Object();
+        state.pushUserDataCached(value, TAG);
+        state.setGlobal("a");
+        state.pushUserDataCached(value, TAG);
+        state.setGlobal("b");
+
+        eval(state, "local t = {} t[a] = 1 return t[b]", 1);
+        assertEquals(1, state.toNumber(-1));
+    }
+
+    @Test
+    void hasTagMetatable(LuaState state) {
+        state.newTable();
+        state.pushString("Cached");
+        state.setField(-2, "__type");
+        state.setUserDataMetaTable(TAG);
+
+        state.pushUserDataCached(new Object(), TAG);
+        state.setGlobal("value");
+        eval(state, "return typeof(value)", 1);
+        assertEquals("Cached", state.toString(-1));
+    }
+
+    /// The cache does not keep its objects alive: once Lua lets go of the userdata, the
+    /// object is collectible and a later push creates a fresh userdata.
+    @Test
+    void entryGoesWithUserData(LuaState state) throws InterruptedException {
+        final WeakReference<Object> ref = pushOwned(state);
+        state.pop(1);
+        state.gc(LuaGcOp.COLLECT, 0);
+
+        for (int i = 0; i < 200 && !ref.refersTo(null); i++) {
+            System.gc();
+            Thread.sleep(5);
+        }
+        if (!ref.refersTo(null)) fail("cached value was still reachable");
+
+        // Releases the dead entry's weak reference, and must not find it.
+        final Object other = new Object();
+        state.pushUserDataCached(other, TAG);
+        assertSame(other, state.toUserDataTagged(-1, TAG));
+    }
+
+    /// Caching leaves the tag's destructor alone, so plain userdata of the same tag is still
+    /// released.
+    @Test
+    void sharedTagReleasesPlainUserData(LuaState state) throws InterruptedException {
+        state.pushUserDataCached(new Object(), TAG);
+        state.pop(1);
+        final WeakReference<Object> ref = pushPlain(state);
+        state.pop(1);
+        state.gc(LuaGcOp.COLLECT, 0);
+
+        for (int i = 0; i < 200 && !ref.refersTo(null); i++) {
+            System.gc();
+            Thread.sleep(5);
+        }
+        if (!ref.refersTo(null)) fail("plain value was still reachable");
+    }
+
+    private static WeakReference<Object> pushPlain(LuaState state) {
+        final Object value = new Object();
+        state.newUserDataTagged(value, TAG);
+        return new WeakReference<>(value);
+    }
+
+    private static WeakReference<Object> pushOwned(LuaState state) {
+        final Object value = new Object();
+        state.pushUserDataCached(value, TAG);
+        return new WeakReference<>(value);
+    }
+}
@@ -0,0 +1,141 @@
+package net.hollowcube.luau;
+
+import static net.hollowcube.luau.TestHelpers.eval;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import net.hollowcube.luau.util.HandleTable;
+import org.junit.jupiter.api.Test;
+
+/// Userdata whose body is a plain struct on the Lua heap rather than a handle to a Java
+/// object.
+@LuaStateParam
+class TestLuaUserDataStruct {
+    private static final int TAG = 7;
+
+    private static final StructLayout POSITION = MemoryLayout.structLayout(
+        ValueLayout.JAVA_DOUBLE.withName("x"),
+        ValueLayout.JAVA_DOUBLE.withName("y"),
+        ValueLayout.JAVA_INT.withName("world"),
+        MemoryLayout.paddingLayout(4)
+    );
+    private static final VarHandle X = POSITION.varHandle(PathElement.groupElement("x"));
+    private static final VarHandle Y = POSITION.varHandle(PathElement.groupElement("y"));
+    private static final VarHandle WORLD = POSITION.varHandle(PathElement.groupElement("world"));
+
+    @Test
+    void writeAndReadBack(LuaState state) {
+        state.registerStructTag(TAG);
+        final MemorySegment position = state.newUserDataStruct(POSITION, TAG);
+        assertEquals(POSITION.byteSize(), position.byteSize());
+        assertEquals(0.0, (double) X.get(position, 0L), "body is zero filled");
+
+        X.set(position, 0L, 1.5);
+        Y.set(position, 0L, -2.0);
+        WORLD.set(position, 0L, 3);
+
+        assertTrue(state.isUserData(-1));
+        assertEquals(TAG, state.userDataTag(-1));
+        final MemorySegment read = state.toUserDataStruct(-1, POSITION, TAG);
+        assertEquals(position.address(), read.address());
+        assertEquals(1.5, (double) X.get(read, 0L));
+        assertEquals(-2.0, (double) Y.get(read, 0L));
+        assertEquals(3, (int) WORLD.get(read, 0L));
+    }
+
+    @Test
+    void wrongTagIsNull(LuaState state) {
+        state.registerStructTag(TAG);
+        state.newUserDataStruct(POSITION, TAG);
+        assertNull(state.toUserDataStruct(-1, POSITION, TAG + 1));
+        state.pushNumber(1);
+        assertNull(state.toUserDataStruct(-1, POSITION, TAG));
+    }
+
+    @Test
+    void checkFromLua(LuaState state, Arena arena) {
+        state.registerStructTag(TAG);
+        state.pushFunction(LuaFunc.wrap(s -> {
+            final MemorySegment position = s.checkUserDataStruct(1, POSITION, TAG);
+            s.pushNumber((double) X.get(position, 0L) + (double) Y.get(position, 0L));
+            return 1;
+        }, "sum", arena));
+        state.setGlobal("sum");
+
+        final MemorySegment position = state.newUserDataStruct(POSITION, TAG);
+        X.set(position, 0L, 1.0);
+        Y.set(position, 0L, 2.0);
+        state.setGlobal("position");
+
+        eval(state, "result = sum(position)");
+        state.getGlobal("result");
+        assertEquals(3.0, state.toNumber(-1));
+
+        state.pushNumber(1);
+        state.setGlobal("position");
+        assertThrows(LuaError.class, () -> eval(state, "sum(position)"));
+    }
+
+    @Test
+    void tagMetatableIsApplied(LuaState state) {
+        state.registerStructTag(TAG);
+        state.newTable();
+        state.pushString("Position");
+        state.setField(-2, "__type");
+        state.setUserDataMetaTable(TAG);
+
+        state.newUserDataStruct(POSITION, TAG);
+        state.setGlobal("position");
+
+        eval(state, "name = typeof(position)");
+        state.getGlobal("name");
+        assertEquals("Position", state.toString(-1));
+    }
+
+    @Test
+    void collectedWithoutDestructor(LuaState state) {
+        state.registerStructTag(TAG);
+        final int handles = HandleTable.size();
+        for (int i = 0; i < 1000; i++) {
+            state.newUserDataStruct(POSITION, TAG);
+            state.pop(1);
+        }
+        state.gc(LuaGcOp.COLLECT, 0);
+        assertEquals(handles, HandleTable.size());
+    }
+
+    @Test
+    void rejectsBadTagsAndLayouts(LuaState state) {
+        assertThrows(LuaError.class, () -> state.registerStructTag(0));
+        assertThrows(LuaError.class, () -> state.registerStructTag(LuaState.USERDATA_TAG_LIMIT));
+        assertThrows(LuaError.class, () -> state.newUserDataStruct(POSITION, TAG), "not registered");
+
+        state.registerStructTag(TAG);
+        assertThrows(LuaError.class, () -> state.newUserDataStruct(POSITION, 0));
+        assertThrows(LuaError.class, () -> state.newUserDataStruct(POSITION, LuaState.USERDATA_TAG_LIMIT));
+        assertThrows(IllegalArgumentException.class,
+            () -> state.newUserDataStruct(MemoryLayout.sequenceLayout(2, ValueLayout.JAVA_LONG).withByteAlignment(16), TAG));
+    }
+
+    @Test
+    void tagKindsAreNotMixed(LuaState state) {
+        state.registerStructTag(TAG);
+        state.registerStructTag(TAG);
+        assertThrows(LuaError.class, () -> state.newUserDataTagged(new Object(), TAG));
+        assertThrows(LuaError.class, () -> state.newUserDataTaggedWithMetatable(new Object(), TAG));
+        assertThrows(LuaError.class, () -> state.pushUserDataCached(new Object(), TAG));
+
+        state.newUserDataTagged(new Object(), TAG + 1);
+        assertThrows(IllegalStateException.class, () -> state.registerStructTag(TAG + 1));
+        assertThrows(LuaError.class, () -> state.newUserDataStruct(POSITION, TAG + 1));
+    }
+}
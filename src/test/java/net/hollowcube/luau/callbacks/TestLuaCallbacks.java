@@ -18,6 +18,7 @@ import static net.hollowcube.luau.TestHelpers.eval;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /// The lua_Callbacks handlers other than preempt (see preempt/TestLuaPreempt).
@@ -297,6 +298,39 @@ class TestLuaCallbacks {
         assertEquals(LuaState.NO_ATOM, state.toStringAtomRaw(-1));
     }
 
+    @Test
+    void userAtomTableAssignsIndices(LuaState state) {
+        state.callbacks().userAtom(LuaCallbacks.UserAtom.table(List.of("x", "y", "position"), arena));
+
+        state.pushString("position");
+        assertEquals(2, state.toStringAtomRaw(-1));
+        state.pushString("x");
+        assertEquals(0, state.toStringAtomRaw(-1));
+        state.pushString("positio");
+        assertEquals(LuaState.NO_ATOM, state.toStringAtomRaw(-1));
+        state.pushString("a string longer than any atom");
+        assertEquals(LuaState.NO_ATOM, state.toStringAtomRaw(-1));
+    }
+
+    @Test
+    void userAtomTableFindsEveryName(LuaState state) {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) names.add("name" + i);
+        state.callbacks().userAtom(LuaCallbacks.UserAtom.table(names, arena));
+
+        for (int i = 0; i < names.size(); i++) {
+            state.pushString(names.get(i));
+            assertEquals(i, state.toStringAtomRaw(-1));
+            state.pop(1);
+        }
+    }
+
+    @Test
+    void userAtomTableRejectsDuplicates() {
+        assertThrows(IllegalArgumentException.class, () ->
+                LuaCallbacks.UserAtom.table(List.of("a", "b", "a"), arena));
+    }
+
     //endregion
 
     //region userThread
@@ -400,6 +434,23 @@ class TestLuaCallbacks {
         );
     }
 
+    /// Thread data is released after the handler, so it can still see what it set up.
+    @Test
+    void userThreadSeesDataOfDestroyedThread(LuaState state) {
+        final List<Object> seen = new ArrayList<>();
+        state.callbacks().userThread((parent, thread) -> {
+            if (parent == null) seen.add(thread.getThreadLong(0) + ":" + thread.getThreadData());
+        });
+
+        final LuaState thread = state.newThread();
+        thread.setThreadLong(0, 7);
+        thread.setThreadData("data");
+        state.pop(1);
+        state.gc(LuaGcOp.COLLECT, 0);
+
+        assertEquals(List.of("7:data"), seen);
+    }
+
     @Test
     void userThreadHandlerIsInvokedForNestedThreads(LuaState state) {
         final List<ThreadEvent> events = install(state, new ArrayList<>());
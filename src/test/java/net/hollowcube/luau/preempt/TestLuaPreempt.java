@@ -4,8 +4,11 @@ import net.hollowcube.luau.*;
 import org.junit.jupiter.api.Test;
 
 import java.lang.foreign.Arena;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.hollowcube.luau.TestHelpers.eval;
+import static net.hollowcube.luau.TestHelpers.load;
 import static org.junit.jupiter.api.Assertions.*;
 
 @LuaStateParam
@@ -58,4 +61,98 @@ public class TestLuaPreempt {
 
         assertEquals("Preempting with an error", thrown.getMessage());
     }
+
+    @Test
+    void testPolicyBudgetErrorsNatively(LuaState state) {
+        final var policy = state.callbacks().preemptPolicy();
+        policy.action(LuaCallbacks.PreemptPolicy.Action.ERROR);
+        policy.budget(1000);
+
+        var thrown = assertThrows(LuaError.class, () ->
+                eval(state, """
+                    while true do end
+                """));
+
+        assertTrue(thrown.getMessage().contains("script preempted: budget exhausted"), thrown.getMessage());
+    }
+
+    @Test
+    void testPolicyDeadlineYields(LuaState state) {
+        final LuaState thread = state.newThread();
+        load(thread, """
+                local i = 0
+                while true do i += 1 end
+                """);
+
+        final var policy = state.callbacks().preemptPolicy();
+        policy.deadline(Duration.ofMillis(10));
+        assertEquals(LuaStatus.YIELD, thread.resume(null, 0));
+
+        // The deadline is disarmed once it fires, so the next slice sets a new one.
+        policy.deadline(Duration.ofMillis(1));
+        assertEquals(LuaStatus.YIELD, thread.resume(null, 0));
+    }
+
+    @Test
+    void testPolicyStopFromAnotherThread(LuaState state) throws InterruptedException {
+        final var policy = state.callbacks().preemptPolicy();
+        policy.action(LuaCallbacks.PreemptPolicy.Action.ERROR);
+
+        final Thread watchdog = Thread.ofPlatform().start(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {
+            }
+            policy.stop();
+        });
+        var thrown = assertThrows(LuaError.class, () ->
+                eval(state, """
+                    while true do end
+                """));
+        watchdog.join();
+
+        assertTrue(thrown.getMessage().contains("script preempted: stopped"), thrown.getMessage());
+    }
+
+    /// With a policy, the handler is only asked once a trigger fires rather than at every
+    /// safepoint.
+    @Test
+    void testPolicyCallsHandlerWhenDue(LuaState state) {
+        final AtomicInteger calls = new AtomicInteger();
+        setupCallbacks(state, (LuaState s, int gc) -> {
+            calls.incrementAndGet();
+            return false;
+        });
+        state.callbacks().preemptPolicy().budget(50);
+
+        eval(state, """
+                local i = 0
+                while i < 1000 do
+                    i = i + 1
+                end
+            """);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testDisabledPolicyCallsHandlerEverySafepoint(LuaState state) {
+        final AtomicInteger calls = new AtomicInteger();
+        setupCallbacks(state, (LuaState s, int gc) -> {
+            calls.incrementAndGet();
+            return false;
+        });
+        final var policy = state.callbacks().preemptPolicy();
+        policy.budget(50);
+        policy.disable();
+
+        eval(state, """
+                local i = 0
+                while i < 100 do
+                    i = i + 1
+                end
+            """);
+
+        assertTrue(calls.get() >= 100, "handler called " + calls.get() + " times");
+    }
 }
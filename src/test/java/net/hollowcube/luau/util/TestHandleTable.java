@@ -0,0 +1,83 @@
+package net.hollowcube.luau.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class TestHandleTable {
+
+    @Test
+    void roundTrip() {
+        final Object value = new Object();
+        final long handle = HandleTable.newref(value);
+        assertNotEquals(0, handle);
+        assertSame(value, HandleTable.get(handle));
+        HandleTable.unref(handle);
+    }
+
+    @Test
+    void freedHandleIsRejected() {
+        final long handle = HandleTable.newref("a");
+        HandleTable.unref(handle);
+        assertThrows(IllegalStateException.class, () -> HandleTable.get(handle));
+        assertThrows(IllegalStateException.class, () -> HandleTable.unref(handle));
+    }
+
+    @Test
+    void reusedSlotHasNewGeneration() {
+        final long first = HandleTable.newref("first");
+        HandleTable.unref(first);
+        // Same thread, so same stripe, and the freed slot is at the head of its free list.
+        final long second = HandleTable.newref("second");
+
+        assertEquals((int) first, (int) second, "slot should be reused");
+        assertNotEquals(first, second);
+        assertThrows(IllegalStateException.class, () -> HandleTable.get(first));
+        assertEquals("second", HandleTable.get(second));
+        HandleTable.unref(second);
+    }
+
+    @Test
+    void garbageIsRejected() {
+        assertThrows(IllegalStateException.class, () -> HandleTable.get(0));
+        assertThrows(IllegalStateException.class, () -> HandleTable.get(0x7fff_ffff_7fff_ffffL));
+    }
+
+    @Test
+    void growsAndShrinks() {
+        final int before = HandleTable.size();
+        final List<Long> handles = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) handles.add(HandleTable.newref(i));
+        assertEquals(before + 10_000, HandleTable.size());
+
+        for (int i = 0; i < handles.size(); i++) assertEquals(i, HandleTable.get(handles.get(i)));
+        for (long handle : handles) HandleTable.unref(handle);
+        assertEquals(before, HandleTable.size());
+    }
+
+    @Test
+    void concurrentUse() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            final List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        final Object value = new Object();
+                        final long handle = HandleTable.newref(value);
+                        assertSame(value, HandleTable.get(handle));
+                        HandleTable.unref(handle);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) task.get();
+        }
+    }
+}